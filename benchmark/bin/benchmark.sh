@@ -0,0 +1,33 @@
+#!/bin/sh
+#
+# 运行JMH基准测试并将结果输出为JSON文件，便于不同版本之间对比
+#
+# 用法：benchmark.sh [结果目录] [JMH参数...]
+#   benchmark.sh                                   运行全部基准测试，结果输出到benchmark/results
+#   benchmark.sh results JvmCacheBenchmark -t 8    只运行JvmCacheBenchmark，8个线程
+#   benchmark.sh results -f 1 -wi 1 -i 3           快速运行全部基准测试
+#
+# 结果文件名为：<版本>-<时间>.json，版本优先取git提交号，否则取pom版本
+
+BASE_DIR=$(cd "$(dirname "$0")/.." && pwd)
+PROJECT_DIR=$(cd "$BASE_DIR/.." && pwd)
+JAR="$BASE_DIR/target/benchmarks.jar"
+
+RESULT_DIR="$BASE_DIR/results"
+if [ $# -gt 0 ] && [ "${1#-}" = "$1" ] && [ "${1%Benchmark*}" = "$1" ]; then
+    RESULT_DIR="$1"
+    shift
+fi
+mkdir -p "$RESULT_DIR" || exit 1
+
+# 每次都重新打包，避免源码修改后运行的仍是旧的benchmarks.jar
+(cd "$PROJECT_DIR" && mvn -B -q -pl benchmark -am package -DskipTests) || exit 1
+
+VERSION=$(cd "$PROJECT_DIR" && git rev-parse --short HEAD 2>/dev/null)
+if [ -z "$VERSION" ]; then
+    VERSION=$(sed -n 's:.*<version>\(.*\)</version>.*:\1:p' "$BASE_DIR/pom.xml" | head -1)
+fi
+RESULT_FILE="$RESULT_DIR/$VERSION-$(date +%Y%m%d%H%M%S).json"
+
+java ${JAVA_OPTS} -jar "$JAR" -rf json -rff "$RESULT_FILE" "$@" || exit 1
+echo "Benchmark result: $RESULT_FILE"
@@ -0,0 +1,99 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.react.actor.Actor;
+import cloud.apposs.react.actor.ActorLock;
+import cloud.apposs.react.actor.ActorTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步锁框架基准测试，10000把不同的ActorLock锁各执行一个任务，对比共享任务队列和分片邮箱两种模式下每个任务的耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActorBenchmark {
+    private static final int KEY_COUNT = 10000;
+
+    private static final int POOL_SIZE = 4;
+
+    private final ActorLock[] keys = new ActorLock[KEY_COUNT];
+
+    private Actor legacy;
+
+    private Actor sharded;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = Actor.createLock(i);
+        }
+        legacy = new Actor(POOL_SIZE, true, "ActorLegacy-");
+        sharded = new Actor(POOL_SIZE, true, "ActorSharded-", true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        legacy.shutdown();
+        sharded.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public void lockLegacy() throws InterruptedException {
+        doLock(legacy);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(KEY_COUNT)
+    public void lockSharded() throws InterruptedException {
+        doLock(sharded);
+    }
+
+    private void doLock(Actor actor) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(KEY_COUNT);
+        for (int i = 0; i < KEY_COUNT; i++) {
+            actor.lock(keys[i], new UnlockTask(keys[i], latch));
+        }
+        latch.await();
+    }
+
+    private static final class UnlockTask implements ActorTask {
+        private final ActorLock key;
+
+        private final CountDownLatch latch;
+
+        private UnlockTask(ActorLock key, CountDownLatch latch) {
+            this.key = key;
+            this.latch = latch;
+        }
+
+        @Override
+        public ActorLock getLockKey() {
+            return key;
+        }
+
+        @Override
+        public void run() {
+            latch.countDown();
+            key.unlock();
+        }
+    }
+}
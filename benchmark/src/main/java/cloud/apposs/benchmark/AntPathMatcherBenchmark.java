@@ -0,0 +1,47 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.util.AntPathMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 路径正则匹配基准测试，覆盖精确路径、路径变量和通配符匹配
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntPathMatcherBenchmark {
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Benchmark
+    public boolean matchLiteral() {
+        return pathMatcher.match("/api/product/list", "/api/product/list");
+    }
+
+    @Benchmark
+    public boolean matchVariable() {
+        return pathMatcher.match("/api/product/{id}/detail", "/api/product/1001/detail");
+    }
+
+    @Benchmark
+    public boolean matchWildcard() {
+        return pathMatcher.match("/api/**/*.json", "/api/product/1001/detail.json");
+    }
+
+    @Benchmark
+    public boolean mismatch() {
+        return pathMatcher.match("/api/product/{id}/detail", "/api/order/1001/list");
+    }
+}
@@ -0,0 +1,51 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.util.ExecutorMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池运行指标基准测试，统计每个任务从提交到执行完成的指标采集开销，对比默认采样率和全量采样
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutorMetricsBenchmark {
+    private static final ExecutorMetrics.Saturation SATURATION = new ExecutorMetrics.Saturation() {
+        @Override
+        public int getUsed() {
+            return 0;
+        }
+
+        @Override
+        public int getCapacity() {
+            return 1;
+        }
+    };
+
+    private final ExecutorMetrics sampled = new ExecutorMetrics(SATURATION);
+
+    private final ExecutorMetrics full = new ExecutorMetrics(SATURATION, 1);
+
+    @Benchmark
+    public void taskSampled() {
+        sampled.onTaskDone(sampled.onTaskStart(sampled.sample()));
+    }
+
+    @Benchmark
+    public void taskFull() {
+        full.onTaskDone(full.onTaskStart(full.sample()));
+    }
+}
@@ -0,0 +1,115 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.guard.Guard;
+import cloud.apposs.guard.ResourceToken;
+import cloud.apposs.guard.exception.BlockException;
+import cloud.apposs.guard.slot.ControlBehavior;
+import cloud.apposs.guard.slot.flow.rule.FlowRule;
+import cloud.apposs.guard.slot.flow.rule.FlowRuleManager;
+import cloud.apposs.guard.slot.limitkey.rule.LimitKeyRule;
+import cloud.apposs.guard.slot.limitkey.rule.LimitKeyRuleManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 资源保护入口基准测试，规则阈值足够大保证请求不会被阻断，只测试统计和规则检查本身的开销，
+ * 多线程下每次进入资源的耗时通过JMH的-t参数指定线程数测试，例如：
+ * <pre>
+ * benchmark.sh results GuardBenchmark -t 64 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GuardBenchmark {
+    private static final String FLOW_RESOURCE = "FlowResource";
+
+    private static final String FREE_RESOURCE = "FreeResource";
+
+    private static final String LIMIT_KEY_RESOURCE = "LimitKeyResource";
+
+    private static final String SKETCH_RESOURCE = "SketchResource";
+
+    private static final long LIMIT_KEY = 1001L;
+
+    /**
+     * 每次请求使用不同的关键字，模拟按用户ID、IP限流时的海量关键字
+     */
+    private final AtomicLong distinctKey = new AtomicLong();
+
+    @Setup
+    public void setup() {
+        FlowRule rule = new FlowRule();
+        rule.setThreshold(Long.MAX_VALUE);
+        rule.setResource(FLOW_RESOURCE);
+        rule.setControlBehavior(ControlBehavior.Reject);
+        FlowRuleManager.loadRule(rule);
+
+        LimitKeyRule limitKeyRule = new LimitKeyRule();
+        limitKeyRule.setThreshold(Double.MAX_VALUE);
+        limitKeyRule.setResource(LIMIT_KEY_RESOURCE);
+        LimitKeyRuleManager.loadRule(limitKeyRule);
+
+        LimitKeyRule sketchRule = new LimitKeyRule();
+        sketchRule.setThreshold(Double.MAX_VALUE);
+        sketchRule.setResource(SKETCH_RESOURCE);
+        sketchRule.setUsingSketch(true);
+        LimitKeyRuleManager.loadRule(sketchRule);
+    }
+
+    @Benchmark
+    public ResourceToken entryWithoutRule() throws BlockException {
+        ResourceToken token = Guard.entry(FREE_RESOURCE);
+        token.exit();
+        return token;
+    }
+
+    @Benchmark
+    public ResourceToken entryWithFlowRule() throws BlockException {
+        ResourceToken token = Guard.entry(FLOW_RESOURCE);
+        token.exit();
+        return token;
+    }
+
+    @Benchmark
+    public ResourceToken entryWithPrimitiveArg() throws BlockException {
+        ResourceToken token = Guard.entryLong(FLOW_RESOURCE, LIMIT_KEY);
+        token.exit();
+        return token;
+    }
+
+    @Benchmark
+    public ResourceToken entryWithLimitKeyRule() throws BlockException {
+        ResourceToken token = Guard.entryLong(LIMIT_KEY_RESOURCE, LIMIT_KEY);
+        token.exit();
+        return token;
+    }
+
+    @Benchmark
+    public ResourceToken entryWithDistinctKeys() throws BlockException {
+        ResourceToken token = Guard.entryLong(LIMIT_KEY_RESOURCE, distinctKey.incrementAndGet());
+        token.exit();
+        return token;
+    }
+
+    @Benchmark
+    public ResourceToken entryWithSketchDistinctKeys() throws BlockException {
+        ResourceToken token = Guard.entryLong(SKETCH_RESOURCE, distinctKey.incrementAndGet());
+        token.exit();
+        return token;
+    }
+}
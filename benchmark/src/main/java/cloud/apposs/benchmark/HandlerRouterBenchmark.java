@@ -0,0 +1,133 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.logger.Configuration;
+import cloud.apposs.logger.Logger;
+import cloud.apposs.react.React;
+import cloud.apposs.rest.Handler;
+import cloud.apposs.rest.HandlerRouter;
+import cloud.apposs.rest.IGuardProcess;
+import cloud.apposs.rest.IHandlerProcess;
+import cloud.apposs.rest.RestConfig;
+import cloud.apposs.rest.annotation.Request;
+import cloud.apposs.rest.parameter.Parameter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求路由匹配基准测试，分别注册若干精确路径和路径变量的Handler，
+ * 测试精确路径命中、路径变量命中和未命中时的路由开销
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandlerRouterBenchmark {
+    @Param({"100"})
+    private int handlerCount;
+
+    private HandlerRouter<String, String> router;
+
+    private IHandlerProcess<String, String> handlerProcess;
+
+    private String literalPath;
+
+    private String variablePath;
+
+    @Setup
+    public void setup() throws Exception {
+        // 路由注册时会输出日志，避免日志干扰测试结果
+        Properties properties = new Properties();
+        properties.setProperty(Configuration.Prefix.LEVEL, "WARN");
+        properties.setProperty(Configuration.Prefix.APPENDER, "console");
+        Logger.config(properties);
+
+        router = new HandlerRouter<String, String>(new RestConfig());
+        handlerProcess = new PathHandlerProcess();
+        Method method = HandlerRouterBenchmark.class.getMethod("handle");
+        Request.Method[] methods = new Request.Method[] {Request.Method.GET};
+        for (int i = 0; i < handlerCount; i++) {
+            String path = "/api/product" + i + "/list";
+            Handler handler = new Handler(HandlerRouterBenchmark.class, method, new Parameter[0]);
+            handler.setMethods(methods).setHost("*").setPath(path).setPattern(false);
+            router.addHandler(path, handler);
+            String pattern = "/api/order" + i + "/{id}";
+            handler = new Handler(HandlerRouterBenchmark.class, method, new Parameter[0]);
+            handler.setMethods(methods).setHost("*").setPath(pattern).setPattern(true);
+            router.addHandler(pattern, handler);
+        }
+        literalPath = "/api/product" + (handlerCount / 2) + "/list";
+        variablePath = "/api/order" + (handlerCount / 2) + "/1001";
+    }
+
+    @Benchmark
+    public Handler getHandlerLiteral() {
+        return router.getHandler(handlerProcess, literalPath, null);
+    }
+
+    @Benchmark
+    public Handler getHandlerVariable() {
+        return router.getHandler(handlerProcess, variablePath, null);
+    }
+
+    @Benchmark
+    public Handler getHandlerNotFound() {
+        return router.getHandler(handlerProcess, "/api/none/1001", null);
+    }
+
+    public React<String> handle() {
+        return React.just("OK");
+    }
+
+    /**
+     * 以请求参数作为请求路径的处理器
+     */
+    static class PathHandlerProcess implements IHandlerProcess<String, String> {
+        @Override
+        public String getRequestMethod(String request, String response) {
+            return "GET";
+        }
+
+        @Override
+        public String getRequestPath(String request, String response) {
+            return request;
+        }
+
+        @Override
+        public String getRequestHost(String request, String response) {
+            return "localhost";
+        }
+
+        @Override
+        public void processVariable(String request, String response, Map<String, String> variables) {
+        }
+
+        @Override
+        public void processHandler(String request, String response, Handler handler) {
+        }
+
+        @Override
+        public IGuardProcess<String, String> getGuardProcess() {
+            return null;
+        }
+
+        @Override
+        public void markAsync(String request, String response) {
+        }
+    }
+}
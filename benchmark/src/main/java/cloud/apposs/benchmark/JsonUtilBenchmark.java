@@ -0,0 +1,47 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.util.JsonUtil;
+import cloud.apposs.util.Param;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON解析与序列化基准测试
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonUtilBenchmark {
+    private static final String JSON = "{\"id\":1001,\"name\":\"MyProduct\",\"price\":99.9,\"online\":true,"
+            + "\"tags\":[\"hot\",\"new\",\"sale\"],\"owner\":{\"id\":1,\"name\":\"wayken\",\"email\":\"wayken@apposs.cloud\"}}";
+
+    private Param param;
+
+    @Setup
+    public void setup() {
+        param = JsonUtil.parseJsonParam(JSON);
+    }
+
+    @Benchmark
+    public Param parseJsonParam() {
+        return JsonUtil.parseJsonParam(JSON);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtil.toJson(param);
+    }
+}
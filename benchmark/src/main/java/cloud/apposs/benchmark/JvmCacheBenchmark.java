@@ -0,0 +1,127 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.cache.CacheConfig;
+import cloud.apposs.cache.jvm.JvmCache;
+import cloud.apposs.protobuf.ProtoBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM缓存基准测试，覆盖get/put/incr/hincrBy，多线程共享同一个缓存实例，
+ * 单独运行时依次按1、8、64个线程运行，观察热点Key竞争情况，其他JMH参数直接透传，例如：
+ * <pre>
+ * java -cp benchmarks.jar cloud.apposs.benchmark.JvmCacheBenchmark -p storage=heap
+ * </pre>
+ * 通过benchmark.sh运行时用-t参数指定线程数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JvmCacheBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 8, 64};
+
+    private static final String COUNTER_KEY = "Counter";
+
+    private static final String HASH_KEY = "HashCounter";
+
+    private static final String HASH_FIELD = "Field";
+
+    @Param({"heap", "direct"})
+    private String storage;
+
+    @Param({"10000"})
+    private int keyCount;
+
+    private JvmCache cache;
+
+    private String[] keys;
+
+    private String[] counterKeys;
+
+    private String[] hashKeys;
+
+    private ProtoBuf value;
+
+    @Setup
+    public void setup() {
+        CacheConfig config = new CacheConfig();
+        config.getJvmConfig().setStorage(storage);
+        cache = new JvmCache(config);
+        keys = new String[keyCount];
+        counterKeys = new String[keyCount];
+        hashKeys = new String[keyCount];
+        value = ProtoBuf.wrap("Hello My Product Value");
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "MyKey" + i;
+            counterKeys[i] = COUNTER_KEY + i;
+            hashKeys[i] = HASH_KEY + i;
+            cache.put(keys[i], value);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Benchmark
+    public ProtoBuf get() {
+        return cache.get(keys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public boolean put() {
+        return cache.put(keys[ThreadLocalRandom.current().nextInt(keyCount)], value);
+    }
+
+    @Benchmark
+    public long incr() {
+        return cache.incr(COUNTER_KEY);
+    }
+
+    @Benchmark
+    public long incrSpread() {
+        return cache.incr(counterKeys[ThreadLocalRandom.current().nextInt(keyCount)]);
+    }
+
+    @Benchmark
+    public long hincrBy() {
+        return cache.hincrBy(HASH_KEY, HASH_FIELD, 1);
+    }
+
+    @Benchmark
+    public long hincrBySpread() {
+        return cache.hincrBy(hashKeys[ThreadLocalRandom.current().nextInt(keyCount)], HASH_FIELD, 1);
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions options = new CommandLineOptions(args);
+        for (int threads : THREAD_COUNTS) {
+            OptionsBuilder builder = new OptionsBuilder();
+            builder.parent(options).threads(threads);
+            if (options.getIncludes().isEmpty()) {
+                builder.include(JvmCacheBenchmark.class.getSimpleName());
+            }
+            new Runner(builder.build()).run();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.logger.Configuration;
+import cloud.apposs.logger.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志输出基准测试，日志写入临时目录下的文件，
+ * 分别测试日志级别开启时的调用开销和级别关闭时被过滤掉的开销，并对比普通文件输出和滚动文件输出，
+ * 注意日志为异步输出，测试结果只反映业务线程的调用开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+    @Param({"file", "rolling"})
+    public String appender;
+
+    @Setup
+    public void setup() {
+        File file = new File(System.getProperty("java.io.tmpdir"), "benchmark.log");
+        Properties properties = new Properties();
+        properties.setProperty(Configuration.Prefix.LEVEL, "INFO");
+        properties.setProperty(Configuration.Prefix.APPENDER, appender);
+        properties.setProperty(Configuration.Prefix.FILE, file.getAbsolutePath());
+        properties.setProperty(Configuration.Prefix.FORMAT, Logger.DEFAULT_LOG_FORMAT);
+        Logger.config(properties);
+    }
+
+    @Benchmark
+    public void info() {
+        Logger.info("benchmark log message");
+    }
+
+    @Benchmark
+    public void infoWithArgs() {
+        Logger.info("benchmark log message %s %d", "args", 1001);
+    }
+
+    @Benchmark
+    public void debugFiltered() {
+        Logger.debug("benchmark log message %s %d", "args", 1001);
+    }
+}
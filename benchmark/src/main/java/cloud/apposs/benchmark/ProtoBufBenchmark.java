@@ -0,0 +1,136 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.protobuf.ProtoBuf;
+import cloud.apposs.protobuf.ProtoBufAllocator;
+import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.util.Param;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProtoBuf序列化基准测试，覆盖基础类型、对象和Param的编码与解码
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtoBufBenchmark {
+    private ProtoSchema productSchema;
+
+    private ProtoSchema paramSchema;
+
+    private Product product;
+
+    private Param param;
+
+    private byte[] productBytes;
+
+    private byte[] paramBytes;
+
+    @Setup
+    public void setup() {
+        productSchema = ProtoSchema.getSchema(Product.class);
+        paramSchema = ProtoSchema.mapSchema();
+        paramSchema.addKey("id", Integer.class);
+        paramSchema.addKey("name", String.class);
+        paramSchema.addKey("price", Double.class);
+        product = new Product(1001, "MyProduct", 99.9D);
+        param = Param.builder("id", 1001).setString("name", "MyProduct").setDouble("price", 99.9D);
+        productBytes = ProtoBuf.wrap(product, productSchema).array();
+        paramBytes = ProtoBuf.wrap(param, paramSchema).array();
+    }
+
+    @Benchmark
+    public ProtoBuf encodeLong() {
+        return ProtoBuf.allocate().putLong(Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public ProtoBuf encodeString() {
+        return ProtoBuf.allocate().putString("Hello My Product");
+    }
+
+    @Benchmark
+    public ProtoBuf encodeObject() {
+        return ProtoBuf.allocate().putObject(product, productSchema);
+    }
+
+    @Benchmark
+    public int encodeObjectPooled() {
+        ProtoBuf buffer = ProtoBufAllocator.HEAP.allocate();
+        try {
+            buffer.putObject(product, productSchema);
+            return buffer.writeIdx();
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Benchmark
+    public Product decodeObject() {
+        return ProtoBuf.wrap(productBytes).getObject(Product.class, productSchema);
+    }
+
+    @Benchmark
+    public ProtoBuf encodeParam() {
+        return ProtoBuf.allocate().putParam(param, paramSchema);
+    }
+
+    @Benchmark
+    public Param decodeParam() {
+        return ProtoBuf.wrap(paramBytes).getParam(paramSchema);
+    }
+
+    public static class Product {
+        private int id;
+
+        private String name;
+
+        private double price;
+
+        public Product() {
+        }
+
+        public Product(int id, String name, double price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public void setId(int id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package cloud.apposs.benchmark;
+
+import cloud.apposs.react.IoSubscriber;
+import cloud.apposs.react.OnSubscribeFilter;
+import cloud.apposs.react.OnSubscribeMap;
+import cloud.apposs.react.OnSubscribeMatch;
+import cloud.apposs.react.React;
+import cloud.apposs.util.Errno;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应式调用链基准测试，对比5个同步算子融合前后每个数据的处理耗时和单个数据请求的订阅耗时，以及线程池批量执行的耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReactBenchmark {
+    private static final int COUNT = 1000;
+
+    private final List<Integer> source = new ArrayList<Integer>(COUNT);
+
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        for (int i = 0; i < COUNT; i++) {
+            source.add(i);
+        }
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void chainFused(Blackhole blackhole) {
+        React.from(source)
+            .map(value -> value + 1)
+            .filter(value -> value > 0)
+            .map(value -> value * 2)
+            .match(value -> Errno.OK)
+            .map(value -> value - 1)
+            .subscribe(new BlackholeSubscriber(blackhole, null)).start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void chainUnfused(Blackhole blackhole) {
+        React<Integer> react = React.from(source);
+        react = React.create(new OnSubscribeMap<Integer, Integer>(react, value -> value + 1));
+        react = React.create(new OnSubscribeFilter<Integer>(react, value -> value > 0));
+        react = React.create(new OnSubscribeMap<Integer, Integer>(react, value -> value * 2));
+        react = React.create(new OnSubscribeMatch<Integer>(react, value -> Errno.OK));
+        react = React.create(new OnSubscribeMap<Integer, Integer>(react, value -> value - 1));
+        react.subscribe(new BlackholeSubscriber(blackhole, null)).start();
+    }
+
+    @Benchmark
+    public void singleFused(Blackhole blackhole) {
+        React.just(1)
+            .map(value -> value + 1)
+            .filter(value -> value > 0)
+            .map(value -> value * 2)
+            .match(value -> Errno.OK)
+            .map(value -> value - 1)
+            .subscribe(new BlackholeSubscriber(blackhole, null)).start();
+    }
+
+    @Benchmark
+    public void singleUnfused(Blackhole blackhole) {
+        React<Integer> react = React.just(1);
+        react = React.create(new OnSubscribeMap<Integer, Integer>(react, value -> value + 1));
+        react = React.create(new OnSubscribeFilter<Integer>(react, value -> value > 0));
+        react = React.create(new OnSubscribeMap<Integer, Integer>(react, value -> value * 2));
+        react = React.create(new OnSubscribeMatch<Integer>(react, value -> Errno.OK));
+        react = React.create(new OnSubscribeMap<Integer, Integer>(react, value -> value - 1));
+        react.subscribe(new BlackholeSubscriber(blackhole, null)).start();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public void chainExecutOn(Blackhole blackhole) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        React.from(source)
+            .map(value -> value + 1)
+            .filter(value -> value > 0)
+            .map(value -> value * 2)
+            .match(value -> Errno.OK)
+            .map(value -> value - 1)
+            .executOn(executor)
+            .subscribe(new BlackholeSubscriber(blackhole, latch)).start();
+        latch.await();
+    }
+
+    private static final class BlackholeSubscriber extends IoSubscriber<Integer> {
+        private final Blackhole blackhole;
+
+        private final CountDownLatch latch;
+
+        private BlackholeSubscriber(Blackhole blackhole, CountDownLatch latch) {
+            this.blackhole = blackhole;
+            this.latch = latch;
+        }
+
+        @Override
+        public void onNext(Integer value) {
+            blackhole.consume(value);
+        }
+
+        @Override
+        public void onCompleted() {
+            if (latch != null) {
+                latch.countDown();
+            }
+        }
+    }
+}
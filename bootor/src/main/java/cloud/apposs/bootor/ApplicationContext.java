@@ -271,6 +271,8 @@ public abstract class ApplicationContext {
         restConfig.setHttpLogEnable(config.isHttpLogEnable());
         restConfig.setHttpLogFormat(config.getHttpLogFormat());
         restConfig.setWorkerCount(config.getWorkerCount());
+        restConfig.setWorkerMode(config.getWorkerMode());
+        restConfig.setWorkerQueueCapacity(config.getWorkerQueueCapacity());
         return restConfig;
     }
 
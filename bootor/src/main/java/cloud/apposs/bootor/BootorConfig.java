@@ -9,6 +9,8 @@ import cloud.apposs.ioc.annotation.Component;
 import cloud.apposs.logger.Appender;
 import cloud.apposs.logger.Logger;
 import cloud.apposs.registry.IRegistry;
+import cloud.apposs.rest.RestConfig;
+import cloud.apposs.threadx.WorkStealingThreadPool;
 
 import java.net.InetSocketAddress;
 import java.util.List;
@@ -120,6 +122,16 @@ public class BootorConfig {
      */
     private int workerCount = Runtime.getRuntime().availableProcessors() << 1;
 
+    /**
+     * 工作线程池模式，cached、workstealing或者virtual，详见{@link RestConfig#getWorkerMode()}
+     */
+    private String workerMode = RestConfig.WORKER_MODE_CACHED;
+
+    /**
+     * 工作窃取线程池的队列容量
+     */
+    private int workerQueueCapacity = WorkStealingThreadPool.DEFAULT_QUEUE_CAPACITY;
+
     /**
      * 服务是否为只读
      */
@@ -362,6 +374,22 @@ public class BootorConfig {
         this.workerCount = workerCount;
     }
 
+    public String getWorkerMode() {
+        return workerMode;
+    }
+
+    public void setWorkerMode(String workerMode) {
+        this.workerMode = workerMode;
+    }
+
+    public int getWorkerQueueCapacity() {
+        return workerQueueCapacity;
+    }
+
+    public void setWorkerQueueCapacity(int workerQueueCapacity) {
+        this.workerQueueCapacity = workerQueueCapacity;
+    }
+
     public boolean isReadonly() {
         return readonly;
     }
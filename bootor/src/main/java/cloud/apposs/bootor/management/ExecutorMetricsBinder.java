@@ -0,0 +1,63 @@
+package cloud.apposs.bootor.management;
+
+import cloud.apposs.util.ExecutorMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 线程池运行指标绑定，将{@link ExecutorMetrics#getRegistry()}中注册的线程池指标绑定到 Micrometer，
+ * 1. 线程池可能在服务启动后才注册，每次采集前调用{@link #bindTo(MeterRegistry)}绑定新注册的线程池，已绑定的不会重复绑定
+ * 2. 指标值在采集时按名称从注册表中实时获取，线程池注销后指标值为NaN，同名线程池重新注册后指标自动指向新的线程池
+ * 3. 耗时指标均以毫秒为单位，为采样任务的统计结果
+ */
+public class ExecutorMetricsBinder implements MeterBinder {
+    private final Set<String> boundNames = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String name : ExecutorMetrics.getRegistry().keySet()) {
+            if (!boundNames.add(name)) {
+                continue;
+            }
+            Tags tags = Tags.of("name", name);
+            FunctionCounter.builder("executor.completed", this, binder -> binder.value(name, ExecutorMetrics::getCompletedCount))
+                    .tags(tags).description("The number of tasks completed by the executor").register(registry);
+            FunctionCounter.builder("executor.rejected", this, binder -> binder.value(name, ExecutorMetrics::getRejectedCount))
+                    .tags(tags).description("The number of tasks rejected by the executor").register(registry);
+            doBindGauge(registry, "executor.saturation", name, tags, ExecutorMetrics::getSaturation,
+                    "The ratio of used capacity to total capacity of the executor");
+            doBindGauge(registry, "executor.wait.time.mean", name, tags, ExecutorMetrics::getWaitTimeMean,
+                    "The mean time in milliseconds sampled tasks wait in the queue");
+            doBindGauge(registry, "executor.wait.time.p99", name, tags, ExecutorMetrics::getWaitTimeP99,
+                    "The 99th percentile time in milliseconds sampled tasks wait in the queue");
+            doBindGauge(registry, "executor.wait.time.max", name, tags, ExecutorMetrics::getWaitTimeMax,
+                    "The max time in milliseconds sampled tasks wait in the queue");
+            doBindGauge(registry, "executor.run.time.mean", name, tags, ExecutorMetrics::getRunTimeMean,
+                    "The mean time in milliseconds sampled tasks take to run");
+            doBindGauge(registry, "executor.run.time.p99", name, tags, ExecutorMetrics::getRunTimeP99,
+                    "The 99th percentile time in milliseconds sampled tasks take to run");
+            doBindGauge(registry, "executor.run.time.max", name, tags, ExecutorMetrics::getRunTimeMax,
+                    "The max time in milliseconds sampled tasks take to run");
+        }
+    }
+
+    private void doBindGauge(MeterRegistry registry, String meter, String name, Tags tags,
+                             ToDoubleFunction<ExecutorMetrics> function, String description) {
+        Gauge.builder(meter, this, binder -> binder.value(name, function))
+                .tags(tags).description(description).register(registry);
+    }
+
+    private double value(String name, ToDoubleFunction<ExecutorMetrics> function) {
+        Map<String, ExecutorMetrics> registry = ExecutorMetrics.getRegistry();
+        ExecutorMetrics metrics = registry.get(name);
+        return metrics == null ? Double.NaN : function.applyAsDouble(metrics);
+    }
+}
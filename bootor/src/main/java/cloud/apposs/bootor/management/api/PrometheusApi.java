@@ -1,5 +1,6 @@
 package cloud.apposs.bootor.management.api;
 
+import cloud.apposs.bootor.management.ExecutorMetricsBinder;
 import cloud.apposs.react.React;
 import cloud.apposs.rest.annotation.Request;
 import cloud.apposs.rest.annotation.RestAction;
@@ -27,6 +28,8 @@ import java.io.Writer;
 public class PrometheusApi {
     private final PrometheusMeterRegistry prometheusRegistry;
 
+    private final ExecutorMetricsBinder executorMetricsBinder = new ExecutorMetricsBinder();
+
     public PrometheusApi(PrometheusMeterRegistry prometheusRegistry) {
         this.prometheusRegistry = prometheusRegistry;
         // 绑定系统指标
@@ -40,11 +43,14 @@ public class PrometheusApi {
         new JvmCompilationMetrics().bindTo(prometheusRegistry);
         new JvmInfoMetrics().bindTo(prometheusRegistry);
         new UptimeMetrics().bindTo(prometheusRegistry);
+        executorMetricsBinder.bindTo(prometheusRegistry);
     }
 
     @Request.Read(value = "/prometheus", produces = TextFormat.CONTENT_TYPE_004)
     public React<String> prometheus() {
         return React.emitter(() -> {
+            // 绑定服务启动后新注册的线程池指标
+            executorMetricsBinder.bindTo(prometheusRegistry);
             Writer writer = new StringWriter();
             TextFormat.write004(writer, prometheusRegistry.getPrometheusRegistry().metricFamilySamples());
             return writer.toString();
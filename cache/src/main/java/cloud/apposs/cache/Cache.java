@@ -2,6 +2,7 @@ package cloud.apposs.cache;
 
 import cloud.apposs.protobuf.ProtoBuf;
 import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.protobuf.ProtoView;
 import cloud.apposs.util.Param;
 import cloud.apposs.util.Table;
 
@@ -146,6 +147,15 @@ public interface Cache extends Serializable, Cloneable {
      */
     Table<?> getTable(String key, ProtoSchema schema);
 
+    /**
+     * 获取缓存数据的只读字段视图，只解码需要读取的字段，不反序列化整个对象
+     *
+     * @param key    缓存Key
+     * @param schema 对象元信息
+     * @return {@link ProtoView}
+     */
+    ProtoView getView(String key, ProtoSchema schema);
+
     /**
      * 批量获取缓存数据，像Redis底层直接用pipeline批量添加并只发送请求，提升性能，
      * 注意：因为是批量获取，所以返回的数组如果KEY集合中某个KEY不存在则返回的List集合中该元素为null，需要业务自己判断集合里面的元素是否有null
@@ -508,6 +518,16 @@ public interface Cache extends Serializable, Cloneable {
      */
     Table<?> hgetTable(String key, String field, ProtoSchema schema);
 
+    /**
+     * 获取缓存数据的只读字段视图，只解码需要读取的字段，不反序列化整个对象
+     *
+     * @param key    缓存Key
+     * @param field  缓存二级Key
+     * @param schema 对象元信息
+     * @return {@link ProtoView}
+     */
+    ProtoView hgetView(String key, String field, ProtoSchema schema);
+
     /**
      * 获取指定Key下所有的原始二级缓存数据，即Key->List(Field->Value)模式，
      * 注意如果Key下的Map数据比较多的话也有OOM风险，建议业务方拆分成范围再存储
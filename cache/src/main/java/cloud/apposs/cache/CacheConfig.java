@@ -1,6 +1,7 @@
 package cloud.apposs.cache;
 
 import cloud.apposs.cache.jvm.CacheEvictionPolicyStrategy;
+import cloud.apposs.cache.jvm.SlabAllocator;
 
 import java.nio.charset.Charset;
 import java.util.LinkedList;
@@ -77,6 +78,19 @@ public class CacheConfig {
      * JVM缓存相关配置
      */
     public static class JvmConfig {
+        /**
+         * 缓存数据存储在堆内
+         */
+        public static final String STORAGE_HEAP = "heap";
+        /**
+         * 缓存数据存储在堆外直接内存中
+         */
+        public static final String STORAGE_DIRECT = "direct";
+        /**
+         * 缓存数据存储在文件内存映射中
+         */
+        public static final String STORAGE_MAPPED = "mapped";
+
         /**
          * 缓存过期时间，单位毫秒，小于等于0为永不过期，默认为1小时
          */
@@ -95,9 +109,9 @@ public class CacheConfig {
         private int expirationTimeRandomMax = 60 * 60 * 1000;
 
         /**
-         * 缓存过期定期检查间隔时间，默认为1分钟
+         * 缓存过期时间轮推进间隔时间，即缓存过期删除的最大延迟，默认为1秒
          */
-        private int expireCheckInterval = 60 * 1000;
+        private int expireCheckInterval = 1000;
 
         /**
          * 最多可以存放的缓存的条数，超过上限则会触发回收策略，-1为无限
@@ -119,6 +133,23 @@ public class CacheConfig {
          */
         private String evictionPolicy = CacheEvictionPolicyStrategy.CACHE_POLICY_LRU;
 
+        /**
+         * 一级缓存数据的存储方式，可以为heap/direct/mapped，
+         * 堆外存储时数据按大小分配到Slab内存块中，堆内只保留Key和内存块地址，减少GC压力，
+         * 同时maxMemory按Slab内存块的真实占用来限制
+         */
+        private String storage = STORAGE_HEAP;
+
+        /**
+         * 堆外存储的Slab页大小，也是堆外可以存储的最大数据长度，超过该长度的数据仍存储在堆内
+         */
+        private int slabPageSize = SlabAllocator.DEFAULT_PAGE_SIZE;
+
+        /**
+         * 文件内存映射存储时的映射文件路径
+         */
+        private String slabFile;
+
         public int getExpirationTime() {
             return expirationTime;
         }
@@ -183,6 +214,30 @@ public class CacheConfig {
             this.maxMemory = maxMemory;
         }
 
+        public String getStorage() {
+            return storage;
+        }
+
+        public void setStorage(String storage) {
+            this.storage = storage;
+        }
+
+        public int getSlabPageSize() {
+            return slabPageSize;
+        }
+
+        public void setSlabPageSize(int slabPageSize) {
+            this.slabPageSize = slabPageSize;
+        }
+
+        public String getSlabFile() {
+            return slabFile;
+        }
+
+        public void setSlabFile(String slabFile) {
+            this.slabFile = slabFile;
+        }
+
         public int getConcurrencyLevel() {
             return concurrencyLevel;
         }
@@ -4,6 +4,7 @@ import cloud.apposs.cache.jvm.JvmCache;
 import cloud.apposs.cache.redis.RedisCache;
 import cloud.apposs.protobuf.ProtoBuf;
 import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.protobuf.ProtoView;
 import cloud.apposs.util.Param;
 import cloud.apposs.util.Table;
 
@@ -118,6 +119,10 @@ public final class CacheManager {
         return cache.getTable(key, schema);
     }
 
+    public ProtoView getView(String key, ProtoSchema schema) {
+        return cache.getView(key, schema);
+    }
+
     public List<ProtoBuf> getBufferList(List<String> keys) {
         return cache.getBufferList(keys);
     }
@@ -258,6 +263,10 @@ public final class CacheManager {
         return cache.hgetTable(key, field, schema);
     }
 
+    public ProtoView hgetView(String key, String field, ProtoSchema schema) {
+        return cache.hgetView(key, field, schema);
+    }
+
     public Map<String, ProtoBuf> hgetBufferMap(String key) {
         return cache.hgetBufferMap(key);
     }
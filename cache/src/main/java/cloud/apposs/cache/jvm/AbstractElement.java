@@ -23,8 +23,24 @@ public abstract class AbstractElement implements Element {
     /** 缓存过期时间，单位毫秒，小于等于0为永为过期 */
 	protected int expirationTime = -1;
 	
-	/** 缓存数据字节大小，为大概值 */
-	protected int byteSize = 0;
+	/** 缓存数据字节大小，为大概值，二级缓存添加字段时会并发累加 */
+	protected volatile int byteSize = 0;
+
+	/** 在回收采样索引中的槽位，由{@link JvmCacheSampler}通过CAS占用槽位后维护，-1为不在索引中 */
+	transient int sampleIndex = -1;
+
+	/** 进入准入窗口的序号，由{@link CacheAdmissionPolicy}维护 */
+	transient long admissionOrder = 0L;
+
+	/** 过期时间轮中的链表指针及位置，由{@link JvmCacheTimerWheel}在推进时维护，wheelLevel为-1时不在时间轮中 */
+	transient AbstractElement wheelPrev;
+	transient AbstractElement wheelNext;
+	transient long wheelDeadline;
+	transient int wheelLevel = -1;
+	transient int wheelIndex;
+
+	/** 节点已经从缓存中移除，不再放入过期时间轮 */
+	transient volatile boolean wheelRetired = false;
 
 	public AbstractElement(String key, Object value) {
 		if (StrUtil.isEmpty(key)) {
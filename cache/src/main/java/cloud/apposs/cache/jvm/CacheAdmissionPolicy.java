@@ -0,0 +1,48 @@
+package cloud.apposs.cache.jvm;
+
+/**
+ * 缓存准入策略服务，与{@link CacheEvictionPolicy}配合使用，
+ * 通过记录所有Key（包括已经不在缓存中的Key）的访问频率来决定新缓存能否替换已有缓存，
+ * 避免只访问一次的冷数据把热点数据挤出缓存
+ */
+public interface CacheAdmissionPolicy {
+    /**
+     * 记录Key的一次访问，包括命中和添加，未命中的读取不计入，
+     * 添加时先经过{@link #admit(Element, Element)}判断再记录，只出现过一次的Key因此无法替换已有缓存
+     *
+     * @param key 缓存Key
+     */
+    void recordAccess(String key);
+
+    /**
+     * 记录新缓存进入准入窗口
+     *
+     * @param element 新添加的缓存数据
+     */
+    void recordAdmission(Element element);
+
+    /**
+     * 判断缓存是否仍处于准入窗口中，窗口中的新缓存暂不参与回收，给其积累访问频率的机会
+     *
+     * @param  element   缓存数据
+     * @param  cacheSize 当前缓存条数，窗口大小按缓存条数的比例计算
+     * @return 处于准入窗口中返回true
+     */
+    boolean isAdmitting(Element element, int cacheSize);
+
+    /**
+     * 缓存已满时判断新缓存能否替换回收策略选出的缓存
+     *
+     * @param  candidate 新添加的缓存数据
+     * @param  victim    回收策略选出的缓存数据
+     * @return 新缓存的访问频率高于被选出的缓存时返回true，否则新缓存不进入缓存，被选出的缓存保留
+     */
+    boolean admit(Element candidate, Element victim);
+
+    /**
+     * 按缓存条数调整频率统计器的容量
+     *
+     * @param cacheSize 当前或者配置的最大缓存条数
+     */
+    void ensureCapacity(int cacheSize);
+}
@@ -9,7 +9,7 @@ public interface CacheEvictionPolicy {
 	/**
 	 * 获取策略名称
 	 * 
-     * @return LRU, LFU
+     * @return LRU, LFU, TINYLFU
      */
     String getName();
     
@@ -8,6 +8,7 @@ import cloud.apposs.util.StrUtil;
 public class CacheEvictionPolicyStrategy {
 	public static final String CACHE_POLICY_LRU = "LRU";
 	public static final String CACHE_POLICY_LFU = "LFU";
+	public static final String CACHE_POLICY_TINYLFU = "TINYLFU";
 	
 	public static CacheEvictionPolicy getCachePolicy(String policy) {
 		if (StrUtil.isEmpty(policy)) {
@@ -19,6 +20,8 @@ public class CacheEvictionPolicyStrategy {
 			return new LruEvictionPolicy();
 		} else if (CACHE_POLICY_LFU.equals(policy)) {
 			return new LfuEvictionPolicy();
+		} else if (CACHE_POLICY_TINYLFU.equals(policy)) {
+			return new TinyLfuEvictionPolicy();
 		}
 		
 		return null;
@@ -35,6 +35,13 @@ public class Element0 extends AbstractElement {
         return ProtoBuf.wrap(value);
     }
 
+    /**
+     * 获取缓存的原始字节数据，调用方不能修改返回的字节数据
+     */
+    public byte[] getBytes() {
+        return (byte[]) getValue(true);
+    }
+
     @Override
     public int doCalculateByteSize() {
         Object value = getValue(true);
@@ -8,6 +8,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * 二级缓存节点，存储结构为Key->Key->Value
@@ -34,12 +36,18 @@ public class Element1 extends AbstractElement {
 
     private static final long serialVersionUID = -8067453840446587213L;
 
+    /**
+     * 多个线程可能同时添加不同字段，字节大小需要原子累加
+     */
+    private static final AtomicIntegerFieldUpdater<AbstractElement> BYTE_SIZE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(AbstractElement.class, "byteSize");
+
     /**
      * 缓存数据
      */
-    protected final Map<String, byte[]> value;
+    protected final ConcurrentMap<String, byte[]> value;
 
-    public Element1(String key, Map<String, byte[]> value) {
+    public Element1(String key, ConcurrentMap<String, byte[]> value) {
         super(key, value);
         this.value = value;
     }
@@ -71,11 +79,61 @@ public class Element1 extends AbstractElement {
     }
 
     protected boolean doPut(String field, ProtoBuf value, int byteSize) {
-        this.byteSize += byteSize;
+        BYTE_SIZE_UPDATER.addAndGet(this, byteSize);
         this.value.put(field, value.array());
         return true;
     }
 
+    /**
+     * 获取哈希字段的原始字节数据
+     */
+    public byte[] getBytes(String field) {
+        return value.get(field);
+    }
+
+    /**
+     * 获取哈希字段的原始字节数据，调用方不能修改返回的字节数据
+     */
+    public byte[] getBytes(String field, boolean update) {
+        if (update) {
+            doUpdateStatus();
+        }
+        return value.get(field);
+    }
+
+    /**
+     * 获取单个哈希字段数据，只复制该字段的字节
+     */
+    public ProtoBuf getBuf(String field) {
+        byte[] bytes = getBytes(field, true);
+        if (bytes == null) {
+            return null;
+        }
+        return ProtoBuf.wrap(bytes);
+    }
+
+    /**
+     * 哈希字段不存在时才添加
+     *
+     * @return 添加成功返回true
+     */
+    protected boolean doPutIfAbsent(String field, ProtoBuf value, int byteSize) {
+        if (this.value.putIfAbsent(field, value.array()) != null) {
+            return false;
+        }
+        BYTE_SIZE_UPDATER.addAndGet(this, byteSize);
+        return true;
+    }
+
+    /**
+     * CAS替换哈希字段数据，只有字段当前数据仍为expect时才替换
+     *
+     * @return 替换成功返回true
+     */
+    protected boolean doReplace(String field, byte[] expect, ProtoBuf update) {
+        return value.replace(field, expect, update.array());
+    }
+
     @Override
     public int doCalculateByteSize() {
         return ELEMENT_SIZE;
@@ -0,0 +1,139 @@
+package cloud.apposs.cache.jvm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于Count-Min Sketch的访问频率统计器，服务于TinyLFU缓存准入策略，
+ * 每个Key在4个哈希位置上各维护一个4位计数器（最大值15），估算频率取4个计数器中的最小值，
+ * 每64位long存储16个计数器，内存占用固定，与缓存Key的数量无关，
+ * 当累计访问次数达到容量的10倍时将所有计数器减半（老化），让过去的热点数据逐渐冷却，
+ * 计数器更新不用锁，允许并发下有数据误差，累计访问次数为原子计数，保证老化只由一个线程按时触发
+ */
+public class FrequencySketch {
+    /**
+     * 计数器最大容量，避免配置过大时占用过多内存
+     */
+    public static final int MAX_CAPACITY = 1 << 24;
+
+    private static final long[] SEED = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final int SAMPLE_FACTOR = 10;
+
+    private volatile long[] table;
+
+    /**
+     * 累计访问次数，达到采样上限时触发老化
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    private volatile int sampleSize;
+
+    public FrequencySketch(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+    /**
+     * 按缓存容量调整计数器大小，只扩不缩，扩容后原有频率数据会清空
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity");
+        }
+        int maximum = Math.min(capacity, MAX_CAPACITY);
+        long[] current = table;
+        if (current != null && current.length >= maximum) {
+            return;
+        }
+        synchronized (this) {
+            current = table;
+            if (current != null && current.length >= maximum) {
+                return;
+            }
+            int length = 1;
+            while (length < maximum) {
+                length <<= 1;
+            }
+            this.sampleSize = (int) Math.min((long) length * SAMPLE_FACTOR, Integer.MAX_VALUE);
+            this.size.set(0);
+            this.table = new long[length];
+        }
+    }
+
+    /**
+     * 获取Key的估算访问频率，范围为0~15
+     */
+    public int frequency(Object key) {
+        long[] table = this.table;
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i, table.length - 1);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * 递增Key的访问频率，计数器已达到上限时不再递增
+     */
+    public void increment(Object key) {
+        long[] table = this.table;
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i, table.length - 1);
+            added |= incrementAt(table, index, start + i);
+        }
+        if (added && size.incrementAndGet() >= sampleSize) {
+            reset(table);
+        }
+    }
+
+    /**
+     * 计数器老化，所有计数器减半，老化很少触发，加锁保证并发下只老化一次
+     */
+    private synchronized void reset(long[] table) {
+        if (table != this.table || size.get() < sampleSize) {
+            return;
+        }
+        int count = 0;
+        for (int i = 0; i < table.length; i++) {
+            count += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        int current;
+        int next;
+        do {
+            current = size.get();
+            next = Math.max(0, (current >>> 1) - (count >>> 2));
+        } while (!size.compareAndSet(current, next));
+    }
+
+    private boolean incrementAt(long[] table, int index, int counter) {
+        int offset = counter << 2;
+        long mask = (0xfL << offset);
+        if ((table[index] & mask) != mask) {
+            table[index] += (1L << offset);
+            return true;
+        }
+        return false;
+    }
+
+    private int indexOf(int item, int i, int mask) {
+        long hash = (item + SEED[i]) * SEED[i];
+        hash += (hash >>> 32);
+        return ((int) hash) & mask;
+    }
+
+    private int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
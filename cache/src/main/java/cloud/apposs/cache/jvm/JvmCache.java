@@ -5,12 +5,16 @@ import cloud.apposs.cache.CacheConfig;
 import cloud.apposs.cache.CacheConfig.JvmConfig;
 import cloud.apposs.cache.CacheStatistics;
 import cloud.apposs.protobuf.ProtoBuf;
+import cloud.apposs.protobuf.ProtoBufAllocator;
 import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.protobuf.ProtoView;
 import cloud.apposs.util.CacheLock;
 import cloud.apposs.util.Param;
 import cloud.apposs.util.StrUtil;
 import cloud.apposs.util.Table;
 
+import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.*;
 import java.util.Map.Entry;
@@ -29,6 +33,10 @@ public class JvmCache implements Cache {
     private static final int DEFAULT_SAMPLE_SIZE = 30;
     private static final int MAX_EVICTION_RATIO = 5;
 
+    private static final int EVICT_SUCCESS = 0;
+    private static final int EVICT_NONE = 1;
+    private static final int EVICT_REJECTED = 2;
+
     public static final int DEFAULT_LOCK_LENGTH = 4096;
 
     /**
@@ -62,6 +70,31 @@ public class JvmCache implements Cache {
      */
     private final CacheEvictionPolicy policy;
 
+    /**
+     * 缓存准入策略，只有TinyLFU等基于访问频率的策略才有，其他策略为null
+     */
+    private final CacheAdmissionPolicy admission;
+
+    /**
+     * 缓存回收采样索引，保证回收策略是在全部缓存中等概率采样
+     */
+    private final JvmCacheSampler sampler;
+
+    /**
+     * 缓存过期时间轮，过期处理只与即将过期的缓存数量相关
+     */
+    private final JvmCacheTimerWheel timerWheel;
+
+    /**
+     * 堆外存储的Slab内存分配器，堆内存储时为null
+     */
+    private final SlabAllocator slabs;
+
+    /**
+     * 序列化临时缓冲分配器，缓存数据序列化时借用，存储完毕后归还
+     */
+    private final ProtoBufAllocator bufferAllocator;
+
     /**
      * 缓存占用内存大小，单位字节(Byte)
      */
@@ -92,6 +125,7 @@ public class JvmCache implements Cache {
                 DEFAULT_INITIAL_CAPACITY, DEFAULT_LOAD_FACTOR, concurrencyLevel);
         String evitionPolicy = jvmConfig.getEvictionPolicy();
         this.policy = CacheEvictionPolicyStrategy.getCachePolicy(evitionPolicy);
+        this.admission = policy instanceof CacheAdmissionPolicy ? (CacheAdmissionPolicy) policy : null;
         // 初始化缓存回收服务
         int maxElements = jvmConfig.getMaxElements();
         long maxMemory = jvmConfig.getMaxMemory();
@@ -103,6 +137,25 @@ public class JvmCache implements Cache {
         } else if (maxMemory > 0) {
             cacheEvitor = new MaxMemoryEvictor();
         }
+        this.sampler = new JvmCacheSampler();
+        this.timerWheel = new JvmCacheTimerWheel();
+        this.bufferAllocator = config.isDirectBuffer() ? ProtoBufAllocator.DIRECT : ProtoBufAllocator.HEAP;
+        // 初始化堆外存储
+        String storage = jvmConfig.getStorage();
+        if (JvmConfig.STORAGE_DIRECT.equalsIgnoreCase(storage)) {
+            this.slabs = new SlabAllocator(jvmConfig.getSlabPageSize(), maxMemory);
+        } else if (JvmConfig.STORAGE_MAPPED.equalsIgnoreCase(storage)) {
+            String slabFile = jvmConfig.getSlabFile();
+            if (StrUtil.isEmpty(slabFile)) {
+                throw new IllegalArgumentException("Cache 'SlabFile' is required for mapped storage");
+            }
+            this.slabs = new SlabAllocator(jvmConfig.getSlabPageSize(), maxMemory, new File(slabFile));
+        } else {
+            this.slabs = null;
+        }
+        if (admission != null && maxElements > 0) {
+            admission.ensureCapacity(maxElements);
+        }
         // 初始化锁服务
         lock = new CacheLock(DEFAULT_LOCK_LENGTH);
         // 启动缓存过期监听服务
@@ -119,6 +172,10 @@ public class JvmCache implements Cache {
         return cache1;
     }
 
+    public JvmCacheTimerWheel getTimerWheel() {
+        return timerWheel;
+    }
+
     public void addListener(JvmCacheListener listener) {
         listeners.add(listener);
     }
@@ -147,6 +204,13 @@ public class JvmCache implements Cache {
         return byteSize.get();
     }
 
+    /**
+     * 获取堆外存储已使用的内存块字节数，堆内存储时返回0
+     */
+    public long getSlabUsedBytes() {
+        return slabs != null ? slabs.getUsedBytes() : 0L;
+    }
+
     @Override
     public boolean exists(String key) {
         Element0 element = cache0.get(key);
@@ -162,12 +226,20 @@ public class JvmCache implements Cache {
 
     @Override
     public int expire(String key, int expirationTime) {
-        if (cache0.containsKey(key)) {
-            return cache0.get(key).setExpirationTime(expirationTime);
-        } else if (cache1.containsKey(key)) {
-            return cache1.get(key).setExpirationTime(expirationTime);
+        AbstractElement element = cache0.get(key);
+        if (element == null) {
+            element = cache1.get(key);
+        }
+        if (element == null) {
+            return -1;
+        }
+        int expire = element.setExpirationTime(expirationTime);
+        timerWheel.schedule(element);
+        // 设置期间缓存可能已经被并发删除或者覆盖，此时设置无效
+        if (cache0.get(key) != element && cache1.get(key) != element) {
+            return -1;
         }
-        return -1;
+        return expire;
     }
 
     public CacheEvictionPolicy getPolicy() {
@@ -176,22 +248,10 @@ public class JvmCache implements Cache {
 
     @Override
     public ProtoBuf get(String key) {
-        if (key == null) {
-            return null;
-        }
-
-        Element0 element = cache0.get(key);
+        Element0 element = doGetElement0(key);
         if (element == null) {
-            statistics.addMissCount();
-            return null;
-        }
-
-        // 惰性检查缓存是否已经过期了
-        if (element.isExpired()) {
-            removeExpired(element);
             return null;
         }
-        statistics.addHitCount();
         return element.getBuf();
     }
 
@@ -332,6 +392,22 @@ public class JvmCache implements Cache {
         return value;
     }
 
+    /**
+     * 获取缓存数据的只读字段视图，堆内存储时视图直接引用缓存字节，不复制数据
+     */
+    @Override
+    public ProtoView getView(String key, ProtoSchema schema) {
+        Element0 element = doGetElement0(key);
+        if (element == null) {
+            return null;
+        }
+        byte[] value = element.getBytes();
+        if (value == null) {
+            return null;
+        }
+        return ProtoView.wrap(value, schema);
+    }
+
     @Override
     public List<String> getStringList(List<String> keys) {
         if (keys == null) {
@@ -369,30 +445,54 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        if (compact) {
-            value.compact();
+        Element0 element = null;
+        if (slabs != null && value.readableBytes() <= slabs.getMaxChunkSize()) {
+            // 堆外存储直接从ProtoBuf复制数据到内存块中，无需压缩
+            element = doCreateSlabElement(key, value);
+            if (element == null) {
+                return false;
+            }
+        } else {
+            if (compact) {
+                value.compact();
+            }
+            // 缓存节点存储的是复制出来的字节数据，池化的缓冲存储后可以直接归还
+            element = new Element0(key, value);
         }
-        Element0 element = new Element0(key, value);
         int elementByteSize = element.getByteSize();
-        // 检查是否超过缓存配置上限，超过则触发回收策略
+        // 检查是否超过缓存配置上限，超过则触发回收策略，已满时新Key需要通过准入策略才能替换已有缓存
+        boolean admitted = true;
         if (cacheEvitor != null) {
-            cacheEvitor.checkOverLimit(element, elementByteSize);
+            boolean candidate = admission != null && !cache0.containsKey(key);
+            admitted = cacheEvitor.checkOverLimit(element, elementByteSize, candidate);
+        }
+        if (admission != null) {
+            // 先判断准入再统计本次写入，首次写入的Key频率为0，无法替换已有缓存
+            admission.recordAccess(key);
+        }
+        if (!admitted) {
+            // 新缓存访问频率不足，直接回收新缓存，缓存并未添加
+            if (element instanceof SlabElement0) {
+                ((SlabElement0) element).release();
+            }
+            listeners.fireCacheEvicted(key, element);
+            return false;
+        }
+        if (admission != null) {
+            admission.recordAdmission(element);
         }
         // 触发监听服务
         listeners.fireCachePut(key, element);
         // 递增统计缓存内存占用
         doAddByteSize(elementByteSize);
         // 设置过期时间
-        JvmConfig jvmConfig = config.getJvmConfig();
-        int expirationTime = jvmConfig.getExpirationTime();
-        if (jvmConfig.isExpirationTimeRandom()) {
-            // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-            int timeMin = jvmConfig.getExpirationTimeRandomMin();
-            int timeMax = jvmConfig.getExpirationTimeRandomMax();
-            expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
+        element.setExpirationTime(doGetExpirationTime());
+        doAddIndex(element);
+        Element0 oldElement = cache0.put(key, element);
+        if (oldElement != null && doRemoveIndex(oldElement)) {
+            // 覆盖原有缓存，原有缓存的内存占用需要扣除
+            doDeductByteSize(oldElement.getByteSize());
         }
-        element.setExpirationTime(expirationTime);
-        cache0.put(key, element);
         return true;
     }
 
@@ -402,51 +502,80 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putString(value);
-        return put(key, buffer, true);
+        // 池化的缓冲使用完立即归还，缓存节点只复制可读字节，压缩反而会额外分配新的缓冲
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putString(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
     public boolean put(String key, int value) {
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putInt(value);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putInt(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
     public boolean put(String key, boolean value) {
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putBoolean(value);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putBoolean(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
     public boolean put(String key, long value) {
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putLong(value);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putLong(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
     public boolean put(String key, short value) {
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putShort(value);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putShort(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
     public boolean put(String key, double value) {
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putDouble(value);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putDouble(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
     public boolean put(String key, float value) {
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putFloat(value);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putFloat(value);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -465,9 +594,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putObject(value, schema);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putObject(value, schema);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -476,9 +609,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putMap(value, schema);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putMap(value, schema);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -487,9 +624,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putList(value, schema);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putList(value, schema);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -498,9 +639,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putParam(value, schema);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putParam(value, schema);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -509,9 +654,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putTable(value, schema);
-        return put(key, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putTable(value, schema);
+            return put(key, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     /**
@@ -531,9 +680,13 @@ public class JvmCache implements Cache {
         while(keyIterator.hasNext()) {
             String key = keyIterator.next();
             String value = valueIterator.next();
-            ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-            buffer.putString(value);
-            put(key, buffer, true);
+            ProtoBuf buffer = bufferAllocator.allocate();
+            try {
+                buffer.putString(value);
+                put(key, buffer, false);
+            } finally {
+                buffer.release();
+            }
         }
         return true;
     }
@@ -558,137 +711,37 @@ public class JvmCache implements Cache {
 
     @Override
     public long incr(String key) {
-        // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-        try {
-            lock.writeLock(key.hashCode());
-            if (!cache0.containsKey(key)) {
-                AtomicLong value = new AtomicLong(0L);
-                Element0 element = new Element0(key, value);
-                // 设置过期时间
-                JvmConfig jvmConfig = config.getJvmConfig();
-                int expirationTime = jvmConfig.getExpirationTime();
-                if (jvmConfig.isExpirationTimeRandom()) {
-                    // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-                    int timeMin = jvmConfig.getExpirationTimeRandomMin();
-                    int timeMax = jvmConfig.getExpirationTimeRandomMax();
-                    expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
-                }
-                element.setExpirationTime(expirationTime);
-                cache0.put(key, element);
-            }
-            Element0 element = cache0.get(key);
-            AtomicLong value = (AtomicLong) element.getValue();
-            return value.incrementAndGet();
-        } finally {
-            lock.writeUnlock(key.hashCode());
-        }
+        return incrBy(key, 1L);
     }
 
     @Override
     public long incrBy(String key, long value) {
-        // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-        try {
-            lock.writeLock(key.hashCode());
-            if (!cache0.containsKey(key)) {
-                AtomicLong newValue = new AtomicLong(0L);
-                Element0 element = new Element0(key, newValue);
-                // 设置过期时间
-                JvmConfig jvmConfig = config.getJvmConfig();
-                int expirationTime = jvmConfig.getExpirationTime();
-                if (jvmConfig.isExpirationTimeRandom()) {
-                    // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-                    int timeMin = jvmConfig.getExpirationTimeRandomMin();
-                    int timeMax = jvmConfig.getExpirationTimeRandomMax();
-                    expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
-                }
-                element.setExpirationTime(expirationTime);
-                cache0.put(key, element);
-            }
-            Element0 element = cache0.get(key);
-            AtomicLong newValue = (AtomicLong) element.getValue();
-            return newValue.addAndGet(value);
-        } finally {
-            lock.writeUnlock(key.hashCode());
-        }
+        // 只有首次创建计数器时才需要加锁，之后的递增均为CAS原子操作
+        AtomicLong counter = (AtomicLong) doGetOrCreateCounter(key).getValue();
+        return counter.addAndGet(value);
     }
 
     @Override
     public long decr(String key) {
-        // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-        try {
-            lock.writeLock(key.hashCode());
-            if (!cache0.containsKey(key)) {
-                AtomicLong atomicLong = new AtomicLong(0L);
-                Element0 element = new Element0(key, atomicLong);
-                // 设置过期时间
-                JvmConfig jvmConfig = config.getJvmConfig();
-                int expirationTime = jvmConfig.getExpirationTime();
-                if (jvmConfig.isExpirationTimeRandom()) {
-                    // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-                    int timeMin = jvmConfig.getExpirationTimeRandomMin();
-                    int timeMax = jvmConfig.getExpirationTimeRandomMax();
-                    expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
-                }
-                element.setExpirationTime(expirationTime);
-                cache0.put(key, element);
-            }
-            Element0 element = cache0.get(key);
-            AtomicLong atomicLong = (AtomicLong) element.getValue();
-            return atomicLong.decrementAndGet();
-        } finally {
-            lock.writeUnlock(key.hashCode());
-        }
+        return incrBy(key, -1L);
     }
 
     @Override
     public long decrBy(String key, long value) {
-        // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-        try {
-            lock.writeLock(key.hashCode());
-            if (!cache0.containsKey(key)) {
-                AtomicLong atomicLong = new AtomicLong(0L);
-                Element0 element = new Element0(key, atomicLong);
-                // 设置过期时间
-                JvmConfig jvmConfig = config.getJvmConfig();
-                int expirationTime = jvmConfig.getExpirationTime();
-                if (jvmConfig.isExpirationTimeRandom()) {
-                    // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-                    int timeMin = jvmConfig.getExpirationTimeRandomMin();
-                    int timeMax = jvmConfig.getExpirationTimeRandomMax();
-                    expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
-                }
-                element.setExpirationTime(expirationTime);
-                cache0.put(key, element);
-            }
-            Element0 element = cache0.get(key);
-            AtomicLong atomicLong = (AtomicLong) element.getValue();
-            long newValue = atomicLong.longValue() - value;
-            atomicLong.set(newValue);
-            return newValue;
-        } finally {
-            lock.writeUnlock(key.hashCode());
-        }
+        return incrBy(key, -value);
     }
 
     @Override
     public ProtoBuf hget(String key, String field) {
-        if (key == null || field == null) {
+        if (field == null) {
             return null;
         }
-
-        Element1 element = cache1.get(key);
+        Element1 element = doGetElement1(key);
         if (element == null) {
-            statistics.addMissCount();
             return null;
         }
-
-        // 惰性检查缓存是否已经过期了
-        if (element.isExpired()) {
-            removeExpired(element);
-            return null;
-        }
-        statistics.addHitCount();
-        return element.getValue().get(field);
+        // 只复制需要读取的字段，不复制整个哈希表
+        return element.getBuf(field);
     }
 
     @Override
@@ -830,12 +883,30 @@ public class JvmCache implements Cache {
         return value;
     }
 
+    /**
+     * 获取哈希字段的只读字段视图，视图直接引用缓存字节，不复制数据
+     */
+    @Override
+    public ProtoView hgetView(String key, String field, ProtoSchema schema) {
+        if (field == null) {
+            return null;
+        }
+        Element1 element = doGetElement1(key);
+        if (element == null) {
+            return null;
+        }
+        byte[] value = element.getBytes(field, true);
+        if (value == null) {
+            return null;
+        }
+        return ProtoView.wrap(value, schema);
+    }
+
     @Override
     public Map<String, ProtoBuf> hgetBufferMap(String key) {
         if (key == null) {
             return null;
         }
-
         Element1 element = cache1.get(key);
         if (element == null) {
             statistics.addMissCount();
@@ -846,6 +917,9 @@ public class JvmCache implements Cache {
             removeExpired(element);
             return null;
         }
+        if (admission != null) {
+            admission.recordAccess(key);
+        }
         statistics.addHitCount();
         return element.getValue();
     }
@@ -999,36 +1073,15 @@ public class JvmCache implements Cache {
         if (compact) {
             value.compact();
         }
-        Element1 element = cache1.get(key);
-        if (element == null) {
-            // 设置过期时间
-            JvmConfig jvmConfig = config.getJvmConfig();
-            int expirationTime = jvmConfig.getExpirationTime();
-            if (jvmConfig.isExpirationTimeRandom()) {
-                // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-                int timeMin = jvmConfig.getExpirationTimeRandomMin();
-                int timeMax = jvmConfig.getExpirationTimeRandomMax();
-                expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
-            }
-            // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-            try {
-                lock.writeLock(key.hashCode());
-                // 双重检查
-                if (!cache1.containsKey(key)) {
-                    element = new Element1(key, new ConcurrentHashMap<String, byte[]>());
-                    element.setExpirationTime(expirationTime);
-                    doAddByteSize(element.getByteSize());
-                    cache1.put(key, element);
-                }
-            } finally {
-                lock.writeUnlock(key.hashCode());
-            }
+        if (admission != null) {
+            admission.recordAccess(key);
         }
+        Element1 element = doGetOrCreateElement1(key);
         // 计算该缓存数据的大概字节大小
         int elementByteSize = doCalcuateElement1ValueSize(key, field, value);
         // 检查是否超过缓存配置上限，超过则触发回收策略
         if (cacheEvitor != null) {
-            cacheEvitor.checkOverLimit(element, elementByteSize);
+            cacheEvitor.checkOverLimit(element, elementByteSize, false);
         }
         // 触发监听服务
         listeners.fireCachePut(key, element);
@@ -1099,9 +1152,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putObject(value, schema);
-        return hput(key, field, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putObject(value, schema);
+            return hput(key, field, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -1110,9 +1167,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putMap(value, schema);
-        return hput(key, field, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putMap(value, schema);
+            return hput(key, field, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -1121,9 +1182,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putList(value, schema);
-        return hput(key, field, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putList(value, schema);
+            return hput(key, field, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -1132,9 +1197,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putParam(value, schema);
-        return hput(key, field, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putParam(value, schema);
+            return hput(key, field, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -1143,9 +1212,13 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        ProtoBuf buffer = new ProtoBuf(config.isDirectBuffer());
-        buffer.putTable(value, schema);
-        return hput(key, field, buffer, true);
+        ProtoBuf buffer = bufferAllocator.allocate();
+        try {
+            buffer.putTable(value, schema);
+            return hput(key, field, buffer, false);
+        } finally {
+            buffer.release();
+        }
     }
 
     @Override
@@ -1154,31 +1227,7 @@ public class JvmCache implements Cache {
             return false;
         }
 
-        Element1 element = cache1.get(key);
-        if (element == null) {
-            // 设置过期时间
-            JvmConfig jvmConfig = config.getJvmConfig();
-            int expirationTime = jvmConfig.getExpirationTime();
-            if (jvmConfig.isExpirationTimeRandom()) {
-                // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
-                int timeMin = jvmConfig.getExpirationTimeRandomMin();
-                int timeMax = jvmConfig.getExpirationTimeRandomMax();
-                expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
-            }
-            // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-            try {
-                lock.writeLock(key.hashCode());
-                // 双重检查
-                if (!cache1.containsKey(key)) {
-                    element = new Element1(key, new ConcurrentHashMap<String, byte[]>());
-                    element.setExpirationTime(expirationTime);
-                    doAddByteSize(element.getByteSize());
-                    cache1.put(key, element);
-                }
-            } finally {
-                lock.writeUnlock(key.hashCode());
-            }
-        }
+        Element1 element = doGetOrCreateElement1(key);
         Charset charset = config.getChrset();
         for (Entry<byte[], byte[]> entry : value.entrySet()) {
             String field = new String(entry.getKey(), charset);
@@ -1191,7 +1240,7 @@ public class JvmCache implements Cache {
         }
         // 检查是否超过缓存配置上限，超过则触发回收策略
         if (cacheEvitor != null) {
-            cacheEvitor.checkOverLimit(element, 0);
+            cacheEvitor.checkOverLimit(element, 0, false);
         }
         // 触发监听服务
         listeners.fireCachePut(key, element);
@@ -1200,24 +1249,27 @@ public class JvmCache implements Cache {
 
     @Override
     public long hincrBy(String key, String field, long value) {
-        // 需要作加锁操作避免多线程执行下同一个KEY的数据覆盖
-        try {
-            lock.writeLock(key.hashCode());
-            Element1 element = cache1.get(key);
-            if (element == null) {
-                hput(key, field, ProtoBuf.wrap(value), true);
+        Element1 element = doGetOrCreateElement1(key);
+        // 采用CAS替换哈希字段数据，替换失败说明有其他线程修改了字段，重新读取后重试
+        while (true) {
+            byte[] oldBytes = element.getBytes(field);
+            if (oldBytes == null) {
+                ProtoBuf newBuffer = ProtoBuf.wrap(value);
+                int elementByteSize = doCalcuateElement1ValueSize(key, field, newBuffer);
+                // 新增字段会增加内存占用，与hput一样需要检查是否超过缓存配置上限
+                if (cacheEvitor != null) {
+                    cacheEvitor.checkOverLimit(element, elementByteSize, false);
+                }
+                if (element.doPutIfAbsent(field, newBuffer, elementByteSize)) {
+                    doAddByteSize(elementByteSize);
+                    return value;
+                }
+                continue;
             }
-            ProtoBuf fieldValue = element.getValue().get(field);
-            if (fieldValue == null) {
-                fieldValue = ProtoBuf.wrap(value);
-                hput(key, field, fieldValue, true);
+            long newValue = ProtoBuf.wrap(oldBytes).getLong() + value;
+            if (element.doReplace(field, oldBytes, ProtoBuf.wrap(newValue))) {
+                return newValue;
             }
-            long atomicLong = fieldValue.getLong();
-            long newValue = atomicLong + value;
-            hput(key, field, ProtoBuf.wrap(newValue), true);
-            return newValue;
-        } finally {
-            lock.writeUnlock(key.hashCode());
         }
     }
 
@@ -1273,8 +1325,8 @@ public class JvmCache implements Cache {
         }
         ProtoBuf buffer = element.remove(field);
         // 如果二级缓存里面的哈希数据都为空，则当前缓存对应的Key->Element1也清空，避免数据占用内存空间
-        if (element.isEmpty()) {
-            cache1.remove(key);
+        if (element.isEmpty() && cache1.remove(key, element)) {
+            doRemoveIndex(element);
         }
         if (buffer == null) {
             return true;
@@ -1310,6 +1362,9 @@ public class JvmCache implements Cache {
 
     @Override
     public synchronized void shutdown() {
+        if (slabs != null) {
+            slabs.close();
+        }
     }
 
     /**
@@ -1317,19 +1372,204 @@ public class JvmCache implements Cache {
      */
     private boolean doRemoveInternal(Element removedElement) {
         String key = removedElement.getKey();
+        boolean removed = false;
+        // 只移除当前节点，避免并发下把同一个Key新添加的缓存误删
         if (removedElement instanceof Element0) {
-            removedElement = cache0.remove(key);
+            removed = cache0.remove(key, removedElement);
         } else if (removedElement instanceof Element1) {
-            removedElement = cache1.remove(key);
+            removed = cache1.remove(key, removedElement);
         }
-        if (removedElement == null) {
+        if (!removed) {
             return false;
         }
+        doRemoveIndex((AbstractElement) removedElement);
         int byteSize = removedElement.getByteSize();
         doDeductByteSize(byteSize);
         return true;
     }
 
+    /**
+     * 获取未过期的一级缓存节点并统计命中率，缓存不存在或者已经过期时返回null
+     */
+    private Element0 doGetElement0(String key) {
+        if (key == null) {
+            return null;
+        }
+        Element0 element = cache0.get(key);
+        if (element == null) {
+            statistics.addMissCount();
+            return null;
+        }
+
+        // 惰性检查缓存是否已经过期了
+        if (element.isExpired()) {
+            removeExpired(element);
+            return null;
+        }
+        if (admission != null) {
+            admission.recordAccess(key);
+        }
+        statistics.addHitCount();
+        return element;
+    }
+
+    /**
+     * 获取未过期的二级缓存节点并统计命中率，缓存不存在或者已经过期时返回null
+     */
+    private Element1 doGetElement1(String key) {
+        if (key == null) {
+            return null;
+        }
+        Element1 element = cache1.get(key);
+        if (element == null) {
+            statistics.addMissCount();
+            return null;
+        }
+
+        // 惰性检查缓存是否已经过期了
+        if (element.isExpired()) {
+            removeExpired(element);
+            return null;
+        }
+        if (admission != null) {
+            admission.recordAccess(key);
+        }
+        statistics.addHitCount();
+        return element;
+    }
+
+    /**
+     * 获取计数器缓存节点，不存在或者已经过期时创建，
+     * 只有创建时才需要加锁，避免多线程下同一个KEY的计数器被覆盖
+     */
+    private Element0 doGetOrCreateCounter(String key) {
+        Element0 element = cache0.get(key);
+        if (element != null && !element.isExpired()) {
+            return element;
+        }
+        try {
+            lock.writeLock(key.hashCode());
+            // 双重检查
+            element = cache0.get(key);
+            if (element != null && !element.isExpired()) {
+                return element;
+            }
+            if (element != null) {
+                removeExpired(element);
+            }
+            element = new Element0(key, new AtomicLong(0L));
+            element.setExpirationTime(doGetExpirationTime());
+            if (admission != null) {
+                admission.recordAdmission(element);
+            }
+            doAddIndex(element);
+            cache0.put(key, element);
+            return element;
+        } finally {
+            lock.writeUnlock(key.hashCode());
+        }
+    }
+
+    /**
+     * 获取二级缓存节点，不存在时加锁创建，避免多线程下同一个KEY的数据被覆盖
+     */
+    private Element1 doGetOrCreateElement1(String key) {
+        Element1 element = cache1.get(key);
+        if (element != null) {
+            return element;
+        }
+        try {
+            lock.writeLock(key.hashCode());
+            // 双重检查
+            element = cache1.get(key);
+            if (element != null) {
+                return element;
+            }
+            element = new Element1(key, new ConcurrentHashMap<String, byte[]>());
+            element.setExpirationTime(doGetExpirationTime());
+            if (admission != null) {
+                admission.recordAdmission(element);
+            }
+            doAddByteSize(element.getByteSize());
+            doAddIndex(element);
+            cache1.put(key, element);
+            return element;
+        } finally {
+            lock.writeUnlock(key.hashCode());
+        }
+    }
+
+    /**
+     * 获取新缓存的过期时间
+     */
+    private int doGetExpirationTime() {
+        JvmConfig jvmConfig = config.getJvmConfig();
+        int expirationTime = jvmConfig.getExpirationTime();
+        if (jvmConfig.isExpirationTimeRandom()) {
+            // 设置过期时间随机，避免同一时间有大量缓存过期导致回缓压力大
+            int timeMin = jvmConfig.getExpirationTimeRandomMin();
+            int timeMax = jvmConfig.getExpirationTimeRandomMax();
+            expirationTime = random.nextInt(timeMax - timeMin) + timeMin;
+        }
+        return expirationTime;
+    }
+
+    /**
+     * 将缓存节点加入回收采样索引和过期时间轮，
+     * 需要在放入缓存容器之前调用，避免并发移除时索引中残留已经不在缓存中的节点
+     */
+    private void doAddIndex(AbstractElement element) {
+        sampler.add(element);
+        timerWheel.schedule(element);
+    }
+
+    /**
+     * 将缓存节点从回收采样索引和过期时间轮中移除
+     *
+     * @return 节点存在于索引中并移除成功返回true
+     */
+    private boolean doRemoveIndex(AbstractElement element) {
+        timerWheel.deschedule(element);
+        if (element instanceof SlabElement0) {
+            ((SlabElement0) element).release();
+        }
+        return sampler.remove(element);
+    }
+
+    /**
+     * 创建堆外存储的缓存节点，堆外内存不足时按回收策略回收部分缓存后重试
+     *
+     * @return 缓存节点，回收后依然没有可用内存或者缓存已经关闭时返回null
+     */
+    private Element0 doCreateSlabElement(String key, ProtoBuf value) {
+        int length = value.readableBytes();
+        long address = slabs.allocate(length);
+        for (int i = 0; address < 0 && !slabs.isClosed() && i < MAX_EVICTION_RATIO; i++) {
+            if (!doRemoveElementChosenByEvictionPolicy(null)) {
+                break;
+            }
+            address = slabs.allocate(length);
+        }
+        if (address < 0) {
+            return null;
+        }
+        ByteBuffer source = value.buffer().duplicate();
+        source.limit(value.writeIdx());
+        source.position(value.readIdx());
+        if (!slabs.write(address, source)) {
+            // 缓存已经关闭，堆外内存已经释放
+            return null;
+        }
+        return new SlabElement0(key, slabs, address, length);
+    }
+
+    /**
+     * 获取用于内存容量上限判断的已用内存，堆外存储时为Slab内存块的真实占用
+     */
+    private long doGetUsedMemory() {
+        return slabs != null ? slabs.getUsedBytes() : byteSize.get();
+    }
+
     /**
      * 缓存过期时的移除
      */
@@ -1362,15 +1602,7 @@ public class JvmCache implements Cache {
      * @return 移除成功返回true
      */
     private boolean doRemoveElementChosenByEvictionPolicy(Element excludeElement) {
-        Element element = null;
-        if (policy != null) {
-            List<Element> elements = getRandomElements(excludeElement, DEFAULT_SAMPLE_SIZE);
-            element = policy.selectedBasedOnPolicy(elements);
-        } else {
-            List<Element> elements = getRandomElements(excludeElement, 1);
-            int elementSize = elements.size();
-            element = elementSize > 0 ? elements.get(elementSize - 1) : null;
-        }
+        Element element = doSelectElementByEvictionPolicy(excludeElement);
         if (element == null) {
             return false;
         }
@@ -1378,34 +1610,45 @@ public class JvmCache implements Cache {
     }
 
     /**
-     * 随机获取缓存列表中指定数量的缓存数据，
-     * 为了提升性能，只获取一二级缓存列表中前30条数据，
-     * 主要服务于缓存回收策略服务
+     * 从全部缓存中等概率采样指定数量的缓存数据并按回收策略逐个比较，
+     * 采样过程不创建临时列表，避免每次添加缓存触发回收时产生对象分配
      *
      * @param excludeElement 要排除的缓存节点，像当前正在添加的缓存，如果给移除掉那就不能再添加数据了
-     * @param size           随机获取的数量
+     * @return 最符合回收条件的缓存数据，没有可回收数据时返回null
      */
-    private List<Element> getRandomElements(Element excludeElement, int size) {
-        List<Element> elements = new LinkedList<Element>();
-        for (Element element : cache0.values()) {
-            if (excludeElement == element) {
-                continue;
+    private Element doSelectElementByEvictionPolicy(Element excludeElement) {
+        int sampleSize = policy != null ? DEFAULT_SAMPLE_SIZE : 1;
+        int bound = sampler.bound();
+        int cacheSize = 0;
+        if (admission != null) {
+            // 按内存容量限制时无法预知缓存条数，需要随缓存增长调整频率统计器容量
+            cacheSize = size();
+            admission.ensureCapacity(cacheSize);
+        }
+        Element selectedElement = null;
+        Element admittingElement = null;
+        // 最多采样两倍数量，避免缓存只剩被排除节点时无限循环
+        for (int i = 0, sampled = 0; i < sampleSize << 1 && sampled < sampleSize; i++) {
+            Element element = sampler.sample(bound);
+            if (element == null) {
+                break;
             }
-            if (elements.size() >= size) {
-                return elements;
+            if (element == excludeElement) {
+                continue;
             }
-            elements.add(element);
-        }
-        for (Element element : cache1.values()) {
-            if (excludeElement == element) {
+            sampled++;
+            // 仍处于准入窗口中的新缓存暂不参与回收，只有采样结果全在窗口中时才回收
+            if (admission != null && admission.isAdmitting(element, cacheSize)) {
+                admittingElement = element;
                 continue;
             }
-            if (elements.size() >= size) {
-                return elements;
+            if (selectedElement == null) {
+                selectedElement = element;
+            } else if (policy != null && policy.compare(selectedElement, element)) {
+                selectedElement = element;
             }
-            elements.add(element);
         }
-        return elements;
+        return selectedElement != null ? selectedElement : admittingElement;
     }
 
     /**
@@ -1429,7 +1672,11 @@ public class JvmCache implements Cache {
         StringBuilder info = new StringBuilder();
         info.append("[Size=").append(size());
         info.append(", Memory=").append(StrUtil.formatByteOutput(byteSize.get()));
-        info.append(", Policy=").append(policy.getName());
+        if (slabs != null) {
+            info.append(", Slab=").append(StrUtil.formatByteOutput(slabs.getUsedBytes()));
+            info.append("/").append(StrUtil.formatByteOutput(slabs.getReservedBytes()));
+        }
+        info.append(", Policy=").append(policy != null ? policy.getName() : null);
         info.append("]");
         return info.toString();
     }
@@ -1441,10 +1688,28 @@ public class JvmCache implements Cache {
         /**
          * 检查缓存是否超过上限，采用不同的容量上限策略，超过则移除指定的缓存数据
          *
-         * @param excludeElement 要排除的缓存节点，像当前正在添加的缓存，如果给移除掉那就不能再添加数据了
-         * @param addedSize      新增的字节数
+         * @param  excludeElement 要排除的缓存节点，像当前正在添加的缓存，如果给移除掉那就不能再添加数据了
+         * @param  addedSize      新增的字节数
+         * @param  candidate      排除的缓存节点是否是需要经过准入策略判断的新缓存
+         * @return 新缓存未通过准入策略时返回false，此时回收策略选出的缓存保留
          */
-        void checkOverLimit(Element excludeElement, int addedSize);
+        boolean checkOverLimit(Element excludeElement, int addedSize, boolean candidate);
+    }
+
+    /**
+     * 按回收策略选出一个缓存并回收，新缓存需要经过准入策略判断
+     *
+     * @return 回收成功返回{@link #EVICT_SUCCESS}，没有可回收的缓存返回{@link #EVICT_NONE}，新缓存未通过准入返回{@link #EVICT_REJECTED}
+     */
+    private int doEvict(Element excludeElement, boolean candidate) {
+        Element victim = doSelectElementByEvictionPolicy(excludeElement);
+        if (victim == null) {
+            return EVICT_NONE;
+        }
+        if (candidate && !admission.admit(excludeElement, victim)) {
+            return EVICT_REJECTED;
+        }
+        return removeEvicted(victim) ? EVICT_SUCCESS : EVICT_NONE;
     }
 
     /**
@@ -1452,7 +1717,7 @@ public class JvmCache implements Cache {
      */
     private class MaxElementEvictor implements CacheEvictor {
         @Override
-        public void checkOverLimit(Element excludeElement, int addedSize) {
+        public boolean checkOverLimit(Element excludeElement, int addedSize, boolean candidate) {
             // 检查是否超过缓存条数上限
             int maxElements = config.getJvmConfig().getMaxElements();
             int elementSize = size();
@@ -1460,12 +1725,17 @@ public class JvmCache implements Cache {
                 // 已经超过上限，触发回收策略
                 int evict = Math.min(elementSize - maxElements + 1, MAX_EVICTION_RATIO);
                 for (int i = 0; i < evict; i++) {
-                    if (!doRemoveElementChosenByEvictionPolicy(excludeElement)) {
+                    int result = doEvict(excludeElement, candidate);
+                    if (result == EVICT_REJECTED) {
+                        return false;
+                    }
+                    if (result == EVICT_NONE) {
                         // 已经没有适合的缓存节点可以移除了
                         break;
                     }
                 }
             }
+            return true;
         }
     }
 
@@ -1474,24 +1744,33 @@ public class JvmCache implements Cache {
      */
     private class MaxMemoryEvictor implements CacheEvictor {
         @Override
-        public void checkOverLimit(Element excludeElement, int addedSize) {
+        public boolean checkOverLimit(Element excludeElement, int addedSize, boolean candidate) {
             // 检查是否超过缓存内存容量上限
             long maxMemory = config.getJvmConfig().getMaxMemory();
-            if (maxMemory > 0 && (byteSize.get() + addedSize) > maxMemory) {
-                long missingSize = (byteSize.get() + addedSize) - maxMemory;
+            // 堆外存储时新缓存的内存块已经分配，不需要再累加
+            if (slabs != null) {
+                addedSize = 0;
+            }
+            if (maxMemory > 0 && (doGetUsedMemory() + addedSize) > maxMemory) {
+                long missingSize = (doGetUsedMemory() + addedSize) - maxMemory;
                 // 已经超过上限，触发回收策略
                 int evict = 0;
                 while (missingSize > 0) {
                     if (evict++ > MAX_EVICTION_RATIO) {
                         break;
                     }
-                    if (!doRemoveElementChosenByEvictionPolicy(excludeElement)) {
+                    int result = doEvict(excludeElement, candidate);
+                    if (result == EVICT_REJECTED) {
+                        return false;
+                    }
+                    if (result == EVICT_NONE) {
                         // 已经没有适合的缓存节点可以移除了
                         break;
                     }
-                    missingSize = (byteSize.get() + addedSize) - maxMemory;
+                    missingSize = (doGetUsedMemory() + addedSize) - maxMemory;
                 }
             }
+            return true;
         }
     }
 
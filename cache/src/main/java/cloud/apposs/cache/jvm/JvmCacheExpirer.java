@@ -1,20 +1,21 @@
 package cloud.apposs.cache.jvm;
 
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
- * 缓存过期定时删除器
+ * 缓存过期定时删除器，定期推进缓存的过期时间轮并删除已经过期的缓存，
+ * 每次只处理到期的缓存，不再遍历全部缓存
  */
 public class JvmCacheExpirer extends Thread {
-	/** 过期Key清除的时间，超过该时间则不再清除等待下次重新清除以避免大量缓存清除造成CPU繁忙 */
-	public static final int PURGE_MAX_TIME = 2000;
-	
-	/** 定期检查间隔时间，默认为1分钟 */
+	/** 定期推进时间轮的间隔时间，默认为1秒 */
 	private int interval;
 	
 	/** JVM缓存服务 */
 	private final JvmCache cache;
+
+	/** 过期缓存列表，只在过期线程中使用，重复利用避免每次推进都创建列表 */
+	private final List<Element> expired = new ArrayList<Element>();
 	
 	public JvmCacheExpirer(int interval, JvmCache cache) {
 		if (interval <= 0) {
@@ -41,37 +42,23 @@ public class JvmCacheExpirer extends Thread {
 	}
 	
 	private int doPurge() {
-		int total = 0;
-		long start = System.currentTimeMillis();
-		// 遍历所有一级缓存并判断缓存是否过期
-		Map<String, Element0> cache0 = cache.getCache0();
-		for (Entry<String, Element0> entry : cache0.entrySet()) {
-			Element0 element = entry.getValue();
-			boolean expired = element.isExpired();
-			if (!expired) continue;
-			// 缓存已经过期，直接删除缓存释放内存
-			cache.removeExpired(element);
-			total++;
-			// 超过最大清除时间，不再清除等待下次重新清除以避免大量缓存清除造成CPU繁忙
-			if (System.currentTimeMillis() - start >= PURGE_MAX_TIME) {
-				return total;
-			}
-		}
-		
-		// 遍历所有二级缓存并判断缓存是否过期
-		Map<String, Element1> caches1 = cache.getCache1();
-		for (Entry<String, Element1> entry : caches1.entrySet()) {
-			Element1 element = entry.getValue();
-			boolean expired = element.isExpired();
-			if (!expired) continue;
-			// 缓存已经过期，直接删除缓存释放内存
-			cache.removeExpired(element);
-			// 超过最大清除时间，不再清除等待下次重新清除以避免大量缓存清除造成CPU繁忙
-			if (System.currentTimeMillis() - start >= PURGE_MAX_TIME) {
-				return total;
+		JvmCacheTimerWheel timerWheel = cache.getTimerWheel();
+		int total = timerWheel.advance(System.currentTimeMillis(), expired);
+		try {
+			for (int i = 0; i < expired.size(); i++) {
+				AbstractElement element = (AbstractElement) expired.get(i);
+				if (!element.isExpired()) {
+					// 过期时间已经被并发延长，重新放回时间轮
+					timerWheel.schedule(element);
+					total--;
+					continue;
+				}
+				// 缓存已经过期，直接删除缓存释放内存，只删除仍在缓存中的当前节点，已经被移除或者覆盖的节点忽略
+				cache.removeExpired(element);
 			}
+		} finally {
+			expired.clear();
 		}
-		
 		return total;
 	}
 }
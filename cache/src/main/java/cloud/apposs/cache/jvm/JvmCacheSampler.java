@@ -0,0 +1,183 @@
+package cloud.apposs.cache.jvm;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存回收采样索引，服务于缓存回收策略，
+ * 1、所有缓存节点存放在由多个定长分块组成的槽位表中，添加时从随机槽位开始探测空槽并CAS占用，删除时CAS清空节点所在槽位，增删均无锁
+ * 2、探测过长说明槽位表较满，此时通过CAS替换分块数组将槽位数翻倍，已有分块不复制不移动，并发的增删不会丢失
+ * 3、采样时随机选择槽位，空槽则重试，保证每个缓存节点被选中的概率一致，
+ * 避免像遍历ConcurrentHashMap那样每次都只能取到哈希桶前面的固定节点，采样过程不产生任何对象分配
+ * 注意槽位表只扩容不收缩，大小跟随缓存的历史最大节点数
+ */
+public class JvmCacheSampler {
+    /**
+     * 默认分块槽位数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /**
+     * 添加节点时的最大探测槽位数，超过则扩容
+     */
+    private static final int MAX_PROBE = 16;
+
+    /**
+     * 单次采样的最大重试次数，超过则顺序查找，避免缓存极少时长时间空转
+     */
+    private static final int MAX_SAMPLE_RETRY = 32;
+
+    private static final AtomicReferenceFieldUpdater<JvmCacheSampler, Chunk[]> CHUNKS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(JvmCacheSampler.class, Chunk[].class, "chunks");
+
+    private volatile Chunk[] chunks;
+
+    private final int chunkShift;
+
+    private final int chunkMask;
+
+    private final LongAdder size = new LongAdder();
+
+    public JvmCacheSampler() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public JvmCacheSampler(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize");
+        }
+        int length = 1;
+        while (length < chunkSize) {
+            length <<= 1;
+        }
+        this.chunkShift = Integer.numberOfTrailingZeros(length);
+        this.chunkMask = length - 1;
+        this.chunks = new Chunk[] {new Chunk(length)};
+    }
+
+    /**
+     * 添加缓存节点到采样索引中
+     */
+    public void add(AbstractElement element) {
+        if (element.sampleIndex >= 0) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (;;) {
+            Chunk[] current = chunks;
+            int mask = (current.length << chunkShift) - 1;
+            int start = random.nextInt(mask + 1);
+            for (int i = 0; i < MAX_PROBE; i++) {
+                int index = (start + i) & mask;
+                Chunk chunk = current[index >>> chunkShift];
+                int offset = index & chunkMask;
+                if (chunk.get(offset) == null) {
+                    // 先记录位置再占用槽位，CAS成功后其他线程可见
+                    element.sampleIndex = index;
+                    if (chunk.compareAndSet(offset, null, element)) {
+                        size.increment();
+                        return;
+                    }
+                }
+            }
+            doGrow(current);
+        }
+    }
+
+    /**
+     * 从采样索引中移除缓存节点
+     *
+     * @return 节点存在并移除成功返回true
+     */
+    public boolean remove(AbstractElement element) {
+        int index = element.sampleIndex;
+        if (index < 0) {
+            return false;
+        }
+        Chunk[] current = chunks;
+        int chunkIndex = index >>> chunkShift;
+        if (chunkIndex >= current.length
+                || !current[chunkIndex].compareAndSet(index & chunkMask, element, null)) {
+            return false;
+        }
+        element.sampleIndex = -1;
+        size.decrement();
+        return true;
+    }
+
+    /**
+     * 获取采样索引中的节点总数
+     */
+    public int size() {
+        return size.intValue();
+    }
+
+    /**
+     * 获取当前槽位数，作为采样的随机上界，
+     * 一次回收中多次采样时只需要获取一次
+     */
+    public int bound() {
+        return chunks.length << chunkShift;
+    }
+
+    /**
+     * 等概率随机获取一个缓存节点
+     *
+     * @param  bound 采样上界，通过{@link #bound()}获取
+     * @return 缓存节点，没有数据时返回null
+     */
+    public Element sample(int bound) {
+        if (bound <= 0) {
+            return null;
+        }
+        Chunk[] current = chunks;
+        bound = Math.min(bound, current.length << chunkShift);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < MAX_SAMPLE_RETRY; i++) {
+            int index = random.nextInt(bound);
+            Element element = current[index >>> chunkShift].get(index & chunkMask);
+            if (element != null) {
+                return element;
+            }
+        }
+        // 多次采样都落空，说明当前数据很少，从随机槽位开始顺序查找
+        int start = random.nextInt(bound);
+        for (int i = 0; i < bound; i++) {
+            int index = start + i;
+            if (index >= bound) {
+                index -= bound;
+            }
+            Element element = current[index >>> chunkShift].get(index & chunkMask);
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 槽位数翻倍，原有分块直接复用，只有替换成功的线程新建的分块生效
+     */
+    private void doGrow(Chunk[] expected) {
+        if (chunks != expected) {
+            return;
+        }
+        int length = expected.length;
+        Chunk[] grown = new Chunk[length << 1];
+        System.arraycopy(expected, 0, grown, 0, length);
+        for (int i = length; i < grown.length; i++) {
+            grown[i] = new Chunk(chunkMask + 1);
+        }
+        CHUNKS_UPDATER.compareAndSet(this, expected, grown);
+    }
+
+    private static final class Chunk extends AtomicReferenceArray<AbstractElement> {
+        private static final long serialVersionUID = 1L;
+
+        private Chunk(int length) {
+            super(length);
+        }
+    }
+}
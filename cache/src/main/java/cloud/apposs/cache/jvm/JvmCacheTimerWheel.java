@@ -0,0 +1,238 @@
+package cloud.apposs.cache.jvm;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 缓存过期分层时间轮，服务于缓存过期删除，
+ * 每个层级的时间轮由多个桶组成，桶内为缓存节点组成的双向链表（链表指针直接存储在缓存节点中，不额外创建对象），
+ * 各层级每个桶的时间跨度分别约为1秒、1分钟、1小时、1.5天，超过6天的缓存放在溢出桶中，
+ * 时间轮推进时只处理到期的桶，过期的缓存直接取出，未过期的缓存按剩余时间放入更精细的层级，
+ * 因此过期处理的开销只与即将过期的缓存数量相关，而与缓存总数无关，
+ * 写入线程调度缓存时不操作时间轮，只把节点放入无锁队列，由过期线程推进时间轮前统一取出并调整链表，
+ * 队列积压过多时写入线程尝试代为处理，获取不到锁直接返回，因此写入线程之间以及与过期线程之间不会互相阻塞
+ */
+public class JvmCacheTimerWheel {
+    /**
+     * 各层级的桶数量，最后一层为溢出桶
+     */
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+
+    /**
+     * 各层级每个桶时间跨度的位移，单位毫秒，分别为2^10(约1秒)、2^16(约1分钟)、2^22(约1小时)、2^27(约1.5天)、2^29(约6天)
+     */
+    private static final int[] SHIFTS = {10, 16, 22, 27, 29};
+
+    /**
+     * 待处理节点积压到该数量时写入线程尝试代为处理，避免过期线程间隔内队列无限增长
+     */
+    private static final int DRAIN_THRESHOLD = 4096;
+
+    /**
+     * 时间轮，存储每个桶的链表头节点，只在持有{@link #drainLock}时访问
+     */
+    private final AbstractElement[][] wheel;
+
+    /**
+     * 等待调整位置的缓存节点，多个写入线程放入，持有{@link #drainLock}的线程取出
+     */
+    private final Queue<AbstractElement> pending = new ConcurrentLinkedQueue<AbstractElement>();
+
+    /**
+     * 等待调整位置的缓存节点数量
+     */
+    private final AtomicInteger pendingSize = new AtomicInteger();
+
+    /**
+     * 时间轮操作锁，过期线程推进时间轮时获取，写入线程只尝试获取
+     */
+    private final ReentrantLock drainLock = new ReentrantLock();
+
+    /**
+     * 时间轮上一次推进的时间
+     */
+    private long time;
+
+    /**
+     * 时间轮中的缓存节点数量
+     */
+    private volatile int size = 0;
+
+    public JvmCacheTimerWheel() {
+        this(System.currentTimeMillis());
+    }
+
+    public JvmCacheTimerWheel(long time) {
+        this.time = time;
+        this.wheel = new AbstractElement[BUCKETS.length][];
+        for (int i = 0; i < BUCKETS.length; i++) {
+            wheel[i] = new AbstractElement[BUCKETS[i]];
+        }
+    }
+
+    /**
+     * 将缓存节点按过期时间放入时间轮，已经在时间轮中的节点会重新调度，永不过期的节点会从时间轮中移除，
+     * 已经移除的节点不会再放入时间轮，节点位置在下一次推进时间轮时按其最新的过期时间调整
+     */
+    public void schedule(AbstractElement element) {
+        offer(element);
+    }
+
+    /**
+     * 将缓存节点从时间轮中移除，移除后的节点不会再被调度
+     */
+    public void deschedule(AbstractElement element) {
+        element.wheelRetired = true;
+        offer(element);
+    }
+
+    /**
+     * 获取时间轮中的缓存节点数量，不包括还在等待调整位置的节点
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 推进时间轮到指定时间，取出所有已经过期的缓存节点，
+     * 取出的节点已经不在时间轮中，调用方需要重新检查节点是否过期，未过期的节点需要重新调度
+     *
+     * @param  currentTime 当前时间
+     * @param  expired     存放已经过期的缓存节点
+     * @return 过期的缓存节点数量
+     */
+    public int advance(long currentTime, List<Element> expired) {
+        drainLock.lock();
+        try {
+            drain();
+            long previousTime = time;
+            if (currentTime <= previousTime) {
+                return 0;
+            }
+            time = currentTime;
+            int total = 0;
+            for (int i = 0; i < SHIFTS.length; i++) {
+                long previousTicks = previousTime >>> SHIFTS[i];
+                long currentTicks = currentTime >>> SHIFTS[i];
+                if (currentTicks - previousTicks <= 0) {
+                    break;
+                }
+                total += expire(i, previousTicks, currentTicks - previousTicks, expired);
+            }
+            return total;
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    private void offer(AbstractElement element) {
+        pending.offer(element);
+        if (pendingSize.incrementAndGet() >= DRAIN_THRESHOLD && drainLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 取出所有等待调整位置的节点，按节点最新状态放入或者移出时间轮，
+     * 同一个节点多次放入队列时重复处理的结果一致
+     */
+    private void drain() {
+        AbstractElement element;
+        while ((element = pending.poll()) != null) {
+            pendingSize.decrementAndGet();
+            if (element.wheelLevel >= 0) {
+                unlink(element);
+            }
+            int expirationTime = element.getExpirationTime();
+            if (element.wheelRetired || expirationTime < 0) {
+                continue;
+            }
+            element.wheelDeadline = element.getCreationTime() + expirationTime;
+            link(element);
+        }
+    }
+
+    /**
+     * 处理指定层级中已经走过的桶，过期节点取出，未过期节点重新调度
+     */
+    private int expire(int level, long previousTicks, long delta, List<Element> expired) {
+        AbstractElement[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        int total = 0;
+        for (int i = start; i < end; i++) {
+            int index = i & mask;
+            AbstractElement element = buckets[index];
+            buckets[index] = null;
+            while (element != null) {
+                AbstractElement next = element.wheelNext;
+                element.wheelPrev = null;
+                element.wheelNext = null;
+                element.wheelLevel = -1;
+                size--;
+                if (element.wheelDeadline <= time) {
+                    expired.add(element);
+                    total++;
+                } else {
+                    link(element);
+                }
+                element = next;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 按过期时间找到对应的桶并插入到链表头部
+     */
+    private void link(AbstractElement element) {
+        // 已经过期的节点放在当前时间所在的桶，下一次推进时间轮时即会被处理
+        long deadline = Math.max(element.wheelDeadline, time);
+        long duration = deadline - time;
+        int level = BUCKETS.length - 1;
+        int index = 0;
+        for (int i = 0; i < BUCKETS.length - 1; i++) {
+            if (duration < (1L << SHIFTS[i + 1])) {
+                level = i;
+                index = (int) ((deadline >>> SHIFTS[i]) & (BUCKETS[i] - 1));
+                break;
+            }
+        }
+        AbstractElement head = wheel[level][index];
+        element.wheelPrev = null;
+        element.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = element;
+        }
+        wheel[level][index] = element;
+        element.wheelLevel = level;
+        element.wheelIndex = index;
+        size++;
+    }
+
+    private void unlink(AbstractElement element) {
+        AbstractElement prev = element.wheelPrev;
+        AbstractElement next = element.wheelNext;
+        if (prev == null) {
+            wheel[element.wheelLevel][element.wheelIndex] = next;
+        } else {
+            prev.wheelNext = next;
+        }
+        if (next != null) {
+            next.wheelPrev = prev;
+        }
+        element.wheelPrev = null;
+        element.wheelNext = null;
+        element.wheelLevel = -1;
+        size--;
+    }
+}
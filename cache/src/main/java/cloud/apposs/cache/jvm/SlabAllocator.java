@@ -0,0 +1,414 @@
+package cloud.apposs.cache.jvm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 堆外Slab内存分配器，服务于JVM缓存的堆外存储，
+ * 1. 内存按页（默认1MB）向系统申请，页可以是直接内存，也可以是文件内存映射
+ * 2. 按块大小从64字节开始以1.25倍递增划分出多个Slab级别，每个页只属于一个级别并切分成该级别大小的块
+ * 3. 数据按长度分配到最合适的级别，释放的块放回所属级别的空闲列表中复用，避免内存碎片
+ * 4. 块地址由页索引和页内偏移组成的long表示，堆内只需要保存地址和长度
+ * 5. 分配、读写、释放持有读锁，关闭持有写锁，关闭后所有操作直接返回，页内存在关闭时主动释放，不等待GC
+ * 内存分配结构如下：
+ * <pre>
+ * +--Class0(64B)--+--Class1(80B)--+-- ... --+--ClassN(1MB)--+
+ * | Page0 | Page3 | Page1         |         | Page2         |
+ * +---------------+---------------+---------+---------------+
+ * </pre>
+ */
+public class SlabAllocator {
+    /**
+     * 默认页大小，也是可以存储的最大数据长度
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1024 * 1024;
+
+    /**
+     * 最小块大小
+     */
+    public static final int DEFAULT_MIN_CHUNK_SIZE = 64;
+
+    /**
+     * 块大小增长因子
+     */
+    public static final float DEFAULT_GROWTH_FACTOR = 1.25f;
+
+    private final int pageSize;
+
+    /**
+     * 最多可以申请的页数，小于等于0为不限制
+     */
+    private final int maxPages;
+
+    /**
+     * 内存映射文件，为空时采用直接内存
+     */
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+
+    private final SlabClass[] classes;
+
+    /**
+     * 已申请的页，每次扩容时重新赋值以保证多线程可见
+     */
+    private volatile ByteBuffer[] pages = new ByteBuffer[16];
+
+    /**
+     * 每个页所属的Slab级别
+     */
+    private volatile int[] pageClasses = new int[16];
+
+    private int pageCount = 0;
+
+    /**
+     * 关闭锁，关闭时需要等待正在进行的读写完成，避免读写已经释放的页内存
+     */
+    private final ReentrantReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    private volatile boolean closed = false;
+
+    /**
+     * 已分配块的真实字节数，包括块内未使用的字节
+     */
+    private final AtomicLong usedBytes = new AtomicLong(0L);
+
+    /**
+     * 创建直接内存分配器
+     *
+     * @param pageSize  页大小
+     * @param maxMemory 内存上限，小于等于0为不限制
+     */
+    public SlabAllocator(int pageSize, long maxMemory) {
+        this(pageSize, maxMemory, null);
+    }
+
+    /**
+     * 创建分配器
+     *
+     * @param pageSize  页大小
+     * @param maxMemory 内存上限，小于等于0为不限制
+     * @param file      内存映射文件，为空时采用直接内存
+     */
+    public SlabAllocator(int pageSize, long maxMemory, File file) {
+        if (pageSize < DEFAULT_MIN_CHUNK_SIZE) {
+            throw new IllegalArgumentException("pageSize");
+        }
+        this.pageSize = pageSize;
+        List<Integer> chunkSizes = new ArrayList<Integer>();
+        int chunkSize = DEFAULT_MIN_CHUNK_SIZE;
+        while (chunkSize < pageSize) {
+            chunkSizes.add(chunkSize);
+            // 按8字节对齐
+            chunkSize = ((int) (chunkSize * DEFAULT_GROWTH_FACTOR) + 7) & ~7;
+        }
+        chunkSizes.add(pageSize);
+        this.classes = new SlabClass[chunkSizes.size()];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new SlabClass(i, chunkSizes.get(i));
+        }
+        // 每个级别至少可以拥有一个页，避免某个级别的页被其他级别占满后再也无法分配
+        this.maxPages = maxMemory > 0 ? (int) Math.min(maxMemory / pageSize + classes.length, Integer.MAX_VALUE) : -1;
+        this.file = file;
+        if (file != null) {
+            try {
+                this.randomAccessFile = new RandomAccessFile(file, "rw");
+                this.channel = randomAccessFile.getChannel();
+            } catch (IOException e) {
+                throw new IllegalStateException("Slab file '" + file + "' open failure", e);
+            }
+        } else {
+            this.randomAccessFile = null;
+            this.channel = null;
+        }
+    }
+
+    /**
+     * 获取可以分配的最大数据长度
+     */
+    public int getMaxChunkSize() {
+        return pageSize;
+    }
+
+    /**
+     * 获取已分配块的真实字节数
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /**
+     * 获取已向系统申请的页内存字节数
+     */
+    public synchronized long getReservedBytes() {
+        return (long) pageCount * pageSize;
+    }
+
+    /**
+     * 分配指定长度的内存块
+     *
+     * @param  length 数据长度
+     * @return 内存块地址，没有可用内存或者分配器已经关闭时返回-1
+     */
+    public long allocate(int length) {
+        if (length < 0 || length > pageSize) {
+            throw new IllegalArgumentException("length");
+        }
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return -1;
+            }
+            SlabClass slabClass = classes[classIndex(length)];
+            long address = slabClass.allocate();
+            if (address >= 0) {
+                usedBytes.addAndGet(slabClass.chunkSize);
+            }
+            return address;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 释放内存块，放回所属级别的空闲列表中，分配器已经关闭时忽略
+     */
+    public void free(long address) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            int page = (int) (address >>> 32);
+            SlabClass slabClass = classes[pageClasses[page]];
+            slabClass.free(address);
+            usedBytes.addAndGet(-slabClass.chunkSize);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 将缓冲区中剩余的数据写入内存块
+     *
+     * @return 写入成功返回true，分配器已经关闭时返回false
+     */
+    public boolean write(long address, ByteBuffer source) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            ByteBuffer page = pages[(int) (address >>> 32)].duplicate();
+            page.position((int) address);
+            page.put(source);
+            return true;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 从内存块中读取指定长度的数据
+     *
+     * @return 数据，分配器已经关闭时返回null
+     */
+    public byte[] read(long address, int length) {
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                return null;
+            }
+            ByteBuffer page = pages[(int) (address >>> 32)].duplicate();
+            page.position((int) address);
+            byte[] value = new byte[length];
+            page.get(value);
+            return value;
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 释放所有页内存，如果是内存映射文件则同时删除文件，
+     * 等待正在进行的读写完成后再释放，关闭后的分配和读写直接返回
+     */
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            synchronized (this) {
+                ByteBuffer[] pages = this.pages;
+                for (int i = 0; i < pageCount; i++) {
+                    doClean(pages[i]);
+                    pages[i] = null;
+                }
+                pageCount = 0;
+                usedBytes.set(0L);
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                    randomAccessFile.close();
+                } catch (IOException e) {
+                }
+                file.delete();
+            }
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 判断分配器是否已经关闭
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private int classIndex(int length) {
+        // 级别数量不多，二分查找第一个能容纳数据的级别
+        int low = 0;
+        int high = classes.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (classes[middle].chunkSize < length) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 为指定级别申请新页
+     *
+     * @return 页索引，已经达到内存上限时返回-1
+     */
+    private synchronized int allocatePage(int classIndex) {
+        if (maxPages > 0 && pageCount >= maxPages) {
+            return -1;
+        }
+        ByteBuffer page;
+        if (channel != null) {
+            try {
+                page = channel.map(FileChannel.MapMode.READ_WRITE, (long) pageCount * pageSize, pageSize);
+            } catch (IOException e) {
+                throw new IllegalStateException("Slab file '" + file + "' map failure", e);
+            }
+        } else {
+            page = ByteBuffer.allocateDirect(pageSize);
+        }
+        ByteBuffer[] pages = this.pages;
+        int[] pageClasses = this.pageClasses;
+        if (pageCount >= pages.length) {
+            ByteBuffer[] newPages = new ByteBuffer[pages.length << 1];
+            System.arraycopy(pages, 0, newPages, 0, pageCount);
+            int[] newPageClasses = new int[pages.length << 1];
+            System.arraycopy(pageClasses, 0, newPageClasses, 0, pageCount);
+            pages = newPages;
+            pageClasses = newPageClasses;
+        }
+        int index = pageCount++;
+        pages[index] = page;
+        pageClasses[index] = classIndex;
+        // 重新赋值volatile字段，保证其他线程可以读取到新页
+        this.pageClasses = pageClasses;
+        this.pages = pages;
+        return index;
+    }
+
+    /**
+     * 主动释放直接内存或者解除文件内存映射，
+     * JDK9及以上通过Unsafe.invokeCleaner释放，JDK8通过DirectByteBuffer.cleaner()释放，均不可用时交由GC回收
+     */
+    private static void doClean(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) {
+            return;
+        }
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (NoSuchMethodException e) {
+            // JDK8没有invokeCleaner，继续采用cleaner()释放
+        } catch (Throwable e) {
+            return;
+        }
+        try {
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                Method cleanMethod = cleaner.getClass().getMethod("clean");
+                cleanMethod.setAccessible(true);
+                cleanMethod.invoke(cleaner);
+            }
+        } catch (Throwable e) {
+        }
+    }
+
+    /**
+     * Slab级别，维护该级别的块大小、空闲块列表以及当前正在切分的页
+     */
+    private final class SlabClass {
+        private final int index;
+
+        private final int chunkSize;
+
+        private long[] freeChunks = new long[16];
+
+        private int freeCount = 0;
+
+        private int currentPage = -1;
+
+        private int nextOffset = 0;
+
+        SlabClass(int index, int chunkSize) {
+            this.index = index;
+            this.chunkSize = chunkSize;
+        }
+
+        synchronized long allocate() {
+            if (freeCount > 0) {
+                return freeChunks[--freeCount];
+            }
+            if (currentPage < 0 || nextOffset + chunkSize > pageSize) {
+                int page = allocatePage(index);
+                if (page < 0) {
+                    return -1;
+                }
+                currentPage = page;
+                nextOffset = 0;
+            }
+            long address = ((long) currentPage << 32) | nextOffset;
+            nextOffset += chunkSize;
+            return address;
+        }
+
+        synchronized void free(long address) {
+            if (freeCount >= freeChunks.length) {
+                long[] newFreeChunks = new long[freeChunks.length << 1];
+                System.arraycopy(freeChunks, 0, newFreeChunks, 0, freeCount);
+                freeChunks = newFreeChunks;
+            }
+            freeChunks[freeCount++] = address;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package cloud.apposs.cache.jvm;
+
+import cloud.apposs.protobuf.ProtoBuf;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * 堆外存储的一级缓存节点，缓存数据存储在{@link SlabAllocator}分配的堆外内存块中，
+ * 堆内只保留Key、内存块地址和长度等元数据，
+ * 采用引用计数保证读取数据时内存块不会被释放复用，缓存移除后最后一个读取者负责释放内存块
+ */
+public class SlabElement0 extends Element0 {
+    private static final long serialVersionUID = -2263151928460547871L;
+
+    /**
+     * 堆内元数据的大概字节大小，包括对象头、统计字段和索引指针
+     */
+    private static final int ELEMENT_SIZE = 128;
+
+    private static final AtomicIntegerFieldUpdater<SlabElement0> REFERENCE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(SlabElement0.class, "references");
+
+    private final transient SlabAllocator allocator;
+
+    private final long address;
+
+    private final int length;
+
+    /**
+     * 引用计数，缓存本身持有一个引用，为0时内存块已经释放
+     */
+    private volatile int references = 1;
+
+    public SlabElement0(String key, SlabAllocator allocator, long address, int length) {
+        super(key, (Object) Boolean.TRUE);
+        this.allocator = allocator;
+        this.address = address;
+        this.length = length;
+    }
+
+    /**
+     * 获取数据在堆外的内存块地址
+     */
+    public long getAddress() {
+        return address;
+    }
+
+    /**
+     * 获取数据长度
+     */
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public Object getValue(boolean update) {
+        if (update) {
+            doUpdateStatus();
+        }
+        return doRead();
+    }
+
+    /**
+     * 从堆外内存复制数据，缓存已经被移除时返回null
+     */
+    @Override
+    public ProtoBuf getBuf() {
+        byte[] value = (byte[]) getValue(true);
+        if (value == null) {
+            return null;
+        }
+        return ProtoBuf.wrap(value);
+    }
+
+    @Override
+    public int doCalculateByteSize() {
+        return ELEMENT_SIZE + key.length();
+    }
+
+    /**
+     * 缓存被移除时释放缓存本身持有的引用，没有其他读取者时立即释放内存块
+     */
+    public void release() {
+        doReleaseReference();
+    }
+
+    private byte[] doRead() {
+        // 先增加引用计数，保证复制数据期间内存块不会被释放
+        while (true) {
+            int references = this.references;
+            if (references <= 0) {
+                return null;
+            }
+            if (REFERENCE_UPDATER.compareAndSet(this, references, references + 1)) {
+                break;
+            }
+        }
+        try {
+            return allocator.read(address, length);
+        } finally {
+            doReleaseReference();
+        }
+    }
+
+    private void doReleaseReference() {
+        while (true) {
+            int references = this.references;
+            if (references <= 0) {
+                return;
+            }
+            if (REFERENCE_UPDATER.compareAndSet(this, references, references - 1)) {
+                if (references == 1) {
+                    allocator.free(address);
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder info = new StringBuilder();
+        info.append("[Key=").append(key);
+        info.append(", Address=").append(address);
+        info.append(", Length=").append(length);
+        info.append(", HitCount=").append(hitCount);
+        info.append(", ExpirationTime=").append(expirationTime);
+        info.append(", CreationTime=").append(creationTime);
+        info.append(", LastAccessTime=").append(lastAccessTime);
+        info.append("]");
+        return info.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package cloud.apposs.cache.jvm;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TinyLFU缓存回收/准入策略，
+ * 1. 采用{@link FrequencySketch}统计所有Key的命中和写入频率，内存固定并定期老化，被回收的Key频率依然保留
+ * 2. 缓存已满时新Key需要与采样选出的回收对象比较频率，只有频率更高才能替换，否则新Key直接被回收，
+ * 因此只访问一次的Key无法把热点数据挤出缓存
+ * 3. 已准入的新缓存处于保护窗口（最近添加的1%缓存）中时暂不参与回收采样，给其积累访问频率的机会
+ * 4. 采样的回收对象之间按频率比较，频率最低者被回收，频率相同时最近最少使用者被回收
+ */
+public class TinyLfuEvictionPolicy extends AbstractCacheEvictionPolicy implements CacheAdmissionPolicy {
+    /**
+     * 频率统计器默认容量
+     */
+    public static final int DEFAULT_SKETCH_CAPACITY = 1024;
+
+    /**
+     * 准入窗口占缓存条数的百分比
+     */
+    public static final int DEFAULT_WINDOW_PERCENT = 1;
+
+    private final FrequencySketch sketch = new FrequencySketch(DEFAULT_SKETCH_CAPACITY);
+
+    /**
+     * 缓存准入序号，用于判断缓存是否仍处于准入窗口中
+     */
+    private final AtomicLong admissionSequence = new AtomicLong(0L);
+
+    @Override
+    public String getName() {
+        return CacheEvictionPolicyStrategy.CACHE_POLICY_TINYLFU;
+    }
+
+    @Override
+    public final boolean compare(Element element1, Element element2) {
+        int frequency1 = sketch.frequency(element1.getKey());
+        int frequency2 = sketch.frequency(element2.getKey());
+        if (frequency2 != frequency1) {
+            return frequency2 < frequency1;
+        }
+        return element2.getLastAccessTime() < element1.getLastAccessTime();
+    }
+
+    @Override
+    public boolean admit(Element candidate, Element victim) {
+        return sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey());
+    }
+
+    @Override
+    public void recordAccess(String key) {
+        sketch.increment(key);
+    }
+
+    @Override
+    public void recordAdmission(Element element) {
+        ((AbstractElement) element).admissionOrder = admissionSequence.incrementAndGet();
+    }
+
+    @Override
+    public boolean isAdmitting(Element element, int cacheSize) {
+        long windowSize = Math.max(1, cacheSize * DEFAULT_WINDOW_PERCENT / 100);
+        long admissionOrder = ((AbstractElement) element).admissionOrder;
+        return admissionSequence.get() - admissionOrder < windowSize;
+    }
+
+    @Override
+    public void ensureCapacity(int cacheSize) {
+        sketch.ensureCapacity(cacheSize);
+    }
+
+    /**
+     * 获取Key的估算访问频率
+     */
+    public int frequency(String key) {
+        return sketch.frequency(key);
+    }
+}
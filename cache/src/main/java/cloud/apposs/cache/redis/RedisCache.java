@@ -11,6 +11,7 @@ import cloud.apposs.cache.redis.jedis.RedisCluster;
 import cloud.apposs.cache.redis.jedis.RedisSingle;
 import cloud.apposs.protobuf.ProtoBuf;
 import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.protobuf.ProtoView;
 import cloud.apposs.util.Param;
 import cloud.apposs.util.Table;
 
@@ -131,6 +132,11 @@ public class RedisCache implements Cache {
 		return proxy.getTable(key, schema);
 	}
 
+	@Override
+	public ProtoView getView(String key, ProtoSchema schema) {
+		return proxy.getView(key, schema);
+	}
+
 	@Override
 	public List<String> getStringList(List<String> keys) {
 		return proxy.getStringList(keys);
@@ -321,6 +327,11 @@ public class RedisCache implements Cache {
 		return proxy.hgetTable(key, field, schema);
 	}
 
+	@Override
+	public ProtoView hgetView(String key, String field, ProtoSchema schema) {
+		return proxy.hgetView(key, field, schema);
+	}
+
 	@Override
 	public Map<String, ProtoBuf> hgetBufferMap(String key) {
 		return proxy.hgetBufferMap(key);
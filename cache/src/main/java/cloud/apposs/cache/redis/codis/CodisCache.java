@@ -6,6 +6,7 @@ import cloud.apposs.cache.Cache;
 import cloud.apposs.cache.CacheStatistics;
 import cloud.apposs.protobuf.ProtoBuf;
 import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.protobuf.ProtoView;
 import cloud.apposs.util.Param;
 import cloud.apposs.util.Table;
 import redis.clients.jedis.Pipeline;
@@ -244,6 +245,15 @@ public class CodisCache implements Cache {
         return value;
     }
 
+    @Override
+    public ProtoView getView(String key, ProtoSchema schema) {
+        ProtoBuf buffer = get(key);
+        if (buffer == null) {
+            return null;
+        }
+        return ProtoView.wrap(buffer, schema);
+    }
+
     @Override
     public List<String> getStringList(List<String> keys) {
         if (keys == null) {
@@ -707,6 +717,15 @@ public class CodisCache implements Cache {
         return value.getTable(schema);
     }
 
+    @Override
+    public ProtoView hgetView(String key, String field, ProtoSchema schema) {
+        ProtoBuf value = hget(key, field);
+        if (value == null) {
+            return null;
+        }
+        return ProtoView.wrap(value, schema);
+    }
+
     @Override
     public Map<String, ProtoBuf> hgetBufferMap(String key) {
         if (key == null) {
@@ -47,6 +47,31 @@ public class TestCacheIncr {
         Assert.assertEquals(10001, value);
     }
 
+    /**
+     * 测试多个线程同时对同一个哈希字段调用hincrBy的原子性
+     */
+    @Test
+    public void testHincrBy() throws Exception {
+        int threadCount = 8;
+        final int total = 10000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < total; j++) {
+                        cache.hincrBy(key, "Field", 1);
+                    }
+                    latch.countDown();
+                }
+            });
+            t.setName("simulate-hincrBy-Task");
+            t.start();
+        }
+        latch.await();
+        Assert.assertEquals((long) threadCount * total, cache.hincrBy(key, "Field", 0));
+    }
+
     /**
      * 模拟多个线程同时调用incr方法，测试原子性
      */
@@ -6,14 +6,19 @@ import cloud.apposs.cache.jvm.JvmCache;
 import cloud.apposs.cache.jvm.JvmCacheListenerAdapter;
 import cloud.apposs.protobuf.ProtoBuf;
 import cloud.apposs.protobuf.ProtoSchema;
+import cloud.apposs.protobuf.ProtoView;
 import cloud.apposs.util.Param;
 import cloud.apposs.util.Table;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * -Xms100M -Xmx100M -Xmn10M -XX:+PrintGCDateStamps -XX:+PrintGCDetails
@@ -183,6 +188,157 @@ public class TestJvmCache {
         System.out.println("batch execute4:" + (System.currentTimeMillis() - start));
     }
 
+    /**
+     * 测试缓存过期时间轮，缓存到期后由过期线程及时删除并触发过期监听
+     */
+    @Test
+    public void testExpireByTimerWheel() throws Exception {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setExpirationTimeRandom(false);
+        jvmConfig.setExpirationTime(1000);
+        jvmConfig.setExpireCheckInterval(100);
+        JvmCache cache = new JvmCache(config);
+        final AtomicInteger expired = new AtomicInteger(0);
+        cache.addListener(new JvmCacheListenerAdapter() {
+            @Override
+            public void cacheExpired(String key, Element value) {
+                expired.incrementAndGet();
+            }
+        });
+        for (int i = 0; i < 1000; i++) {
+            cache.put("MyKey" + i, "MyValue" + i);
+            cache.hput("MyHKey" + i, "MyField", "MyValue" + i);
+        }
+        // 单独设置永不过期
+        cache.expire("MyKey0", -1);
+        Thread.sleep(3500);
+        Assert.assertEquals(1999, expired.get());
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(0, cache.getTimerWheel().size());
+    }
+
+    /**
+     * 测试缓存过期时间被延长后过期线程不会删除，删除后的缓存设置过期时间无效
+     */
+    @Test
+    public void testExpireExtendByTimerWheel() throws Exception {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setExpirationTimeRandom(false);
+        jvmConfig.setExpirationTime(1000);
+        jvmConfig.setExpireCheckInterval(100);
+        JvmCache cache = new JvmCache(config);
+        for (int i = 0; i < 100; i++) {
+            cache.put("MyKey" + i, "MyValue" + i);
+        }
+        for (int i = 0; i < 50; i++) {
+            Assert.assertEquals(1000, cache.expire("MyKey" + i, 60000));
+        }
+        cache.remove("MyKey99");
+        Assert.assertEquals(-1, cache.expire("MyKey99", 60000));
+        Thread.sleep(2500);
+        Assert.assertEquals(50, cache.size());
+        Assert.assertEquals("MyValue0", cache.getString("MyKey0"));
+        Assert.assertEquals(50, cache.getTimerWheel().size());
+    }
+
+    /**
+     * 测试堆外直接内存存储，内存上限按Slab内存块真实占用计算
+     */
+    @Test
+    public void testPutDirectStorage() throws Exception {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setStorage(JvmConfig.STORAGE_DIRECT);
+        jvmConfig.setSlabPageSize(64 * 1024);
+        jvmConfig.setMaxMemory(1024 * 1024 * 4);
+        JvmCache cache = new JvmCache(config);
+        ProtoSchema schema = ProtoSchema.getSchema(Product.class);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 200000; i++) {
+            String key = "MyKey" + i;
+            cache.put(key, new Product(i, "MyProduct" + i), schema);
+            Product product = cache.getObject(key, Product.class, schema);
+            Assert.assertEquals(i, product.getId());
+            Assert.assertEquals("MyProduct" + i, product.getName());
+        }
+        System.out.println(cache);
+        System.out.println("batch execute:" + (System.currentTimeMillis() - start));
+        Assert.assertTrue(cache.getSlabUsedBytes() <= 1024 * 1024 * 4);
+        cache.remove("MyKey199999");
+        Assert.assertNull(cache.get("MyKey199999"));
+        cache.shutdown();
+    }
+
+    /**
+     * 测试堆外存储关闭时并发读写不会访问已经释放的内存，关闭后读取返回空
+     */
+    @Test
+    public void testShutdownDirectStorage() throws Exception {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setStorage(JvmConfig.STORAGE_DIRECT);
+        final JvmCache cache = new JvmCache(config);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("MyKey" + i, "MyValue" + i);
+        }
+        final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        final CountDownLatch started = new CountDownLatch(4);
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            workers[t] = new Thread(() -> {
+                started.countDown();
+                try {
+                    for (int i = 0; i < 200000; i++) {
+                        String key = "MyKey" + (i % 1000);
+                        String value = cache.getString(key);
+                        if (value != null && !value.equals("MyValue" + (i % 1000))) {
+                            throw new IllegalStateException(key + "=" + value);
+                        }
+                        if (i % 10 == 0) {
+                            cache.put(key, "MyValue" + (i % 1000));
+                        }
+                    }
+                } catch (Throwable e) {
+                    error.set(e);
+                }
+            });
+            workers[t].start();
+        }
+        started.await();
+        Thread.sleep(20);
+        cache.shutdown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertNull(error.get());
+        Assert.assertNull(cache.getString("MyKey0"));
+        Assert.assertFalse(cache.put("MyKey0", "MyValue0"));
+    }
+
+    /**
+     * 测试堆外文件内存映射存储
+     */
+    @Test
+    public void testPutMappedStorage() throws Exception {
+        File slabFile = File.createTempFile("jvmcache", ".slab");
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setStorage(JvmConfig.STORAGE_MAPPED);
+        jvmConfig.setSlabFile(slabFile.getPath());
+        JvmCache cache = new JvmCache(config);
+        for (int i = 0; i < 10000; i++) {
+            cache.put("MyKey" + i, "MyValue" + i);
+        }
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals("MyValue" + i, cache.getString("MyKey" + i));
+        }
+        System.out.println(cache);
+        cache.shutdown();
+        Assert.assertFalse(slabFile.exists());
+    }
+
     /**
      * 测试List递归添加Scheme，示例结构如下
      * <pre>
@@ -331,6 +487,26 @@ public class TestJvmCache {
         System.out.println(products.size());
     }
 
+    /**
+     * 测试通过字段视图直接读取缓存对象的单个字段，不反序列化整个对象
+     */
+    @Test
+    public void testGetView() throws Exception {
+        CacheConfig config = new CacheConfig();
+        Cache cache = new JvmCache(config);
+        ProtoSchema schema = ProtoSchema.getSchema(Product.class);
+        cache.put("MyKey", new Product(1001, "MyProduct"), schema);
+        cache.hput("MyHKey", "MyField", new Product(1002, "MyHProduct"), schema);
+        ProtoView view = cache.getView("MyKey", schema);
+        Assert.assertTrue(view.getInt("id") == 1001);
+        Assert.assertTrue("MyProduct".equals(view.getString("name")));
+        ProtoView hview = cache.hgetView("MyHKey", "MyField", schema);
+        Assert.assertTrue("MyHProduct".equals(hview.getString("name")));
+        Assert.assertTrue(hview.getInt("id") == 1002);
+        Assert.assertNull(cache.getView("NoKey", schema));
+        Assert.assertNull(cache.hgetView("MyHKey", "NoField", schema));
+    }
+
     @Test
     public void testHPutParam() throws Exception {
         CacheConfig config = new CacheConfig();
@@ -0,0 +1,191 @@
+package cloud.apposs.cache;
+
+import cloud.apposs.cache.CacheConfig.JvmConfig;
+import cloud.apposs.cache.jvm.CacheEvictionPolicyStrategy;
+import cloud.apposs.cache.jvm.Element;
+import cloud.apposs.cache.jvm.Element0;
+import cloud.apposs.cache.jvm.JvmCache;
+import cloud.apposs.cache.jvm.JvmCacheSampler;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * 缓存回收策略命中率测试，采用Zipfian分布模拟热点Key访问
+ */
+public class TestJvmCacheEviction {
+    private static final int KEY_SPACE = 10000;
+    private static final int TRACE_LENGTH = 100000;
+    private static final int MAX_ELEMENTS = 500;
+    private static final double ZIPF_SKEW = 0.99;
+    private static final int MIN_HIT_RATIO = 45;
+
+    /**
+     * 测试各回收策略在热点访问下的命中率，LRU和按访问频率回收的策略需要高于随机回收，并且不低于命中率下限
+     */
+    @Test
+    public void testHitRatio() {
+        CacheStatistics lru = doRunTrace(CacheEvictionPolicyStrategy.CACHE_POLICY_LRU, 0);
+        CacheStatistics lfu = doRunTrace(CacheEvictionPolicyStrategy.CACHE_POLICY_LFU, 0);
+        CacheStatistics tinyLfu = doRunTrace(CacheEvictionPolicyStrategy.CACHE_POLICY_TINYLFU, 0);
+        CacheStatistics random = doRunTrace(null, 0);
+        String ratios = "LRU " + lru.getHitRatio() + "%, LFU " + lfu.getHitRatio() + "%, TinyLFU "
+                + tinyLfu.getHitRatio() + "%, Random " + random.getHitRatio() + "%";
+        System.out.println(ratios);
+        Assert.assertTrue(ratios, random.getHitRatio() >= MIN_HIT_RATIO);
+        Assert.assertTrue(ratios, lru.getHitCount() > random.getHitCount());
+        Assert.assertTrue(ratios, lfu.getHitCount() > random.getHitCount());
+        Assert.assertTrue(ratios, tinyLfu.getHitCount() > random.getHitCount());
+    }
+
+    /**
+     * 测试热点访问中夹杂大量只访问一次的Key时各回收策略的命中率，TinyLFU通过准入策略挡住只访问一次的Key，命中率需要高于LFU
+     */
+    @Test
+    public void testHitRatioWithOneHitKeys() {
+        CacheStatistics lfu = doRunTrace(CacheEvictionPolicyStrategy.CACHE_POLICY_LFU, 50);
+        CacheStatistics tinyLfu = doRunTrace(CacheEvictionPolicyStrategy.CACHE_POLICY_TINYLFU, 50);
+        Assert.assertTrue("TinyLFU " + tinyLfu.getHitCount() + " hits, LFU " + lfu.getHitCount() + " hits",
+                tinyLfu.getHitCount() > lfu.getHitCount());
+    }
+
+    /**
+     * 测试缓存已满时访问频率不足的新Key未通过TinyLFU准入策略，添加缓存返回false
+     */
+    @Test
+    public void testTinyLfuRejectedPut() {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setEvictionPolicy(CacheEvictionPolicyStrategy.CACHE_POLICY_TINYLFU);
+        jvmConfig.setMaxElements(10);
+        JvmCache cache = new JvmCache(config);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(cache.put("HotKey" + i, i));
+            for (int j = 0; j < 3; j++) {
+                Assert.assertEquals(Integer.valueOf(i), cache.getInt("HotKey" + i));
+            }
+        }
+        Assert.assertFalse(cache.put("ColdKey", 100));
+        Assert.assertNull(cache.getInt("ColdKey"));
+        Assert.assertEquals(10, cache.size());
+    }
+
+    /**
+     * 测试采样回收后缓存条数不超过上限
+     */
+    @Test
+    public void testMaxElements() {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setMaxElements(100);
+        JvmCache cache = new JvmCache(config);
+        for (int i = 0; i < 10000; i++) {
+            cache.put("MyKey" + i, i);
+        }
+        Assert.assertTrue(cache.size() <= 100);
+    }
+
+    /**
+     * 测试并发增删后采样索引中只保留未删除的节点，且所有节点都能被采样到
+     */
+    @Test
+    public void testSamplerConcurrent() throws Exception {
+        final JvmCacheSampler sampler = new JvmCacheSampler(16);
+        final int threads = 4;
+        final int count = 20000;
+        final Element0[][] elements = new Element0[threads][count];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < count; i++) {
+                    elements[index][i] = new Element0("Key" + index + "_" + i, (Object) i);
+                    sampler.add(elements[index][i]);
+                    if (i % 2 == 1) {
+                        Assert.assertTrue(sampler.remove(elements[index][i - 1]));
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        Assert.assertEquals(threads * count / 2, sampler.size());
+        Set<Element> sampled = new HashSet<Element>();
+        int bound = sampler.bound();
+        for (int i = 0; i < threads * count * 20; i++) {
+            sampled.add(sampler.sample(bound));
+        }
+        Assert.assertEquals(threads * count / 2, sampled.size());
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < count; i++) {
+                Assert.assertEquals(i % 2 == 1, sampled.contains(elements[t][i]));
+            }
+        }
+    }
+
+    /**
+     * 运行访问轨迹
+     *
+     * @param policy         回收策略
+     * @param oneHitPercent  只访问一次的Key所占的百分比
+     */
+    private CacheStatistics doRunTrace(String policy, int oneHitPercent) {
+        CacheConfig config = new CacheConfig();
+        JvmConfig jvmConfig = config.getJvmConfig();
+        jvmConfig.setEvictionPolicy(policy);
+        jvmConfig.setMaxElements(MAX_ELEMENTS);
+        JvmCache cache = new JvmCache(config);
+        ZipfianGenerator generator = new ZipfianGenerator(KEY_SPACE, ZIPF_SKEW, 1L);
+        long start = System.currentTimeMillis();
+        Random random = new Random(1L);
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            String key = random.nextInt(100) < oneHitPercent ? "OneHitKey" + i : "MyKey" + generator.next();
+            if (cache.getInt(key) == null) {
+                cache.put(key, i);
+            }
+        }
+        System.out.println("trace execute:" + (System.currentTimeMillis() - start) + ", " + cache);
+        return cache.getStatistics();
+    }
+
+    /**
+     * Zipfian分布生成器，预先计算累积分布后二分查找
+     */
+    static class ZipfianGenerator {
+        private final double[] cdf;
+        private final Random random;
+
+        ZipfianGenerator(int size, double skew, long seed) {
+            this.cdf = new double[size];
+            this.random = new Random(seed);
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += 1.0d / Math.pow(i + 1, skew);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < size; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int next() {
+            double value = random.nextDouble();
+            int low = 0;
+            int high = cdf.length - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (cdf[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cloud.apposs.cachex;
 
 import cloud.apposs.protobuf.ProtoBuf;
+import cloud.apposs.protobuf.ProtoBufAllocator;
 import cloud.apposs.protobuf.ProtoSchema;
 import cloud.apposs.util.Table;
 
@@ -80,14 +81,20 @@ public class TableCacheX<K extends CacheKey> extends AbstractCacheX<K, Table<?>>
     public boolean doHputAll(String key, List<Table<?>> value, ProtoSchema schema, Object... args) {
         Charset charset = config.getChrset();
         Map<byte[], byte[]> infoList = new HashMap<byte[], byte[]>();
-        for (Table<?> info : value) {
-            String mapKey = loader.getField(info);
-            if (mapKey == null) {
-                throw new IllegalStateException("CacheLoader get field null error");
+        // 序列化缓冲在循环中复用，全部序列化完毕后归还
+        ProtoBuf buffer = ProtoBufAllocator.HEAP.allocate();
+        try {
+            for (Table<?> info : value) {
+                String mapKey = loader.getField(info);
+                if (mapKey == null) {
+                    throw new IllegalStateException("CacheLoader get field null error");
+                }
+                buffer.reset();
+                buffer.putObject(info, schema);
+                infoList.put(mapKey.getBytes(charset), buffer.array());
             }
-            ProtoBuf buffer = ProtoBuf.allocate();
-            buffer.putObject(info, schema);
-            infoList.put(mapKey.getBytes(charset), buffer.array());
+        } finally {
+            buffer.release();
         }
         return cache.hmput(key, infoList);
     }
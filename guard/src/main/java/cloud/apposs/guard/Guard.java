@@ -1,6 +1,7 @@
 package cloud.apposs.guard;
 
 import cloud.apposs.guard.exception.BlockException;
+import cloud.apposs.guard.node.Node;
 import cloud.apposs.guard.slotchain.DefaultSlotChainBuilder;
 import cloud.apposs.guard.slotchain.ProcessorSlotChain;
 import cloud.apposs.guard.slotchain.SlotChainBuilder;
@@ -16,8 +17,39 @@ public final class Guard {
         chain = builder.build();
     }
 
+    /**
+     * 空附带参数，避免无参进入资源时创建可变参数数组
+     */
+    private static final Object[] EMPTY_ARGS = new Object[0];
+
     public static ResourceToken entry(String resource) throws BlockException {
-        return entry(resource, (Object) null);
+        ResourceToken resourceToken = new ResourceToken(resource, chain);
+        return doEntry(resource, resourceToken, EMPTY_ARGS);
+    }
+
+    /**
+     * 附带单个参数进入资源，只有附带参数时才创建参数数组
+     *
+     * @param resource 资源名
+     * @param arg 附带参数，一般为限制关键字
+     */
+    public static ResourceToken entry(String resource, Object arg) throws BlockException {
+        ResourceToken resourceToken = new ResourceToken(resource, chain);
+        return doEntry(resource, resourceToken, arg == null ? EMPTY_ARGS : new Object[] {arg});
+    }
+
+    /**
+     * 附带long类型参数进入资源，参数不装箱，保存在令牌中，
+     * 处理槽通过{@link ResourceToken#getPrimitiveArg()}获取，需要作为对象使用时等同于Long类型参数，
+     * 不与{@link #entry(String, Object)}重载，避免int等参数被拓宽为long导致限制关键字类型改变
+     *
+     * @param resource 资源名
+     * @param arg 附带参数，例如用户ID
+     */
+    public static ResourceToken entryLong(String resource, long arg) throws BlockException {
+        ResourceToken resourceToken = new ResourceToken(resource, chain);
+        resourceToken.setPrimitiveArg(arg);
+        return doEntry(resource, resourceToken, EMPTY_ARGS);
     }
 
     /**
@@ -30,6 +62,10 @@ public final class Guard {
      */
     public static ResourceToken entry(String resource, Object... args) throws BlockException {
         ResourceToken resourceToken = new ResourceToken(resource, chain);
+        return doEntry(resource, resourceToken, args);
+    }
+
+    private static ResourceToken doEntry(String resource, ResourceToken resourceToken, Object[] args) throws BlockException {
         try {
             chain.entry(resource, null, resourceToken, 1, args);
         } catch (BlockException e) {
@@ -53,6 +89,9 @@ public final class Guard {
         if(cause instanceof BlockException) {
             return;
         }
-        token.getNode().addException(count);
+        Node node = token.getNode();
+        if (node != null) {
+            node.addException(count);
+        }
     }
 }
@@ -23,4 +23,64 @@ public final class GuardConstants {
      * 默认恢复时间 1 s
      */
     public static final long DEFAULT_RESTORE_TIME = 1000;
+
+    /**
+     * 限制关键字概率计数器默认宽度，即每行计数器数量
+     */
+    public static final int DEFAULT_SKETCH_WIDTH = 1024;
+
+    /**
+     * 限制关键字概率计数器默认深度，即哈希函数数量
+     */
+    public static final int DEFAULT_SKETCH_DEPTH = 4;
+
+    /**
+     * 默认精确计数的热点关键字数量
+     */
+    public static final int DEFAULT_HOT_KEY_SIZE = 64;
+
+    /**
+     * 关键字估算计数达到阈值的比例时判定为疑似热点关键字
+     */
+    public static final double DEFAULT_HOT_KEY_RATIO = 0.5;
+
+    /**
+     * 自适应并发默认初始并发限制
+     */
+    public static final int DEFAULT_ADAPTIVE_INITIAL_LIMIT = 20;
+
+    /**
+     * 自适应并发默认最小并发限制
+     */
+    public static final int DEFAULT_ADAPTIVE_MIN_LIMIT = 1;
+
+    /**
+     * 自适应并发默认最大并发限制
+     */
+    public static final int DEFAULT_ADAPTIVE_MAX_LIMIT = 1000;
+
+    /**
+     * 自适应并发默认调整间隔，单位毫秒
+     */
+    public static final long DEFAULT_ADAPTIVE_UPDATE_INTERVAL_IN_MS = 100;
+
+    /**
+     * 集群限流默认令牌服务端口
+     */
+    public static final int DEFAULT_CLUSTER_SERVER_PORT = 18730;
+
+    /**
+     * 集群限流请求令牌默认超时时间，超时则降级为单机限流，单位毫秒
+     */
+    public static final int DEFAULT_CLUSTER_TIMEOUT_IN_MS = 50;
+
+    /**
+     * 集群限流令牌服务不可用时重新连接的间隔，单位毫秒
+     */
+    public static final long DEFAULT_CLUSTER_RETRY_INTERVAL_IN_MS = 1000;
+
+    /**
+     * 集群限流默认每次申请的令牌数为阈值除以该值
+     */
+    public static final int DEFAULT_CLUSTER_BATCH_DIVISOR = 20;
 }
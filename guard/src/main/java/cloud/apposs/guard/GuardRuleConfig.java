@@ -27,6 +27,18 @@ public class GuardRuleConfig {
      * 熔断恢复时间（ms）
      */
     private long restoreTimeInMs = GuardConstants.DEFAULT_RESTORE_TIME;
+    /**
+     * 关键字限流是否采用概率计数，关键字数量巨大时开启以固定内存占用
+     */
+    private boolean limitKeySketch = false;
+    /**
+     * 自适应并发的调整算法，阈值为最大并发限制
+     */
+    private String adaptiveAlgorithm;
+    /**
+     * 集群限流令牌服务地址，格式为host:port
+     */
+    private String clusterServer;
 
     public String getType() {
         return type;
@@ -83,4 +95,28 @@ public class GuardRuleConfig {
     public void setRestoreTimeInMs(long restoreTimeInMs) {
         this.restoreTimeInMs = restoreTimeInMs;
     }
+
+    public boolean isLimitKeySketch() {
+        return limitKeySketch;
+    }
+
+    public void setLimitKeySketch(boolean limitKeySketch) {
+        this.limitKeySketch = limitKeySketch;
+    }
+
+    public String getAdaptiveAlgorithm() {
+        return adaptiveAlgorithm;
+    }
+
+    public void setAdaptiveAlgorithm(String adaptiveAlgorithm) {
+        this.adaptiveAlgorithm = adaptiveAlgorithm;
+    }
+
+    public String getClusterServer() {
+        return clusterServer;
+    }
+
+    public void setClusterServer(String clusterServer) {
+        this.clusterServer = clusterServer;
+    }
 }
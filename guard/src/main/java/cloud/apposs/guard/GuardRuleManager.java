@@ -1,6 +1,9 @@
 package cloud.apposs.guard;
 
 import cloud.apposs.guard.slot.ControlBehavior;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRule;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRule.AdaptiveAlgorithm;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRuleManager;
 import cloud.apposs.guard.slot.flow.rule.FlowRule;
 import cloud.apposs.guard.slot.flow.rule.FlowRuleManager;
 import cloud.apposs.guard.slot.fuse.rule.FuseRule;
@@ -14,6 +17,7 @@ public class GuardRuleManager {
     public static final String RULE_FLOW = "FLOW";
     public static final String RULE_FUSE = "FUSE";
     public static final String RULE_LIMITKEY = "LIMITKEY";
+    public static final String RULE_ADAPTIVE = "ADAPTIVE";
 
     public static boolean loadRule(GuardRuleConfig config) {
         String ruleType = config.getType();
@@ -31,6 +35,9 @@ public class GuardRuleManager {
             ControlBehavior behavior = ControlBehavior.Reject;
             if (ControlBehavior.WarmUp.name().equalsIgnoreCase(controlBehavior)) {
                 behavior = ControlBehavior.WarmUp;
+            } else if (ControlBehavior.Cluster.name().equalsIgnoreCase(controlBehavior)) {
+                behavior = ControlBehavior.Cluster;
+                rule.setClusterServer(config.getClusterServer());
             }
             rule.setControlBehavior(behavior);
             FlowRuleManager.loadRule(rule);
@@ -55,9 +62,22 @@ public class GuardRuleManager {
             LimitKeyRule rule = new LimitKeyRule();
             rule.setThreshold(ruleThreshold);
             rule.setResource(ruleResource);
+            rule.setUsingSketch(config.isLimitKeySketch());
             LimitKeyRuleManager.loadRule(rule);
             return true;
         }
+        if (RULE_ADAPTIVE.equalsIgnoreCase(ruleType)) {
+            AdaptiveAlgorithm algorithm = AdaptiveAlgorithm.VEGAS;
+            if (AdaptiveAlgorithm.GRADIENT.name().equalsIgnoreCase(config.getAdaptiveAlgorithm())) {
+                algorithm = AdaptiveAlgorithm.GRADIENT;
+            }
+            AdaptiveRule rule = new AdaptiveRule(algorithm);
+            rule.setResource(ruleResource);
+            rule.setMaxLimit(ruleThreshold);
+            rule.setInitialLimit(Math.min(rule.getInitialLimit(), ruleThreshold));
+            AdaptiveRuleManager.loadRule(rule);
+            return true;
+        }
 
         return false;
     }
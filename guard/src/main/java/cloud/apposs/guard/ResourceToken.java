@@ -4,7 +4,8 @@ import cloud.apposs.guard.node.Node;
 import cloud.apposs.guard.slotchain.ProcessorSlotChain;
 
 /**
- * 资源令牌，只有正常获取令牌才可以进入资源
+ * 资源令牌，只有正常获取令牌才可以进入资源，
+ * 令牌会被调用方持有到{@link #exit()}之后，所以不做回收复用，避免过期引用归还其他调用方的令牌
  */
 public class ResourceToken {
     private String resource;
@@ -17,6 +18,20 @@ public class ResourceToken {
 
     private Node node;
 
+    /**
+     * 基本类型附带参数，为避免装箱不放入可变参数数组中
+     */
+    private long primitiveArg;
+
+    private boolean hasPrimitiveArg;
+
+    /**
+     * 是否已经通过所有处理槽进入资源，进入资源的令牌归还时才减少资源的并发数
+     */
+    private boolean passed;
+
+    private boolean exited;
+
     public ResourceToken(String resource, ProcessorSlotChain chain) {
         this.resource = resource;
         this.createTime = System.currentTimeMillis();
@@ -24,12 +39,20 @@ public class ResourceToken {
     }
 
     /**
-     * 正常进入资源之后通过这个方法归还令牌
+     * 正常进入资源之后通过这个方法归还令牌，重复归还不会重复统计
      */
     public void exit(){
+        if (exited) {
+            return;
+        }
+        exited = true;
         chain.exit(resource, node, this, 1);
     }
 
+    public String getResource() {
+        return resource;
+    }
+
     public Exception getException() {
         return exception;
     }
@@ -42,6 +65,14 @@ public class ResourceToken {
         this.node = node;
     }
 
+    public boolean isPassed() {
+        return passed;
+    }
+
+    public void setPassed(boolean passed) {
+        this.passed = passed;
+    }
+
     public long getCreateTime() {
         return createTime;
     }
@@ -49,4 +80,20 @@ public class ResourceToken {
     public Node getNode() {
         return node;
     }
+
+    /**
+     * 是否附带基本类型参数，详见{@link Guard#entryLong(String, long)}
+     */
+    public boolean hasPrimitiveArg() {
+        return hasPrimitiveArg;
+    }
+
+    public long getPrimitiveArg() {
+        return primitiveArg;
+    }
+
+    void setPrimitiveArg(long primitiveArg) {
+        this.primitiveArg = primitiveArg;
+        this.hasPrimitiveArg = true;
+    }
 }
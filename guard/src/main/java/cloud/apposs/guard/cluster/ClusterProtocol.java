@@ -0,0 +1,59 @@
+package cloud.apposs.guard.cluster;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * 集群限流令牌协议，基于TCP长连接的二进制请求应答，
+ * 请求格式：魔数(2字节) + 请求类型(1字节) + 请求ID(4字节) + 资源名(UTF) + QPS阈值(8字节) + 申请令牌数(4字节)
+ * 应答格式：魔数(2字节) + 请求ID(4字节) + 状态(1字节) + 分配令牌数(4字节)
+ */
+public final class ClusterProtocol {
+    public static final short MAGIC = (short) 0xC7F1;
+
+    /**
+     * 请求类型：申请令牌
+     */
+    public static final byte TYPE_ACQUIRE = 1;
+
+    /**
+     * 应答状态：分配成功，分配令牌数可能少于申请令牌数
+     */
+    public static final byte STATUS_OK = 0;
+
+    /**
+     * 应答状态：当前统计周期内集群令牌已经分配完
+     */
+    public static final byte STATUS_NO_TOKEN = 1;
+
+    /**
+     * 应答状态：请求格式错误
+     */
+    public static final byte STATUS_BAD_REQUEST = 2;
+
+    public static void writeRequest(DataOutputStream output, int requestId,
+                                    String resource, long threshold, int count) throws IOException {
+        output.writeShort(MAGIC);
+        output.writeByte(TYPE_ACQUIRE);
+        output.writeInt(requestId);
+        output.writeUTF(resource);
+        output.writeLong(threshold);
+        output.writeInt(count);
+        output.flush();
+    }
+
+    public static void writeResponse(DataOutputStream output, int requestId, byte status, int granted) throws IOException {
+        output.writeShort(MAGIC);
+        output.writeInt(requestId);
+        output.writeByte(status);
+        output.writeInt(granted);
+        output.flush();
+    }
+
+    static void checkMagic(DataInputStream input) throws IOException {
+        if (input.readShort() != MAGIC) {
+            throw new IOException("bad cluster protocol magic");
+        }
+    }
+}
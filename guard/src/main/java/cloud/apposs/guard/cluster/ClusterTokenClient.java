@@ -0,0 +1,172 @@
+package cloud.apposs.guard.cluster;
+
+import cloud.apposs.guard.GuardConstants;
+import cloud.apposs.logger.Logger;
+import cloud.apposs.util.StrUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 集群限流令牌客户端，通过一条长连接同步向{@link ClusterTokenServer}申请令牌，
+ * 1. 连接失败或者请求超时时关闭连接并在重试间隔内直接返回失败，调用方降级为单机限流，避免令牌服务故障拖慢业务请求
+ * 2. 同一个令牌服务地址的客户端可以通过{@link #getClient(String)}共享
+ */
+public class ClusterTokenClient {
+    /**
+     * 申请令牌失败，令牌服务不可用
+     */
+    public static final int UNAVAILABLE = -1;
+
+    private static final Map<String, ClusterTokenClient> clients = new ConcurrentHashMap<String, ClusterTokenClient>();
+
+    private final InetSocketAddress address;
+
+    private final int timeoutInMs;
+
+    private final Lock lock = new ReentrantLock();
+
+    private Socket socket;
+
+    private DataInputStream input;
+
+    private DataOutputStream output;
+
+    private int requestId;
+
+    /**
+     * 令牌服务不可用的截止时间，在此之前不再尝试连接
+     */
+    private volatile long unavailableUntil;
+
+    public ClusterTokenClient(String host, int port) {
+        this(new InetSocketAddress(host, port), GuardConstants.DEFAULT_CLUSTER_TIMEOUT_IN_MS);
+    }
+
+    public ClusterTokenClient(InetSocketAddress address, int timeoutInMs) {
+        if (address == null) {
+            throw new IllegalArgumentException("address");
+        }
+        if (timeoutInMs <= 0) {
+            throw new IllegalArgumentException("timeoutInMs");
+        }
+        this.address = address;
+        this.timeoutInMs = timeoutInMs;
+    }
+
+    /**
+     * 获取共享的令牌客户端
+     *
+     * @param server 令牌服务地址，格式为host:port，不指定端口时为默认端口
+     */
+    public static ClusterTokenClient getClient(String server) {
+        if (StrUtil.isEmpty(server)) {
+            throw new IllegalArgumentException("server");
+        }
+        ClusterTokenClient client = clients.get(server);
+        if (client == null) {
+            String host = server;
+            int port = GuardConstants.DEFAULT_CLUSTER_SERVER_PORT;
+            int index = server.lastIndexOf(':');
+            if (index > 0) {
+                host = server.substring(0, index);
+                port = Integer.parseInt(server.substring(index + 1));
+            }
+            ClusterTokenClient newClient = new ClusterTokenClient(host, port);
+            client = clients.putIfAbsent(server, newClient);
+            if (client == null) {
+                client = newClient;
+            }
+        }
+        return client;
+    }
+
+    public InetSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * 申请令牌
+     *
+     * @param  resource  资源名
+     * @param  threshold 资源集群QPS阈值
+     * @param  count     申请的令牌数
+     * @return 分配的令牌数，为0时表示集群令牌已经分配完，为{@link #UNAVAILABLE}时表示令牌服务不可用
+     */
+    public int acquire(String resource, long threshold, int count) {
+        if (System.currentTimeMillis() < unavailableUntil) {
+            return UNAVAILABLE;
+        }
+        lock.lock();
+        try {
+            if (socket == null) {
+                doConnect();
+            }
+            int id = ++requestId;
+            ClusterProtocol.writeRequest(output, id, resource, threshold, count);
+            ClusterProtocol.checkMagic(input);
+            int responseId = input.readInt();
+            byte status = input.readByte();
+            int granted = input.readInt();
+            if (responseId != id) {
+                throw new IOException("cluster token response id " + responseId + " mismatch " + id);
+            }
+            if (status == ClusterProtocol.STATUS_BAD_REQUEST) {
+                return UNAVAILABLE;
+            }
+            return granted;
+        } catch (IOException e) {
+            Logger.warn(e, "cluster token server %s unavailable", address);
+            unavailableUntil = System.currentTimeMillis() + GuardConstants.DEFAULT_CLUSTER_RETRY_INTERVAL_IN_MS;
+            doClose();
+            return UNAVAILABLE;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() {
+        lock.lock();
+        try {
+            doClose();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void doConnect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutInMs);
+            socket.connect(address, timeoutInMs);
+            this.input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            this.socket = socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private void doClose() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+            }
+        }
+        socket = null;
+        input = null;
+        output = null;
+    }
+}
@@ -0,0 +1,213 @@
+package cloud.apposs.guard.cluster;
+
+import cloud.apposs.guard.GuardConstants;
+import cloud.apposs.logger.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集群限流令牌服务，可以由集群中的一个节点嵌入启动，也可以单独部署，
+ * 1. 按资源统计每秒已经分配的令牌数，分配总数不超过资源的QPS阈值
+ * 2. 节点按批次申请令牌并在本地缓存，减少每个请求都访问令牌服务的网络开销
+ * 3. 每个连接一个处理线程，集群节点数量一般不会很多
+ * 使用方式如下：
+ * <pre>
+ * ClusterTokenServer server = new ClusterTokenServer(18730);
+ * server.start();
+ * </pre>
+ */
+public class ClusterTokenServer {
+    private final InetSocketAddress address;
+
+    private ServerSocket serverSocket;
+
+    private volatile boolean running = false;
+
+    /**
+     * 资源每秒分配令牌统计
+     */
+    private final Map<String, TokenWindow> windows = new ConcurrentHashMap<String, TokenWindow>();
+
+    private final Set<Socket> connections = ConcurrentHashMap.<Socket>newKeySet();
+
+    private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+    public ClusterTokenServer() {
+        this(GuardConstants.DEFAULT_CLUSTER_SERVER_PORT);
+    }
+
+    /**
+     * 创建只监听本机回环地址的令牌服务
+     */
+    public ClusterTokenServer(int port) {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public ClusterTokenServer(InetSocketAddress address) {
+        if (address == null) {
+            throw new IllegalArgumentException("address");
+        }
+        this.address = address;
+    }
+
+    public synchronized void start() throws IOException {
+        if (running) {
+            return;
+        }
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address);
+        running = true;
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                doAccept();
+            }
+        }, "cluster-token-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * 获取实际监听的端口，监听端口为0时由系统分配
+     */
+    public int getPort() {
+        return serverSocket == null ? address.getPort() : serverSocket.getLocalPort();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public synchronized void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        doClose(serverSocket);
+        for (Socket connection : connections) {
+            doClose(connection);
+        }
+        connections.clear();
+    }
+
+    /**
+     * 分配令牌
+     *
+     * @param  resource  资源名
+     * @param  threshold 资源QPS阈值
+     * @param  count     申请的令牌数
+     * @return 实际分配的令牌数，为0时表示当前统计周期内令牌已经分配完
+     */
+    public int acquire(String resource, long threshold, int count) {
+        TokenWindow window = windows.get(resource);
+        if (window == null) {
+            TokenWindow newWindow = new TokenWindow();
+            window = windows.putIfAbsent(resource, newWindow);
+            if (window == null) {
+                window = newWindow;
+            }
+        }
+        return window.acquire(System.currentTimeMillis() / 1000, threshold, count);
+    }
+
+    private void doAccept() {
+        while (running) {
+            try {
+                final Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread handler = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        doHandle(socket);
+                    }
+                }, "cluster-token-handler-" + threadNumber.getAndIncrement());
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                if (running) {
+                    Logger.warn(e, "cluster token server accept fail");
+                }
+            }
+        }
+    }
+
+    private void doHandle(Socket socket) {
+        try {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            while (running) {
+                ClusterProtocol.checkMagic(input);
+                byte type = input.readByte();
+                int requestId = input.readInt();
+                String resource = input.readUTF();
+                long threshold = input.readLong();
+                int count = input.readInt();
+                if (type != ClusterProtocol.TYPE_ACQUIRE || count <= 0) {
+                    ClusterProtocol.writeResponse(output, requestId, ClusterProtocol.STATUS_BAD_REQUEST, 0);
+                    continue;
+                }
+                int granted = acquire(resource, threshold, count);
+                byte status = granted > 0 ? ClusterProtocol.STATUS_OK : ClusterProtocol.STATUS_NO_TOKEN;
+                ClusterProtocol.writeResponse(output, requestId, status, granted);
+            }
+        } catch (EOFException e) {
+            // 客户端关闭连接
+        } catch (SocketException e) {
+            // 服务关闭或者客户端断开连接
+        } catch (IOException e) {
+            Logger.warn(e, "cluster token connection %s fail", socket.getRemoteSocketAddress());
+        } finally {
+            connections.remove(socket);
+            doClose(socket);
+        }
+    }
+
+    private static void doClose(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (IOException e) {
+        }
+    }
+
+    /**
+     * 资源当前秒的令牌分配统计
+     */
+    private static final class TokenWindow {
+        private long second;
+
+        private long granted;
+
+        synchronized int acquire(long now, long threshold, int count) {
+            if (now != second) {
+                second = now;
+                granted = 0;
+            }
+            long rest = threshold - granted;
+            if (rest <= 0) {
+                return 0;
+            }
+            int grant = (int) Math.min(rest, count);
+            granted += grant;
+            return grant;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package cloud.apposs.guard.exception;
+
+/**
+ * 并发数超过自适应并发限制时的阻断异常
+ */
+public class AdaptiveBlockException extends BlockException {
+    public AdaptiveBlockException(String resource) {
+        super(resource);
+    }
+}
@@ -45,4 +45,13 @@ public interface Node {
      * 平均响应时间
      */
     public long avgRespTime();
+
+    /**
+     * 当前正在处理的请求数，即已经进入资源还未归还令牌的请求数
+     */
+    public int curConcurrency();
+
+    public void increaseConcurrency();
+
+    public void decreaseConcurrency();
 }
@@ -5,6 +5,8 @@ import cloud.apposs.guard.tool.MetricBucket;
 import cloud.apposs.guard.tool.MetricControl;
 import cloud.apposs.guard.tool.SlideWindowControl;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * 资源节点，保存了资源的信息
  */
@@ -16,6 +18,11 @@ public class ResourceNode implements Node {
      */
     private SlideWindowControl<MetricBucket> control;
 
+    /**
+     * 当前正在处理的请求数
+     */
+    private final AtomicInteger concurrency = new AtomicInteger();
+
     public ResourceNode(String resource) {
         this.control = new MetricControl(GuardConstants.DEFAULT_WINDOW_SAMPLE_SIZE,
                 GuardConstants.DEFAULT_WINDOW_INTERVAL_IN_MS);
@@ -86,8 +93,9 @@ public class ResourceNode implements Node {
 
     @Override
     public void addRespTimeAndSuccCount(long respTime, int count) {
-        control.currentWindow().value().addRespTime(respTime);
-        control.currentWindow().value().addSuccess(count);
+        MetricBucket bucket = control.currentWindow().value();
+        bucket.addRespTime(respTime);
+        bucket.addSuccess(count);
     }
 
     @Override
@@ -108,17 +116,36 @@ public class ResourceNode implements Node {
         return wrap.get(MetricBucket.SectionEnum.PASS);
     }
 
+    @Override
+    public int curConcurrency() {
+        return concurrency.get();
+    }
+
+    @Override
+    public void increaseConcurrency() {
+        concurrency.incrementAndGet();
+    }
+
+    @Override
+    public void decreaseConcurrency() {
+        concurrency.decrementAndGet();
+    }
+
     public String getResource() {
         return resource;
     }
 
     /**
-     * 根据数据域获取有效窗口的统计值
+     * 根据数据域获取有效窗口的统计值，按下标遍历窗口，每次限流检查不创建窗口集合
      */
     private long getValidWindowData(MetricBucket.SectionEnum type) {
         long data = 0;
-        for (MetricBucket window : control.windows()) {
-            data += window.get(type);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < control.getSampleCount(); i++) {
+            MetricBucket window = control.validWindow(i, now);
+            if (window != null) {
+                data += window.get(type);
+            }
         }
         return data;
     }
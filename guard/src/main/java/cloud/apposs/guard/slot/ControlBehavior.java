@@ -12,5 +12,10 @@ public enum ControlBehavior {
     /**
      * 冷启动
      */
-    WarmUp
+    WarmUp,
+
+    /**
+     * 集群限流，阈值为整个集群的QPS阈值，令牌由集群令牌服务分配
+     */
+    Cluster
 }
@@ -0,0 +1,40 @@
+package cloud.apposs.guard.slot.adaptive;
+
+import cloud.apposs.guard.ResourceToken;
+import cloud.apposs.guard.exception.AdaptiveBlockException;
+import cloud.apposs.guard.exception.BlockException;
+import cloud.apposs.guard.node.Node;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRule;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRuleManager;
+import cloud.apposs.guard.slotchain.AbstractLinkedProcessorSlot;
+
+import java.util.List;
+
+/**
+ * 自适应并发处理槽，根据资源的响应时间和通过数自动调整并发限制，
+ * 当前并发数超过并发限制时阻断请求，资源的并发数由{@link cloud.apposs.guard.slot.statistic.StatisticSlot}统计
+ */
+public class AdaptiveSlot extends AbstractLinkedProcessorSlot {
+    @Override
+    public void entry(String resource, Node node, ResourceToken resourceToken, int token, Object... args) throws BlockException {
+        checkAdaptiveRules(resource, node, token);
+        fireEntry(resource, node, resourceToken, token, args);
+    }
+
+    private void checkAdaptiveRules(String resource, Node node, int token) throws AdaptiveBlockException {
+        List<AdaptiveRule> rules = AdaptiveRuleManager.getRules(resource);
+        if (rules == null) {
+            return;
+        }
+        for (AdaptiveRule rule : rules) {
+            if (!rule.passCheck(node, token)) {
+                throw new AdaptiveBlockException(resource);
+            }
+        }
+    }
+
+    @Override
+    public void exit(String resource, Node node, ResourceToken resourceToken, int token) {
+        fireExit(resource, node, resourceToken, token);
+    }
+}
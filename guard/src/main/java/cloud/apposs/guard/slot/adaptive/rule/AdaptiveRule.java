@@ -0,0 +1,243 @@
+package cloud.apposs.guard.slot.adaptive.rule;
+
+import cloud.apposs.guard.GuardConstants;
+import cloud.apposs.guard.node.Node;
+import cloud.apposs.guard.slot.Rule;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 自适应并发规则，不需要配置固定阈值，而是根据资源的响应时间和通过数周期性地调整并发限制，
+ * 1. 响应时间接近无负载时的响应时间，说明资源还有余量，逐步提高并发限制
+ * 2. 响应时间明显升高，说明请求开始排队，降低并发限制
+ * 3. 通过数和响应时间按利特尔法则估算的并发数不到并发限制的一半时，说明并发限制不是瓶颈，不提高并发限制
+ * 注意响应时间由{@link cloud.apposs.guard.slot.statistic.StatisticSlot}按毫秒统计，低于1毫秒按1毫秒计算
+ */
+public class AdaptiveRule extends Rule {
+    /**
+     * VEGAS算法定期重置无负载响应时间的调整次数，使无负载响应时间可以随资源基线变化而升高
+     */
+    private static final int VEGAS_PROBE_UPDATES = 100;
+
+    /**
+     * GRADIENT算法长期响应时间的平滑系数
+     */
+    private static final double GRADIENT_LONG_RTT_FACTOR = 2.0 / (100 + 1);
+
+    /**
+     * GRADIENT算法允许的响应时间升高比例，在这个比例内不降低并发限制
+     */
+    private static final double GRADIENT_TOLERANCE = 1.5;
+
+    /**
+     * GRADIENT算法并发限制的平滑系数
+     */
+    private static final double GRADIENT_SMOOTHING = 0.2;
+
+    /**
+     * 并发限制调整算法
+     */
+    private AdaptiveAlgorithm algorithm = AdaptiveAlgorithm.VEGAS;
+
+    private int initialLimit = GuardConstants.DEFAULT_ADAPTIVE_INITIAL_LIMIT;
+
+    private int minLimit = GuardConstants.DEFAULT_ADAPTIVE_MIN_LIMIT;
+
+    private int maxLimit = GuardConstants.DEFAULT_ADAPTIVE_MAX_LIMIT;
+
+    /**
+     * 并发限制调整间隔（ms）
+     */
+    private long updateIntervalInMs = GuardConstants.DEFAULT_ADAPTIVE_UPDATE_INTERVAL_IN_MS;
+
+    /**
+     * 当前并发限制，为0时表示还未初始化
+     */
+    private volatile double estimatedLimit;
+
+    /**
+     * 无负载时的响应时间，VEGAS算法使用
+     */
+    private long rttNoLoad;
+
+    /**
+     * 长期平均响应时间，GRADIENT算法使用
+     */
+    private double longRtt;
+
+    private int updateCount;
+
+    /**
+     * 上次调整并发限制的时间，同一时间只有一个线程负责调整
+     */
+    private final AtomicLong lastUpdateTime = new AtomicLong();
+
+    public AdaptiveRule() {
+    }
+
+    public AdaptiveRule(AdaptiveAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * 根据当前并发数判断是否允许进入资源，必要时先调整并发限制
+     */
+    public boolean passCheck(Node node, int token) {
+        long now = System.currentTimeMillis();
+        long lastTime = lastUpdateTime.get();
+        if (now - lastTime >= updateIntervalInMs && lastUpdateTime.compareAndSet(lastTime, now)) {
+            doUpdateLimit(node);
+        }
+        return node.curConcurrency() + token <= getLimit();
+    }
+
+    /**
+     * 获取当前并发限制
+     */
+    public int getLimit() {
+        double limit = estimatedLimit;
+        if (limit <= 0) {
+            return initialLimit;
+        }
+        return (int) limit;
+    }
+
+    private void doUpdateLimit(Node node) {
+        double limit = estimatedLimit;
+        if (limit <= 0) {
+            limit = initialLimit;
+        }
+        // 统计窗口内没有成功的请求，没有数据可以参考
+        long success = node.successQps();
+        if (success <= 0) {
+            estimatedLimit = limit;
+            return;
+        }
+        long rtt = Math.max(node.avgRespTime(), 1);
+        // 根据利特尔法则估算统计窗口内的平均并发数
+        double inflight = Math.max((double) success * rtt / 1000, node.curConcurrency());
+        boolean appLimited = inflight * 2 < limit;
+        if (algorithm == AdaptiveAlgorithm.GRADIENT) {
+            limit = doUpdateGradientLimit(limit, rtt, appLimited);
+        } else {
+            limit = doUpdateVegasLimit(limit, rtt, appLimited);
+        }
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, limit));
+    }
+
+    /**
+     * VEGAS算法，根据当前响应时间与无负载响应时间估算排队的请求数，
+     * 排队数很少时快速提高并发限制，排队数过多时降低并发限制
+     */
+    private double doUpdateVegasLimit(double limit, long rtt, boolean appLimited) {
+        if (rttNoLoad <= 0 || rtt < rttNoLoad || ++updateCount % VEGAS_PROBE_UPDATES == 0) {
+            rttNoLoad = rtt;
+            return limit;
+        }
+        int queueSize = (int) Math.ceil(limit * (1 - (double) rttNoLoad / rtt));
+        double log = Math.max(1, Math.log10(limit));
+        double alpha = 3 * log;
+        double beta = 6 * log;
+        if (queueSize > beta) {
+            return limit - log;
+        }
+        if (appLimited) {
+            return limit;
+        }
+        if (queueSize <= log) {
+            return limit + beta;
+        }
+        if (queueSize < alpha) {
+            return limit + log;
+        }
+        return limit;
+    }
+
+    /**
+     * GRADIENT算法，根据长期平均响应时间与当前响应时间的比值按比例调整并发限制，
+     * 并额外保留并发限制平方根大小的排队余量
+     */
+    private double doUpdateGradientLimit(double limit, long rtt, boolean appLimited) {
+        if (longRtt <= 0) {
+            longRtt = rtt;
+        } else {
+            longRtt = longRtt * (1 - GRADIENT_LONG_RTT_FACTOR) + rtt * GRADIENT_LONG_RTT_FACTOR;
+        }
+        // 负载恢复后当前响应时间远小于长期响应时间，让长期响应时间更快地回落
+        if (longRtt / rtt > 2) {
+            longRtt = longRtt * 0.95;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, GRADIENT_TOLERANCE * longRtt / rtt));
+        if (appLimited && gradient >= 1.0) {
+            return limit;
+        }
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        return limit * (1 - GRADIENT_SMOOTHING) + newLimit * GRADIENT_SMOOTHING;
+    }
+
+    public AdaptiveAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(AdaptiveAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public long getUpdateIntervalInMs() {
+        return updateIntervalInMs;
+    }
+
+    public void setUpdateIntervalInMs(long updateIntervalInMs) {
+        this.updateIntervalInMs = updateIntervalInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveRule{" +
+                "algorithm=" + algorithm +
+                ", limit=" + getLimit() +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                ", rttNoLoad=" + rttNoLoad +
+                ", longRtt=" + longRtt +
+                '}';
+    }
+
+    /**
+     * 并发限制调整算法枚举类
+     */
+    public enum AdaptiveAlgorithm {
+        /**
+         * 根据响应时间估算排队请求数调整，类似TCP Vegas拥塞控制
+         */
+        VEGAS,
+        /**
+         * 根据长期与当前响应时间的比值按比例调整
+         */
+        GRADIENT
+    }
+}
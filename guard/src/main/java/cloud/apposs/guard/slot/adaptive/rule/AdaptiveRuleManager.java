@@ -0,0 +1,37 @@
+package cloud.apposs.guard.slot.adaptive.rule;
+
+import cloud.apposs.util.StrUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应并发规则管理器
+ */
+public class AdaptiveRuleManager {
+    private static Map<String, List<AdaptiveRule>> resourceRulesMap = new ConcurrentHashMap<String, List<AdaptiveRule>>();
+
+    /**
+     * 加载规则，不支持并发加载和热加载
+     */
+    public static void loadRule(AdaptiveRule rule) {
+        String resource = rule.getResource();
+        if (StrUtil.isEmpty(resource)) {
+            throw new NullPointerException("resource is null");
+        }
+        List<AdaptiveRule> rules = resourceRulesMap.get(resource);
+        if (rules == null) {
+            resourceRulesMap.put(resource, rules = new ArrayList<AdaptiveRule>());
+        }
+        rules.add(rule);
+    }
+
+    /**
+     * 根据资源获取规则
+     */
+    public static List<AdaptiveRule> getRules(String resource) {
+        return resourceRulesMap.get(resource);
+    }
+}
@@ -0,0 +1,142 @@
+package cloud.apposs.guard.slot.flow;
+
+import cloud.apposs.guard.cluster.ClusterTokenClient;
+import cloud.apposs.guard.node.Node;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 集群限流策略控制器，资源QPS阈值为整个集群的阈值，
+ * 1. 节点按批次向令牌服务申请令牌并缓存在本地，请求优先消耗本地令牌，本地令牌不足时再次申请
+ * 2. 令牌按秒有效，进入下一秒时丢弃本地剩余令牌，当前秒集群令牌分配完之后直接拒绝请求
+ * 3. 令牌服务不可用时降级为单机限流，由降级控制器判断
+ */
+public class ClusterControl implements TrafficShapingControl {
+    private final String resource;
+
+    private final long threshold;
+
+    private final int batchSize;
+
+    private final ClusterTokenClient client;
+
+    /**
+     * 令牌服务不可用时的降级控制器
+     */
+    private final TrafficShapingControl fallback;
+
+    private volatile TokenLease lease = new TokenLease(0);
+
+    private final Lock acquireLock = new ReentrantLock();
+
+    /**
+     * 构造集群限流控制器
+     *
+     * @param resource  资源名
+     * @param threshold 集群QPS阈值
+     * @param batchSize 每次申请的令牌数
+     * @param client    令牌客户端，为空时始终降级为单机限流
+     * @param fallback  降级控制器
+     */
+    public ClusterControl(String resource, long threshold, int batchSize,
+                          ClusterTokenClient client, TrafficShapingControl fallback) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize");
+        }
+        if (fallback == null) {
+            throw new IllegalArgumentException("fallback");
+        }
+        this.resource = resource;
+        this.threshold = threshold;
+        this.batchSize = batchSize;
+        this.client = client;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean canPass(Node node, int token) {
+        if (client == null) {
+            return fallback.canPass(node, token);
+        }
+        TokenLease lease = doGetLease();
+        if (lease.tryConsume(token)) {
+            return true;
+        }
+        if (lease.exhausted) {
+            return false;
+        }
+        acquireLock.lock();
+        try {
+            // 等待锁期间其他线程可能已经申请到令牌
+            if (lease.tryConsume(token)) {
+                return true;
+            }
+            if (lease.exhausted) {
+                return false;
+            }
+            int granted = client.acquire(resource, threshold, Math.max(batchSize, token));
+            if (granted == ClusterTokenClient.UNAVAILABLE) {
+                return fallback.canPass(node, token);
+            }
+            if (granted < token) {
+                lease.exhausted = true;
+                lease.remaining.addAndGet(granted);
+                return false;
+            }
+            lease.remaining.addAndGet(granted - token);
+            return true;
+        } finally {
+            acquireLock.unlock();
+        }
+    }
+
+    /**
+     * 获取当前秒的本地令牌，进入下一秒时替换为新的空令牌
+     */
+    private TokenLease doGetLease() {
+        long second = System.currentTimeMillis() / 1000;
+        TokenLease lease = this.lease;
+        if (lease.second != second) {
+            synchronized (this) {
+                lease = this.lease;
+                if (lease.second != second) {
+                    lease = new TokenLease(second);
+                    this.lease = lease;
+                }
+            }
+        }
+        return lease;
+    }
+
+    /**
+     * 节点本地缓存的一秒内有效的令牌
+     */
+    private static final class TokenLease {
+        private final long second;
+
+        private final AtomicLong remaining = new AtomicLong();
+
+        /**
+         * 当前秒集群令牌是否已经分配完
+         */
+        private volatile boolean exhausted;
+
+        private TokenLease(long second) {
+            this.second = second;
+        }
+
+        private boolean tryConsume(int token) {
+            while (true) {
+                long rest = remaining.get();
+                if (rest < token) {
+                    return false;
+                }
+                if (remaining.compareAndSet(rest, rest - token)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package cloud.apposs.guard.slot.flow.rule;
 
+import cloud.apposs.guard.GuardConstants;
 import cloud.apposs.guard.node.Node;
 import cloud.apposs.guard.slot.ControlBehavior;
 import cloud.apposs.guard.slot.Rule;
@@ -21,6 +22,21 @@ public class FlowRule extends Rule {
      */
     private ControlBehavior controlBehavior = ControlBehavior.Reject;
 
+    /**
+     * 集群令牌服务地址，格式为host:port，只在{@link ControlBehavior#Cluster}时有效
+     */
+    private String clusterServer;
+
+    /**
+     * 集群限流每次申请的令牌数，为0时取阈值的{@link GuardConstants#DEFAULT_CLUSTER_BATCH_DIVISOR}分之一
+     */
+    private int clusterBatchSize = 0;
+
+    /**
+     * 集群令牌服务不可用时降级为单机限流的QPS阈值，为0时取集群阈值
+     */
+    private long clusterFallbackThreshold = 0;
+
     /**
      * 限流整形控制器（判断是否能请求是否能进入资源）
      */
@@ -54,6 +70,30 @@ public class FlowRule extends Rule {
         this.control = control;
     }
 
+    public String getClusterServer() {
+        return clusterServer;
+    }
+
+    public void setClusterServer(String clusterServer) {
+        this.clusterServer = clusterServer;
+    }
+
+    public int getClusterBatchSize() {
+        return clusterBatchSize;
+    }
+
+    public void setClusterBatchSize(int clusterBatchSize) {
+        this.clusterBatchSize = clusterBatchSize;
+    }
+
+    public long getClusterFallbackThreshold() {
+        return clusterFallbackThreshold;
+    }
+
+    public void setClusterFallbackThreshold(long clusterFallbackThreshold) {
+        this.clusterFallbackThreshold = clusterFallbackThreshold;
+    }
+
     public ControlBehavior getControlBehavior() {
         return controlBehavior;
     }
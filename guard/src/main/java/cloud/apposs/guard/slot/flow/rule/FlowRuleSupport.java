@@ -1,10 +1,14 @@
 package cloud.apposs.guard.slot.flow.rule;
 
+import cloud.apposs.guard.GuardConstants;
+import cloud.apposs.guard.cluster.ClusterTokenClient;
 import cloud.apposs.guard.slot.ControlBehavior;
+import cloud.apposs.guard.slot.flow.ClusterControl;
 import cloud.apposs.guard.slot.flow.RejectControl;
 import cloud.apposs.guard.slot.flow.TrafficShapingControl;
 import cloud.apposs.guard.slot.flow.WarmUpControl;
 import cloud.apposs.logger.Logger;
+import cloud.apposs.util.StrUtil;
 
 /**
  * 流控规则支持类
@@ -50,7 +54,31 @@ public class FlowRuleSupport {
             case WarmUp:
                 control = new WarmUpControl(rule.getThreshold(), rule.getWarmUpPeriodSec());
                 break;
+            case Cluster:
+                control = generateClusterControl(rule);
+                break;
         }
         return control;
     }
+
+    /**
+     * 生成集群限流控制器，没有配置令牌服务地址时始终降级为单机限流
+     */
+    private static TrafficShapingControl generateClusterControl(FlowRule rule) {
+        long threshold = rule.getThreshold();
+        long fallbackThreshold = rule.getClusterFallbackThreshold();
+        TrafficShapingControl fallback = new RejectControl(fallbackThreshold > 0 ? fallbackThreshold : threshold);
+        int batchSize = rule.getClusterBatchSize();
+        if (batchSize <= 0) {
+            batchSize = (int) Math.max(1, Math.min(Integer.MAX_VALUE, threshold / GuardConstants.DEFAULT_CLUSTER_BATCH_DIVISOR));
+        }
+        ClusterTokenClient client = null;
+        String server = rule.getClusterServer();
+        if (StrUtil.isEmpty(server)) {
+            Logger.warn("Rule Check;cluster server of %s not configured, fallback to local rule", rule.getResource());
+        } else {
+            client = ClusterTokenClient.getClient(server);
+        }
+        return new ClusterControl(rule.getResource(), threshold, batchSize, client, fallback);
+    }
 }
@@ -0,0 +1,97 @@
+package cloud.apposs.guard.slot.limitkey;
+
+import cloud.apposs.guard.tool.DataBucket;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 限制关键字概率计数器数据桶(Count-Min Sketch)，
+ * 1. 计数器为depth行width列的固定数组，内存占用与关键字数量无关
+ * 2. 关键字通过depth个哈希函数映射到每行的一个计数器，计数时每行对应计数器都增加
+ * 3. 获取计数时取每行对应计数器的最小值，哈希冲突只会导致计数偏大，不会偏小
+ */
+public class LimitKeySketchBucket implements DataBucket {
+    private final int width;
+
+    private final int depth;
+
+    private final int mask;
+
+    private final AtomicIntegerArray counters;
+
+    /**
+     * 构造概率计数器
+     *
+     * @param width 每行计数器数量，会向上取整为2的幂
+     * @param depth 哈希函数数量
+     */
+    public LimitKeySketchBucket(int width, int depth) {
+        if (width <= 0 || width > (1 << 30)) {
+            throw new IllegalArgumentException("width");
+        }
+        if (depth <= 0) {
+            throw new IllegalArgumentException("depth");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.counters = new AtomicIntegerArray(this.width * depth);
+    }
+
+    /**
+     * 计算关键字的哈希值，同一关键字只需计算一次，可在计数和获取计数时复用
+     */
+    public static int hash(Object limitKey) {
+        int hash = limitKey.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * 给指定哈希值的关键字计数
+     */
+    public void add(int hash, int token) {
+        int step = doGetStep(hash);
+        for (int i = 0; i < depth; i++) {
+            counters.addAndGet(i * width + ((hash + i * step) & mask), token);
+        }
+    }
+
+    /**
+     * 获取指定哈希值的关键字的估算计数
+     */
+    public int get(int hash) {
+        int step = doGetStep(hash);
+        int count = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            count = Math.min(count, counters.get(i * width + ((hash + i * step) & mask)));
+        }
+        return count;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    /**
+     * 通过两个哈希值组合出每行的哈希函数，第二个哈希值为奇数保证每行映射到不同的计数器
+     */
+    private int doGetStep(int hash) {
+        return ((hash >>> 16) | (hash << 16)) * 0x9e3779b9 | 1;
+    }
+}
@@ -0,0 +1,54 @@
+package cloud.apposs.guard.slot.limitkey;
+
+import cloud.apposs.guard.tool.SlideWindowControl;
+
+/**
+ * 限制关键字概率计数控制器，窗口过期时重置并复用数据桶，每个资源占用的内存固定
+ */
+public class LimitKeySketchControl extends SlideWindowControl<LimitKeySketchBucket> {
+    private final int width;
+
+    private final int depth;
+
+    public LimitKeySketchControl(int sampleCount, long intervalInMs, int width, int depth) {
+        super(sampleCount, intervalInMs);
+        this.width = width;
+        this.depth = depth;
+    }
+
+    @Override
+    protected LimitKeySketchBucket newEmptyBucket() {
+        return new LimitKeySketchBucket(width, depth);
+    }
+
+    @Override
+    protected boolean isBucketReusable() {
+        return true;
+    }
+
+    @Override
+    protected void resetBucket(LimitKeySketchBucket bucket) {
+        bucket.reset();
+    }
+
+    public void addKey(int hash, int token) {
+        currentWindow().value().add(hash, token);
+    }
+
+    /**
+     * 获取限制关键字在所有有效窗口内的估算总次数
+     */
+    public long getKeySum(int hash) {
+        currentWindow();
+
+        long sum = 0;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < getSampleCount(); i++) {
+            LimitKeySketchBucket bucket = validWindow(i, now);
+            if (bucket != null) {
+                sum += bucket.get(hash);
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,137 @@
+package cloud.apposs.guard.slot.limitkey;
+
+import cloud.apposs.guard.GuardConstants;
+import cloud.apposs.guard.slot.limitkey.rule.LimitKeyRule;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 概率计数的限制关键字数据托管，服务于关键字数量巨大的限流场景(如按用户ID、IP限流)，
+ * 1. 所有关键字通过{@link LimitKeySketchBucket}概率计数，每个资源占用的内存固定，不随关键字数量增长
+ * 2. 估算计数达到阈值一定比例的关键字判定为疑似热点关键字，最多保留固定数量的热点关键字，
+ * 热点关键字额外通过父类的精确计数器计数，数量已满时淘汰计数最小的热点关键字
+ * 3. 热点关键字精确计数满一个统计周期之后按精确计数限流，避免哈希冲突导致正常关键字被误限流
+ */
+public class LimitKeySketchMetric extends LimitKeyMetric {
+    private final LimitKeySketchControl sketch;
+
+    private final long intervalInMs;
+
+    /**
+     * 判定为疑似热点关键字的估算计数
+     */
+    private final double hotKeyThreshold;
+
+    private final int hotKeySize;
+
+    /**
+     * 热点关键字及其开始精确计数的时间
+     */
+    private final Map<Object, Long> hotKeys = new ConcurrentHashMap<Object, Long>();
+
+    private final Lock updateLock = new ReentrantLock();
+
+    public LimitKeySketchMetric(LimitKeyRule rule) {
+        this(GuardConstants.DEFAULT_WINDOW_SAMPLE_SIZE, GuardConstants.DEFAULT_WINDOW_INTERVAL_IN_MS, rule);
+    }
+
+    /**
+     * 构造概率计数的限制关键字数据托管
+     *
+     * @param sampleSize   滑动窗口大小
+     * @param intervalInMs 滑动窗口时间间隔
+     * @param rule         限制关键字规则，决定计数器大小和热点关键字的判定阈值
+     */
+    public LimitKeySketchMetric(int sampleSize, long intervalInMs, LimitKeyRule rule) {
+        super(sampleSize, intervalInMs);
+        if (rule.getHotKeySize() < 0) {
+            throw new IllegalArgumentException("hotKeySize");
+        }
+        this.sketch = new LimitKeySketchControl(sampleSize, intervalInMs, rule.getSketchWidth(), rule.getSketchDepth());
+        this.intervalInMs = intervalInMs;
+        this.hotKeySize = rule.getHotKeySize();
+        double threshold = rule.getThreshold();
+        if (rule.isUsingQpsLimit()) {
+            threshold *= sketch.getIntervalInSec();
+        }
+        this.hotKeyThreshold = threshold * GuardConstants.DEFAULT_HOT_KEY_RATIO;
+    }
+
+    @Override
+    public double getLimitKeySum(Object limitKey) {
+        long now = System.currentTimeMillis();
+        Long hotTime = hotKeys.get(limitKey);
+        if (hotTime != null && now - hotTime >= intervalInMs) {
+            return super.getLimitKeySum(limitKey);
+        }
+        long estimate = sketch.getKeySum(LimitKeySketchBucket.hash(limitKey));
+        if (hotTime == null && estimate >= hotKeyThreshold) {
+            doPromoteHotKey(limitKey, estimate, now);
+        }
+        return estimate;
+    }
+
+    @Override
+    public double getLimitKeyQps(Object limitKey) {
+        return getLimitKeySum(limitKey) / sketch.getIntervalInSec();
+    }
+
+    @Override
+    public void addPass(Object limitKey, int token) {
+        if (limitKey == null) {
+            return;
+        }
+        sketch.addKey(LimitKeySketchBucket.hash(limitKey), token);
+        if (hotKeys.containsKey(limitKey)) {
+            super.addPass(limitKey, token);
+        }
+    }
+
+    /**
+     * 获取当前精确计数的热点关键字
+     */
+    public Set<Object> getHotKeys() {
+        return Collections.unmodifiableSet(hotKeys.keySet());
+    }
+
+    /**
+     * 将疑似热点关键字加入精确计数，数量已满时淘汰计数最小并且小于当前关键字估算计数的热点关键字
+     */
+    private void doPromoteHotKey(Object limitKey, long estimate, long now) {
+        if (hotKeySize <= 0) {
+            return;
+        }
+        updateLock.lock();
+        try {
+            if (hotKeys.containsKey(limitKey)) {
+                return;
+            }
+            if (hotKeys.size() >= hotKeySize) {
+                Object coldestKey = null;
+                double coldestSum = Double.MAX_VALUE;
+                for (Map.Entry<Object, Long> entry : hotKeys.entrySet()) {
+                    Object hotKey = entry.getKey();
+                    // 精确计数未满一个统计周期的热点关键字按估算计数比较，避免刚加入就被淘汰
+                    double sum = now - entry.getValue() >= intervalInMs ?
+                            super.getLimitKeySum(hotKey) : sketch.getKeySum(LimitKeySketchBucket.hash(hotKey));
+                    if (sum < coldestSum) {
+                        coldestKey = hotKey;
+                        coldestSum = sum;
+                    }
+                }
+                if (coldestKey == null || coldestSum >= estimate) {
+                    return;
+                }
+                hotKeys.remove(coldestKey);
+            }
+            hotKeys.put(limitKey, now);
+        } finally {
+            updateLock.unlock();
+        }
+    }
+}
@@ -30,23 +30,24 @@ public class LimitKeySlot extends AbstractLinkedProcessorSlot {
     @Override
     public void entry(String resource, Node node, ResourceToken resourceToken,
                       int token, Object... args) throws BlockException {
-        checkFlow(resource, node, token, args);
+        checkFlow(resource, node, resourceToken, token, args);
         fireEntry(resource, node, resourceToken, token, args);
     }
 
     /**
      * 检查限流逻辑
      */
-    private void checkFlow(String resource, Node node, int token, Object... args) throws LimitKeyException {
-        if (args == null || args.length <= 0 || args[0] == null) {
-            return;
-        }
+    private void checkFlow(String resource, Node node, ResourceToken resourceToken,
+                           int token, Object... args) throws LimitKeyException {
         List<LimitKeyRule> rules = LimitKeyRuleManager.getRules(resource);
         if (rules == null || rules.isEmpty()) {
             return;
         }
-        Object limitKey = args[0];
-        LimitKeyMetric metric = initAndGetMetric(resource);
+        Object limitKey = getLimitKey(resourceToken, args);
+        if (limitKey == null) {
+            return;
+        }
+        LimitKeyMetric metric = initAndGetMetric(resource, rules);
         for (LimitKeyRule rule : rules) {
             if (!LimitKeyRuleChecker.passCheck(metric, rule, token, limitKey)) {
                 throw new LimitKeyException(resource, limitKey);
@@ -55,15 +56,29 @@ public class LimitKeySlot extends AbstractLinkedProcessorSlot {
     }
 
     /**
-     * 初始化一个数据托管
+     * 获取限制关键字，优先取第一个附带参数，没有时取基本类型附带参数，
+     * 基本类型参数只有在资源配置了限制关键字规则时才会装箱
      */
-    private LimitKeyMetric initAndGetMetric(String resource) {
+    static Object getLimitKey(ResourceToken resourceToken, Object... args) {
+        if (args != null && args.length > 0) {
+            return args[0];
+        }
+        if (resourceToken.hasPrimitiveArg()) {
+            return resourceToken.getPrimitiveArg();
+        }
+        return null;
+    }
+
+    /**
+     * 初始化一个数据托管，资源的规则开启了概率计数时创建{@link LimitKeySketchMetric}
+     */
+    private LimitKeyMetric initAndGetMetric(String resource, List<LimitKeyRule> rules) {
         LimitKeyMetric metric;
         if ((metric = metricMap.get(resource)) == null) {
             try {
                 UPDATE_LOCK.lock();
                 if ((metric = metricMap.get(resource)) == null) {
-                    metric = new LimitKeyMetric();
+                    metric = newMetric(rules);
                     metricMap.put(resource, metric);
                 }
             } finally {
@@ -73,6 +88,15 @@ public class LimitKeySlot extends AbstractLinkedProcessorSlot {
         return metric;
     }
 
+    private static LimitKeyMetric newMetric(List<LimitKeyRule> rules) {
+        for (LimitKeyRule rule : rules) {
+            if (rule.isUsingSketch()) {
+                return new LimitKeySketchMetric(rule);
+            }
+        }
+        return new LimitKeyMetric();
+    }
+
     /**
      * 根据资源获取数据托管
      */
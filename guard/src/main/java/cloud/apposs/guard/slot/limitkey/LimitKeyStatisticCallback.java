@@ -13,8 +13,8 @@ public class LimitKeyStatisticCallback implements StatisticCallback {
     @Override
     public void afterPass(String resource, Node node, ResourceToken resourceToken, int token, Object... args) {
         LimitKeyMetric metric = LimitKeySlot.getMetric(resource);
-        if (metric != null && args.length > 0) {
-            Object limitKey = args[0];
+        if (metric != null) {
+            Object limitKey = LimitKeySlot.getLimitKey(resourceToken, args);
             metric.addPass(limitKey, token);
         }
     }
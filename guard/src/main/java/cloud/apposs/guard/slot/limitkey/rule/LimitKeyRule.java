@@ -1,7 +1,9 @@
 package cloud.apposs.guard.slot.limitkey.rule;
 
+import cloud.apposs.guard.GuardConstants;
 import cloud.apposs.guard.slot.Rule;
 import cloud.apposs.guard.slot.limitkey.LimitKeyMetric;
+import cloud.apposs.guard.slot.limitkey.LimitKeySketchMetric;
 
 /**
  * 限制关键字流控规则
@@ -20,6 +22,28 @@ public class LimitKeyRule extends Rule {
      */
     private boolean usingQpsLimit = true;
 
+    /**
+     * 是否采用概率计数，关键字数量巨大时(如按用户ID、IP限流)开启，详见{@link LimitKeySketchMetric}，
+     * 1. 精确计数：每个关键字在每个窗口都有独立的计数器，内存占用随关键字数量增长
+     * 2. 概率计数：所有关键字共享固定大小的计数器，只对疑似热点关键字精确计数，内存占用固定，计数可能偏大
+     */
+    private boolean usingSketch = false;
+
+    /**
+     * 概率计数器每行计数器数量，越大哈希冲突导致的计数偏差越小
+     */
+    private int sketchWidth = GuardConstants.DEFAULT_SKETCH_WIDTH;
+
+    /**
+     * 概率计数器哈希函数数量
+     */
+    private int sketchDepth = GuardConstants.DEFAULT_SKETCH_DEPTH;
+
+    /**
+     * 最多精确计数的热点关键字数量
+     */
+    private int hotKeySize = GuardConstants.DEFAULT_HOT_KEY_SIZE;
+
     public LimitKeyRule() {
     }
 
@@ -52,4 +76,40 @@ public class LimitKeyRule extends Rule {
     public void setThreshold(double threshold) {
         this.threshold = threshold;
     }
+
+    public boolean isUsingQpsLimit() {
+        return usingQpsLimit;
+    }
+
+    public boolean isUsingSketch() {
+        return usingSketch;
+    }
+
+    public void setUsingSketch(boolean usingSketch) {
+        this.usingSketch = usingSketch;
+    }
+
+    public int getSketchWidth() {
+        return sketchWidth;
+    }
+
+    public void setSketchWidth(int sketchWidth) {
+        this.sketchWidth = sketchWidth;
+    }
+
+    public int getSketchDepth() {
+        return sketchDepth;
+    }
+
+    public void setSketchDepth(int sketchDepth) {
+        this.sketchDepth = sketchDepth;
+    }
+
+    public int getHotKeySize() {
+        return hotKeySize;
+    }
+
+    public void setHotKeySize(int hotKeySize) {
+        this.hotKeySize = hotKeySize;
+    }
 }
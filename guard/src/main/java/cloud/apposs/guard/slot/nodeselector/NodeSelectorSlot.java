@@ -6,18 +6,14 @@ import cloud.apposs.guard.node.Node;
 import cloud.apposs.guard.node.ResourceNode;
 import cloud.apposs.guard.slotchain.AbstractLinkedProcessorSlot;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 创建数据节点的处理槽
  */
 public class NodeSelectorSlot extends AbstractLinkedProcessorSlot {
-    private Map<String, Node> resourcesNodes = new HashMap<String, Node>();
-
-    private Lock updateLock = new ReentrantLock();
+    private final ConcurrentMap<String, Node> resourcesNodes = new ConcurrentHashMap<String, Node>();
 
     @Override
     public void entry(String resource, Node node, ResourceToken resourceToken, int token, Object... args) throws BlockException {
@@ -34,20 +30,16 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot {
     }
 
     /**
-     * 获取数据节点
+     * 获取数据节点，已存在的节点无锁读取，新资源并发创建时只有一个节点会被注册
      */
     private Node getNode(String resource) {
         Node node = resourcesNodes.get(resource);
         if (node == null) {
-            updateLock.lock();
-            node = resourcesNodes.get(resource);
+            Node newNode = new ResourceNode(resource);
+            node = resourcesNodes.putIfAbsent(resource, newNode);
             if (node == null) {
-                Map<String, Node> newResourceNodes = new HashMap<String, Node>(resourcesNodes.size());
-                newResourceNodes.putAll(resourcesNodes);
-                newResourceNodes.put(resource, node = new ResourceNode(resource));
-                resourcesNodes = newResourceNodes;
+                node = newNode;
             }
-            updateLock.unlock();
         }
         return node;
     }
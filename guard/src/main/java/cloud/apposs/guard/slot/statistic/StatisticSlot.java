@@ -15,16 +15,18 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot {
         try {
             fireEntry(resource, node, resourceToken, token, args);
             node.addPass(token);
+            node.increaseConcurrency();
+            resourceToken.setPassed(true);
 
             // 回调注册事件
-            for (StatisticCallback statisticCallback : StatisticSlotCallbackRegistry.getAllCallback()) {
+            for (StatisticCallback statisticCallback : StatisticSlotCallbackRegistry.getCallbacks()) {
                 statisticCallback.afterPass(resource, node, resourceToken, token, args);
             }
         } catch (BlockException e) {
             node.addBlock(token);
 
             // 回调注册事件
-            for (StatisticCallback statisticCallback : StatisticSlotCallbackRegistry.getAllCallback()) {
+            for (StatisticCallback statisticCallback : StatisticSlotCallbackRegistry.getCallbacks()) {
                 statisticCallback.afterBlocked(e, resource, node, resourceToken, token, args);
             }
             throw e;
@@ -33,6 +35,9 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot {
 
     @Override
     public void exit(String resource, Node node, ResourceToken resourceToken, int token) {
+        if (resourceToken.isPassed()) {
+            node.decreaseConcurrency();
+        }
         if (resourceToken.getException() == null) {
             long createTime = resourceToken.getCreateTime();
             long respTime = System.currentTimeMillis() - createTime;
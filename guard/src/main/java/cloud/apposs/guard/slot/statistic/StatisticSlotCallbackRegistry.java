@@ -17,8 +17,18 @@ public final class StatisticSlotCallbackRegistry {
      */
     private static Map<String, StatisticCallback> callbackList = new ConcurrentHashMap<String, StatisticCallback>();
 
-    public static void addCallback(String name, StatisticCallback callback) {
+    /**
+     * 回调实例快照，注册时更新，统计时直接遍历数组，避免每次请求都创建集合迭代器
+     */
+    private static volatile StatisticCallback[] callbacks = new StatisticCallback[0];
+
+    public static synchronized void addCallback(String name, StatisticCallback callback) {
        callbackList.put(name, callback);
+       callbacks = callbackList.values().toArray(new StatisticCallback[0]);
+    }
+
+    public static StatisticCallback[] getCallbacks() {
+        return callbacks;
     }
 
     public static Collection<StatisticCallback> getAllCallback() {
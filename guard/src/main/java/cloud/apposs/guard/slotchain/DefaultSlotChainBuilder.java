@@ -1,5 +1,6 @@
 package cloud.apposs.guard.slotchain;
 
+import cloud.apposs.guard.slot.adaptive.AdaptiveSlot;
 import cloud.apposs.guard.slot.flow.FlowSlot;
 import cloud.apposs.guard.slot.fuse.FuseSlot;
 import cloud.apposs.guard.slot.limitkey.LimitKeySlot;
@@ -15,6 +16,7 @@ public class DefaultSlotChainBuilder implements SlotChainBuilder {
         chain.addLast(new LimitKeySlot());
         chain.addLast(new FlowSlot());
         chain.addLast(new FuseSlot());
+        chain.addLast(new AdaptiveSlot());
         return chain;
     }
 }
@@ -3,8 +3,6 @@ package cloud.apposs.guard.tool;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 滑动窗口控制器
@@ -29,8 +27,6 @@ public abstract class SlideWindowControl<T extends DataBucket> {
      */
     private final AtomicReferenceArray<WindowWrap<T>> samples;
 
-    private final Lock updateLock;
-
     /**
      * 构造滑动窗口控制器
      *
@@ -41,40 +37,40 @@ public abstract class SlideWindowControl<T extends DataBucket> {
         this.intervalInMs = intervalInMs;
         this.windowLengthInMs = intervalInMs / sampleCount;
         this.samples = new AtomicReferenceArray<WindowWrap<T>>(sampleCount);
-        this.updateLock = new ReentrantLock();
     }
 
     /**
-     * 获取当前时间窗口
+     * 获取当前时间窗口，窗口过期时通过CAS替换为新窗口，不加锁也不自旋等待，
+     * CAS失败说明其他线程已经完成了替换，直接使用数组中最新的窗口即可
      */
     public WindowWrap<T> currentWindow() {
         long now = System.currentTimeMillis();
         int idx = getIdx(now);
         long curWindowStart = getCurWindowStart(now);
-        WindowWrap<T> window = null;
-        while (window == null) {
-            window = samples.get(idx);
+        while (true) {
+            WindowWrap<T> window = samples.get(idx);
             if (window == null) {
-                // set new window
                 WindowWrap<T> newWindow = new WindowWrap<T>(curWindowStart, newEmptyBucket());
-                if (!samples.compareAndSet(idx, null, newWindow)) {
-                    Thread.yield();
+                if (samples.compareAndSet(idx, null, newWindow)) {
+                    return newWindow;
                 }
-            } else if (window.getWindowStart() != curWindowStart) {
-                if (updateLock.tryLock()) {
-                    try {
-                        // 重置窗口以开始下一个数据收集周期
-                        window.resetTo(curWindowStart);
-                        window.value().reset();
-                    } finally {
-                        updateLock.unlock();
+            } else if (window.getWindowStart() >= curWindowStart) {
+                // 时钟回拨时窗口开始时间可能大于当前时间，继续使用该窗口
+                return window;
+            } else {
+                // 窗口过期，替换为新窗口以开始下一个数据收集周期，
+                // 复用的数据桶只能由CAS成功的线程重置，否则落后的线程会清空已经替换的新窗口的数据
+                boolean reusable = isBucketReusable();
+                T bucket = reusable ? window.value() : newEmptyBucket();
+                WindowWrap<T> newWindow = new WindowWrap<T>(curWindowStart, bucket);
+                if (samples.compareAndSet(idx, window, newWindow)) {
+                    if (reusable) {
+                        resetBucket(bucket);
                     }
-                } else {
-                    Thread.yield();
+                    return newWindow;
                 }
             }
         }
-        return window;
     }
 
     public WindowWrap<T> getPreviousWindow() {
@@ -100,25 +96,67 @@ public abstract class SlideWindowControl<T extends DataBucket> {
      */
     protected abstract T newEmptyBucket();
 
+    /**
+     * 窗口过期时是否复用过期窗口的数据桶，默认创建新的数据桶，
+     * 占用内存较大的数据桶可以重置后复用，代价是窗口切换瞬间并发写入的少量计数可能丢失或计入新窗口
+     */
+    protected boolean isBucketReusable() {
+        return false;
+    }
+
+    /**
+     * 重置复用的数据桶，只在{@link #isBucketReusable()}返回true时由替换窗口成功的线程调用
+     *
+     * @param bucket 过期窗口的数据桶
+     */
+    protected void resetBucket(T bucket) {
+    }
+
     /**
      * 获取所有有效窗口
      */
     public List<T> windows() {
         List<T> windows = new ArrayList<T>();
+        long now = System.currentTimeMillis();
         for (int i = 0; i < samples.length(); i++) {
             WindowWrap<T> window = samples.get(i);
-            if (window != null && !isWindowDeprecated(window)) {
+            if (window != null && !isWindowDeprecated(window, now)) {
                 windows.add(window.value());
             }
         }
         return windows;
     }
 
+    /**
+     * 获取滑动窗口内的数据桶数量
+     */
+    public int getSampleCount() {
+        return samples.length();
+    }
+
+    /**
+     * 获取指定下标的有效窗口数据桶，用于不创建集合遍历所有有效窗口
+     *
+     * @param  idx 窗口下标，小于{@link #getSampleCount()}
+     * @param  now 当前时间
+     * @return 窗口不存在或者已经过期时返回null
+     */
+    public T validWindow(int idx, long now) {
+        WindowWrap<T> window = samples.get(idx);
+        if (window == null || isWindowDeprecated(window, now)) {
+            return null;
+        }
+        return window.value();
+    }
+
     /**
      * 窗口是否过期(窗口开始时间超过了设定的间隔时间则为过期)
      */
     private boolean isWindowDeprecated(WindowWrap<T> window) {
-        long now = System.currentTimeMillis();
+        return isWindowDeprecated(window, System.currentTimeMillis());
+    }
+
+    private boolean isWindowDeprecated(WindowWrap<T> window, long now) {
         return (now - window.getWindowStart()) > intervalInMs;
     }
 
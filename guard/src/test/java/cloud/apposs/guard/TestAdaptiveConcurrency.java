@@ -0,0 +1,82 @@
+package cloud.apposs.guard;
+
+import cloud.apposs.guard.exception.AdaptiveBlockException;
+import cloud.apposs.guard.node.Node;
+import cloud.apposs.guard.node.ResourceNode;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRule;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRule.AdaptiveAlgorithm;
+import cloud.apposs.guard.slot.adaptive.rule.AdaptiveRuleManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAdaptiveConcurrency {
+    /**
+     * 测试并发数超过并发限制时阻断，归还令牌后恢复
+     */
+    @Test
+    public void testConcurrencyLimit() throws Exception {
+        String resource = "AdaptiveResource";
+        AdaptiveRule rule = new AdaptiveRule();
+        rule.setResource(resource);
+        rule.setInitialLimit(2);
+        AdaptiveRuleManager.loadRule(rule);
+
+        ResourceToken token1 = Guard.entry(resource);
+        ResourceToken token2 = Guard.entry(resource);
+        Node node = token2.getNode();
+        Assert.assertEquals(2, node.curConcurrency());
+        try {
+            Guard.entry(resource);
+            Assert.fail();
+        } catch (AdaptiveBlockException e) {
+            System.out.println(rule);
+        }
+        // 被阻断的请求不计入并发数
+        Assert.assertEquals(2, node.curConcurrency());
+        token1.exit();
+        ResourceToken token3 = Guard.entry(resource);
+        token3.exit();
+        token2.exit();
+        Assert.assertEquals(0, node.curConcurrency());
+    }
+
+    /**
+     * 测试VEGAS算法响应时间稳定时提高并发限制，响应时间升高时降低并发限制
+     */
+    @Test
+    public void testVegasLimit() throws Exception {
+        AdaptiveRule rule = new AdaptiveRule(AdaptiveAlgorithm.VEGAS);
+        rule.setUpdateIntervalInMs(0);
+        doTestAdaptiveLimit(rule);
+    }
+
+    @Test
+    public void testGradientLimit() throws Exception {
+        AdaptiveRule rule = new AdaptiveRule(AdaptiveAlgorithm.GRADIENT);
+        rule.setUpdateIntervalInMs(0);
+        doTestAdaptiveLimit(rule);
+    }
+
+    private void doTestAdaptiveLimit(AdaptiveRule rule) throws Exception {
+        ResourceNode node = new ResourceNode("AdaptiveNode");
+        // 每秒5000个请求，平均响应时间10毫秒，平均并发数为50，超过初始并发限制
+        node.addPass(5000);
+        node.addRespTimeAndSuccCount(5000 * 10, 5000);
+        int initialLimit = rule.getLimit();
+        for (int i = 0; i < 10; i++) {
+            rule.passCheck(node, 1);
+        }
+        int increasedLimit = rule.getLimit();
+        System.out.println(rule);
+        Assert.assertTrue(increasedLimit > initialLimit);
+
+        // 响应时间升高到50毫秒
+        node.addPass(5000);
+        node.addRespTimeAndSuccCount(5000 * 90, 5000);
+        for (int i = 0; i < 10; i++) {
+            rule.passCheck(node, 1);
+        }
+        System.out.println(rule);
+        Assert.assertTrue(rule.getLimit() < increasedLimit);
+    }
+}
@@ -0,0 +1,124 @@
+package cloud.apposs.guard;
+
+import cloud.apposs.guard.cluster.ClusterTokenClient;
+import cloud.apposs.guard.cluster.ClusterTokenServer;
+import cloud.apposs.guard.exception.FlowBlockException;
+import cloud.apposs.guard.node.ResourceNode;
+import cloud.apposs.guard.slot.ControlBehavior;
+import cloud.apposs.guard.slot.flow.ClusterControl;
+import cloud.apposs.guard.slot.flow.RejectControl;
+import cloud.apposs.guard.slot.flow.rule.FlowRule;
+import cloud.apposs.guard.slot.flow.rule.FlowRuleManager;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestClusterFlow {
+    private static final String RESOURCE = "ClusterResource";
+
+    private static final int NODE_COUNT = 3;
+
+    private ClusterTokenServer server;
+
+    @Before
+    public void before() throws Exception {
+        server = new ClusterTokenServer(0);
+        server.start();
+    }
+
+    @After
+    public void after() {
+        server.close();
+    }
+
+    /**
+     * 测试多个进程内节点共享集群QPS阈值
+     */
+    @Test
+    public void testClusterThreshold() throws Exception {
+        final int threshold = 100;
+        final AtomicInteger pass = new AtomicInteger();
+        final AtomicInteger block = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(NODE_COUNT);
+        doWaitNextSecond();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            ClusterTokenClient client = new ClusterTokenClient("127.0.0.1", server.getPort());
+            final ClusterControl control = new ClusterControl(RESOURCE, threshold, 10, client, new RejectControl(threshold));
+            final ResourceNode node = new ResourceNode(RESOURCE);
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 200; j++) {
+                        if (control.canPass(node, 1)) {
+                            pass.incrementAndGet();
+                        } else {
+                            block.incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        System.out.println("cluster pass: " + pass.get() + ", block: " + block.get());
+        Assert.assertEquals(threshold, pass.get());
+        Assert.assertEquals(NODE_COUNT * 200 - threshold, block.get());
+    }
+
+    /**
+     * 测试令牌服务不可用时降级为单机限流
+     */
+    @Test
+    public void testFallback() throws Exception {
+        ClusterTokenClient client = new ClusterTokenClient("127.0.0.1", server.getPort());
+        ClusterControl control = new ClusterControl(RESOURCE, 100, 10, client, new RejectControl(20));
+        ResourceNode node = new ResourceNode(RESOURCE);
+        doWaitNextSecond();
+        Assert.assertTrue(control.canPass(node, 1));
+        server.close();
+        doWaitNextSecond();
+        int pass = 0;
+        for (int i = 0; i < 100; i++) {
+            if (control.canPass(node, 1)) {
+                node.addPass(1);
+                pass++;
+            }
+        }
+        System.out.println("fallback pass: " + pass);
+        Assert.assertEquals(20, pass);
+    }
+
+    /**
+     * 测试通过流控规则配置集群限流
+     */
+    @Test
+    public void testClusterRule() throws Exception {
+        FlowRule rule = new FlowRule();
+        rule.setResource("ClusterRuleResource");
+        rule.setThreshold(50);
+        rule.setControlBehavior(ControlBehavior.Cluster);
+        rule.setClusterServer("127.0.0.1:" + server.getPort());
+        FlowRuleManager.loadRule(rule);
+
+        doWaitNextSecond();
+        int pass = 0;
+        for (int i = 0; i < 100; i++) {
+            try {
+                Guard.entry("ClusterRuleResource").exit();
+                pass++;
+            } catch (FlowBlockException e) {
+            }
+        }
+        System.out.println("rule pass: " + pass);
+        Assert.assertEquals(50, pass);
+    }
+
+    private static void doWaitNextSecond() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        Thread.sleep(1000 - now % 1000 + 10);
+    }
+}
@@ -0,0 +1,231 @@
+package cloud.apposs.guard;
+
+import cloud.apposs.guard.exception.BlockException;
+import cloud.apposs.guard.exception.LimitKeyException;
+import cloud.apposs.guard.slot.limitkey.LimitKeyMetric;
+import cloud.apposs.guard.slot.limitkey.LimitKeySketchMetric;
+import cloud.apposs.guard.slot.limitkey.LimitKeySlot;
+import cloud.apposs.guard.slot.limitkey.rule.LimitKeyRule;
+import cloud.apposs.guard.slot.limitkey.rule.LimitKeyRuleManager;
+import cloud.apposs.guard.tool.MetricBucket;
+import cloud.apposs.guard.tool.MetricControl;
+import cloud.apposs.guard.tool.WindowWrap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TestGuardEntry {
+    /**
+     * 测试令牌重复归还只统计一次，归还之后的令牌不会被复用，业务异常统计依然可用
+     */
+    @Test
+    public void testTokenExit() throws Exception {
+        String resource = "ExitResource";
+        ResourceToken token1 = Guard.entry(resource);
+        Assert.assertEquals(resource, token1.getResource());
+        Assert.assertNotNull(token1.getNode());
+        token1.exit();
+        token1.exit();
+        Assert.assertEquals(0, token1.getNode().curConcurrency());
+
+        ResourceToken token2 = Guard.entry(resource, "Key");
+        ResourceToken token3 = Guard.entryLong(resource, 1001L);
+        Assert.assertNotSame(token1, token2);
+        Assert.assertFalse(token2.hasPrimitiveArg());
+        Assert.assertTrue(token3.hasPrimitiveArg());
+        Assert.assertEquals(1001L, token3.getPrimitiveArg());
+        Assert.assertEquals(2, token2.getNode().curConcurrency());
+        // 过期的令牌引用再次归还不会影响其他调用方的令牌
+        token1.exit();
+        Assert.assertEquals(2, token2.getNode().curConcurrency());
+        token3.exit();
+        token2.exit();
+        Assert.assertEquals(0, token2.getNode().curConcurrency());
+        Guard.trace(token2, new RuntimeException());
+        Assert.assertEquals(1, token2.getNode().exceptionQps());
+    }
+
+    /**
+     * 测试int类型参数依然作为Integer类型的限制关键字
+     */
+    @Test
+    public void testIntLimitKey() throws Exception {
+        String resource = "IntLimitKey";
+        LimitKeyRule rule = new LimitKeyRule(false);
+        rule.setThreshold(1);
+        rule.setResource(resource);
+        LimitKeyRuleManager.loadRule(rule);
+
+        ResourceToken token = Guard.entry(resource, 1001);
+        Assert.assertFalse(token.hasPrimitiveArg());
+        token.exit();
+        try {
+            Guard.entry(resource, Integer.valueOf(1001));
+            Assert.fail();
+        } catch (LimitKeyException e) {
+            System.out.println(e);
+        }
+        // Long类型的关键字与Integer类型的关键字独立计数
+        Guard.entryLong(resource, 1001L).exit();
+    }
+
+    /**
+     * 测试基本类型参数的关键字限流
+     */
+    @Test
+    public void testPrimitiveLimitKey() throws Exception {
+        String resource = "PrimitiveLimitKey";
+        LimitKeyRule rule = new LimitKeyRule(false);
+        rule.setThreshold(3);
+        rule.setResource(resource);
+        LimitKeyRuleManager.loadRule(rule);
+
+        int pass = 0;
+        int block = 0;
+        for (int i = 0; i < 5; i++) {
+            try {
+                ResourceToken token = Guard.entryLong(resource, 1001L);
+                pass++;
+                token.exit();
+            } catch (LimitKeyException e) {
+                block++;
+            }
+        }
+        Assert.assertEquals(3, pass);
+        Assert.assertEquals(2, block);
+        // 不同的关键字独立计数
+        Guard.entryLong(resource, 1002L).exit();
+        // 基本类型参数等同于Long类型参数
+        try {
+            Guard.entry(resource, (Object) 1001L);
+            Assert.fail();
+        } catch (BlockException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * 测试概率计数的关键字限流，大量冷关键字不会被限流，热点关键字精确计数
+     */
+    @Test
+    public void testSketchLimitKey() throws Exception {
+        String resource = "SketchLimitKey";
+        LimitKeyRule rule = new LimitKeyRule(false);
+        rule.setThreshold(100);
+        rule.setResource(resource);
+        rule.setUsingSketch(true);
+        rule.setSketchWidth(4096);
+        rule.setHotKeySize(4);
+        LimitKeyRuleManager.loadRule(rule);
+
+        int coldBlock = 0;
+        for (long i = 0; i < 10000; i++) {
+            try {
+                Guard.entryLong(resource, i).exit();
+            } catch (LimitKeyException e) {
+                coldBlock++;
+            }
+        }
+        int pass = 0;
+        int block = 0;
+        for (int i = 0; i < 150; i++) {
+            try {
+                Guard.entry(resource, "HotKey").exit();
+                pass++;
+            } catch (LimitKeyException e) {
+                block++;
+            }
+        }
+        LimitKeyMetric metric = LimitKeySlot.getMetric(resource);
+        Assert.assertTrue(metric instanceof LimitKeySketchMetric);
+        Set<Object> hotKeys = ((LimitKeySketchMetric) metric).getHotKeys();
+        System.out.println("cold block: " + coldBlock + ", hot pass: " + pass + ", hot block: " + block + ", hot keys: " + hotKeys);
+        Assert.assertEquals(0, coldBlock);
+        Assert.assertTrue(pass <= 100);
+        Assert.assertEquals(150, pass + block);
+        Assert.assertTrue(hotKeys.contains("HotKey"));
+        Assert.assertTrue(hotKeys.size() <= 4);
+    }
+
+    /**
+     * 测试并发访问同一窗口时只会创建一个窗口
+     */
+    @Test
+    public void testWindowRotation() throws Exception {
+        final MetricControl control = new MetricControl(2, 200);
+        final int threadCount = 8;
+        final int loop = 100000;
+        final AtomicInteger rotations = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    WindowWrap<MetricBucket> last = null;
+                    for (int j = 0; j < loop; j++) {
+                        WindowWrap<MetricBucket> window = control.currentWindow();
+                        window.value().addPass(1);
+                        if (window != last && last != null) {
+                            rotations.incrementAndGet();
+                        }
+                        last = window;
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        long pass = 0;
+        for (MetricBucket bucket : control.windows()) {
+            pass += bucket.get(MetricBucket.SectionEnum.PASS);
+        }
+        System.out.println("rotations: " + rotations.get() + ", pass in window: " + pass);
+        Assert.assertTrue(pass > 0);
+        Assert.assertTrue(pass <= threadCount * loop);
+    }
+
+    /**
+     * 测试复用数据桶时只有替换窗口成功的线程才会重置数据桶
+     */
+    @Test
+    public void testWindowReuseReset() throws Exception {
+        final long windowLength = 10;
+        final AtomicInteger resets = new AtomicInteger();
+        final MetricControl control = new MetricControl(2, windowLength * 2) {
+            @Override
+            protected boolean isBucketReusable() {
+                return true;
+            }
+
+            @Override
+            protected void resetBucket(MetricBucket bucket) {
+                resets.incrementAndGet();
+                bucket.reset();
+            }
+        };
+        final int threadCount = 8;
+        final long duration = 300;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long end = System.currentTimeMillis() + duration;
+                    while (System.currentTimeMillis() < end) {
+                        control.currentWindow().value().addPass(1);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        long rotations = (System.currentTimeMillis() - start) / windowLength + 1;
+        System.out.println("resets: " + resets.get() + ", rotations: " + rotations);
+        Assert.assertTrue(resets.get() > 0);
+        Assert.assertTrue(resets.get() <= rotations);
+    }
+}
@@ -9,8 +9,39 @@ public abstract class Appender {
 	public static final String CONSOLE = "console";
 	public static final String FILE = "file";
 	public static final String DATABASE = "database";
+	public static final String ROLLING = "rolling";
 	
 	public abstract void append(List<String> msgList);
+
+	/**
+	 * 是否直接输出日志信息，为true时日志线程不再将日志格式化为字符串列表，
+	 * 而是逐条调用{@link #append(LogInfo, LogEncoder)}，并按{@link #getFlushInterval()}调用{@link #flush()}
+	 */
+	public boolean isDirect() {
+		return false;
+	}
+
+	/**
+	 * 直接输出单条日志，只有{@link #isDirect()}为true时才会调用
+	 *
+	 * @param encoder 配置的日志编码器，直接将日志编码为字节
+	 */
+	public void append(LogInfo info, LogEncoder encoder) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * 将缓冲的日志写出
+	 */
+	public void flush() {
+	}
+
+	/**
+	 * 缓冲日志写出的最长间隔，单位毫秒，为0时每批日志写出一次
+	 */
+	public long getFlushInterval() {
+		return 0;
+	}
 	
 	/**
 	 * 关闭渠道，释放资源
@@ -3,6 +3,10 @@ package cloud.apposs.logger;
 import cloud.apposs.logger.appender.ConsoleAppender;
 import cloud.apposs.logger.appender.DatabaseAppender;
 import cloud.apposs.logger.appender.FileAppender;
+import cloud.apposs.logger.appender.RollingFileAppender;
+import cloud.apposs.logger.encoder.BinaryEncoder;
+import cloud.apposs.logger.encoder.JsonEncoder;
+import cloud.apposs.logger.encoder.TextEncoder;
 
 import java.io.InputStream;
 import java.util.Properties;
@@ -24,11 +28,27 @@ public final class Configuration {
 		public static final String USER = "log.user";
 		public static final String PASSWORD = "log.password";
 		public static final String SQL = "log.sql";
+
+		public static final String FILE_MAX_SIZE = "log.file.max.size";
+		public static final String FILE_COMPRESS = "log.file.compress";
+		public static final String FILE_MAPPED = "log.file.mapped";
+		public static final String BUFFER_SIZE = "log.buffer.size";
+		public static final String FLUSH_INTERVAL = "log.flush.interval";
+
+		public static final String ENCODER = "log.encoder";
+		public static final String ENCODER_LOCATION = "log.encoder.location";
+
+		public static final String QUEUE_SIZE = "log.queue.size";
+		public static final String OVERFLOW = "log.queue.overflow";
+		public static final String OVERFLOW_LEVEL = "log.queue.overflow.level";
 	}
 	
 	public static final class Default {
 		public final static String DEFAULT_FORMAT = "%m%n%e";
 		public final static Level DEFAULT_LEVEL = Level.INFO;
+		public final static int DEFAULT_QUEUE_SIZE = 8192;
+		public final static OverflowPolicy DEFAULT_OVERFLOW = OverflowPolicy.BLOCK;
+		public final static Level DEFAULT_OVERFLOW_LEVEL = Level.INFO;
 	}
 	
 	/** 日志名称 */
@@ -41,11 +61,24 @@ public final class Configuration {
 	private Level level;
 	
 	private FormatParser formatParser;
+
+	/** 日志编码器，只有直接输出的渠道才支持非文本编码 */
+	private LogEncoder encoder;
+
+	/** 日志缓冲区大小，向上取整为2的幂 */
+	private int queueSize = Default.DEFAULT_QUEUE_SIZE;
+
+	/** 日志缓冲区满时的处理策略 */
+	private OverflowPolicy overflow = Default.DEFAULT_OVERFLOW;
+
+	/** 缓冲区满时丢弃不高于该级别的日志，只在{@link OverflowPolicy#DROP_BELOW_LEVEL}策略下生效 */
+	private Level overflowLevel = Default.DEFAULT_OVERFLOW_LEVEL;
 	
 	public Configuration() {
 		this.appender = new ConsoleAppender();
 		this.level = Default.DEFAULT_LEVEL;
 		this.formatParser = new FormatParser(Default.DEFAULT_FORMAT);
+		this.encoder = new TextEncoder(formatParser);
 	}
 	
 	public Configuration(String configFile) {
@@ -99,6 +132,37 @@ public final class Configuration {
 	public FormatParser getFormatParser() {
 		return formatParser;
 	}
+
+	public LogEncoder getEncoder() {
+		return encoder;
+	}
+
+	/**
+	 * 日志编码是否需要调用位置，需要时才会在业务线程中定位调用位置
+	 */
+	public boolean isLocationRequired() {
+		return encoder.isLocationRequired();
+	}
+
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	public OverflowPolicy getOverflow() {
+		return overflow;
+	}
+
+	public void setOverflow(OverflowPolicy overflow) {
+		this.overflow = overflow;
+	}
+
+	public Level getOverflowLevel() {
+		return overflowLevel;
+	}
+
+	public void setOverflowLevel(Level overflowLevel) {
+		this.overflowLevel = overflowLevel;
+	}
 	
 	private void doConfig(Properties prop) {
 		this.name = prop.getProperty(Prefix.NAME);
@@ -109,6 +173,18 @@ public final class Configuration {
 		this.level = Level.toLevel(level, Level.INFO);
 		this.appender = parseAppender(prop);
 		this.formatParser = parseFormatOrSql(prop);
+		this.encoder = parseEncoder(prop);
+		String queueSize = prop.getProperty(Prefix.QUEUE_SIZE);
+		if (queueSize != null) {
+			try {
+				this.queueSize = Integer.parseInt(queueSize.trim());
+			} catch (NumberFormatException e) {
+				System.err.println("Log:Unexpected queue size [" + queueSize +
+						"], using default queue size[" + Default.DEFAULT_QUEUE_SIZE + "]");
+			}
+		}
+		this.overflow = OverflowPolicy.toPolicy(prop.getProperty(Prefix.OVERFLOW), Default.DEFAULT_OVERFLOW);
+		this.overflowLevel = Level.toLevel(prop.getProperty(Prefix.OVERFLOW_LEVEL), Default.DEFAULT_OVERFLOW_LEVEL);
 	}
 	
 	private Appender parseAppender(Properties prop) {
@@ -121,6 +197,14 @@ public final class Configuration {
 		    } else if (s.equals(Appender.FILE)) {
 		    	String file = prop.getProperty(Prefix.FILE);
 		    	return new FileAppender(file);
+		    } else if (s.equals(Appender.ROLLING)) {
+		    	String file = prop.getProperty(Prefix.FILE);
+		    	long maxFileSize = parseSize(prop, Prefix.FILE_MAX_SIZE, RollingFileAppender.DEFAULT_MAX_FILE_SIZE);
+		    	long bufferSize = parseSize(prop, Prefix.BUFFER_SIZE, RollingFileAppender.DEFAULT_BUFFER_SIZE);
+		    	long flushInterval = parseSize(prop, Prefix.FLUSH_INTERVAL, RollingFileAppender.DEFAULT_FLUSH_INTERVAL);
+		    	boolean compress = Boolean.parseBoolean(prop.getProperty(Prefix.FILE_COMPRESS, "true"));
+		    	boolean mapped = Boolean.parseBoolean(prop.getProperty(Prefix.FILE_MAPPED, "false"));
+		    	return new RollingFileAppender(file, maxFileSize, (int) bufferSize, flushInterval, compress, mapped);
 		    } else if (s.equals(Appender.DATABASE)) {
 		    	String driver = prop.getProperty(Prefix.DRIVER);
 		    	String url = prop.getProperty(Prefix.URL);
@@ -136,6 +220,58 @@ public final class Configuration {
 	    return new ConsoleAppender();
 	}
 	
+	private LogEncoder parseEncoder(Properties prop) {
+		String encoder = prop.getProperty(Prefix.ENCODER);
+		if (encoder == null || encoder.equalsIgnoreCase(LogEncoder.TEXT)) {
+			return new TextEncoder(formatParser);
+		}
+		if (!appender.isDirect()) {
+			System.err.println("Log:Encoder [" + encoder + "] is not supported by appender [" +
+					prop.getProperty(Prefix.APPENDER) + "], using default encoder[" + LogEncoder.TEXT + "]");
+			return new TextEncoder(formatParser);
+		}
+		boolean location = Boolean.parseBoolean(prop.getProperty(Prefix.ENCODER_LOCATION, "true"));
+		String s = encoder.toLowerCase();
+		if (s.equals(LogEncoder.JSON)) {
+			return new JsonEncoder(location);
+		} else if (s.equals(LogEncoder.BINARY)) {
+			return new BinaryEncoder(location);
+		}
+		System.err.println("Log:Unexpected encoder [" + encoder + "], using default encoder[" + LogEncoder.TEXT + "]");
+		return new TextEncoder(formatParser);
+	}
+
+	/**
+	 * 解析大小配置，支持KB/MB/GB后缀，如100MB
+	 */
+	private static long parseSize(Properties prop, String key, long defaultValue) {
+		String value = prop.getProperty(key);
+		if (value == null) {
+			return defaultValue;
+		}
+		String size = value.trim().toUpperCase();
+		long unit = 1;
+		if (size.endsWith("B")) {
+			size = size.substring(0, size.length() - 1);
+		}
+		if (size.endsWith("K")) {
+			unit = 1024L;
+		} else if (size.endsWith("M")) {
+			unit = 1024L * 1024;
+		} else if (size.endsWith("G")) {
+			unit = 1024L * 1024 * 1024;
+		}
+		if (unit > 1) {
+			size = size.substring(0, size.length() - 1);
+		}
+		try {
+			return Long.parseLong(size.trim()) * unit;
+		} catch (NumberFormatException e) {
+			System.err.println("Log:Unexpected " + key + " [" + value + "], using default value[" + defaultValue + "]");
+			return defaultValue;
+		}
+	}
+
 	private FormatParser parseFormatOrSql(Properties prop) {
 		String appender = prop.getProperty(Prefix.APPENDER);
 		if (appender != null && appender.equalsIgnoreCase(Appender.DATABASE)) {
@@ -28,6 +28,11 @@ public class FormatParser {
 
     private final FormatInfo formatInfo = new FormatInfo();
 
+    /**
+     * 是否有格式转换器需要日志调用位置
+     */
+    private boolean locationRequired = false;
+
     public class State {
         private static final int LITERAL_STATE = 0;
         private static final int FORMAT_STATE = 1;
@@ -45,10 +50,21 @@ public class FormatParser {
 
     public String format(LogInfo info) {
         output.setLength(0);
+        format(info, output);
+        return output.toString();
+    }
+
+    /**
+     * 将日志格式化到指定缓冲区，避免生成中间字符串
+     */
+    public void format(LogInfo info, StringBuffer buffer) {
         for (Formatter format : formatList) {
-            format.format(output, info);
+            format.format(buffer, info);
         }
-        return output.toString();
+    }
+
+    public boolean isLocationRequired() {
+        return locationRequired;
     }
 
     private void doParseFormat() {
@@ -138,6 +154,9 @@ public class FormatParser {
 
     private void addToList(Formatter formatter) {
         formatList.add(formatter);
+        if (formatter.isLocationRequired()) {
+            locationRequired = true;
+        }
         state = State.LITERAL_STATE;
     }
 
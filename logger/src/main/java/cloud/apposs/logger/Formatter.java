@@ -69,5 +69,12 @@ public abstract class Formatter {
         }
     }
 
+	/**
+	 * 是否需要日志调用位置，需要时才会在业务线程中定位调用位置
+	 */
+	public boolean isLocationRequired() {
+		return false;
+	}
+
 	public abstract String convert(LogInfo info);
 }
@@ -0,0 +1,39 @@
+package cloud.apposs.logger;
+
+/**
+ * 日志键值对参数，与普通参数一样参与消息格式化（输出为key=value），
+ * 同时在结构化编码（JSON/二进制）中作为独立字段输出，示例：
+ * <pre>
+ * Logger.info("order paid %s", KeyValue.of("orderId", 1001));
+ * </pre>
+ */
+public final class KeyValue {
+    private final String key;
+
+    private final Object value;
+
+    private KeyValue(String key, Object value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public static KeyValue of(String key, Object value) {
+        if (key == null) {
+            throw new IllegalArgumentException("key");
+        }
+        return new KeyValue(key, value);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return key + "=" + value;
+    }
+}
@@ -4,6 +4,11 @@ package cloud.apposs.logger;
  * 类的详细信息
  */
 public class LocationInfo {
+	/**
+	 * 无法定位调用位置时使用
+	 */
+	public static final LocationInfo UNKNOWN = new LocationInfo("?", "?", "?", -1);
+
 	private int lineNumber;
 	
 	private String fileName;
@@ -21,6 +26,13 @@ public class LocationInfo {
 		this.lineNumber = element.getLineNumber();
 	}
 
+	public LocationInfo(String fileName, String className, String methodName, int lineNumber) {
+		this.fileName = fileName;
+		this.className = className;
+		this.methodName = methodName;
+		this.lineNumber = lineNumber;
+	}
+
 	public int getLineNumber() {
 		return lineNumber;
 	}
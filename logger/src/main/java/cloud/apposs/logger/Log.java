@@ -3,11 +3,12 @@ package cloud.apposs.logger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * 日志
+ * 日志，业务线程将日志写入预分配的环形缓冲区，由日志线程异步批量输出，
+ * 缓冲区满时按配置的{@link OverflowPolicy}阻塞或丢弃日志，避免磁盘阻塞时内存无限增长
  */
 public class Log {
     private final static String LOG_THREAD_NAME = "Log_Thread";
@@ -15,9 +16,9 @@ public class Log {
     private AtomicBoolean running = new AtomicBoolean(true);
 
     /**
-     * 日志消息队列
+     * 日志环形缓冲区
      */
-    private LinkedBlockingQueue<LogInfo> messageQueue;
+    private LogRingBuffer ringBuffer;
 
     /**
      * 日志配置文件
@@ -30,55 +31,105 @@ public class Log {
      * 方法参数占位符，避免方法重载编译器无法区分
      */
     protected static final Throwable EMPTY_THROWABLE = new Throwable();
+
     /**
-     * 日志线程，负责异步从日志消息队列中取出消息并输出/写入文件/写入数据库
+     * 调用位置占位符，只有日志级别开启且输出格式需要调用位置时才会定位
+     */
+    protected static final LocationInfo LAZY_LOCATION = null;
+
+    /**
+     * 日志线程，负责异步从日志缓冲区中取出消息并输出/写入文件/写入数据库
      */
     private class LogThread implements Runnable {
         @Override
         public void run() {
+            Appender appender = configuration.getAppender();
+            FormatParser parser = configuration.getFormatParser();
+            LogEncoder encoder = configuration.getEncoder();
+            ParameterFormatter formatter = new ParameterFormatter();
+            List<String> msgList = new ArrayList<String>();
+            int batchSize = ringBuffer.getCapacity();
+            boolean direct = appender.isDirect();
+            long flushInterval = TimeUnit.MILLISECONDS.toNanos(appender.getFlushInterval());
+            long lastFlushTime = System.nanoTime();
+            // 是否有已输出但还未写出的日志
+            boolean dirty = false;
             try {
-                Appender appender = configuration.getAppender();
-                FormatParser parser = configuration.getFormatParser();
-                while (running.get()) {
-                    // 阻塞等待直到有数据
-                    LogInfo info = messageQueue.take();
-                    List<String> msgList = new ArrayList<String>();
-                    if (info != null) {
-                        msgList.add(parser.format(info));
-                    }
-
-                    for (int i = 0; i < messageQueue.size(); i++) {
-                        info = messageQueue.poll();
-                        if (info != null) {
-                            msgList.add(parser.format(info));
+                // 关闭后继续输出缓冲区中剩余的日志
+                while (running.get() || !ringBuffer.isEmpty()) {
+                    // 输出异常只影响当前批次，日志线程不能因此退出，否则缓冲区满后阻塞等待的业务线程将无法继续
+                    try {
+                        LogInfo info = ringBuffer.peek();
+                        if (info == null) {
+                            if (!dirty) {
+                                // 阻塞等待直到有数据
+                                ringBuffer.await();
+                                continue;
+                            }
+                            long wait = lastFlushTime + flushInterval - System.nanoTime();
+                            if (wait > 0) {
+                                // 等待新数据或到达刷新时间
+                                ringBuffer.await(wait);
+                                continue;
+                            }
+                        } else if (direct) {
+                            int count = 0;
+                            dirty = true;
+                            do {
+                                try {
+                                    info.formatMessage(formatter);
+                                    appender.append(info, encoder);
+                                } finally {
+                                    ringBuffer.release();
+                                }
+                            } while (++count < batchSize && (info = ringBuffer.peek()) != null);
+                        } else {
+                            msgList.clear();
+                            do {
+                                try {
+                                    info.formatMessage(formatter);
+                                    msgList.add(parser.format(info));
+                                } finally {
+                                    ringBuffer.release();
+                                }
+                            } while (msgList.size() < batchSize && (info = ringBuffer.peek()) != null);
+
+                            appender.append(msgList);
+                        }
+                        if (dirty && System.nanoTime() - lastFlushTime >= flushInterval) {
+                            lastFlushTime = System.nanoTime();
+                            dirty = false;
+                            appender.flush();
                         }
+                    } catch (Exception e) {
+                        e.printStackTrace();
                     }
-
-                    appender.append(msgList);
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
+            } finally {
+                if (appender != null) {
+                    appender.close();
+                }
             }
         }
     }
 
     public Log() {
-        messageQueue = new LinkedBlockingQueue<LogInfo>();
         configuration = new Configuration();
+        ringBuffer = new LogRingBuffer(configuration.getQueueSize());
 
         startThread();
     }
 
     public Log(String configFile) {
-        messageQueue = new LinkedBlockingQueue<LogInfo>();
         configuration = new Configuration(configFile);
+        ringBuffer = new LogRingBuffer(configuration.getQueueSize());
 
         startThread();
     }
 
     public Log(Properties prop) {
-        messageQueue = new LinkedBlockingQueue<LogInfo>();
         configuration = new Configuration(prop);
+        ringBuffer = new LogRingBuffer(configuration.getQueueSize());
 
         startThread();
     }
@@ -86,119 +137,121 @@ public class Log {
     private void startThread() {
         logThread = new Thread(new LogThread(), LOG_THREAD_NAME);
         logThread.setDaemon(true);
+        // 启动前设置消费线程，关闭日志和缓冲区满时的判断不依赖日志线程是否已经挂起过
+        ringBuffer.setConsumer(logThread);
         logThread.start();
     }
 
     public void trace(String message) {
-        log(Level.TRACE, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.TRACE, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public void trace(Throwable throwable) {
-        log(Level.TRACE, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.TRACE, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public void trace(String message, Object... args) {
-        log(Level.TRACE, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.TRACE, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void trace(Throwable throwable, String message, Object... args) {
-        log(Level.TRACE, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.TRACE, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void debug(String message) {
-        log(Level.DEBUG, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.DEBUG, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public void debug(Throwable throwable) {
-        log(Level.DEBUG, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.DEBUG, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public void debug(String message, Object... args) {
-        log(Level.DEBUG, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.DEBUG, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void debug(Throwable throwable, String message, Object... args) {
-        log(Level.DEBUG, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.DEBUG, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void info(String message) {
-        log(Level.INFO, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.INFO, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public void info(Throwable throwable) {
-        log(Level.INFO, throwable, new LocationInfo(new Throwable()), 0, "");
+        log(Level.INFO, throwable, Log.LAZY_LOCATION, 0, "");
     }
 
     public void info(String message, Object... args) {
-        log(Level.INFO, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.INFO, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void info(Throwable throwable, String message, Object... args) {
-        log(Level.INFO, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.INFO, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void warn(String message) {
-        log(Level.WARN, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.WARN, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public void warn(Throwable throwable) {
-        log(Level.WARN, throwable, new LocationInfo(new Throwable()), 0, "");
+        log(Level.WARN, throwable, Log.LAZY_LOCATION, 0, "");
     }
 
     public void warn(String message, Object... args) {
-        log(Level.WARN, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.WARN, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void warn(Throwable throwable, String message, Object... args) {
-        log(Level.WARN, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.WARN, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void error(String message) {
-        log(Level.ERROR, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.ERROR, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public void error(Throwable throwable) {
-        log(Level.ERROR, throwable, new LocationInfo(new Throwable()), 0, "");
+        log(Level.ERROR, throwable, Log.LAZY_LOCATION, 0, "");
     }
 
     public void error(String message, Object... args) {
-        log(Level.ERROR, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.ERROR, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void error(Throwable throwable, String message, Object... args) {
-        log(Level.ERROR, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.ERROR, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void fatal(String message) {
-        log(Level.FATAL, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.FATAL, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public void fatal(Throwable throwable) {
-        log(Level.FATAL, throwable, new LocationInfo(new Throwable()), 0, "");
+        log(Level.FATAL, throwable, Log.LAZY_LOCATION, 0, "");
     }
 
     public void fatal(String message, Object... args) {
-        log(Level.FATAL, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.FATAL, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void fatal(Throwable throwable, String message, Object... args) {
-        log(Level.FATAL, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.FATAL, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void log(String level, String message, Object... args) {
-        log(Level.toLevel(level, Level.INFO), Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.toLevel(level, Level.INFO), Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void log(String level, int errno, String message, Object... args) {
-        log(Level.toLevel(level, Level.INFO), Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.toLevel(level, Level.INFO), Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public void log(String level, Throwable throwable, String message, Object... args) {
-        log(Level.toLevel(level, Level.INFO), throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.toLevel(level, Level.INFO), throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void log(Level level, Throwable throwable, String message, Object... args) {
-        log(level, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(level, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public void log(Level level, Throwable throwable,
@@ -208,18 +261,41 @@ public class Log {
             return;
         }
 
-        String msg = null;
-        if (message != null) {
-            try {
-                msg = String.format(message, args);
-            } catch (Exception e) {
-                msg = "message[" + message + "]format error";
-            }
+        if (locationInfo == null && configuration.isLocationRequired()) {
+            locationInfo = StackLocator.locate();
+        }
+        String msg = message;
+        Object[] params = args;
+        boolean formatted = false;
+        if (message != null && !ParameterFormatter.isDeferrable(args)) {
+            // 可变参数在业务线程中格式化，保证输出的是调用时的参数值
+            msg = ParameterFormatter.formatNow(message, args);
+            params = ParameterFormatter.snapshot(args);
+            formatted = true;
+        }
+        long sequence = ringBuffer.next(isBlockOnOverflow(level));
+        if (sequence < 0) {
+            return;
         }
         String logName = configuration.getName();
         String threadName = Thread.currentThread().getName();
-        LogInfo info = new LogInfo(level, logName, msg, throwable, locationInfo, threadName, errno);
-        messageQueue.add(info);
+        LogInfo info = ringBuffer.get(sequence);
+        info.set(level, logName, msg, params, formatted, throwable, locationInfo, threadName, errno);
+        ringBuffer.publish(sequence);
+    }
+
+    /**
+     * 缓冲区满时该级别的日志是阻塞等待还是丢弃
+     */
+    private boolean isBlockOnOverflow(Level level) {
+        OverflowPolicy overflow = configuration.getOverflow();
+        if (overflow == OverflowPolicy.BLOCK) {
+            return true;
+        }
+        if (overflow == OverflowPolicy.DROP) {
+            return false;
+        }
+        return level.compareTo(configuration.getOverflowLevel()) < 0;
     }
 
     public boolean isDebugEnabled() {
@@ -239,16 +315,35 @@ public class Log {
         return configuration;
     }
 
+    /**
+     * 获取因缓冲区满被丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return ringBuffer.getDroppedCount();
+    }
+
+    /**
+     * 获取缓冲区中等待输出的日志数
+     */
+    public int getQueueDepth() {
+        return ringBuffer.getDepth();
+    }
+
+    public int getQueueCapacity() {
+        return ringBuffer.getCapacity();
+    }
+
     public void join() throws InterruptedException {
         if (logThread != null) {
             logThread.join();
         }
     }
 
+    /**
+     * 关闭日志，日志线程输出缓冲区中剩余的日志后关闭输出渠道
+     */
     public void close() {
-        if (configuration.getAppender() != null) {
-            configuration.getAppender().close();
-        }
         running.set(false);
+        ringBuffer.close();
     }
 }
@@ -0,0 +1,24 @@
+package cloud.apposs.logger;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 日志编码器，将日志信息直接编码为字节写入输出渠道的缓冲区，只在日志线程中调用
+ */
+public interface LogEncoder {
+    String TEXT = "text";
+    String JSON = "json";
+    String BINARY = "binary";
+
+    /**
+     * 将日志编码到缓冲区
+     *
+     * @return 缓冲区空间不足时返回false，此时缓冲区中可能已写入部分数据，由调用方还原位置并写出缓冲区后重试
+     */
+    boolean encode(LogInfo info, ByteBuffer buffer);
+
+    /**
+     * 是否需要日志调用位置
+     */
+    boolean isLocationRequired();
+}
@@ -17,6 +17,16 @@ public class LogInfo {
 	private String name;
 
 	private String message;
+
+	/**
+	 * 消息参数，消息格式化后仍然保留，用于结构化编码输出键值对参数
+	 */
+	private Object[] args;
+
+	/**
+	 * 消息是否已经格式化
+	 */
+	private boolean formatted = true;
 	
 	private Throwable throwable;
 	
@@ -30,18 +40,56 @@ public class LogInfo {
 	
 	private int errno = 0;
 	
+	/**
+	 * 创建日志缓冲区中可复用的空日志信息
+	 */
+	LogInfo() {
+	}
+
 	public LogInfo(Level level, String name, String message, Throwable throwable,
 			LocationInfo locationInfo, String threadName, int errno) {
+		this(level, name, message, null, throwable, locationInfo, threadName, errno);
+	}
+
+	/**
+	 * 创建日志信息，消息参数延迟到日志线程中格式化
+	 *
+	 * @param message 消息格式，参数不为null时在首次获取消息时格式化
+	 * @param args 消息参数，为null时代表消息已经格式化
+	 */
+	public LogInfo(Level level, String name, String message, Object[] args, Throwable throwable,
+			LocationInfo locationInfo, String threadName, int errno) {
+		set(level, name, message, args, args == null, throwable, locationInfo, threadName, errno);
+	}
+
+	/**
+	 * 填充日志缓冲区中复用的日志信息
+	 */
+	void set(Level level, String name, String message, Object[] args, boolean formatted,
+			Throwable throwable, LocationInfo locationInfo, String threadName, int errno) {
 		this.level = level;
 		this.name = name;
 		this.message = message;
-		if (throwable != Log.EMPTY_THROWABLE) {
-			this.throwable = throwable;
-		}
+		this.args = args;
+		this.formatted = formatted || message == null;
+		this.throwable = throwable != Log.EMPTY_THROWABLE ? throwable : null;
 		this.locationInfo = locationInfo;
 		this.threadName = threadName;
 		this.timeStamp = System.currentTimeMillis();
 		this.errno = errno;
+		this.threadId = -1;
+	}
+
+	/**
+	 * 日志输出后清空引用，避免复用的日志信息持有业务对象
+	 */
+	void clear() {
+		this.message = null;
+		this.args = null;
+		this.formatted = true;
+		this.throwable = null;
+		this.locationInfo = null;
+		this.threadName = null;
 	}
 	
 	public Level getLevel() {
@@ -53,8 +101,36 @@ public class LogInfo {
 	}
 
 	public String getMessage() {
+		if (!formatted) {
+			message = ParameterFormatter.formatNow(message, args);
+			formatted = true;
+		}
 		return message;
 	}
+
+	/**
+	 * 获取消息参数，其中的{@link KeyValue}参数会在结构化编码中作为独立字段输出
+	 */
+	public Object[] getArgs() {
+		return args;
+	}
+
+	/**
+	 * 是否已定位调用位置，日志格式不需要调用位置时不会定位
+	 */
+	public boolean hasLocationInfo() {
+		return locationInfo != null && locationInfo != LocationInfo.UNKNOWN;
+	}
+
+	/**
+	 * 在日志线程中使用复用的格式化器格式化消息
+	 */
+	void formatMessage(ParameterFormatter formatter) {
+		if (!formatted) {
+			message = formatter.format(message, args);
+			formatted = true;
+		}
+	}
 	
 	public Throwable getThrowable() {
 		return throwable;
@@ -62,7 +138,8 @@ public class LogInfo {
 	
 	public LocationInfo getLocationInfo() {
 		if (locationInfo == null) {
-			locationInfo = new LocationInfo(new Throwable());
+			// 日志格式不需要调用位置时不会定位，此时在日志线程中已无法获取
+			locationInfo = LocationInfo.UNKNOWN;
 		}
 		return locationInfo;
 	}
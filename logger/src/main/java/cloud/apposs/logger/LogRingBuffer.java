@@ -0,0 +1,197 @@
+package cloud.apposs.logger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 日志环形缓冲区，多生产者单消费者，替代无界阻塞队列，
+ * 1、预分配固定数量的日志信息槽位并循环复用，写入日志不再为每条日志创建队列节点和日志对象
+ * 2、业务线程通过CAS申请序号，填充对应槽位后发布，日志线程按序号顺序消费，消费完成后槽位才可被再次申请
+ * 3、缓冲区满时由调用方决定阻塞等待还是丢弃，丢弃的日志数量会被统计，日志已关闭或者日志线程已退出时不再阻塞，直接丢弃
+ * 4、缓冲区为空时日志线程挂起，业务线程发布日志时发现日志线程挂起再唤醒
+ */
+final class LogRingBuffer {
+    /**
+     * 缓冲区满时业务线程每次等待的时间
+     */
+    private static final long BLOCK_WAIT_NANOS = 10000L;
+
+    /**
+     * 缓冲区满时业务线程先让出CPU的次数，超过后才挂起等待，
+     * 避免挂起时间过长导致日志线程消费完后空闲
+     */
+    private static final int BLOCK_YIELD_TIMES = 64;
+
+    private final LogInfo[] slots;
+
+    /**
+     * 每个槽位已发布的序号，槽位序号与当前消费序号相等时才可消费
+     */
+    private final AtomicLongArray published;
+
+    private final int mask;
+
+    /**
+     * 下一个可申请的序号
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * 下一个待消费的序号，只由日志线程更新
+     */
+    private volatile long consumed = 0;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile Thread consumer;
+
+    private volatile boolean waiting = false;
+
+    private volatile boolean closed = false;
+
+    LogRingBuffer(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size");
+        }
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        slots = new LogInfo[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new LogInfo();
+            published.set(i, -1);
+        }
+        mask = capacity - 1;
+    }
+
+    /**
+     * 申请一个槽位序号，可在任意线程中调用
+     *
+     * @param block 缓冲区满时是否阻塞等待，不阻塞时丢弃并计数
+     * @return 申请到的序号，丢弃时返回-1
+     */
+    long next(boolean block) {
+        int waits = 0;
+        for (;;) {
+            long current = claimed.get();
+            if (current - consumed >= slots.length) {
+                // 日志线程自身输出日志时不能等待自己消费，否则会死锁，
+                // 日志已关闭或者日志线程已退出时缓冲区不会再被消费，等待会导致业务线程永久阻塞
+                Thread thread = consumer;
+                if (!block || closed || thread == null || thread == Thread.currentThread() || !thread.isAlive()) {
+                    dropped.incrementAndGet();
+                    return -1;
+                }
+                if (++waits < BLOCK_YIELD_TIMES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(this, BLOCK_WAIT_NANOS);
+                }
+                continue;
+            }
+            if (claimed.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * 获取申请到的序号对应的槽位，由申请方填充日志信息
+     */
+    LogInfo get(long sequence) {
+        return slots[(int) (sequence & mask)];
+    }
+
+    /**
+     * 发布已填充的槽位，发布后日志线程才可消费
+     */
+    void publish(long sequence) {
+        published.set((int) (sequence & mask), sequence);
+        if (waiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * 获取下一条待消费的日志，没有已发布的日志时返回null，只能在日志线程中调用
+     */
+    LogInfo peek() {
+        long sequence = consumed;
+        int index = (int) (sequence & mask);
+        if (published.get(index) != sequence) {
+            return null;
+        }
+        return slots[index];
+    }
+
+    /**
+     * 释放当前消费的槽位，只能在日志线程中调用
+     */
+    void release() {
+        long sequence = consumed;
+        slots[(int) (sequence & mask)].clear();
+        consumed = sequence + 1;
+    }
+
+    /**
+     * 没有待消费的日志时挂起日志线程，直到有新日志发布或被唤醒
+     */
+    void await() {
+        await(0);
+    }
+
+    /**
+     * 没有待消费的日志时挂起日志线程，直到有新日志发布、被唤醒或超时
+     *
+     * @param nanos 最长等待时间，为0时不超时
+     */
+    void await(long nanos) {
+        waiting = true;
+        // 先标记挂起再检查，保证业务线程要么看到挂起标记，要么日志线程看到新日志
+        if (peek() == null) {
+            if (nanos > 0) {
+                LockSupport.parkNanos(this, nanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        waiting = false;
+    }
+
+    /**
+     * 设置消费日志的日志线程，需要在日志线程启动前设置
+     */
+    void setConsumer(Thread consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * 关闭缓冲区并唤醒日志线程，关闭后缓冲区满时不再阻塞申请方
+     */
+    void close() {
+        closed = true;
+        Thread thread = consumer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    boolean isEmpty() {
+        return claimed.get() == consumed;
+    }
+
+    int getCapacity() {
+        return slots.length;
+    }
+
+    int getDepth() {
+        return (int) (claimed.get() - consumed);
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
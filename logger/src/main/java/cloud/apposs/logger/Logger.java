@@ -23,211 +23,211 @@ public class Logger {
     }
 
     public static void trace(String message) {
-        log(Level.TRACE, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.TRACE, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public static void trace(int errno, String message) {
-        log(Level.TRACE, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message);
+        log(Level.TRACE, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message);
     }
 
     public static void trace(Throwable throwable) {
-        log(Level.TRACE, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.TRACE, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public static void trace(int errno, Throwable throwable) {
-        log(Level.TRACE, throwable, new LocationInfo(new Throwable()), errno, null);
+        log(Level.TRACE, throwable, Log.LAZY_LOCATION, errno, null);
     }
 
     public static void trace(String message, Object... args) {
-        log(Level.TRACE, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.TRACE, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void trace(int errno, String message, Object... args) {
-        log(Level.TRACE, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.TRACE, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void trace(Throwable throwable, String message, Object... args) {
-        log(Level.TRACE, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.TRACE, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void trace(int errno, Throwable throwable, String message, Object... args) {
-        log(Level.TRACE, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.TRACE, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void debug(String message) {
-        log(Level.DEBUG, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.DEBUG, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public static void debug(int errno, String message) {
-        log(Level.DEBUG, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message);
+        log(Level.DEBUG, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message);
     }
 
     public static void debug(Throwable throwable) {
-        log(Level.DEBUG, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.DEBUG, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public static void debug(int errno, Throwable throwable) {
-        log(Level.DEBUG, throwable, new LocationInfo(new Throwable()), errno, null);
+        log(Level.DEBUG, throwable, Log.LAZY_LOCATION, errno, null);
     }
 
     public static void debug(String message, Object... args) {
-        log(Level.DEBUG, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.DEBUG, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void debug(int errno, String message, Object... args) {
-        log(Level.DEBUG, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.DEBUG, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void debug(Throwable throwable, String message, Object... args) {
-        log(Level.DEBUG, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.DEBUG, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void debug(int errno, Throwable throwable, String message, Object... args) {
-        log(Level.DEBUG, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.DEBUG, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void info(String message) {
-        log(Level.INFO, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.INFO, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public static void info(int errno, String message) {
-        log(Level.INFO, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message);
+        log(Level.INFO, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message);
     }
 
     public static void info(Throwable throwable) {
-        log(Level.INFO, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.INFO, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public static void info(int errno, Throwable throwable) {
-        log(Level.INFO, throwable, new LocationInfo(new Throwable()), errno, null);
+        log(Level.INFO, throwable, Log.LAZY_LOCATION, errno, null);
     }
 
     public static void info(String message, Object... args) {
-        log(Level.INFO, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.INFO, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void info(int errno, String message, Object... args) {
-        log(Level.INFO, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.INFO, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void info(Throwable throwable, String message, Object... args) {
-        log(Level.INFO, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.INFO, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void info(int errno, Throwable throwable, String message, Object... args) {
-        log(Level.INFO, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.INFO, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void warn(String message) {
-        log(Level.WARN, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.WARN, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public static void warn(int errno, String message) {
-        log(Level.WARN, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message);
+        log(Level.WARN, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message);
     }
 
     public static void warn(Throwable throwable) {
-        log(Level.WARN, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.WARN, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public static void warn(int errno, Throwable throwable) {
-        log(Level.WARN, throwable, new LocationInfo(new Throwable()), errno, null);
+        log(Level.WARN, throwable, Log.LAZY_LOCATION, errno, null);
     }
 
     public static void warn(String message, Object... args) {
-        log(Level.WARN, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.WARN, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void warn(int errno, String message, Object... args) {
-        log(Level.WARN, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.WARN, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void warn(Throwable throwable, String message, Object... args) {
-        log(Level.WARN, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.WARN, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void warn(int errno, Throwable throwable, String message, Object... args) {
-        log(Level.WARN, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.WARN, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void error(String message) {
-        log(Level.ERROR, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.ERROR, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public static void error(int errno, String message) {
-        log(Level.ERROR, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message);
+        log(Level.ERROR, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message);
     }
 
     public static void error(Throwable throwable) {
-        log(Level.ERROR, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.ERROR, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public static void error(int errno, Throwable throwable) {
-        log(Level.ERROR, throwable, new LocationInfo(new Throwable()), errno, null);
+        log(Level.ERROR, throwable, Log.LAZY_LOCATION, errno, null);
     }
 
     public static void error(String message, Object... args) {
-        log(Level.ERROR, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.ERROR, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void error(int errno, String message, Object... args) {
-        log(Level.ERROR, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.ERROR, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void error(Throwable throwable, String message, Object... args) {
-        log(Level.ERROR, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.ERROR, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void error(int errno, Throwable throwable, String message, Object... args) {
-        log(Level.ERROR, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.ERROR, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void fatal(String message) {
-        log(Level.FATAL, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message);
+        log(Level.FATAL, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message);
     }
 
     public static void fatal(int errno, String message) {
-        log(Level.FATAL, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message);
+        log(Level.FATAL, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message);
     }
 
     public static void fatal(Throwable throwable) {
-        log(Level.FATAL, throwable, new LocationInfo(new Throwable()), 0, null);
+        log(Level.FATAL, throwable, Log.LAZY_LOCATION, 0, null);
     }
 
     public static void fatal(int errno, Throwable throwable) {
-        log(Level.FATAL, throwable, new LocationInfo(new Throwable()), errno, null);
+        log(Level.FATAL, throwable, Log.LAZY_LOCATION, errno, null);
     }
 
     public static void fatal(String message, Object... args) {
-        log(Level.FATAL, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.FATAL, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void fatal(int errno, String message, Object... args) {
-        log(Level.FATAL, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.FATAL, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void fatal(Throwable throwable, String message, Object... args) {
-        log(Level.FATAL, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(Level.FATAL, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void fatal(int errno, Throwable throwable, String message, Object... args) {
-        log(Level.FATAL, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(Level.FATAL, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void log(Level level, String message, Object... args) {
-        log(level, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), 0, message, args);
+        log(level, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void log(Level level, int errno, String message, Object... args) {
-        log(level, Log.EMPTY_THROWABLE, new LocationInfo(new Throwable()), errno, message, args);
+        log(level, Log.EMPTY_THROWABLE, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void log(Level level, Throwable throwable, int errno, String message, Object... args) {
-        log(level, throwable, new LocationInfo(new Throwable()), errno, message, args);
+        log(level, throwable, Log.LAZY_LOCATION, errno, message, args);
     }
 
     public static void log(Level level, Throwable throwable, String message, Object... args) {
-        log(level, throwable, new LocationInfo(new Throwable()), 0, message, args);
+        log(level, throwable, Log.LAZY_LOCATION, 0, message, args);
     }
 
     public static void log(Level level, Throwable throwable,
@@ -262,6 +262,22 @@ public class Logger {
         return log.getConfiguration();
     }
 
+    /**
+     * 获取因缓冲区满被丢弃的日志数
+     */
+    public static long getDroppedCount() {
+        checkInitialized();
+        return log.getDroppedCount();
+    }
+
+    /**
+     * 获取缓冲区中等待输出的日志数
+     */
+    public static int getQueueDepth() {
+        checkInitialized();
+        return log.getQueueDepth();
+    }
+
     public static void close() {
         close(false);
     }
@@ -0,0 +1,32 @@
+package cloud.apposs.logger;
+
+/**
+ * 日志缓冲区满时的处理策略
+ */
+public enum OverflowPolicy {
+    /**
+     * 阻塞业务线程直到缓冲区有空位，日志不丢失
+     */
+    BLOCK,
+    /**
+     * 丢弃不高于指定级别的日志（如INFO/DEBUG/TRACE），更高级别的日志阻塞等待，保证错误日志不丢失
+     */
+    DROP_BELOW_LEVEL,
+    /**
+     * 丢弃所有新日志并计数，业务线程从不阻塞
+     */
+    DROP;
+
+    public static OverflowPolicy toPolicy(String policy, OverflowPolicy defaultPolicy) {
+        if (policy == null) {
+            return defaultPolicy;
+        }
+        for (OverflowPolicy value : values()) {
+            if (value.name().equalsIgnoreCase(policy)) {
+                return value;
+            }
+        }
+        System.err.println("Log:Unexpected overflow policy [" + policy + "], using default policy[" + defaultPolicy + "]");
+        return defaultPolicy;
+    }
+}
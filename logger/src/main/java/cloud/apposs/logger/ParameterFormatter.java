@@ -0,0 +1,90 @@
+package cloud.apposs.logger;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Formatter;
+
+/**
+ * 日志消息参数格式化，每个日志线程持有一个实例，复用格式化缓冲区，避免每条日志都创建新的格式化器
+ */
+final class ParameterFormatter {
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    private final Formatter formatter = new Formatter(buffer);
+
+    String format(String message, Object[] args) {
+        buffer.setLength(0);
+        try {
+            formatter.format(message, args);
+            return buffer.toString();
+        } catch (Exception e) {
+            return "message[" + message + "]format error";
+        }
+    }
+
+    /**
+     * 在当前线程中直接格式化消息
+     */
+    static String formatNow(String message, Object[] args) {
+        try {
+            return String.format(message, args);
+        } catch (Exception e) {
+            return "message[" + message + "]format error";
+        }
+    }
+
+    /**
+     * 参数是否都为不可变类型，只有不可变参数才能延迟到日志线程格式化，
+     * 否则业务线程在日志输出前修改参数会导致输出的内容与调用时不一致
+     */
+    static boolean isDeferrable(Object[] args) {
+        if (args == null) {
+            return true;
+        }
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            if (arg instanceof KeyValue) {
+                arg = ((KeyValue) arg).getValue();
+            }
+            if (!isImmutable(arg)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 参数已在业务线程中格式化时，只保留键值对参数用于结构化编码，可变的值转换为字符串，
+     * 没有键值对参数时返回null
+     */
+    static Object[] snapshot(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        int count = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof KeyValue) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        Object[] keyValues = new Object[count];
+        for (int i = 0, j = 0; i < args.length; i++) {
+            if (args[i] instanceof KeyValue) {
+                KeyValue keyValue = (KeyValue) args[i];
+                Object value = keyValue.getValue();
+                keyValues[j++] = isImmutable(value) ? keyValue : KeyValue.of(keyValue.getKey(), String.valueOf(value));
+            }
+        }
+        return keyValues;
+    }
+
+    private static boolean isImmutable(Object arg) {
+        return arg == null || arg instanceof String || arg instanceof Integer || arg instanceof Long
+                || arg instanceof Boolean || arg instanceof Double || arg instanceof Float
+                || arg instanceof Short || arg instanceof Byte || arg instanceof Character
+                || arg instanceof Enum || arg instanceof BigDecimal || arg instanceof BigInteger;
+    }
+}
@@ -0,0 +1,146 @@
+package cloud.apposs.logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 日志调用位置定位器，只有日志输出格式需要调用位置时才会在业务线程中定位，
+ * 1、JDK9及以上版本使用StackWalker逐帧遍历调用栈，找到日志门面类之后的第一个调用帧即停止，不需要生成完整的异常堆栈
+ * 2、JDK8不支持StackWalker，退化为通过异常堆栈定位
+ * 3、StackWalker通过MethodHandle调用，保证代码仍可在JDK8下编译运行
+ */
+final class StackLocator {
+    /**
+     * 日志门面类，调用栈中这些类之后的第一个调用帧即为日志调用位置
+     */
+    private static final String[] FACADE_CLASSES = {Log.class.getName(), Logger.class.getName()};
+
+    private static final Object WALKER;
+
+    private static final MethodHandle WALK;
+
+    private static final MethodHandle GET_CLASS_NAME;
+
+    private static final MethodHandle GET_METHOD_NAME;
+
+    private static final MethodHandle GET_FILE_NAME;
+
+    private static final MethodHandle GET_LINE_NUMBER;
+
+    private static final Function<Stream<Object>, LocationInfo> FINDER = new FrameFinder(FACADE_CLASSES);
+
+    static {
+        Object walker = null;
+        MethodHandle walk = null;
+        MethodHandle getClassName = null;
+        MethodHandle getMethodName = null;
+        MethodHandle getFileName = null;
+        MethodHandle getLineNumber = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            walker = lookup.findStatic(walkerClass, "getInstance", MethodType.methodType(walkerClass)).invoke();
+            walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class));
+            getClassName = lookup.findVirtual(frameClass, "getClassName", MethodType.methodType(String.class));
+            getMethodName = lookup.findVirtual(frameClass, "getMethodName", MethodType.methodType(String.class));
+            getFileName = lookup.findVirtual(frameClass, "getFileName", MethodType.methodType(String.class));
+            getLineNumber = lookup.findVirtual(frameClass, "getLineNumber", MethodType.methodType(int.class));
+        } catch (Throwable cause) {
+            // JDK8没有StackWalker，使用异常堆栈定位
+            walker = null;
+        }
+        WALKER = walker;
+        WALK = walk;
+        GET_CLASS_NAME = getClassName;
+        GET_METHOD_NAME = getMethodName;
+        GET_FILE_NAME = getFileName;
+        GET_LINE_NUMBER = getLineNumber;
+    }
+
+    private StackLocator() {
+    }
+
+    /**
+     * 定位日志调用位置，只能在日志门面类的调用链中调用
+     */
+    static LocationInfo locate() {
+        LocationInfo location = doWalk(FINDER);
+        if (location != null) {
+            return location;
+        }
+        // StackWalker不可用或定位失败时使用异常堆栈兜底
+        StackTraceElement[] stacks = new Throwable().getStackTrace();
+        boolean facade = false;
+        for (int i = 0; i < stacks.length; i++) {
+            StackTraceElement element = stacks[i];
+            if (isFacade(FACADE_CLASSES, element.getClassName())) {
+                facade = true;
+            } else if (facade) {
+                return new LocationInfo(element.getFileName(),
+                        element.getClassName(), element.getMethodName(), element.getLineNumber());
+            }
+        }
+        return LocationInfo.UNKNOWN;
+    }
+
+    /**
+     * 只通过StackWalker定位指定门面类之后的第一个调用帧，StackWalker不可用或定位失败时返回null
+     */
+    static LocationInfo walk(String... facades) {
+        return doWalk(new FrameFinder(facades));
+    }
+
+    private static LocationInfo doWalk(Function<Stream<Object>, LocationInfo> finder) {
+        if (WALKER == null) {
+            return null;
+        }
+        try {
+            return (LocationInfo) WALK.invoke(WALKER, finder);
+        } catch (Throwable cause) {
+            return null;
+        }
+    }
+
+    private static boolean isFacade(String[] facades, String className) {
+        for (int i = 0; i < facades.length; i++) {
+            if (facades[i].equals(className)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class FrameFinder implements Function<Stream<Object>, LocationInfo> {
+        private final String[] facades;
+
+        private FrameFinder(String[] facades) {
+            this.facades = facades;
+        }
+
+        @Override
+        public LocationInfo apply(Stream<Object> frames) {
+            try {
+                boolean facade = false;
+                Iterator<Object> iterator = frames.iterator();
+                while (iterator.hasNext()) {
+                    Object frame = iterator.next();
+                    String className = (String) GET_CLASS_NAME.invoke(frame);
+                    if (isFacade(facades, className)) {
+                        facade = true;
+                    } else if (facade) {
+                        return new LocationInfo((String) GET_FILE_NAME.invoke(frame), className,
+                                (String) GET_METHOD_NAME.invoke(frame), (int) GET_LINE_NUMBER.invoke(frame));
+                    }
+                }
+                return null;
+            } catch (Throwable cause) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package cloud.apposs.logger.appender;
+
+import cloud.apposs.logger.Appender;
+import cloud.apposs.logger.LogEncoder;
+import cloud.apposs.logger.LogInfo;
+import cloud.apposs.logger.encoder.TextEncoder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 高吞吐滚动文件输出，
+ * 1、日志由配置的{@link LogEncoder}直接编码为字节写入复用的缓冲区，不再为每条日志生成字符串，缓冲区满或到达刷新间隔时才写入文件
+ * 2、文件名支持与{@link FileAppender}相同的日期格式，如log/app{yyyy-MM-dd}.log，日期变化时滚动到新文件
+ * 3、文件超过指定大小时滚动，当前文件重命名为file.1、file.2等序号文件后继续写入新文件
+ * 4、滚动后的旧文件在后台线程中压缩为gz文件，不阻塞日志线程
+ * 5、可选使用内存映射写入，按段映射文件，写入只需内存拷贝，关闭时截断文件未写入的映射部分，
+ * 注意进程异常退出时文件末尾可能残留未截断的空字节
+ */
+public class RollingFileAppender extends Appender {
+    public static final long DEFAULT_MAX_FILE_SIZE = 100 * 1024 * 1024L;
+    public static final int DEFAULT_BUFFER_SIZE = 256 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL = 1000L;
+
+    /**
+     * 内存映射模式下每次映射的文件段大小
+     */
+    private static final int MAPPED_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final String COMPRESS_SUFFIX = ".gz";
+
+    private String filename;
+
+    private String datepattern;
+
+    private String filesurfix;
+
+    private String lastFile;
+
+    /**
+     * 文件超过该大小时滚动，为0时不按大小滚动
+     */
+    private final long maxFileSize;
+
+    /**
+     * 缓冲日志写入文件的最长间隔，单位毫秒
+     */
+    private final long flushInterval;
+
+    private final boolean compress;
+
+    private final boolean mapped;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * 已格式化字符串的编码器
+     */
+    private final TextEncoder textEncoder = new TextEncoder(null);
+
+    private RandomAccessFile file;
+
+    private FileChannel channel;
+
+    private MappedByteBuffer segment;
+
+    /**
+     * 当前文件已写入的字节数，不包括缓冲区中待写入的字节
+     */
+    private long written;
+
+    /**
+     * 下次检查日期文件名的时间，避免每条日志都格式化日期
+     */
+    private long nextCheckTime;
+
+    private ExecutorService compressor;
+
+    public RollingFileAppender(String file) {
+        this(file, DEFAULT_MAX_FILE_SIZE, DEFAULT_BUFFER_SIZE, DEFAULT_FLUSH_INTERVAL, true, false);
+    }
+
+    /**
+     * 创建滚动文件输出
+     *
+     * @param file 文件名，支持日期格式
+     * @param maxFileSize 文件滚动大小，为0时不按大小滚动
+     * @param bufferSize 字节缓冲区大小
+     * @param flushInterval 缓冲日志写入文件的最长间隔，单位毫秒，为0时每批日志写入一次
+     * @param compress 是否在后台压缩滚动后的文件
+     * @param mapped 是否使用内存映射写入
+     */
+    public RollingFileAppender(String file, long maxFileSize, int bufferSize,
+                               long flushInterval, boolean compress, boolean mapped) {
+        if (maxFileSize < 0) {
+            throw new IllegalArgumentException("maxFileSize");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize");
+        }
+        if (flushInterval < 0) {
+            throw new IllegalArgumentException("flushInterval");
+        }
+        this.maxFileSize = maxFileSize;
+        this.flushInterval = flushInterval;
+        this.compress = compress;
+        this.mapped = mapped;
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.lastFile = parseFile(file);
+        doOpenFile();
+    }
+
+    @Override
+    public boolean isDirect() {
+        return true;
+    }
+
+    @Override
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    @Override
+    public void append(LogInfo info, LogEncoder encoder) {
+        write(info, null, encoder);
+    }
+
+    @Override
+    public void append(List<String> msgList) {
+        for (String msg : msgList) {
+            write(null, msg, null);
+        }
+        flush();
+    }
+
+    @Override
+    public void flush() {
+        try {
+            doDrain();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public String getFile() {
+        String file = filename;
+        if (datepattern != null) {
+            SimpleDateFormat df = new SimpleDateFormat(datepattern);
+            String date = df.format(new Date());
+            file += date;
+        }
+        if (filesurfix != null) {
+            file += "." + filesurfix;
+        }
+        return file;
+    }
+
+    @Override
+    public void close() {
+        try {
+            doCloseFile();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (compressor != null) {
+            // 已提交的压缩任务继续执行完
+            compressor.shutdown();
+        }
+    }
+
+    /**
+     * 编码单条日志写入缓冲区，缓冲区空间不足时先写入文件再重新编码
+     */
+    private void write(LogInfo info, String message, LogEncoder encoder) {
+        try {
+            doCheckRolling();
+            if (channel == null) {
+                return;
+            }
+            int mark = buffer.position();
+            if (doEncode(info, message, encoder, buffer)) {
+                return;
+            }
+            buffer.position(mark);
+            doDrain();
+            if (doEncode(info, message, encoder, buffer)) {
+                return;
+            }
+            // 单条日志超过缓冲区大小，使用临时缓冲区编码后直接写入文件
+            buffer.clear();
+            ByteBuffer large = ByteBuffer.allocate(buffer.capacity() << 1);
+            while (!doEncode(info, message, encoder, large)) {
+                large = ByteBuffer.allocate(large.capacity() << 1);
+            }
+            large.flip();
+            doWrite(large);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean doEncode(LogInfo info, String message, LogEncoder encoder, ByteBuffer target) {
+        if (info != null) {
+            return encoder.encode(info, target);
+        }
+        return textEncoder.encode(message, target);
+    }
+
+    /**
+     * 检查是否需要按日期或大小滚动文件
+     */
+    private void doCheckRolling() throws IOException {
+        if (datepattern != null) {
+            long now = System.currentTimeMillis();
+            if (now >= nextCheckTime) {
+                nextCheckTime = now - now % 1000 + 1000;
+                String file = getFile();
+                if (!file.equals(lastFile)) {
+                    String oldFile = lastFile;
+                    doCloseFile();
+                    doCompress(new File(oldFile));
+                    lastFile = file;
+                    doOpenFile();
+                    return;
+                }
+            }
+        }
+        if (maxFileSize > 0 && written + buffer.position() >= maxFileSize) {
+            doCloseFile();
+            File current = new File(lastFile);
+            File rolled = doGetRollingFile();
+            if (current.renameTo(rolled)) {
+                doCompress(rolled);
+            } else {
+                System.err.println("File [" + lastFile + "] rolling to [" + rolled + "] failed");
+            }
+            doOpenFile();
+        }
+    }
+
+    /**
+     * 获取下一个可用的滚动序号文件
+     */
+    private File doGetRollingFile() {
+        for (int index = 1; ; index++) {
+            File rolled = new File(lastFile + "." + index);
+            if (!rolled.exists() && !new File(rolled.getPath() + COMPRESS_SUFFIX).exists()) {
+                return rolled;
+            }
+        }
+    }
+
+    private void doOpenFile() {
+        File target = new File(lastFile);
+        if (target.isDirectory()) {
+            System.err.println("File [" + lastFile + "] is a directory. Log will be discarded");
+            return;
+        }
+        // 目录不存在，尝试创建目录
+        File parentDir = target.getAbsoluteFile().getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+        try {
+            file = new RandomAccessFile(target, "rw");
+            channel = file.getChannel();
+            written = channel.size();
+            channel.position(written);
+        } catch (IOException e) {
+            System.err.println("File [" + lastFile + "] init error cause by '" + e.getMessage() + "'. Log will be discarded");
+            channel = null;
+            written = 0;
+        }
+    }
+
+    private void doCloseFile() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            doDrain();
+            if (mapped) {
+                // 截断映射时扩展的文件末尾
+                segment = null;
+                channel.truncate(written);
+            }
+        } finally {
+            channel = null;
+            file.close();
+            file = null;
+        }
+    }
+
+    /**
+     * 将缓冲区中的日志写入文件
+     */
+    private void doDrain() throws IOException {
+        if (buffer.position() == 0 || channel == null) {
+            return;
+        }
+        buffer.flip();
+        doWrite(buffer);
+        buffer.clear();
+    }
+
+    private void doWrite(ByteBuffer source) throws IOException {
+        if (mapped) {
+            while (source.hasRemaining()) {
+                if (segment == null || !segment.hasRemaining()) {
+                    segment = channel.map(FileChannel.MapMode.READ_WRITE, written, MAPPED_SEGMENT_SIZE);
+                }
+                int length = Math.min(source.remaining(), segment.remaining());
+                ByteBuffer slice = source.duplicate();
+                slice.limit(slice.position() + length);
+                segment.put(slice);
+                source.position(source.position() + length);
+                written += length;
+            }
+        } else {
+            while (source.hasRemaining()) {
+                written += channel.write(source);
+            }
+        }
+    }
+
+    /**
+     * 在后台线程中压缩滚动后的文件
+     */
+    private void doCompress(final File source) {
+        if (!compress || !source.exists()) {
+            return;
+        }
+        if (compressor == null) {
+            compressor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Log_Compress");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        compressor.execute(new Runnable() {
+            @Override
+            public void run() {
+                File temp = new File(source.getPath() + COMPRESS_SUFFIX + ".tmp");
+                byte[] bytes = new byte[8192];
+                InputStream in = null;
+                OutputStream out = null;
+                try {
+                    in = new FileInputStream(source);
+                    out = new GZIPOutputStream(new FileOutputStream(temp));
+                    int length;
+                    while ((length = in.read(bytes)) > 0) {
+                        out.write(bytes, 0, length);
+                    }
+                    out.close();
+                    out = null;
+                    in.close();
+                    in = null;
+                    if (temp.renameTo(new File(source.getPath() + COMPRESS_SUFFIX))) {
+                        source.delete();
+                    }
+                } catch (IOException e) {
+                    System.err.println("File [" + source + "] compress error cause by '" + e.getMessage() + "'");
+                    temp.delete();
+                } finally {
+                    doClose(in);
+                    doClose(out);
+                }
+            }
+        });
+    }
+
+    private static void doClose(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+            }
+        }
+    }
+
+    private String parseFile(String file) {
+        if (file == null) {
+            throw new IllegalArgumentException("file");
+        }
+
+        int i = file.lastIndexOf(".");
+        if (i != -1) {
+            filename = file.substring(0, i);
+            filesurfix = file.substring(i + 1, file.length());
+        } else {
+            filename = file;
+        }
+
+        i = filename.indexOf("{");
+        if (i != -1) {
+            int end = filename.indexOf('}', i);
+            if (end > i) {
+                filename = filename.substring(0, i);
+                datepattern = file.substring(i + 1, end);
+            }
+        }
+
+        return getFile();
+    }
+}
@@ -0,0 +1,127 @@
+package cloud.apposs.logger.encoder;
+
+import cloud.apposs.logger.KeyValue;
+import cloud.apposs.logger.LocationInfo;
+import cloud.apposs.logger.LogEncoder;
+import cloud.apposs.logger.LogInfo;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 紧凑二进制编码，每条日志为一条长度前缀记录，数值均为大端序，格式如下：
+ * <pre>
+ * int   记录长度，不包括自身4字节
+ * byte  版本号，当前为1
+ * long  时间戳
+ * byte  日志级别数值
+ * int   错误码
+ * str   日志名称
+ * str   线程名称
+ * str   类名
+ * str   方法名
+ * str   文件名
+ * int   行号，没有调用位置时为-1
+ * str   消息
+ * str   异常堆栈，多行以\n分隔
+ * short 键值对数量，之后依次为str键和str值
+ * </pre>
+ * 其中str为int字节长度加UTF-8字节，值为null时长度为-1
+ */
+public class BinaryEncoder implements LogEncoder {
+    public static final byte VERSION = 1;
+
+    private final boolean location;
+
+    public BinaryEncoder() {
+        this(true);
+    }
+
+    /**
+     * @param location 是否输出日志调用位置，输出时需要在业务线程中定位调用位置
+     */
+    public BinaryEncoder(boolean location) {
+        this.location = location;
+    }
+
+    @Override
+    public boolean encode(LogInfo info, ByteBuffer buffer) {
+        try {
+            int start = buffer.position();
+            buffer.putInt(0);
+            buffer.put(VERSION);
+            buffer.putLong(info.getTimeStamp());
+            buffer.put((byte) info.getLevel().getValue());
+            buffer.putInt(info.getErrno());
+            writeString(buffer, info.getName());
+            writeString(buffer, info.getThreadName());
+            if (location && info.hasLocationInfo()) {
+                LocationInfo locationInfo = info.getLocationInfo();
+                writeString(buffer, locationInfo.getClassName());
+                writeString(buffer, locationInfo.getMethodName());
+                writeString(buffer, locationInfo.getFileName());
+                buffer.putInt(locationInfo.getLineNumber());
+            } else {
+                buffer.putInt(-1).putInt(-1).putInt(-1).putInt(-1);
+            }
+            writeString(buffer, info.getMessage());
+            if (info.getThrowable() != null) {
+                int lengthIndex = buffer.position();
+                buffer.putInt(0);
+                String[] lines = info.getThrowableInfo();
+                for (int i = 0; i < lines.length; i++) {
+                    if (i > 0) {
+                        buffer.put((byte) '\n');
+                    }
+                    EncodeUtil.writeUtf8(buffer, lines[i]);
+                }
+                buffer.putInt(lengthIndex, buffer.position() - lengthIndex - 4);
+            } else {
+                buffer.putInt(-1);
+            }
+            writeKeyValues(buffer, info.getArgs());
+            buffer.putInt(start, buffer.position() - start - 4);
+            return true;
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isLocationRequired() {
+        return location;
+    }
+
+    private static void writeKeyValues(ByteBuffer buffer, Object[] args) {
+        int countIndex = buffer.position();
+        buffer.putShort((short) 0);
+        if (args == null) {
+            return;
+        }
+        short count = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof KeyValue) {
+                KeyValue keyValue = (KeyValue) args[i];
+                Object value = keyValue.getValue();
+                writeString(buffer, keyValue.getKey());
+                writeString(buffer, value == null ? null : String.valueOf(value));
+                count++;
+            }
+        }
+        buffer.putShort(countIndex, count);
+    }
+
+    /**
+     * 先预留长度再写入UTF-8字节，写入后回填实际字节长度
+     */
+    private static void writeString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        int lengthIndex = buffer.position();
+        buffer.putInt(0);
+        EncodeUtil.writeUtf8(buffer, value);
+        buffer.putInt(lengthIndex, buffer.position() - lengthIndex - 4);
+    }
+}
@@ -0,0 +1,134 @@
+package cloud.apposs.logger.encoder;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 字节编码工具，直接将字符和数字写入缓冲区，不生成中间字符串和字节数组，
+ * 缓冲区空间不足时抛出{@link BufferOverflowException}
+ */
+final class EncodeUtil {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private static final String LONG_MIN_VALUE = String.valueOf(Long.MIN_VALUE);
+
+    private EncodeUtil() {
+    }
+
+    /**
+     * 写入UTF-8编码的字符，不成对的代理字符输出为?
+     */
+    static void writeUtf8(ByteBuffer buffer, CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else {
+                i = writeUtf8Char(buffer, value, i, length);
+            }
+        }
+    }
+
+    /**
+     * 写入带双引号并转义的JSON字符串
+     */
+    static void writeJsonString(ByteBuffer buffer, CharSequence value) {
+        buffer.put((byte) '"');
+        writeJsonEscaped(buffer, value);
+        buffer.put((byte) '"');
+    }
+
+    /**
+     * 写入转义后的JSON字符串内容，不包括双引号
+     */
+    static void writeJsonEscaped(ByteBuffer buffer, CharSequence value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                i = writeUtf8Char(buffer, value, i, length);
+                continue;
+            }
+            switch (c) {
+                case '"':
+                case '\\':
+                    buffer.put((byte) '\\').put((byte) c);
+                    break;
+                case '\n':
+                    buffer.put((byte) '\\').put((byte) 'n');
+                    break;
+                case '\r':
+                    buffer.put((byte) '\\').put((byte) 'r');
+                    break;
+                case '\t':
+                    buffer.put((byte) '\\').put((byte) 't');
+                    break;
+                default:
+                    if (c < 0x20) {
+                        buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                                .put(HEX[c >> 4]).put(HEX[c & 0xF]);
+                    } else {
+                        buffer.put((byte) c);
+                    }
+            }
+        }
+    }
+
+    /**
+     * 写入ASCII字符串，小写字母转换为大写，用于输出日志级别
+     */
+    static void writeUpperAscii(ByteBuffer buffer, String value) {
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            buffer.put((byte) (c >= 'a' && c <= 'z' ? c - 32 : c));
+        }
+    }
+
+    /**
+     * 写入十进制数字
+     */
+    static void writeLong(ByteBuffer buffer, long value) {
+        if (value == Long.MIN_VALUE) {
+            writeUtf8(buffer, LONG_MIN_VALUE);
+            return;
+        }
+        if (value < 0) {
+            buffer.put((byte) '-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long temp = value; temp >= 10; temp /= 10) {
+            digits++;
+        }
+        int position = buffer.position();
+        if (buffer.remaining() < digits) {
+            throw new BufferOverflowException();
+        }
+        for (int i = position + digits - 1; i >= position; i--) {
+            buffer.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        buffer.position(position + digits);
+    }
+
+    private static int writeUtf8Char(ByteBuffer buffer, CharSequence value, int index, int length) {
+        char c = value.charAt(index);
+        if (c < 0x800) {
+            buffer.put((byte) (0xC0 | (c >> 6)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        } else if (Character.isHighSurrogate(c) && index + 1 < length
+                && Character.isLowSurrogate(value.charAt(index + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(++index));
+            buffer.put((byte) (0xF0 | (codePoint >> 18)));
+            buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+            buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | (c >> 12)));
+            buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+            buffer.put((byte) (0x80 | (c & 0x3F)));
+        }
+        return index;
+    }
+}
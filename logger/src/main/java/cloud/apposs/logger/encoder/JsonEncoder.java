@@ -0,0 +1,145 @@
+package cloud.apposs.logger.encoder;
+
+import cloud.apposs.logger.KeyValue;
+import cloud.apposs.logger.LocationInfo;
+import cloud.apposs.logger.LogEncoder;
+import cloud.apposs.logger.LogInfo;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * JSON编码，每条日志输出为一行JSON，日志字段直接写入缓冲区，日志采集端不需要再解析文本格式，输出示例：
+ * <pre>
+ * {"time":1700000000000,"level":"INFO","thread":"main","errno":0,"class":"c.a.Demo","method":"run",
+ * "file":"Demo.java","line":12,"message":"order paid","kv":{"orderId":1001}}
+ * </pre>
+ * 其中name/class/method/file/line/message/exception/kv字段没有值时不输出
+ */
+public class JsonEncoder implements LogEncoder {
+    private final boolean location;
+
+    public JsonEncoder() {
+        this(true);
+    }
+
+    /**
+     * @param location 是否输出日志调用位置，输出时需要在业务线程中定位调用位置
+     */
+    public JsonEncoder(boolean location) {
+        this.location = location;
+    }
+
+    @Override
+    public boolean encode(LogInfo info, ByteBuffer buffer) {
+        try {
+            buffer.put((byte) '{');
+            writeName(buffer, "time", false);
+            EncodeUtil.writeLong(buffer, info.getTimeStamp());
+            writeName(buffer, "level", true);
+            buffer.put((byte) '"');
+            EncodeUtil.writeUpperAscii(buffer, info.getLevel().getString());
+            buffer.put((byte) '"');
+            if (info.getName() != null) {
+                writeName(buffer, "name", true);
+                EncodeUtil.writeJsonString(buffer, info.getName());
+            }
+            writeName(buffer, "thread", true);
+            EncodeUtil.writeJsonString(buffer, info.getThreadName());
+            writeName(buffer, "errno", true);
+            EncodeUtil.writeLong(buffer, info.getErrno());
+            if (location && info.hasLocationInfo()) {
+                LocationInfo locationInfo = info.getLocationInfo();
+                writeName(buffer, "class", true);
+                EncodeUtil.writeJsonString(buffer, String.valueOf(locationInfo.getClassName()));
+                writeName(buffer, "method", true);
+                EncodeUtil.writeJsonString(buffer, String.valueOf(locationInfo.getMethodName()));
+                writeName(buffer, "file", true);
+                EncodeUtil.writeJsonString(buffer, String.valueOf(locationInfo.getFileName()));
+                writeName(buffer, "line", true);
+                EncodeUtil.writeLong(buffer, locationInfo.getLineNumber());
+            }
+            String message = info.getMessage();
+            if (message != null) {
+                writeName(buffer, "message", true);
+                EncodeUtil.writeJsonString(buffer, message);
+            }
+            if (info.getThrowable() != null) {
+                writeName(buffer, "exception", true);
+                buffer.put((byte) '"');
+                String[] lines = info.getThrowableInfo();
+                for (int i = 0; i < lines.length; i++) {
+                    if (i > 0) {
+                        buffer.put((byte) '\\').put((byte) 'n');
+                    }
+                    EncodeUtil.writeJsonEscaped(buffer, lines[i]);
+                }
+                buffer.put((byte) '"');
+            }
+            writeKeyValues(buffer, info.getArgs());
+            buffer.put((byte) '}').put((byte) '\n');
+            return true;
+        } catch (BufferOverflowException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isLocationRequired() {
+        return location;
+    }
+
+    private static void writeKeyValues(ByteBuffer buffer, Object[] args) {
+        if (args == null) {
+            return;
+        }
+        boolean first = true;
+        for (int i = 0; i < args.length; i++) {
+            if (!(args[i] instanceof KeyValue)) {
+                continue;
+            }
+            KeyValue keyValue = (KeyValue) args[i];
+            if (first) {
+                writeName(buffer, "kv", true);
+                buffer.put((byte) '{');
+                first = false;
+            } else {
+                buffer.put((byte) ',');
+            }
+            EncodeUtil.writeJsonString(buffer, keyValue.getKey());
+            buffer.put((byte) ':');
+            writeValue(buffer, keyValue.getValue());
+        }
+        if (!first) {
+            buffer.put((byte) '}');
+        }
+    }
+
+    private static void writeValue(ByteBuffer buffer, Object value) {
+        if (value == null) {
+            EncodeUtil.writeUtf8(buffer, "null");
+        } else if (value instanceof Integer || value instanceof Long
+                || value instanceof Short || value instanceof Byte) {
+            EncodeUtil.writeLong(buffer, ((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            EncodeUtil.writeUtf8(buffer, value.toString());
+        } else if (value instanceof BigInteger || value instanceof BigDecimal
+                || (value instanceof Double && !((Double) value).isNaN() && !((Double) value).isInfinite())
+                || (value instanceof Float && !((Float) value).isNaN() && !((Float) value).isInfinite())) {
+            EncodeUtil.writeUtf8(buffer, value.toString());
+        } else {
+            EncodeUtil.writeJsonString(buffer, String.valueOf(value));
+        }
+    }
+
+    private static void writeName(ByteBuffer buffer, String name, boolean comma) {
+        if (comma) {
+            buffer.put((byte) ',');
+        }
+        buffer.put((byte) '"');
+        EncodeUtil.writeUtf8(buffer, name);
+        buffer.put((byte) '"').put((byte) ':');
+    }
+}
@@ -0,0 +1,72 @@
+package cloud.apposs.logger.encoder;
+
+import cloud.apposs.logger.FormatParser;
+import cloud.apposs.logger.LogEncoder;
+import cloud.apposs.logger.LogInfo;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 文本编码，按日志输出格式格式化后编码为UTF-8字节，与字符串输出的内容一致
+ */
+public class TextEncoder implements LogEncoder {
+    private final FormatParser parser;
+
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    private final StringBuffer line = new StringBuffer(256);
+
+    /**
+     * 编码前将日志复制到字符数组，编码器处理数组比逐个读取字符序列快得多
+     */
+    private char[] chars = new char[256];
+
+    public TextEncoder(FormatParser parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean encode(LogInfo info, ByteBuffer buffer) {
+        line.setLength(0);
+        parser.format(info, line);
+        return encode(line, buffer);
+    }
+
+    /**
+     * 将已格式化的文本编码到缓冲区
+     */
+    public boolean encode(CharSequence text, ByteBuffer buffer) {
+        int length = text.length();
+        if (length > chars.length) {
+            chars = new char[Math.max(length, chars.length << 1)];
+        }
+        if (text instanceof String) {
+            ((String) text).getChars(0, length, chars, 0);
+        } else if (text instanceof StringBuffer) {
+            ((StringBuffer) text).getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = text.charAt(i);
+            }
+        }
+        CharBuffer input = CharBuffer.wrap(chars, 0, length);
+        encoder.reset();
+        CoderResult result = encoder.encode(input, buffer, true);
+        if (!result.isOverflow()) {
+            result = encoder.flush(buffer);
+        }
+        return !result.isOverflow();
+    }
+
+    @Override
+    public boolean isLocationRequired() {
+        return parser != null && parser.isLocationRequired();
+    }
+}
@@ -13,6 +13,11 @@ public class AbbreviateClassNameFormatter extends Formatter {
 		super(formatInfo);
 	}
 
+	@Override
+	public boolean isLocationRequired() {
+		return true;
+	}
+
 	@Override
 	public String convert(LogInfo info) {
 		LocationInfo locationInfo = info.getLocationInfo();
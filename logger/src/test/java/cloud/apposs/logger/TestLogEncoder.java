@@ -0,0 +1,109 @@
+package cloud.apposs.logger;
+
+import cloud.apposs.logger.Configuration.Prefix;
+import cloud.apposs.logger.encoder.BinaryEncoder;
+import cloud.apposs.logger.encoder.JsonEncoder;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestLogEncoder {
+    private static final LocationInfo LOCATION = new LocationInfo("Demo.java", "cloud.apposs.Demo", "run", 12);
+
+    @Test
+    public void testJsonEncoder() throws Exception {
+        LogInfo info = new LogInfo(Level.INFO, null, "order \"%s\" paid\n%s",
+                new Object[] {"中文", KeyValue.of("orderId", 1001)}, null, LOCATION, "main", 7);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        assertTrue(new JsonEncoder().encode(info, buffer));
+        String json = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertEquals("{\"time\":" + info.getTimeStamp() + ",\"level\":\"INFO\",\"thread\":\"main\",\"errno\":7,"
+                + "\"class\":\"cloud.apposs.Demo\",\"method\":\"run\",\"file\":\"Demo.java\",\"line\":12,"
+                + "\"message\":\"order \\\"中文\\\" paid\\norderId=1001\",\"kv\":{\"orderId\":1001}}\n", json);
+
+        LogInfo error = new LogInfo(Level.ERROR, "app", null, null,
+                new IllegalStateException("broken"), null, "main", 0);
+        buffer = ByteBuffer.allocate(64 * 1024);
+        assertTrue(new JsonEncoder(false).encode(error, buffer));
+        json = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        assertTrue(json, json.contains("\"name\":\"app\""));
+        assertTrue(json, json.contains("\"exception\":\"java.lang.IllegalStateException: broken\\n\\tat "));
+        assertFalse(json, json.contains("\"class\""));
+        assertFalse(json, json.contains("\"message\""));
+
+        // 缓冲区空间不足时返回false，由调用方写出后重试
+        assertFalse(new JsonEncoder().encode(info, ByteBuffer.allocate(32)));
+    }
+
+    @Test
+    public void testBinaryEncoder() throws Exception {
+        LogInfo info = new LogInfo(Level.WARN, null, "paid %s",
+                new Object[] {KeyValue.of("amount", 9.5)}, null, LOCATION, "worker", 3);
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        assertTrue(new BinaryEncoder().encode(info, buffer));
+        buffer.flip();
+        assertEquals(buffer.remaining() - 4, buffer.getInt());
+        assertEquals(BinaryEncoder.VERSION, buffer.get());
+        assertEquals(info.getTimeStamp(), buffer.getLong());
+        assertEquals(Level.WARN.getValue(), buffer.get());
+        assertEquals(3, buffer.getInt());
+        assertEquals(null, readString(buffer));
+        assertEquals("worker", readString(buffer));
+        assertEquals("cloud.apposs.Demo", readString(buffer));
+        assertEquals("run", readString(buffer));
+        assertEquals("Demo.java", readString(buffer));
+        assertEquals(12, buffer.getInt());
+        assertEquals("paid amount=9.5", readString(buffer));
+        assertEquals(null, readString(buffer));
+        assertEquals(1, buffer.getShort());
+        assertEquals("amount", readString(buffer));
+        assertEquals("9.5", readString(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void testJsonRollingFile() throws Exception {
+        File file = new File(Files.createTempDirectory("encoder").toFile(), "app.log");
+        Properties prop = new Properties();
+        prop.setProperty(Prefix.APPENDER, "rolling");
+        prop.setProperty(Prefix.FILE, file.getPath());
+        prop.setProperty(Prefix.ENCODER, "json");
+        Log log = new Log(prop);
+        assertTrue(log.getConfiguration().isLocationRequired());
+        StringBuilder mutable = new StringBuilder("before");
+        log.info("order %s", KeyValue.of("state", mutable));
+        mutable.setLength(0);
+        log.close();
+        log.join();
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, lines.size());
+        String json = lines.get(0);
+        assertTrue(json, json.contains("\"class\":\"" + TestLogEncoder.class.getName() + "\""));
+        assertTrue(json, json.contains("\"method\":\"testJsonRollingFile\""));
+        // 可变参数在调用时已转换为字符串
+        assertTrue(json, json.contains("\"message\":\"order state=before\",\"kv\":{\"state\":\"before\"}}"));
+
+        // 非直接输出的渠道只支持文本编码
+        prop.setProperty(Prefix.APPENDER, "console");
+        assertFalse(new Configuration(prop).getEncoder() instanceof JsonEncoder);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
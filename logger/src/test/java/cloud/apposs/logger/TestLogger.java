@@ -1,10 +1,31 @@
 package cloud.apposs.logger;
 
 import cloud.apposs.logger.Configuration.Prefix;
+import cloud.apposs.logger.appender.RollingFileAppender;
 import org.junit.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class TestLogger {
 	private static final String LOG_CONFIG = "log.properties";
@@ -66,6 +87,251 @@ public class TestLogger {
         Thread.sleep(2000000);
     }
 
+	@Test
+	public void testLogLazyLocation() throws Exception {
+		PrintStream stdout = System.out;
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(output, true));
+		try {
+			Properties prop = new Properties();
+			prop.setProperty(Prefix.LEVEL, "info");
+			prop.setProperty(Prefix.FORMAT, "%C.%M:%m%n");
+			Log log = new Log(prop);
+			assertTrue(log.getConfiguration().getFormatParser().isLocationRequired());
+			StringBuilder mutable = new StringBuilder("before");
+			log.debug("filtered %s", "debug");
+			log.info("lazy %s %d", "location", 1);
+			log.info("mutable %s", mutable);
+			mutable.setLength(0);
+			mutable.append("after");
+			log.info("done");
+			String expected = TestLogger.class.getName() + ".testLogLazyLocation:";
+			for (int i = 0; i < 100 && !output.toString().contains("done"); i++) {
+				Thread.sleep(20);
+			}
+			String result = output.toString();
+			assertTrue(result, result.contains(expected + "lazy location 1"));
+			assertTrue(result, result.contains(expected + "mutable before"));
+			assertFalse(result, result.contains("filtered"));
+		} finally {
+			System.setOut(stdout);
+		}
+		Properties prop = new Properties();
+		prop.setProperty(Prefix.FORMAT, "%m%n");
+		assertFalse(new Configuration(prop).getFormatParser().isLocationRequired());
+	}
+
+	@Test
+	public void testLogRingBufferOverflow() throws Exception {
+		PrintStream stdout = System.out;
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		// 模拟磁盘阻塞，日志线程输出第一批日志时阻塞
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				blocked.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+				output.write(b);
+			}
+		}, true));
+		try {
+			Properties prop = new Properties();
+			prop.setProperty(Prefix.FORMAT, "%m%n");
+			prop.setProperty(Prefix.QUEUE_SIZE, "3");
+			prop.setProperty(Prefix.OVERFLOW, "drop_below_level");
+			prop.setProperty(Prefix.OVERFLOW_LEVEL, "info");
+			final Log log = new Log(prop);
+			assertEquals(4, log.getQueueCapacity());
+			log.info("first");
+			assertTrue(blocked.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 10; i++) {
+				log.info("info %d", i);
+			}
+			assertEquals(4, log.getQueueDepth());
+			assertEquals(6, log.getDroppedCount());
+			// 高于丢弃级别的日志阻塞等待缓冲区空位
+			Thread error = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					log.error("error");
+				}
+			});
+			error.start();
+			error.join(200);
+			assertTrue(error.isAlive());
+			release.countDown();
+			error.join(5000);
+			assertFalse(error.isAlive());
+			log.close();
+			log.join();
+			String result = output.toString();
+			assertTrue(result, result.contains("info 3"));
+			assertFalse(result, result.contains("info 4"));
+			assertTrue(result, result.contains("error"));
+			assertEquals(6, log.getDroppedCount());
+		} finally {
+			System.setOut(stdout);
+		}
+	}
+
+	@Test
+	public void testLogThreadAfterAppenderError() throws Exception {
+		PrintStream stdout = System.out;
+		final CountDownLatch failed = new CountDownLatch(1);
+		final StringBuilder output = new StringBuilder();
+		// 模拟输出异常，日志线程输出异常后需要继续输出后续日志
+		System.setOut(new PrintStream(new ByteArrayOutputStream()) {
+			@Override
+			public void print(String s) {
+				if (s.contains("boom")) {
+					failed.countDown();
+					throw new IllegalStateException("boom");
+				}
+				synchronized (output) {
+					output.append(s);
+				}
+			}
+		});
+		try {
+			Properties prop = new Properties();
+			prop.setProperty(Prefix.FORMAT, "%m%n");
+			prop.setProperty(Prefix.QUEUE_SIZE, "3");
+			final Log log = new Log(prop);
+			log.info("boom");
+			assertTrue(failed.await(5, TimeUnit.SECONDS));
+			log.info("after");
+			log.close();
+			log.join();
+			synchronized (output) {
+				assertTrue(output.toString(), output.toString().contains("after"));
+			}
+			// 日志关闭后缓冲区满时直接丢弃，不再阻塞等待已退出的日志线程
+			Thread error = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10; i++) {
+						log.error("error %d", i);
+					}
+				}
+			});
+			error.start();
+			error.join(5000);
+			assertFalse(error.isAlive());
+			assertEquals(6, log.getDroppedCount());
+		} finally {
+			System.setOut(stdout);
+		}
+	}
+
+	@Test
+	public void testRollingFileAppender() throws Exception {
+		File dir = Files.createTempDirectory("rolling").toFile();
+		File file = new File(dir, "app.log");
+		RollingFileAppender appender = new RollingFileAppender(file.getPath(), 1024, 256, 0, true, false);
+		List<String> expected = doAppendLines(appender);
+		// 等待后台线程压缩完所有滚动文件
+		for (int i = 0; i < 250 && dir.list().length != expectedFiles(dir); i++) {
+			Thread.sleep(20);
+		}
+		assertTrue(new File(dir, "app.log.1.gz").exists());
+		assertEquals(expected, doReadRollingLines(dir, "app.log"));
+	}
+
+	@Test
+	public void testRollingFileAppenderMapped() throws Exception {
+		File dir = Files.createTempDirectory("rolling").toFile();
+		File file = new File(dir, "app.log");
+		RollingFileAppender appender = new RollingFileAppender(file.getPath(), 1024, 256, 0, false, true);
+		List<String> expected = doAppendLines(appender);
+		assertTrue(new File(dir, "app.log.1").exists());
+		// 映射扩展的文件末尾在关闭时被截断
+		assertTrue(file.length() < 1024 + 256);
+		assertEquals(expected, doReadRollingLines(dir, "app.log"));
+	}
+
+	@Test
+	public void testRollingFileFlushInterval() throws Exception {
+		File dir = Files.createTempDirectory("rolling").toFile();
+		File file = new File(dir, "app.log");
+		Properties prop = new Properties();
+		prop.setProperty(Prefix.APPENDER, "rolling");
+		prop.setProperty(Prefix.FILE, file.getPath());
+		prop.setProperty(Prefix.FORMAT, "%m%n");
+		prop.setProperty(Prefix.FLUSH_INTERVAL, "50");
+		Log log = new Log(prop);
+		log.info("rolling %d", 1);
+		log.info("rolling %d", 2);
+		// 日志线程空闲时到达刷新间隔也会写入文件
+		for (int i = 0; i < 100 && file.length() == 0; i++) {
+			Thread.sleep(20);
+		}
+		assertEquals(Arrays.asList("rolling 1", "rolling 2"), Files.readAllLines(file.toPath(), StandardCharsets.UTF_8));
+		log.close();
+		log.join();
+	}
+
+	/**
+	 * 压缩完成后目录中只有当前文件和gz文件
+	 */
+	private static int expectedFiles(File dir) {
+		int count = 1;
+		for (String name : dir.list()) {
+			if (name.endsWith(".gz")) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static List<String> doAppendLines(RollingFileAppender appender) {
+		List<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 200; i++) {
+			String line = "rolling line " + i + " 日志";
+			expected.add(line);
+			appender.append(Arrays.asList(line + "\n"));
+		}
+		appender.close();
+		return expected;
+	}
+
+	/**
+	 * 按滚动顺序读取序号文件和当前文件中的所有行
+	 */
+	private static List<String> doReadRollingLines(File dir, String name) throws IOException {
+		List<String> lines = new ArrayList<String>();
+		for (int index = 1; ; index++) {
+			File rolled = new File(dir, name + "." + index);
+			File compressed = new File(dir, name + "." + index + ".gz");
+			if (rolled.exists()) {
+				doReadLines(new FileInputStream(rolled), lines);
+			} else if (compressed.exists()) {
+				doReadLines(new GZIPInputStream(new FileInputStream(compressed)), lines);
+			} else {
+				break;
+			}
+		}
+		doReadLines(new FileInputStream(new File(dir, name)), lines);
+		return lines;
+	}
+
+	private static void doReadLines(InputStream input, List<String> lines) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		} finally {
+			reader.close();
+		}
+	}
+
 	public static void testLogProperties() {
 		Properties prop = new Properties();
 		prop.setProperty(Prefix.LEVEL, "info");
@@ -0,0 +1,28 @@
+package cloud.apposs.logger;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class TestStackLocator {
+    /**
+     * 测试JDK9及以上版本通过StackWalker定位调用位置，而不是退化为异常堆栈
+     */
+    @Test
+    public void testLocateByStackWalker() {
+        Assume.assumeFalse(System.getProperty("java.specification.version").startsWith("1."));
+        int line = new Throwable().getStackTrace()[0].getLineNumber() + 1;
+        LocationInfo location = Facade.locate();
+        Assert.assertNotNull(location);
+        Assert.assertEquals(TestStackLocator.class.getName(), location.getClassName());
+        Assert.assertEquals("testLocateByStackWalker", location.getMethodName());
+        Assert.assertEquals("TestStackLocator.java", location.getFileName());
+        Assert.assertEquals(line, location.getLineNumber());
+    }
+
+    private static class Facade {
+        private static LocationInfo locate() {
+            return StackLocator.walk(Facade.class.getName());
+        }
+    }
+}
@@ -3,6 +3,11 @@ package cloud.apposs.okhttp;
 import cloud.apposs.discovery.IDiscovery;
 import cloud.apposs.ioc.annotation.Component;
 import cloud.apposs.react.React;
+import cloud.apposs.util.HttpStatus;
+import io.netty.buffer.ByteBuf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
 /**
  * 客户端异步HTTP请求，
@@ -49,6 +54,31 @@ public final class OkHttp {
         return engine.create(request, discovery);
     }
 
+    /**
+     * HTTP流式异步请求，响应体不在内存中聚合，每收到一段数据即发送一个字节片段，响应体接收完后结束数据流，
+     * 1、字节片段是网络层数据段的堆内存副本，网络层缓冲区发送后即释放，字节片段可以交给executOn等异步算子在其他线程中处理
+     * 2、支持背压，下游请求量用完时暂停读取连接数据，再次请求时恢复读取，暂停时间超过读超时时间会触发读超时异常
+     * 3、响应状态码为4xx/5xx时触发异常，需要获取响应头或自行处理异常响应时使用{@link OkRequest#stream(boolean)}调用{@link #execute(OkRequest)}
+     */
+    public React<ByteBuffer> stream(OkRequest request) throws Exception {
+        return stream(request, builder.discovery());
+    }
+
+    public React<ByteBuffer> stream(OkRequest request, IDiscovery discovery) throws Exception {
+        return execute(request.stream(true), discovery).filter(response -> {
+            if (response.getStatus() >= HttpStatus.HTTP_STATUS_400.getCode()) {
+                throw new IOException("remote address '" + request.url() + "' response status " + response.getStatus());
+            }
+            return response.getChunk().isReadable();
+        }).map(response -> {
+            ByteBuf chunk = response.getChunk();
+            ByteBuffer buffer = ByteBuffer.allocate(chunk.readableBytes());
+            chunk.getBytes(chunk.readerIndex(), buffer);
+            buffer.flip();
+            return buffer;
+        });
+    }
+
     public void addInterceptor(IHttpInterceptor interceptor) {
         builder.getInterceptorSupport().addInterceptor(interceptor);
     }
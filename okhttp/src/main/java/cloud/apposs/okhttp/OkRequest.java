@@ -28,6 +28,12 @@ public class OkRequest {
      */
     private boolean sse = false;
 
+    /**
+     * 是否采用流式响应，流式响应下不聚合响应体，每收到一段数据即以引用计数的{@link io.netty.buffer.ByteBuf}交给调用方，
+     * 适用于大文件下载等响应体较大的场景，详见{@link OkResponse#getChunk()}
+     */
+    private boolean stream = false;
+
     /**
      * 服务的请求KEY，Discovery负载均衡组件会通过此KEY来实现不同的负载均衡算法
      */
@@ -106,6 +112,15 @@ public class OkRequest {
         return this;
     }
 
+    public boolean stream() {
+        return stream;
+    }
+
+    public OkRequest stream(boolean stream) {
+        this.stream = stream;
+        return this;
+    }
+
     public Object key() {
         return this.key;
     }
@@ -210,10 +225,10 @@ public class OkRequest {
 
     /**
      * 获取连接池的KEY，主要用于区分不同的连接池，详见{@link cloud.apposs.okhttp.pool.PoolKey}，
-     * 之所以要区分不同的连接池是因为不同的服务可能会走不同的代理模式、服务发现ID、是否SSE等
+     * 之所以要区分不同的连接池是因为不同的服务可能会走不同的代理模式、服务发现ID、是否SSE、是否流式响应等
      */
     public String getPoolKey() {
-        return (serviceId == null ? "" : serviceId) + ":" + sse;
+        return (serviceId == null ? "" : serviceId) + ":" + sse + ":" + stream;
     }
 
     /**
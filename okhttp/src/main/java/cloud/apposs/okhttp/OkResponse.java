@@ -4,6 +4,9 @@ import cloud.apposs.util.CachedFileStream;
 import cloud.apposs.util.CharsetUtil;
 import cloud.apposs.util.HttpStatus;
 import cloud.apposs.util.MediaType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.handler.codec.http.HttpHeaders;
 
 import java.io.IOException;
 import java.net.URI;
@@ -12,18 +15,27 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * HTTP请求响应
+ * HTTP请求响应，
+ * 1、普通响应的响应体聚合在{@link CachedFileStream}中
+ * 2、流式响应不聚合响应体，每段数据通过{@link #getChunk()}获取，详见{@link OkRequest#stream(boolean)}
+ * 3、由网络层创建的响应直接持有原始响应头，只有调用{@link #getHeaders()}或者区分大小写获取单个响应头时才复制为Map
  */
 public class OkResponse {
     private final URI url;
 
     private final int status;
 
-    private final Map<String, String> headers;
+    private Map<String, String> headers;
 
-    // 响应内容缓冲区，可能是内存数据，也可能是文件流
+    // 原始响应头，获取单个响应头时直接查找，不做复制
+    private final HttpHeaders httpHeaders;
+
+    // 响应内容缓冲区，可能是内存数据，也可能是文件流，流式响应下为空
     private final CachedFileStream buffer;
 
+    // 流式响应下当前收到的数据段，只在回调期间有效
+    private ByteBuf chunk;
+
     // 数据响应是否结束，在SSE中，数据响应过程中一直是false，直到SSE结束的时候才为true，其他响应中为true
     private boolean completed = true;
 
@@ -34,9 +46,30 @@ public class OkResponse {
         this.url = url;
         this.status = status;
         this.headers = headers;
+        this.httpHeaders = null;
+        this.buffer = buffer;
+    }
+
+    private OkResponse(URI url, int status, HttpHeaders headers, CachedFileStream buffer) {
+        this.url = url;
+        this.status = status;
+        this.httpHeaders = headers;
         this.buffer = buffer;
     }
 
+    /**
+     * 构造一个直接持有原始响应头的响应，由网络层调用
+     *
+     * @param  url     请求地址
+     * @param  status  响应状态码
+     * @param  headers 原始响应头，只有调用{@link #getHeaders()}时才复制
+     * @param  buffer  响应内容缓冲区，流式响应下为空
+     * @return 响应对象
+     */
+    public static OkResponse ofHeaders(URI url, int status, HttpHeaders headers, CachedFileStream buffer) {
+        return new OkResponse(url, status, headers, buffer);
+    }
+
     /**
      * 构造一个指定内容的响应，内容类型默认为text/plain
      *
@@ -61,7 +94,18 @@ public class OkResponse {
         return status;
     }
 
+    /**
+     * 获取所有响应头，由网络层创建的响应在第一次调用时才复制响应头，
+     * 只需获取单个响应头时建议调用{@link #getHeader(String, boolean)}并忽略大小写
+     */
     public Map<String, String> getHeaders() {
+        if (headers == null && httpHeaders != null) {
+            Map<String, String> headerMap = new HashMap<String, String>();
+            for (Map.Entry<String, String> entry : httpHeaders.entries()) {
+                headerMap.put(entry.getKey(), entry.getValue());
+            }
+            headers = headerMap;
+        }
         return headers;
     }
 
@@ -69,7 +113,15 @@ public class OkResponse {
         return getHeader(key, false);
     }
 
+    /**
+     * 获取单个响应头，忽略大小写时直接从原始响应头中查找，区分大小写时从{@link #getHeaders()}中查找
+     */
     public String getHeader(String key, boolean ignoreCase) {
+        if (httpHeaders != null && ignoreCase) {
+            // 原始响应头本身不区分大小写
+            return httpHeaders.get(key);
+        }
+        Map<String, String> headers = getHeaders();
         if (ignoreCase) {
             for (String k : headers.keySet()) {
                 if (k.equalsIgnoreCase(key)) {
@@ -93,17 +145,47 @@ public class OkResponse {
      * @param charset 内容编码
      */
     public String getContent(Charset charset) throws IOException {
+        if (buffer == null) {
+            return chunk == null ? "" : chunk.toString(charset);
+        }
         return new String(buffer.array(), charset);
     }
 
     public byte[] getBytes() throws IOException {
+        if (buffer == null) {
+            return chunk == null ? new byte[0] : ByteBufUtil.getBytes(chunk);
+        }
         return buffer.array();
     }
 
+    /**
+     * 获取响应内容缓冲区，流式响应下为空
+     */
     public CachedFileStream getBuffer() throws IOException {
         return buffer;
     }
 
+    /**
+     * 获取流式响应当前收到的数据段，非流式响应下为空，
+     * 数据段直接引用网络层的缓冲区，没有复制，只在响应回调期间有效，回调返回后即被释放，
+     * 经过executOn等异步算子后回调不在当前数据段的有效期内，需要在异步算子之前复制或者retain，
+     * 需要在回调之外使用（如切换到其他线程处理）时需调用{@link ByteBuf#retain()}并在使用完后调用{@link ByteBuf#release()}
+     */
+    public ByteBuf getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(ByteBuf chunk) {
+        this.chunk = chunk;
+    }
+
+    /**
+     * 判断当前响应是否是分段获取数据的流式响应，详见{@link OkRequest#stream(boolean)}
+     */
+    public boolean isStreamResponse() {
+        return buffer == null;
+    }
+
     /**
      * 判断当前响应是否是流式响应
      */
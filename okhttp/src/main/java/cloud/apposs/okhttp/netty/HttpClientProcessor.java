@@ -8,18 +8,20 @@ import cloud.apposs.util.CachedFileStream;
 import cloud.apposs.util.MediaType;
 import cloud.apposs.util.Proxy;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.FullHttpResponse;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.LastHttpContent;
 import io.netty.util.ReferenceCountUtil;
 
 import java.net.SocketAddress;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 /**
  * HTTP数据异步处理器
@@ -39,6 +41,12 @@ public class HttpClientProcessor extends ChannelDuplexHandler {
      */
     private final NettyIoConnection connection;
 
+    /**
+     * 流式响应下游请求量用完后暂停读取，已经从网络读取解码的数据段暂存在此，下游再次请求时按顺序发送，
+     * 只在连接的EventLoop中访问
+     */
+    private final Deque<HttpContent> pendingContents = new ArrayDeque<HttpContent>();
+
     public HttpClientProcessor(NettyIoConnection connection, boolean keepAlive) {
         this.connection = connection;
         this.keepAlive = keepAlive;
@@ -69,6 +77,7 @@ public class HttpClientProcessor extends ChannelDuplexHandler {
     @Override
     public void channelRead(ChannelHandlerContext context, Object message) throws Exception {
         boolean isSseTransfer = false;
+        boolean isStreamTransfer = false;
         try {
             if (message instanceof FullHttpResponse) {
                 final OkRequest request = connection.getRequest();
@@ -77,26 +86,22 @@ public class HttpClientProcessor extends ChannelDuplexHandler {
                     return;
                 }
                 final FullHttpResponse httpResponse = (FullHttpResponse) message;
-                final Map<String, String> headers = new HashMap<String, String>();
-                for (Map.Entry<String, String> entry : httpResponse.headers().entries()) {
-                    headers.put(entry.getKey(), entry.getValue());
-                }
-                OkResponse response = new OkResponse(request.uri(),
-                        httpResponse.status().code(), headers, CachedFileStream.wrap(httpResponse.content().nioBuffer()));
+                // 响应头不是引用计数对象，直接交给响应对象，需要时再读取
+                OkResponse response = OkResponse.ofHeaders(request.uri(), httpResponse.status().code(),
+                        httpResponse.headers(), CachedFileStream.wrap(httpResponse.content().nioBuffer()));
                 subscriber.onNext(response);
                 return;
             }
-            // 在SSE分段响应下，第一次收到 HttpResponse（仅包含响应头），之后不断收到 HttpContent（含体内容）
+            // 在SSE和流式响应下，第一次收到 HttpResponse（仅包含响应头），之后不断收到 HttpContent（含体内容）
             if (message instanceof HttpResponse) {
                 final OkRequest request = connection.getRequest();
                 HttpResponse httpResponse = (HttpResponse) message;
-                final Map<String, String> headers = new HashMap<String, String>();
-                for (Map.Entry<String, String> entry : httpResponse.headers().entries()) {
-                    headers.put(entry.getKey(), entry.getValue());
-                }
-                String contentType = httpResponse.headers().get("Content-Type");
+                String contentType = httpResponse.headers().get(HttpHeaderNames.CONTENT_TYPE);
                 isSseTransfer = contentType != null && contentType.toLowerCase().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
-                OkResponse response = new OkResponse(request.uri(), httpResponse.status().code(), headers, CachedFileStream.wrap(""));
+                isStreamTransfer = request.stream();
+                // 流式响应不创建内容缓冲区，数据段直接交给调用方
+                CachedFileStream buffer = isStreamTransfer ? null : CachedFileStream.wrap("");
+                OkResponse response = OkResponse.ofHeaders(request.uri(), httpResponse.status().code(), httpResponse.headers(), buffer);
                 response.setCompleted(false);
                 request.setAttribute(NettyIoConnection.CONTEXT_RESPONSE, response);
                 return;
@@ -104,10 +109,14 @@ public class HttpClientProcessor extends ChannelDuplexHandler {
             if (message instanceof HttpContent) {
                 HttpContent content = (HttpContent) message;
                 ByteBuf buffer = content.content();
-                String chunk = buffer.toString(connection.getBuilder().charset());
                 final OkRequest request = connection.getRequest();
                 IoConnectionSubscriber subscriber = (IoConnectionSubscriber) request.getAttribute(NettyIoConnection.CONTEXT_SUBSCRIBE);
                 if (subscriber.isUnsubscribed()) {
+                    if (request.stream() && keepAlive) {
+                        // 剩余的响应体不再读取，连接无法复用，直接关闭
+                        connected = false;
+                        connection.close();
+                    }
                     return;
                 }
                 OkResponse response = (OkResponse) request.getAttribute(NettyIoConnection.CONTEXT_RESPONSE);
@@ -115,27 +124,107 @@ public class HttpClientProcessor extends ChannelDuplexHandler {
                     subscriber.onError(new IllegalStateException("remote address '" + request.url() + "' data error"));
                     return;
                 }
-                String contentType = response.getHeader("Content-Type", true);
-                isSseTransfer = contentType != null && contentType.toLowerCase().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
-                if (content instanceof LastHttpContent) {
-                    isSseTransfer = false;
+                boolean isLast = content instanceof LastHttpContent;
+                if (response.isStreamResponse()) {
+                    isStreamTransfer = !isLast;
+                    if (!pendingContents.isEmpty() || !connection.tryAcquireStreamRequest()) {
+                        // 下游请求量已用完，暂停读取，数据段暂存到下游再次请求时发送
+                        pendingContents.offer(content.retain());
+                        context.channel().config().setAutoRead(false);
+                        isStreamTransfer = true;
+                        return;
+                    }
+                    doStreamContent(subscriber, response, content);
+                    return;
+                }
+                if (isLast) {
                     response.setCompleted(true);
                 }
-                response.getBuffer().reset().write(chunk);
+                String contentType = response.getHeader("Content-Type", true);
+                isSseTransfer = !isLast && contentType != null && contentType.toLowerCase().startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+                // 直接写入字节，不再按字符集解码为字符串后重新编码
+                response.getBuffer().reset().write(ByteBufUtil.getBytes(buffer));
                 subscriber.onNext(response);
                 return;
             }
         } finally {
             ReferenceCountUtil.release(message);
-            if (!keepAlive && !isSseTransfer) {
+            if (!keepAlive && !isSseTransfer && !isStreamTransfer) {
                 connected = false;
                 context.close();
             }
         }
     }
 
+    /**
+     * 发送流式响应的数据段，数据段在发送之后随消息释放，调用方需要在回调之外使用时自行retain
+     */
+    private void doStreamContent(IoConnectionSubscriber subscriber, OkResponse response, HttpContent content) throws Exception {
+        boolean isLast = content instanceof LastHttpContent;
+        if (isLast) {
+            response.setCompleted(true);
+        }
+        response.setChunk(content.content());
+        try {
+            subscriber.onNext(response);
+        } finally {
+            response.setChunk(null);
+        }
+        if (isLast) {
+            subscriber.onCompleted();
+        }
+    }
+
+    /**
+     * 下游再次请求时按请求量发送暂存的数据段，全部发送完后恢复读取，在连接的EventLoop中执行
+     */
+    void doResumeStream(ChannelHandlerContext context) {
+        if (pendingContents.isEmpty()) {
+            context.channel().config().setAutoRead(true);
+            return;
+        }
+        final OkRequest request = connection.getRequest();
+        IoConnectionSubscriber subscriber = (IoConnectionSubscriber) request.getAttribute(NettyIoConnection.CONTEXT_SUBSCRIBE);
+        OkResponse response = (OkResponse) request.getAttribute(NettyIoConnection.CONTEXT_RESPONSE);
+        HttpContent content;
+        while ((content = pendingContents.peek()) != null && connection.tryAcquireStreamRequest()) {
+            pendingContents.poll();
+            if (subscriber.isUnsubscribed()) {
+                // 剩余的响应体不再读取，连接无法复用，直接关闭
+                content.release();
+                doReleasePending();
+                connected = false;
+                connection.close();
+                return;
+            }
+            boolean isLast = content instanceof LastHttpContent;
+            try {
+                doStreamContent(subscriber, response, content);
+            } catch (Throwable t) {
+                subscriber.onError(t);
+            } finally {
+                content.release();
+            }
+            if (isLast && !keepAlive) {
+                connected = false;
+                context.close();
+            }
+        }
+        if (pendingContents.isEmpty()) {
+            context.channel().config().setAutoRead(true);
+        }
+    }
+
+    private void doReleasePending() {
+        HttpContent content;
+        while ((content = pendingContents.poll()) != null) {
+            content.release();
+        }
+    }
+
     @Override
     public void channelInactive(ChannelHandlerContext context) throws Exception {
+        doReleasePending();
         if (!connected) {
             // 主动释放的连接不做逻辑处理
             return;
@@ -1,6 +1,7 @@
 package cloud.apposs.okhttp.netty;
 
 import cloud.apposs.okhttp.HttpBuilder;
+import cloud.apposs.okhttp.OkRequest;
 import cloud.apposs.okhttp.RemoteSocketAddress;
 import cloud.apposs.okhttp.pool.ReactIoConnection;
 import cloud.apposs.util.Proxy;
@@ -63,8 +64,10 @@ public class NettyChannelInitializer extends ChannelInitializer<Channel> {
         // HTTP解码链
         channel.pipeline().addLast(new ReadTimeoutHandler(builder.socketTimeout(), TimeUnit.MILLISECONDS));
         channel.pipeline().addLast(new HttpClientCodec());
-        // 在SSE开启的情况就不要注册聚合器，因为聚合器是聚合成一个 FullHttpResponse 再下发到 channelRead，SSE场景下就无法持续触发数据接收
-        if (!connection.getRequest().sse()) {
+        // 在SSE开启的情况就不要注册聚合器，因为聚合器是聚合成一个 FullHttpResponse 再下发到 channelRead，SSE场景下就无法持续触发数据接收，
+        // 流式响应同理，响应体分段直接交给调用方，不在内存中聚合
+        OkRequest request = connection.getRequest();
+        if (!request.sse() && !request.stream()) {
             channel.pipeline().addLast(new HttpObjectAggregator(655360));
         }
         channel.pipeline().addLast(processor);
@@ -17,6 +17,7 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 基于 Netty 的 HTTP 响应式异步IO连接，若开启连接池则归属连接池管理
@@ -32,7 +33,13 @@ public class NettyIoConnection extends AbstractReactIoConnection {
      * 如果为空则代表响应式连接第一次从连接池获取时，此时并未建立连接，
      * 需要在调用call方法时建立连接后对此字段进行赋值
      */
-    private ChannelHandlerContext context;
+    private volatile ChannelHandlerContext context;
+
+    /**
+     * 流式响应下游已请求但未发送的数据段数量，为0时暂停读取连接数据，
+     * 非流式响应不限制请求量
+     */
+    private final AtomicLong streamRequested = new AtomicLong(Long.MAX_VALUE);
 
     public NettyIoConnection(EventLoopGroup loop, IPooledConnection pool, HttpBuilder builder) {
         super(pool, builder);
@@ -55,6 +62,13 @@ public class NettyIoConnection extends AbstractReactIoConnection {
     public void call(IoSubscriber<? super OkResponse> t) throws Exception {
         IoConnectionSubscriber subscriber = new IoConnectionSubscriber(t, this);
         request.setAttribute(CONTEXT_SUBSCRIBE, subscriber);
+        // 流式响应支持背压，按下游请求量发送数据段
+        if (request.stream()) {
+            streamRequested.set(0);
+            t.setProducer(this::doStreamRequest);
+        } else {
+            streamRequested.set(Long.MAX_VALUE);
+        }
 
         // 如果是首次从连接池获取连接则需要进行连接操作，否则直接发送请求数据
         if (context == null) {
@@ -100,6 +114,42 @@ public class NettyIoConnection extends AbstractReactIoConnection {
         this.context = context;
     }
 
+    /**
+     * 流式响应下获取一个数据段的发送额度
+     *
+     * @return 下游请求量已用完时返回false，此时数据段需要暂存到下游再次请求
+     */
+    boolean tryAcquireStreamRequest() {
+        for (;;) {
+            long current = streamRequested.get();
+            if (current == Long.MAX_VALUE) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+            if (streamRequested.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 下游请求数据段，请求量由0增加时在连接的EventLoop中发送暂存的数据段并恢复读取
+     */
+    private void doStreamRequest(long n) {
+        if (n <= 0) {
+            return;
+        }
+        if (IoSubscriber.getAndAddRequested(streamRequested, n) != 0) {
+            return;
+        }
+        final ChannelHandlerContext context = this.context;
+        if (context != null) {
+            context.executor().execute(() -> ((HttpClientProcessor) context.handler()).doResumeStream(context));
+        }
+    }
+
     @Override
     public String toString() {
         return "NettyIoConnection{" +
@@ -0,0 +1,293 @@
+package cloud.apposs.okhttp;
+
+import cloud.apposs.react.IoSubscriber;
+import cloud.apposs.react.IoSubscription;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 流式响应测试，在本地启动分段响应的HTTP服务
+ */
+public class TestOkHttpStream {
+    private static final int CHUNK_COUNT = 64;
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private EventLoopGroup group;
+    private String baseUrl;
+    private OkHttp okHttp;
+
+    @Before
+    public void before() throws Exception {
+        group = new NioEventLoopGroup(1);
+        Channel channel = new ServerBootstrap().group(group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline().addLast(new HttpServerCodec());
+                        channel.pipeline().addLast(new HttpObjectAggregator(65536));
+                        channel.pipeline().addLast(new StreamServerHandler());
+                    }
+                }).bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+        baseUrl = "http://127.0.0.1:" + ((InetSocketAddress) channel.localAddress()).getPort();
+        okHttp = HttpBuilder.builder().poolConnections(2).retryCount(0).build();
+    }
+
+    @After
+    public void after() {
+        okHttp.close();
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    /**
+     * 测试流式响应按数据段回调，响应体不聚合，连接池连接可以复用
+     */
+    @Test
+    public void testHttpExecuteStream() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            AtomicLong received = new AtomicLong();
+            AtomicInteger chunks = new AtomicInteger();
+            AtomicBoolean corrupted = new AtomicBoolean();
+            AtomicReference<String> header = new AtomicReference<String>();
+            AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+            OkRequest request = OkRequest.builder().url(baseUrl + "/stream").stream(true);
+            okHttp.execute(request).subscribe(new IoSubscriber<OkResponse>() {
+                @Override
+                public void onNext(OkResponse value) throws Exception {
+                    Assert.assertTrue(value.isStreamResponse());
+                    Assert.assertNull(value.getBuffer());
+                    header.set(value.getHeader("x-stream-id", true));
+                    int length = value.getChunk().readableBytes();
+                    for (int j = 0; j < length; j++) {
+                        if (value.getChunk().getByte(value.getChunk().readerIndex() + j) != (byte) 'a') {
+                            corrupted.set(true);
+                        }
+                    }
+                    received.addAndGet(length);
+                    chunks.incrementAndGet();
+                }
+
+                @Override
+                public void onCompleted() {
+                    latch.countDown();
+                }
+
+                @Override
+                public void onError(Throwable cause) {
+                    error.set(cause);
+                    latch.countDown();
+                }
+            }).start();
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            Assert.assertNull(error.get());
+            Assert.assertFalse(corrupted.get());
+            Assert.assertEquals("stream", header.get());
+            Assert.assertEquals((long) CHUNK_COUNT * CHUNK_SIZE, received.get());
+            Assert.assertTrue(chunks.get() > 1);
+        }
+    }
+
+    /**
+     * 测试以字节片段数据流获取响应体
+     */
+    @Test
+    public void testHttpStreamReact() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong received = new AtomicLong();
+        okHttp.stream(OkRequest.builder().url(baseUrl + "/stream")).subscribe(new IoSubscriber<ByteBuffer>() {
+            @Override
+            public void onNext(ByteBuffer value) throws Exception {
+                received.addAndGet(value.remaining());
+            }
+
+            @Override
+            public void onCompleted() {
+                latch.countDown();
+            }
+        }).start();
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals((long) CHUNK_COUNT * CHUNK_SIZE, received.get());
+
+        CountDownLatch errorLatch = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        okHttp.stream(OkRequest.builder().url(baseUrl + "/missing")).subscribe(new IoSubscriber<ByteBuffer>() {
+            @Override
+            public void onNext(ByteBuffer value) throws Exception {
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+                error.set(cause);
+                errorLatch.countDown();
+            }
+        }).start();
+        Assert.assertTrue(errorLatch.await(10, TimeUnit.SECONDS));
+        Assert.assertTrue(error.get().getMessage(), error.get().getMessage().contains("404"));
+    }
+
+    /**
+     * 测试字节片段交给其他线程处理时数据依然有效
+     */
+    @Test
+    public void testHttpStreamExecutOn() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong received = new AtomicLong();
+        AtomicBoolean corrupted = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+        okHttp.stream(OkRequest.builder().url(baseUrl + "/stream")).executOn(executor, 4).subscribe(new IoSubscriber<ByteBuffer>() {
+            @Override
+            public void onNext(ByteBuffer value) throws Exception {
+                // 处理变慢，网络层缓冲区已经被复用时仍需读到正确的数据
+                Thread.sleep(1);
+                while (value.hasRemaining()) {
+                    if (value.get() != (byte) 'a') {
+                        corrupted.set(true);
+                    }
+                    received.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable cause) {
+                error.set(cause);
+                latch.countDown();
+            }
+        }).start();
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertNull(error.get());
+        Assert.assertFalse(corrupted.get());
+        Assert.assertEquals((long) CHUNK_COUNT * CHUNK_SIZE, received.get());
+        executor.shutdown();
+    }
+
+    /**
+     * 测试下游请求量用完时暂停发送字节片段，再次请求时继续发送
+     */
+    @Test
+    public void testHttpStreamRequest() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicLong received = new AtomicLong();
+        IoSubscription subscription = okHttp.stream(OkRequest.builder().url(baseUrl + "/stream")).subscribe(new IoSubscriber<ByteBuffer>() {
+            @Override
+            public void onStart() throws Exception {
+                request(2);
+            }
+
+            @Override
+            public void onNext(ByteBuffer value) throws Exception {
+                chunks.incrementAndGet();
+                received.addAndGet(value.remaining());
+            }
+
+            @Override
+            public void onCompleted() {
+                latch.countDown();
+            }
+        }).start();
+        Assert.assertFalse(latch.await(500, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(2, chunks.get());
+        subscription.request(3);
+        Thread.sleep(200);
+        Assert.assertEquals(5, chunks.get());
+        subscription.request(Long.MAX_VALUE);
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals((long) CHUNK_COUNT * CHUNK_SIZE, received.get());
+    }
+
+    /**
+     * 测试非流式响应的响应头按需读取
+     */
+    @Test
+    public void testHttpExecuteHeaders() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<OkResponse> result = new AtomicReference<OkResponse>();
+        okHttp.execute(baseUrl + "/small").subscribe(new IoSubscriber<OkResponse>() {
+            @Override
+            public void onNext(OkResponse value) throws Exception {
+                result.set(value);
+                latch.countDown();
+            }
+        }).start();
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        OkResponse response = result.get();
+        Assert.assertFalse(response.isStreamResponse());
+        Assert.assertEquals("hello 中文", response.getContent());
+        Assert.assertEquals("small", response.getHeader("X-Stream-Id"));
+        Assert.assertNull(response.getHeader("x-stream-id"));
+        Assert.assertEquals("small", response.getHeader("x-stream-id", true));
+        Assert.assertEquals("small", response.getHeaders().get("X-Stream-Id"));
+    }
+
+    private static class StreamServerHandler extends SimpleChannelInboundHandler<FullHttpRequest> {
+        @Override
+        protected void channelRead0(ChannelHandlerContext context, FullHttpRequest request) {
+            if (request.uri().startsWith("/stream")) {
+                HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                response.headers().set(HttpHeaderNames.TRANSFER_ENCODING, HttpHeaderValues.CHUNKED);
+                response.headers().set("X-Stream-Id", "stream");
+                context.write(response);
+                byte[] chunk = new byte[CHUNK_SIZE];
+                Arrays.fill(chunk, (byte) 'a');
+                for (int i = 0; i < CHUNK_COUNT; i++) {
+                    context.write(new DefaultHttpContent(Unpooled.wrappedBuffer(chunk)));
+                }
+                context.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT);
+                return;
+            }
+            boolean small = request.uri().startsWith("/small");
+            byte[] body = (small ? "hello 中文" : "not found").getBytes(StandardCharsets.UTF_8);
+            FullHttpResponse response = new DefaultFullHttpResponse(HttpVersion.HTTP_1_1,
+                    small ? HttpResponseStatus.OK : HttpResponseStatus.NOT_FOUND, Unpooled.wrappedBuffer(body));
+            response.headers().set(HttpHeaderNames.CONTENT_LENGTH, body.length);
+            response.headers().set("X-Stream-Id", "small");
+            context.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE_ON_FAILURE);
+        }
+    }
+}
@@ -40,6 +40,10 @@ public class ProtoBuf implements Serializable, Cloneable {
      * 默认的字符串字节编码
      */
     public static final Charset DEFAULT_CHARSET = Charset.forName("utf-8");
+    /**
+     * 缓冲归还后的空缓冲
+     */
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate(0);
     /**
      * 不指定Key序列化时的默认Key值
      */
@@ -79,6 +83,11 @@ public class ProtoBuf implements Serializable, Cloneable {
      */
     private Charset charset = DEFAULT_CHARSET;
 
+    /**
+     * 借出缓冲的分配器线程缓存，缓冲归还到该缓存，为空时表示缓冲不是池化的
+     */
+    private transient ProtoBufAllocator.ThreadCache pool;
+
     public ProtoBuf() {
         this(DEFAULT_BUFFER_SIZE, false, true);
     }
@@ -119,6 +128,15 @@ public class ProtoBuf implements Serializable, Cloneable {
         this.writeIdx = buffer.limit();
     }
 
+    /**
+     * 创建池化的协议缓冲，由{@link ProtoBufAllocator}调用
+     */
+    ProtoBuf(ByteBuffer buffer, boolean zigzag, ProtoBufAllocator.ThreadCache pool) {
+        this.zigzag = zigzag;
+        this.buffer = buffer;
+        this.pool = pool;
+    }
+
     public static ProtoBuf wrap(ByteBuffer buffer) {
         return new ProtoBuf(buffer, true);
     }
@@ -288,6 +306,29 @@ public class ProtoBuf implements Serializable, Cloneable {
         return zigzag;
     }
 
+    /**
+     * 判断缓冲是否从{@link ProtoBufAllocator}借用，需要在使用完毕后归还
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    /**
+     * 将池化的缓冲归还给借出它的线程缓存，可以在其他线程中归还，归还后缓冲不能再被使用，非池化的缓冲调用无任何影响
+     */
+    public void release() {
+        ProtoBufAllocator.ThreadCache pool = this.pool;
+        if (pool == null) {
+            return;
+        }
+        this.pool = null;
+        ByteBuffer buffer = this.buffer;
+        this.buffer = EMPTY_BUFFER;
+        this.readIdx = 0;
+        this.writeIdx = 0;
+        pool.release(buffer);
+    }
+
     public int getInt() throws ProtoBufException {
         return getInt(DEFAULT_KEY);
     }
@@ -491,6 +532,90 @@ public class ProtoBuf implements Serializable, Cloneable {
         return this;
     }
 
+    public int[] getInts() throws ProtoBufException {
+        return getInts(DEFAULT_KEY);
+    }
+
+    public int[] getInts(int key) throws ProtoBufException {
+        if (!hasReadableBytes()) {
+            throw ProtoBufException.overIndex();
+        }
+
+        return ProtoFieldFactory.INT32_ARRAY.readVarValue(this);
+    }
+
+    public ProtoBuf putInts(int[] value) {
+        return putInts(DEFAULT_KEY, value);
+    }
+
+    public ProtoBuf putInts(int key, int[] value) {
+        ProtoFieldFactory.INT32_ARRAY.writeVarValue(this, key, value);
+        return this;
+    }
+
+    public long[] getLongs() throws ProtoBufException {
+        return getLongs(DEFAULT_KEY);
+    }
+
+    public long[] getLongs(int key) throws ProtoBufException {
+        if (!hasReadableBytes()) {
+            throw ProtoBufException.overIndex();
+        }
+
+        return ProtoFieldFactory.INT64_ARRAY.readVarValue(this);
+    }
+
+    public ProtoBuf putLongs(long[] value) {
+        return putLongs(DEFAULT_KEY, value);
+    }
+
+    public ProtoBuf putLongs(int key, long[] value) {
+        ProtoFieldFactory.INT64_ARRAY.writeVarValue(this, key, value);
+        return this;
+    }
+
+    public float[] getFloats() throws ProtoBufException {
+        return getFloats(DEFAULT_KEY);
+    }
+
+    public float[] getFloats(int key) throws ProtoBufException {
+        if (!hasReadableBytes()) {
+            throw ProtoBufException.overIndex();
+        }
+
+        return ProtoFieldFactory.FLOAT_ARRAY.readVarValue(this);
+    }
+
+    public ProtoBuf putFloats(float[] value) {
+        return putFloats(DEFAULT_KEY, value);
+    }
+
+    public ProtoBuf putFloats(int key, float[] value) {
+        ProtoFieldFactory.FLOAT_ARRAY.writeVarValue(this, key, value);
+        return this;
+    }
+
+    public double[] getDoubles() throws ProtoBufException {
+        return getDoubles(DEFAULT_KEY);
+    }
+
+    public double[] getDoubles(int key) throws ProtoBufException {
+        if (!hasReadableBytes()) {
+            throw ProtoBufException.overIndex();
+        }
+
+        return ProtoFieldFactory.DOUBLE_ARRAY.readVarValue(this);
+    }
+
+    public ProtoBuf putDoubles(double[] value) {
+        return putDoubles(DEFAULT_KEY, value);
+    }
+
+    public ProtoBuf putDoubles(int key, double[] value) {
+        ProtoFieldFactory.DOUBLE_ARRAY.writeVarValue(this, key, value);
+        return this;
+    }
+
     public Calendar getCalendar() throws ProtoBufException {
         return getCalendar(DEFAULT_KEY);
     }
@@ -683,7 +808,8 @@ public class ProtoBuf implements Serializable, Cloneable {
     }
 
     /**
-     * 压缩可用数据，剔除无用数据
+     * 压缩可用数据，剔除无用数据，
+     * 池化的缓冲压缩后不再属于分配器，原有缓冲自动归还
      */
     public ProtoBuf compact() {
         int total = writeIdx - readIdx;
@@ -697,7 +823,13 @@ public class ProtoBuf implements Serializable, Cloneable {
         buffer.position(readIdx);
         buffer.limit(writeIdx);
         newBuf.put(buffer);
+        if (pool != null) {
+            pool.release(buffer);
+            pool = null;
+        }
         buffer = newBuf;
+        readIdx = 0;
+        writeIdx = total;
         return this;
     }
 
@@ -764,9 +896,9 @@ public class ProtoBuf implements Serializable, Cloneable {
     }
 
     /**
-     * 编码Key，用一个字节表示即可，
+     * 编码Key，Key值小于32时用一个字节表示即可，
      * 字节后3位存储的是传输类型{@link ProtoType}，即Value的类型，因为类型不多，3个位足够表示，
-     * 前5位存储的是Key值，Key最大值为32，所以Key值不能太大
+     * 前5位存储的是Key值
      * 例如doEncodeKey(1, Type.VARINT)，那么该Key在内存中的表示如下：
      * <pre>
      * +-------+------+
@@ -775,29 +907,81 @@ public class ProtoBuf implements Serializable, Cloneable {
      * | 00001 | 001  |
      * +-------+------+
      * </pre>
+     * Key值大于等于32时采用扩展Key编码，第一个字节后3位存储扩展标记{@link ProtoType#EXTENDED_KEY}，
+     * 前5位存储传输类型，之后再以VarInt存储Key值，
+     * 因为旧版本编码不会出现扩展标记，所以旧数据依然可以正常解码，其内存表示如下：
+     * <pre>
+     * +-------+------+----------------+
+     * | type  | 111  |  key(VarInt)   |
+     * +-------+------+----------------+
+     * | 00000 | 111  | 1xxxxxxx ...   |
+     * +-------+------+----------------+
+     * </pre>
      *
      * @param key  Key值，规定都为数字类型而不用字符串，节省字节数
      * @param type Value类型，只有知道类型才能解析对应的值
      */
     public void doEncodeKey(int key, byte type) {
-        if (key > 0x20) {
-            throw new IllegalStateException("Over key limit, key[" + key + "] > " +  0x20);
+        if (key < 0 || key > ProtoKey.MAX_KEY) {
+            throw new IllegalStateException("Over key limit, key[" + key + "] > " + ProtoKey.MAX_KEY);
         }
-        byte value = (byte) ((key << ProtoKey.TAG_TYPE_BITS) | type);
-        doAutoExpand(MAX_INT32_SIZE);
+        if (key <= ProtoKey.MAX_SHORT_KEY) {
+            byte value = (byte) ((key << ProtoKey.TAG_TYPE_BITS) | type);
+            doAutoExpand(MAX_INT32_SIZE);
+            writeIdx++;
+            buffer.put(value);
+            return;
+        }
+        byte value = (byte) ((type << ProtoKey.TAG_TYPE_BITS) | ProtoType.EXTENDED_KEY);
+        doAutoExpand(MAX_INT32_SIZE + 1);
         writeIdx++;
         buffer.put(value);
+        doWriteVarInt32(key);
     }
 
     /**
      * 解码获取Key包装
      */
-    public ProtoKey doDecodeKey() {
+    public ProtoKey doDecodeKey() throws ProtoBufException {
         byte value = buffer.get(readIdx++);
-        // 后三位存储的是传输类型
+        // 后三位存储的是传输类型，如果是扩展标记则前5位为传输类型，之后为VarInt编码的Key值
+        if ((value & ProtoKey.TAG_TYPE_MASK) == ProtoType.EXTENDED_KEY) {
+            byte type = (byte) ((value & 0xff) >>> ProtoKey.TAG_TYPE_BITS);
+            return new ProtoKey(doReadVarInt32(), type);
+        }
         return new ProtoKey(value);
     }
 
+    /**
+     * 跳过字段值，集合类型需要递归跳过直到集合边界，服务于解码时跳过新版本对象多出的字段
+     */
+    protected void doSkipValue(byte type) throws ProtoBufException {
+        switch (type) {
+            case ProtoType.VARINT:
+            case ProtoType.VARINT64:
+                doReadVarInt64();
+                break;
+            case ProtoType.LEN_DELIMI:
+                int length = doReadVarInt32();
+                if (length < 0) {
+                    throw ProtoBufException.negativeSize();
+                }
+                readIdx += length;
+                break;
+            case ProtoType.GROUP_BEG:
+                while (true) {
+                    byte protoType = doDecodeKey().getType();
+                    if (protoType == ProtoType.GROUP_END) {
+                        break;
+                    }
+                    doSkipValue(protoType);
+                }
+                break;
+            default:
+                throw ProtoBufException.malformedVarInt();
+        }
+    }
+
     /**
      * 将通过Protocol Buffer协议反序列化读取Int类型
      * VarInt解码如下，
@@ -902,7 +1086,8 @@ public class ProtoBuf implements Serializable, Cloneable {
     }
 
     /**
-     * 在空间不足情况下自动扩展空间容量，扩容为原先容量的2倍
+     * 在空间不足情况下自动扩展空间容量，扩容为原先容量的2倍，
+     * 原有数据直接复制到新缓冲中，直接内存的缓冲扩容后依然是直接内存，池化的缓冲扩容时从分配器申请新缓冲并归还旧缓冲
      */
     protected void doAutoExpand(int expectedRemaining) {
         int total = buffer.position() + expectedRemaining;
@@ -913,10 +1098,26 @@ public class ProtoBuf implements Serializable, Cloneable {
         int position = buffer.position();
         int expect = buffer.capacity() << 1;
         int size = total > expect ? total : expect;
-        byte[] bufNew = new byte[size];
-        byte[] bufOld = toByteArray(buffer);
-        System.arraycopy(bufOld, 0, bufNew, 0, bufOld.length);
-        buffer = ByteBuffer.wrap(bufNew);
-        buffer.position(position);
+        ByteBuffer bufNew;
+        ProtoBufAllocator.ThreadCache poolNew = null;
+        if (pool != null) {
+            // 新缓冲只能从当前线程的缓存中申请，旧缓冲归还给借出它的线程缓存
+            poolNew = pool.current();
+            bufNew = poolNew.allocate(size);
+        } else if (buffer.isDirect()) {
+            bufNew = ByteBuffer.allocateDirect(size);
+        } else {
+            bufNew = ByteBuffer.allocate(size);
+        }
+        ByteBuffer bufOld = buffer;
+        bufOld.position(0);
+        bufNew.put(bufOld);
+        bufNew.limit(bufNew.capacity());
+        bufNew.position(position);
+        if (pool != null) {
+            pool.release(bufOld);
+            pool = poolNew;
+        }
+        buffer = bufNew;
     }
 }
@@ -0,0 +1,254 @@
+package cloud.apposs.protobuf;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 池化的{@link ProtoBuf}分配器，服务于序列化时临时缓冲的复用，
+ * 1. 缓冲按容量从64字节开始以2倍递增划分为多个级别，申请时向上取整到最接近的级别
+ * 2. 每个线程独立缓存各级别归还的缓冲（类似Netty的Recycler），借用和同线程归还都无需加锁，
+ * 缓冲始终归还给借出它的线程缓存，其他线程归还时放入该线程缓存的无锁归还队列，由借出线程下次申请时取回
+ * 3. 每个级别缓存的缓冲总字节数有上限，超过上限或者超过最大池化容量的缓冲直接交给GC回收
+ * 4. 池化的缓冲扩容时从分配器申请新缓冲并归还旧缓冲，直接内存的缓冲扩容后依然是直接内存
+ * 使用方式如下：
+ * <pre>
+ * ProtoBuf buffer = ProtoBufAllocator.HEAP.allocate();
+ * try {
+ *     buffer.putObject(value, schema);
+ *     byte[] bytes = buffer.array();
+ * } finally {
+ *     buffer.release();
+ * }
+ * </pre>
+ * 注意缓冲归还之后不能再被使用，如果需要长期持有缓冲数据，可以调用{@link ProtoBuf#compact()}压缩成独立的缓冲，
+ * 压缩后的缓冲不再属于分配器，原有的池化缓冲会自动归还
+ */
+public final class ProtoBufAllocator {
+    /**
+     * 默认堆内存分配器
+     */
+    public static final ProtoBufAllocator HEAP = new ProtoBufAllocator(false);
+
+    /**
+     * 默认直接内存分配器
+     */
+    public static final ProtoBufAllocator DIRECT = new ProtoBufAllocator(true);
+
+    /**
+     * 最小级别容量
+     */
+    public static final int DEFAULT_MIN_CAPACITY = 64;
+
+    /**
+     * 最大池化容量，超过该容量的缓冲不池化
+     */
+    public static final int DEFAULT_MAX_CAPACITY = 64 * 1024;
+
+    /**
+     * 每个线程每个级别最多缓存的缓冲字节数
+     */
+    public static final int DEFAULT_MAX_CACHED_BYTES = 256 * 1024;
+
+    /**
+     * 每个线程每个级别最多缓存的缓冲数量
+     */
+    public static final int DEFAULT_MAX_CACHED_COUNT = 256;
+
+    private static final int MIN_CAPACITY_SHIFT = Integer.numberOfTrailingZeros(DEFAULT_MIN_CAPACITY);
+
+    private final boolean direct;
+
+    private final int maxCapacity;
+
+    private final int[] maxCachedCounts;
+
+    private final ThreadLocal<ThreadCache> caches = new ThreadLocal<ThreadCache>() {
+        @Override
+        protected ThreadCache initialValue() {
+            return new ThreadCache();
+        }
+    };
+
+    public ProtoBufAllocator(boolean direct) {
+        this(direct, DEFAULT_MAX_CAPACITY, DEFAULT_MAX_CACHED_BYTES);
+    }
+
+    /**
+     * 创建分配器
+     *
+     * @param direct         是否为直接内存
+     * @param maxCapacity    最大池化容量，必须为2的幂
+     * @param maxCachedBytes 每个线程每个级别最多缓存的缓冲字节数
+     */
+    public ProtoBufAllocator(boolean direct, int maxCapacity, int maxCachedBytes) {
+        if (maxCapacity < DEFAULT_MIN_CAPACITY || Integer.bitCount(maxCapacity) != 1) {
+            throw new IllegalArgumentException("maxCapacity");
+        }
+        if (maxCachedBytes < 0) {
+            throw new IllegalArgumentException("maxCachedBytes");
+        }
+        this.direct = direct;
+        this.maxCapacity = maxCapacity;
+        int classes = Integer.numberOfTrailingZeros(maxCapacity) - MIN_CAPACITY_SHIFT + 1;
+        this.maxCachedCounts = new int[classes];
+        for (int i = 0; i < classes; i++) {
+            int capacity = DEFAULT_MIN_CAPACITY << i;
+            maxCachedCounts[i] = Math.min(maxCachedBytes / capacity, DEFAULT_MAX_CACHED_COUNT);
+        }
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public ProtoBuf allocate() {
+        return allocate(ProtoBuf.DEFAULT_BUFFER_SIZE, true);
+    }
+
+    public ProtoBuf allocate(int size) {
+        return allocate(size, true);
+    }
+
+    /**
+     * 借用指定容量的协议缓冲，使用完毕后需要调用{@link ProtoBuf#release()}归还
+     *
+     * @param  size   最小容量
+     * @param  zigzag 是否采用zigzag对负数进行压缩
+     * @return 协议缓冲
+     */
+    public ProtoBuf allocate(int size, boolean zigzag) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size");
+        }
+        ThreadCache cache = caches.get();
+        return new ProtoBuf(cache.allocate(size), zigzag, cache);
+    }
+
+    /**
+     * 获取当前线程缓存中指定容量级别的空闲缓冲数量，不包括其他线程归还但还未取回的缓冲
+     */
+    public int getCachedCount(int size) {
+        int index = classIndex(size);
+        if (index < 0) {
+            return 0;
+        }
+        return caches.get().counts[index];
+    }
+
+    /**
+     * 获取容量所属的级别，超过最大池化容量时返回-1
+     */
+    private int classIndex(int size) {
+        if (size > maxCapacity) {
+            return -1;
+        }
+        if (size <= DEFAULT_MIN_CAPACITY) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_CAPACITY_SHIFT;
+    }
+
+    private ByteBuffer doNewBuffer(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * 线程缓存，按级别存储归还的空闲缓冲，级别栈只由所属线程访问，其他线程归还的缓冲先放入归还队列
+     */
+    final class ThreadCache {
+        private final Thread owner = Thread.currentThread();
+
+        private final ByteBuffer[][] stacks = new ByteBuffer[maxCachedCounts.length][];
+
+        private final int[] counts = new int[maxCachedCounts.length];
+
+        /**
+         * 其他线程归还的缓冲，多个线程放入，所属线程取出
+         */
+        private final Queue<ByteBuffer> returned = new ConcurrentLinkedQueue<ByteBuffer>();
+
+        private final AtomicInteger returnedCount = new AtomicInteger();
+
+        /**
+         * 获取所属分配器中当前线程的缓存
+         */
+        ThreadCache current() {
+            return caches.get();
+        }
+
+        /**
+         * 申请缓冲，只能由所属线程调用，优先复用缓存中的缓冲
+         */
+        ByteBuffer allocate(int size) {
+            int index = classIndex(size);
+            if (index < 0) {
+                return doNewBuffer(size);
+            }
+            if (counts[index] == 0 && returnedCount.get() > 0) {
+                doDrainReturned();
+            }
+            int count = counts[index];
+            if (count > 0) {
+                ByteBuffer[] stack = stacks[index];
+                ByteBuffer buffer = stack[--count];
+                stack[count] = null;
+                counts[index] = count;
+                buffer.clear();
+                return buffer;
+            }
+            return doNewBuffer(DEFAULT_MIN_CAPACITY << index);
+        }
+
+        /**
+         * 归还缓冲，所属线程直接放回缓存，其他线程放入归还队列，归还队列已满时直接丢弃
+         */
+        void release(ByteBuffer buffer) {
+            int capacity = buffer.capacity();
+            if (buffer.isDirect() != direct || Integer.bitCount(capacity) != 1 || classIndex(capacity) < 0) {
+                return;
+            }
+            if (Thread.currentThread() == owner) {
+                doPush(buffer);
+                return;
+            }
+            if (returnedCount.incrementAndGet() > DEFAULT_MAX_CACHED_COUNT) {
+                returnedCount.decrementAndGet();
+                return;
+            }
+            returned.offer(buffer);
+        }
+
+        private void doDrainReturned() {
+            ByteBuffer buffer;
+            while ((buffer = returned.poll()) != null) {
+                returnedCount.decrementAndGet();
+                doPush(buffer);
+            }
+        }
+
+        private void doPush(ByteBuffer buffer) {
+            int index = classIndex(buffer.capacity());
+            int count = counts[index];
+            if (count >= maxCachedCounts[index]) {
+                return;
+            }
+            ByteBuffer[] stack = stacks[index];
+            if (stack == null || count >= stack.length) {
+                ByteBuffer[] newStack = new ByteBuffer[Math.min(Math.max(count << 1, 8), maxCachedCounts[index])];
+                if (stack != null) {
+                    System.arraycopy(stack, 0, newStack, 0, count);
+                }
+                stack = newStack;
+                stacks[index] = stack;
+            }
+            stack[count] = buffer;
+            counts[index] = count + 1;
+        }
+    }
+}
@@ -28,6 +28,10 @@ public class ProtoFieldFactory {
     public static final ProtoFieldCalendar CALENDAR = new ProtoFieldCalendar();
     public static final ProtoFieldDecimal Decimal = new ProtoFieldDecimal();
     public static final ProtoFieldBuffer BUFFER = new ProtoFieldBuffer();
+    public static final ProtoFieldInt32Array INT32_ARRAY = new ProtoFieldInt32Array();
+    public static final ProtoFieldInt64Array INT64_ARRAY = new ProtoFieldInt64Array();
+    public static final ProtoFieldFloatArray FLOAT_ARRAY = new ProtoFieldFloatArray();
+    public static final ProtoFieldDoubleArray DOUBLE_ARRAY = new ProtoFieldDoubleArray();
     public static final ProtoFieldMap MAP = new ProtoFieldMap();
     public static final ProtoFieldList LIST = new ProtoFieldList();
     public static final ProtoFieldParam PARAM = new ProtoFieldParam();
@@ -57,6 +61,10 @@ public class ProtoFieldFactory {
         fieldValues.put(Calendar.class, CALENDAR);
         fieldValues.put(BigDecimal.class, Decimal);
         fieldValues.put(ByteBuffer.class, BUFFER);
+        fieldValues.put(int[].class, INT32_ARRAY);
+        fieldValues.put(long[].class, INT64_ARRAY);
+        fieldValues.put(float[].class, FLOAT_ARRAY);
+        fieldValues.put(double[].class, DOUBLE_ARRAY);
         fieldValues.put(Map.class, MAP);
         fieldValues.put(List.class, LIST);
         fieldValues.put(Param.class, PARAM);
@@ -83,6 +91,10 @@ public class ProtoFieldFactory {
         simpleFields.put(String.class, true);
         simpleFields.put(Calendar.class, true);
         simpleFields.put(ByteBuffer.class, true);
+        simpleFields.put(int[].class, true);
+        simpleFields.put(long[].class, true);
+        simpleFields.put(float[].class, true);
+        simpleFields.put(double[].class, true);
     }
 
     /**
@@ -145,6 +157,43 @@ public class ProtoFieldFactory {
         return (value >>> 1) ^ -(value & 1);
     }
 
+    /**
+     * 计算Int值VarInt编码后的字节数
+     */
+    public static int computeVarInt32Size(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * 计算Long值VarInt编码后的字节数
+     */
+    public static int computeVarInt64Size(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * 计算压缩数组中VarInt值的数量，每个VarInt的最后一个字节最高位为0
+     */
+    private static int countVarInts(ByteBuffer buffer, int index, int length) {
+        int count = 0;
+        for (int i = index; i < index + length; i++) {
+            if ((buffer.get(i) & 0x80) == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * 数据字段协议编码与解码操作
      */
@@ -701,6 +750,220 @@ public class ProtoFieldFactory {
         }
     }
 
+    /**
+     * int数组压缩编码，所有值以VarInt连续存储在同一个Key下，不再每个值存储一个Key，
+     * 其内存表现形式如下：
+     * <pre>
+     * +----------+----------+----------+-----+
+     * |  Length  |  VarInt  |  VarInt  | ... |
+     * +----------+----------+----------+-----+
+     * </pre>
+     */
+    public static final class ProtoFieldInt32Array extends AbstractProtoFieldCodec<int[]> {
+        @Override
+        public int[] readVarValue(ProtoBuf buffer, byte type, ProtoSchema schema) throws ProtoBufException {
+            if (type != ProtoType.LEN_DELIMI) {
+                throw ProtoBufException.malformedVarInt();
+            }
+
+            int length = buffer.doReadVarInt32();
+            if (length < 0) {
+                throw ProtoBufException.negativeSize();
+            }
+            int end = buffer.readIdx() + length;
+            int[] value = new int[countVarInts(buffer.buffer(), buffer.readIdx(), length)];
+            boolean zigzag = buffer.isZigzag();
+            for (int i = 0; i < value.length; i++) {
+                int rawValue = buffer.doReadVarInt32();
+                value[i] = zigzag ? zigzagToInt32(rawValue) : rawValue;
+            }
+            if (buffer.readIdx() != end) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            return value;
+        }
+
+        @Override
+        public void writeVarValue(ProtoBuf buffer, int key, int[] value, ProtoSchema schema) {
+            buffer.doEncodeKey(key, ProtoType.LEN_DELIMI);
+            if (value == null) {
+                buffer.doWriteVarInt32(0);
+                return;
+            }
+            boolean zigzag = buffer.isZigzag();
+            int length = 0;
+            for (int i = 0; i < value.length; i++) {
+                length += computeVarInt32Size(zigzag ? int32ToZigzag(value[i]) : value[i]);
+            }
+            buffer.doWriteVarInt32(length);
+            for (int i = 0; i < value.length; i++) {
+                buffer.doWriteVarInt32(zigzag ? int32ToZigzag(value[i]) : value[i]);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CODEC_INT32_ARRAY";
+        }
+    }
+
+    /**
+     * long数组压缩编码，存储形式同{@link ProtoFieldInt32Array}
+     */
+    public static final class ProtoFieldInt64Array extends AbstractProtoFieldCodec<long[]> {
+        @Override
+        public long[] readVarValue(ProtoBuf buffer, byte type, ProtoSchema schema) throws ProtoBufException {
+            if (type != ProtoType.LEN_DELIMI) {
+                throw ProtoBufException.malformedVarInt();
+            }
+
+            int length = buffer.doReadVarInt32();
+            if (length < 0) {
+                throw ProtoBufException.negativeSize();
+            }
+            int end = buffer.readIdx() + length;
+            long[] value = new long[countVarInts(buffer.buffer(), buffer.readIdx(), length)];
+            boolean zigzag = buffer.isZigzag();
+            for (int i = 0; i < value.length; i++) {
+                long rawValue = buffer.doReadVarInt64();
+                value[i] = zigzag ? zigzagToInt64(rawValue) : rawValue;
+            }
+            if (buffer.readIdx() != end) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            return value;
+        }
+
+        @Override
+        public void writeVarValue(ProtoBuf buffer, int key, long[] value, ProtoSchema schema) {
+            buffer.doEncodeKey(key, ProtoType.LEN_DELIMI);
+            if (value == null) {
+                buffer.doWriteVarInt32(0);
+                return;
+            }
+            boolean zigzag = buffer.isZigzag();
+            int length = 0;
+            for (int i = 0; i < value.length; i++) {
+                length += computeVarInt64Size(zigzag ? int64ToZigzag(value[i]) : value[i]);
+            }
+            buffer.doWriteVarInt32(length);
+            for (int i = 0; i < value.length; i++) {
+                buffer.doWriteVarInt64(zigzag ? int64ToZigzag(value[i]) : value[i]);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CODEC_INT64_ARRAY";
+        }
+    }
+
+    /**
+     * float数组压缩编码，所有值以4字节定长连续存储在同一个Key下，
+     * 浮点数的原始位大都不是小数字，定长存储比VarInt更省字节，其内存表现形式如下：
+     * <pre>
+     * +----------+---------+---------+-----+
+     * |  Length  | 4 Bytes | 4 Bytes | ... |
+     * +----------+---------+---------+-----+
+     * </pre>
+     */
+    public static final class ProtoFieldFloatArray extends AbstractProtoFieldCodec<float[]> {
+        @Override
+        public float[] readVarValue(ProtoBuf buffer, byte type, ProtoSchema schema) throws ProtoBufException {
+            if (type != ProtoType.LEN_DELIMI) {
+                throw ProtoBufException.malformedVarInt();
+            }
+
+            int length = buffer.doReadVarInt32();
+            if (length < 0) {
+                throw ProtoBufException.negativeSize();
+            }
+            if ((length & 3) != 0) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            int index = buffer.readIdx();
+            ByteBuffer byteBuffer = buffer.buffer();
+            float[] value = new float[length >> 2];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = byteBuffer.getFloat(index + (i << 2));
+            }
+            buffer.readIdx(index + length);
+            return value;
+        }
+
+        @Override
+        public void writeVarValue(ProtoBuf buffer, int key, float[] value, ProtoSchema schema) {
+            buffer.doEncodeKey(key, ProtoType.LEN_DELIMI);
+            if (value == null) {
+                buffer.doWriteVarInt32(0);
+                return;
+            }
+            int length = value.length << 2;
+            buffer.doWriteVarInt32(length);
+            buffer.doAutoExpand(length);
+            buffer.writeIdx(buffer.writeIdx() + length);
+            ByteBuffer byteBuffer = buffer.buffer();
+            for (int i = 0; i < value.length; i++) {
+                byteBuffer.putFloat(value[i]);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CODEC_FLOAT_ARRAY";
+        }
+    }
+
+    /**
+     * double数组压缩编码，所有值以8字节定长连续存储在同一个Key下，存储形式同{@link ProtoFieldFloatArray}
+     */
+    public static final class ProtoFieldDoubleArray extends AbstractProtoFieldCodec<double[]> {
+        @Override
+        public double[] readVarValue(ProtoBuf buffer, byte type, ProtoSchema schema) throws ProtoBufException {
+            if (type != ProtoType.LEN_DELIMI) {
+                throw ProtoBufException.malformedVarInt();
+            }
+
+            int length = buffer.doReadVarInt32();
+            if (length < 0) {
+                throw ProtoBufException.negativeSize();
+            }
+            if ((length & 7) != 0) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            int index = buffer.readIdx();
+            ByteBuffer byteBuffer = buffer.buffer();
+            double[] value = new double[length >> 3];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = byteBuffer.getDouble(index + (i << 3));
+            }
+            buffer.readIdx(index + length);
+            return value;
+        }
+
+        @Override
+        public void writeVarValue(ProtoBuf buffer, int key, double[] value, ProtoSchema schema) {
+            buffer.doEncodeKey(key, ProtoType.LEN_DELIMI);
+            if (value == null) {
+                buffer.doWriteVarInt32(0);
+                return;
+            }
+            int length = value.length << 3;
+            buffer.doWriteVarInt32(length);
+            buffer.doAutoExpand(length);
+            buffer.writeIdx(buffer.writeIdx() + length);
+            ByteBuffer byteBuffer = buffer.buffer();
+            for (int i = 0; i < value.length; i++) {
+                byteBuffer.putDouble(value[i]);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CODEC_DOUBLE_ARRAY";
+        }
+    }
+
     public static final class ProtoFieldMap extends AbstractProtoFieldCodec<Map<Object, Object>> {
         @Override
         public Map<Object, Object> readVarValue(ProtoBuf buffer, byte type,
@@ -718,7 +981,7 @@ public class ProtoFieldFactory {
                 if (protoKey.getType() == ProtoType.GROUP_END) {
                     break;
                 }
-                ProtoField<?> protoField = protoFieldList.get(protoKey.getKey());
+                ProtoField<?> protoField = protoFieldList.get(protoKey.getExtendedKey());
                 Object mapKey = protoField.getField();
                 ProtoFieldCodec<?> codec = protoField.getCodec();
                 ProtoSchema fieldSchema = protoField.getSchema();
@@ -826,7 +1089,7 @@ public class ProtoFieldFactory {
                 if (protoKey.getType() == ProtoType.GROUP_END) {
                     break;
                 }
-                ProtoField<?> protoField = protoFieldList.get(protoKey.getKey());
+                ProtoField<?> protoField = protoFieldList.get(protoKey.getExtendedKey());
                 String mapKey = (String) protoField.getField();
                 ProtoFieldCodec<?> codec = protoField.getCodec();
                 ProtoSchema fieldSchema = protoField.getSchema();
@@ -932,6 +1195,10 @@ public class ProtoFieldFactory {
                 }
 
                 Class<?> typeClass = schema.getFiledType();
+                ProtoSchemaCodec schemaCodec = schema.getSchemaCodec();
+                if (schemaCodec != null) {
+                    return schemaCodec.read(buffer, typeClass);
+                }
                 Object instance = typeClass.newInstance();
                 while (true) {
                     // 不断解析字节数据，直到到达对象边界时解码结束
@@ -940,7 +1207,7 @@ public class ProtoFieldFactory {
                     if (protoType == ProtoType.GROUP_END) {
                         break;
                     }
-                    ProtoField<?> protoField = schema.getField(protoKey.getKey());
+                    ProtoField<?> protoField = schema.getField(protoKey.getExtendedKey());
                     ProtoFieldCodec<?> codec = protoField.getCodec();
                     Object value = codec.readVarValue(buffer, protoType, protoField.getSchema());
                     Field field = (Field) protoField.getField();
@@ -963,6 +1230,12 @@ public class ProtoFieldFactory {
             try {
                 // 编码对象时需要定义对象的字节边界，以便于当对象又包含对象时能够通过边界解码
                 buffer.doEncodeKey(key, ProtoType.GROUP_BEG);
+                ProtoSchemaCodec schemaCodec = schema.getSchemaCodec();
+                if (schemaCodec != null) {
+                    schemaCodec.write(buffer, value);
+                    buffer.doEncodeKey(key, ProtoType.GROUP_END);
+                    return;
+                }
                 for (ProtoField<?> protoField : schema.getFieldList()) {
                     ProtoFieldCodec codec = protoField.getCodec();
                     Field field = (Field) protoField.getField();
@@ -9,6 +9,7 @@ package cloud.apposs.protobuf;
  * | 00001 | 001  |
  * +-------+------+
  * </pre>
+ * Key值大于等于32时采用扩展Key编码，详见{@link ProtoBuf#doEncodeKey(int, byte)}
  */
 public final class ProtoKey {
     /**
@@ -19,11 +20,19 @@ public final class ProtoKey {
      * 协议类型存储解码掩码
      */
     public static final int TAG_TYPE_MASK = (1 << TAG_TYPE_BITS) - 1;
+    /**
+     * 单字节可以存储的最大Key值，超过该值采用扩展Key编码
+     */
+    public static final int MAX_SHORT_KEY = (1 << (8 - TAG_TYPE_BITS)) - 1;
+    /**
+     * 扩展Key编码支持的最大Key值
+     */
+    public static final int MAX_KEY = (1 << 29) - 1;
 
     /**
-     * 协议Key值，存在于字节前5位
+     * 协议Key值，小于32时存在于字节前5位，否则以VarInt存储在类型字节之后
      */
-    private byte key;
+    private int key;
 
     /**
      * 协议字段值类型，存在于字节后3位
@@ -34,15 +43,28 @@ public final class ProtoKey {
         // 前5位存储的是key值/序号
         // 加上& 0xff主要目的是将value转换为byte二进制再进行移位操作，避免进行移位时高位都被补1
         // 参考：https://www.cnblogs.com/del88/p/15839209.html
-        this.key = (byte) ((value & 0xff) >>> TAG_TYPE_BITS);
+        this.key = (value & 0xff) >>> TAG_TYPE_BITS;
         // 后三位存储的是传输类型
         this.type = (byte) (value & TAG_TYPE_MASK);
     }
 
+    public ProtoKey(int key, byte type) {
+        this.key = key;
+        this.type = type;
+    }
+
     /**
-     * 获取协议Key值，存在于字节前5位
+     * 获取协议Key值，存在于字节前5位，保持与旧版本一致返回byte，
+     * 扩展Key（大于等于32）需要通过{@link #getExtendedKey()}获取
      */
     public byte getKey() {
+        return (byte) key;
+    }
+
+    /**
+     * 获取完整的协议Key值，包括以VarInt存储的扩展Key
+     */
+    public int getExtendedKey() {
         return key;
     }
 
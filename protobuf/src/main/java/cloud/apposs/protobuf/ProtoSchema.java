@@ -34,6 +34,11 @@ public class ProtoSchema implements Serializable {
      */
     private final Map<Object, ProtoField<?>> fieldMap = new ConcurrentHashMap<Object, ProtoField<?>>();
 
+    /**
+     * 对象序列化专用编码解码器，第一次序列化/反序列化对象时生成，字段变更后重新生成
+     */
+    private transient volatile ProtoSchemaCodec schemaCodec;
+
     public ProtoSchema(Class<?> filedType) {
         this.filedType = filedType;
     }
@@ -54,6 +59,26 @@ public class ProtoSchema implements Serializable {
         return fieldMap.get(field);
     }
 
+    /**
+     * 获取对象序列化专用编码解码器
+     *
+     * @return 编码解码器，无法生成时返回null，由调用方采用反射方式序列化
+     */
+    ProtoSchemaCodec getSchemaCodec() {
+        ProtoSchemaCodec codec = schemaCodec;
+        if (codec == null) {
+            // 与添加字段互斥，避免按添加到一半的字段生成编码解码器，或者生成后覆盖掉添加字段时的失效标记
+            synchronized (this) {
+                codec = schemaCodec;
+                if (codec == null) {
+                    codec = ProtoSchemaCodec.generate(this);
+                    schemaCodec = codec;
+                }
+            }
+        }
+        return codec == ProtoSchemaCodec.REFLECT ? null : codec;
+    }
+
     /**
      * 获取Class对象元数据，Protocol Buffer需要通过元数据进行序列化与把序列化操作，
      * 注意序列化和反序列化的Schema必须一致
@@ -212,7 +237,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldType 要序列化/反序列化的字段类型
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addKey(String fieldKey, Class<T> fieldType) {
+    public synchronized <T> ProtoSchema addKey(String fieldKey, Class<T> fieldType) {
         int fieldNumber = fieldList.size();
         ProtoFieldCodec<T> codec = ProtoFieldFactory.getFieldCodec(fieldType);
         ProtoSchema schema = null;
@@ -231,7 +256,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldSchema 协议字段元数据，如果字段又是对象则用此参数需要递归解析
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addKey(String fieldKey,
+    public synchronized <T> ProtoSchema addKey(String fieldKey,
                                   Class<T> fieldType, ProtoSchema fieldSchema) {
         int fieldNumber = fieldList.size();
         ProtoFieldCodec<T> fieldCodec = ProtoFieldFactory.getFieldCodec(fieldType);
@@ -246,7 +271,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldType   要序列化/反序列化的字段类型
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addKey(int fieldNumber,
+    public synchronized <T> ProtoSchema addKey(int fieldNumber,
                                   String fieldKey, Class<T> fieldType) {
         ProtoFieldCodec<T> fieldCodec = ProtoFieldFactory.getFieldCodec(fieldType);
         ProtoSchema fieldSchema = null;
@@ -263,7 +288,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldName Class对象属性名
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addField(String fieldName) {
+    public synchronized <T> ProtoSchema addField(String fieldName) {
         int fieldNumber = fieldList.size();
         try {
             Field field = filedType.getDeclaredField(fieldName);
@@ -288,7 +313,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldSchema 协议字段元数据，如果字段又是对象则用此参数需要递归解析
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addField(String fieldName, ProtoSchema fieldSchema) {
+    public synchronized <T> ProtoSchema addField(String fieldName, ProtoSchema fieldSchema) {
         int fieldNumber = fieldList.size();
         try {
             Field field = filedType.getDeclaredField(fieldName);
@@ -309,7 +334,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldSchema 协议字段元数据，如果字段又是对象则用此参数需要递归解析
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addField(String fieldName,
+    public synchronized <T> ProtoSchema addField(String fieldName,
                                     Class<?> fieldType, ProtoSchema fieldSchema) {
         int fieldNumber = fieldList.size();
         try {
@@ -331,7 +356,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldSchema 协议字段元数据，如果字段又是对象则用此参数需要递归解析
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addField(int fieldNumber,
+    public synchronized <T> ProtoSchema addField(int fieldNumber,
                                     String fieldName, Class<?> fieldType, ProtoSchema fieldSchema) {
         try {
             Field field = filedType.getDeclaredField(fieldName);
@@ -351,7 +376,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldSchema 协议字段元数据，如果字段又是对象则用此参数需要递归解析
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema addField(int fieldNumber,
+    public synchronized <T> ProtoSchema addField(int fieldNumber,
                                     String fieldName, ProtoSchema fieldSchema) {
         try {
             Field field = filedType.getDeclaredField(fieldName);
@@ -365,7 +390,7 @@ public class ProtoSchema implements Serializable {
     }
 
     /**
-     * 添加字段元信息数据，注意方法不是线程安全，外部调用最好在静态代码块初始化好
+     * 添加字段元信息数据，与编码解码器的生成互斥，但外部调用最好依然在静态代码块初始化好
      *
      * @param fieldNumber 协议Key，Key值必须递归以便于做不同的Field匹配
      * @param field       协议字段，对于Class对象是Fileld类，对于Map是Key值
@@ -373,7 +398,7 @@ public class ProtoSchema implements Serializable {
      * @param fieldSchema 协议字段元数据，如果字段又是对象则用此参数需要递归解析
      * @return {@link ProtoSchema}
      */
-    public <T> ProtoSchema add(int fieldNumber, Object field,
+    public synchronized <T> ProtoSchema add(int fieldNumber, Object field,
                                ProtoFieldCodec<T> fieldCodec, ProtoSchema fieldSchema) {
         // key number在每个字段中必须递增，以便于反序列化时通过key number来获取对应的字段
         if (fieldNumber < 0 || fieldNumber < fieldList.size()) {
@@ -387,6 +412,12 @@ public class ProtoSchema implements Serializable {
         ProtoField<T> protoField = new ProtoField<T>(fieldNumber, field, fieldCodec, fieldSchema);
         fieldList.add(protoField);
         fieldMap.put(field, protoField);
+        if (field instanceof Field) {
+            // 对象字段同时支持通过字段名称获取，服务于ProtoView按字段名称读取
+            fieldMap.put(((Field) field).getName(), protoField);
+        }
+        // 字段变更后编码解码器失效，下一次序列化时重新生成
+        schemaCodec = null;
         return this;
     }
 }
@@ -0,0 +1,404 @@
+package cloud.apposs.protobuf;
+
+import cloud.apposs.protobuf.ProtoFieldFactory.ProtoFieldCodec;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * 对象序列化专用编码解码器，由{@link ProtoSchema}在第一次序列化/反序列化时生成，
+ * 1. 字段读写通过MethodHandle直接访问，不再每次调用Field.setAccessible/Field.get/Field.set
+ * 2. int/long/double/boolean基础类型字段直接读写原始值，避免装箱拆箱
+ * 3. 对象创建优先通过LambdaMetafactory生成构造器调用，不能生成时再采用构造器MethodHandle
+ * 4. 字段Key和编码格式与{@link ProtoFieldFactory.ProtoFieldObject}完全一致，两者的序列化数据可以互相解码
+ * 如果对象无法生成编码解码器（例如没有无参构造器或者字段无法访问），则依然采用反射方式序列化
+ */
+final class ProtoSchemaCodec {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * 无法生成编码解码器时的标记，避免每次序列化都重新尝试生成
+     */
+    static final ProtoSchemaCodec REFLECT = new ProtoSchemaCodec(null, null);
+
+    /**
+     * 对象构造器
+     */
+    private final Callable<Object> creator;
+
+    /**
+     * 字段访问器，下标为字段Key，字段Key不连续时中间为空
+     */
+    private final FieldAccessor[] accessors;
+
+    private ProtoSchemaCodec(Callable<Object> creator, FieldAccessor[] accessors) {
+        this.creator = creator;
+        this.accessors = accessors;
+    }
+
+    /**
+     * 为对象元数据生成编码解码器
+     *
+     * @param  schema 对象元数据
+     * @return 编码解码器，无法生成时返回{@link #REFLECT}
+     */
+    static ProtoSchemaCodec generate(ProtoSchema schema) {
+        try {
+            Class<?> typeClass = schema.getFiledType();
+            List<ProtoField<?>> fieldList = schema.getFieldList();
+            int maxKey = -1;
+            for (ProtoField<?> protoField : fieldList) {
+                if (!(protoField.getField() instanceof Field)) {
+                    return REFLECT;
+                }
+                maxKey = Math.max(maxKey, protoField.getKey());
+            }
+            FieldAccessor[] accessors = new FieldAccessor[maxKey + 1];
+            for (ProtoField<?> protoField : fieldList) {
+                accessors[protoField.getKey()] = doCreateAccessor(protoField);
+            }
+            Callable<Object> creator = doCreateCreator(typeClass);
+            return new ProtoSchemaCodec(creator, accessors);
+        } catch (Throwable e) {
+            // 不可访问的字段/构造器（例如JDK模块内部类、Record类）等均采用反射方式
+            return REFLECT;
+        }
+    }
+
+    /**
+     * 编码对象字段，字段值为空时不编码
+     */
+    void write(ProtoBuf buffer, Object value) {
+        FieldAccessor[] accessors = this.accessors;
+        for (int i = 0; i < accessors.length; i++) {
+            FieldAccessor accessor = accessors[i];
+            if (accessor != null) {
+                accessor.write(buffer, value);
+            }
+        }
+    }
+
+    /**
+     * 解码对象字段，直到到达对象边界时解码结束，
+     * 新版本对象可能会多出字段，旧版本Schema直接跳过不认识的字段
+     */
+    Object read(ProtoBuf buffer, Class<?> typeClass) throws ProtoBufException {
+        Object instance;
+        try {
+            instance = creator.call();
+        } catch (Exception e) {
+            throw ProtoBufException.reflectInstantiation(typeClass, e);
+        }
+        FieldAccessor[] accessors = this.accessors;
+        while (true) {
+            ProtoKey protoKey = buffer.doDecodeKey();
+            byte protoType = protoKey.getType();
+            if (protoType == ProtoType.GROUP_END) {
+                break;
+            }
+            int key = protoKey.getExtendedKey();
+            FieldAccessor accessor = key < accessors.length ? accessors[key] : null;
+            if (accessor == null) {
+                buffer.doSkipValue(protoType);
+                continue;
+            }
+            accessor.read(buffer, instance, protoType);
+        }
+        return instance;
+    }
+
+    private static FieldAccessor doCreateAccessor(ProtoField<?> protoField) throws IllegalAccessException {
+        Field field = (Field) protoField.getField();
+        field.setAccessible(true);
+        MethodHandle getter = LOOKUP.unreflectGetter(field);
+        MethodHandle setter = LOOKUP.unreflectSetter(field);
+        Class<?> fieldType = field.getType();
+        ProtoFieldCodec<?> codec = protoField.getCodec();
+        int key = protoField.getKey();
+        // 只有字段采用默认编码解码器时才能直接读写原始值，自定义编码解码器依然交给编码解码器处理
+        if (fieldType == int.class && codec == ProtoFieldFactory.INT32) {
+            return new IntAccessor(key, field, getter, setter);
+        }
+        if (fieldType == long.class && codec == ProtoFieldFactory.INT64) {
+            return new LongAccessor(key, field, getter, setter);
+        }
+        if (fieldType == double.class && codec == ProtoFieldFactory.DOUBLE) {
+            return new DoubleAccessor(key, field, getter, setter);
+        }
+        if (fieldType == boolean.class && codec == ProtoFieldFactory.BOOLEAN) {
+            return new BooleanAccessor(key, field, getter, setter);
+        }
+        return new ObjectAccessor(key, field, getter, setter, codec, protoField.getSchema());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Callable<Object> doCreateCreator(Class<?> typeClass) throws Throwable {
+        Constructor<?> constructor = typeClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        final MethodHandle handle = LOOKUP.unreflectConstructor(constructor)
+                .asType(MethodType.methodType(Object.class));
+        // 公开的类和构造器并且和当前类同一类加载器时才能生成直接调用构造器的类，否则生成的类无法访问对象类
+        if (Modifier.isPublic(typeClass.getModifiers()) && Modifier.isPublic(constructor.getModifiers())
+                && typeClass.getClassLoader() == ProtoSchemaCodec.class.getClassLoader()) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(LOOKUP, "call",
+                        MethodType.methodType(Callable.class), MethodType.methodType(Object.class),
+                        LOOKUP.unreflectConstructor(constructor), MethodType.methodType(typeClass));
+                // 只生成构造器调用，不在生成时创建对象，避免构造器的副作用
+                return (Callable<Object>) site.getTarget().invoke();
+            } catch (Throwable e) {
+            }
+        }
+        return new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                try {
+                    return (Object) handle.invokeExact();
+                } catch (Exception e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+    }
+
+    private static ProtoBufException doReflectCall(Throwable e) {
+        if (e instanceof Exception) {
+            return ProtoBufException.reflectCall((Exception) e);
+        }
+        return ProtoBufException.reflectCall(new IllegalStateException(e));
+    }
+
+    /**
+     * 字段访问器，负责单个字段的编码和解码
+     */
+    private static abstract class FieldAccessor {
+        protected final int key;
+
+        protected final Field field;
+
+        protected final MethodHandle getter;
+
+        protected final MethodHandle setter;
+
+        FieldAccessor(int key, Field field, MethodHandle getter, MethodHandle setter, Class<?> valueType) {
+            this.key = key;
+            this.field = field;
+            this.getter = getter.asType(MethodType.methodType(valueType, Object.class));
+            this.setter = setter.asType(MethodType.methodType(void.class, Object.class, valueType));
+        }
+
+        abstract void write(ProtoBuf buffer, Object instance);
+
+        abstract void read(ProtoBuf buffer, Object instance, byte type) throws ProtoBufException;
+    }
+
+    private static final class IntAccessor extends FieldAccessor {
+        IntAccessor(int key, Field field, MethodHandle getter, MethodHandle setter) {
+            super(key, field, getter, setter, int.class);
+        }
+
+        @Override
+        void write(ProtoBuf buffer, Object instance) {
+            int value;
+            try {
+                value = (int) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+            buffer.doEncodeKey(key, ProtoType.VARINT);
+            if (buffer.isZigzag()) {
+                buffer.doWriteVarInt32(ProtoFieldFactory.int32ToZigzag(value));
+            } else {
+                buffer.doWriteVarInt32(value);
+            }
+        }
+
+        @Override
+        void read(ProtoBuf buffer, Object instance, byte type) throws ProtoBufException {
+            if (type != ProtoType.VARINT) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            int value = buffer.doReadVarInt32();
+            if (buffer.isZigzag()) {
+                value = ProtoFieldFactory.zigzagToInt32(value);
+            }
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+        }
+    }
+
+    private static final class LongAccessor extends FieldAccessor {
+        LongAccessor(int key, Field field, MethodHandle getter, MethodHandle setter) {
+            super(key, field, getter, setter, long.class);
+        }
+
+        @Override
+        void write(ProtoBuf buffer, Object instance) {
+            long value;
+            try {
+                value = (long) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+            buffer.doEncodeKey(key, ProtoType.VARINT64);
+            if (buffer.isZigzag()) {
+                buffer.doWriteVarInt64(ProtoFieldFactory.int64ToZigzag(value));
+            } else {
+                buffer.doWriteVarInt64(value);
+            }
+        }
+
+        @Override
+        void read(ProtoBuf buffer, Object instance, byte type) throws ProtoBufException {
+            if (type != ProtoType.VARINT64) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            long value = buffer.doReadVarInt64();
+            if (buffer.isZigzag()) {
+                value = ProtoFieldFactory.zigzagToInt64(value);
+            }
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+        }
+    }
+
+    private static final class DoubleAccessor extends FieldAccessor {
+        DoubleAccessor(int key, Field field, MethodHandle getter, MethodHandle setter) {
+            super(key, field, getter, setter, double.class);
+        }
+
+        @Override
+        void write(ProtoBuf buffer, Object instance) {
+            double value;
+            try {
+                value = (double) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+            // 与ProtoFieldDouble一致，double按原始位以VARINT类型编码
+            buffer.doEncodeKey(key, ProtoType.VARINT);
+            long rawValue = Double.doubleToRawLongBits(value);
+            if (buffer.isZigzag()) {
+                buffer.doWriteVarInt64(ProtoFieldFactory.int64ToZigzag(rawValue));
+            } else {
+                buffer.doWriteVarInt64(rawValue);
+            }
+        }
+
+        @Override
+        void read(ProtoBuf buffer, Object instance, byte type) throws ProtoBufException {
+            if (type != ProtoType.VARINT) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            long rawValue = buffer.doReadVarInt64();
+            if (buffer.isZigzag()) {
+                rawValue = ProtoFieldFactory.zigzagToInt64(rawValue);
+            }
+            try {
+                setter.invokeExact(instance, Double.longBitsToDouble(rawValue));
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+        }
+    }
+
+    private static final class BooleanAccessor extends FieldAccessor {
+        BooleanAccessor(int key, Field field, MethodHandle getter, MethodHandle setter) {
+            super(key, field, getter, setter, boolean.class);
+        }
+
+        @Override
+        void write(ProtoBuf buffer, Object instance) {
+            boolean value;
+            try {
+                value = (boolean) getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+            buffer.doEncodeKey(key, ProtoType.VARINT);
+            if (buffer.isZigzag()) {
+                buffer.doWriteVarInt32(ProtoFieldFactory.int32ToZigzag(value ? 1 : 0));
+            } else {
+                buffer.doWriteVarInt32(value ? 1 : 0);
+            }
+        }
+
+        @Override
+        void read(ProtoBuf buffer, Object instance, byte type) throws ProtoBufException {
+            if (type != ProtoType.VARINT) {
+                throw ProtoBufException.malformedVarInt();
+            }
+            int value = buffer.doReadVarInt32();
+            if (buffer.isZigzag()) {
+                value = ProtoFieldFactory.zigzagToInt32(value);
+            }
+            try {
+                setter.invokeExact(instance, (byte) value != 0);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+        }
+    }
+
+    /**
+     * 其他类型字段，读写字段值后交给字段编码解码器处理
+     */
+    private static final class ObjectAccessor extends FieldAccessor {
+        private final ProtoFieldCodec<Object> codec;
+
+        private final ProtoSchema schema;
+
+        @SuppressWarnings("unchecked")
+        ObjectAccessor(int key, Field field, MethodHandle getter, MethodHandle setter,
+                       ProtoFieldCodec<?> codec, ProtoSchema schema) {
+            super(key, field, getter, setter, Object.class);
+            this.codec = (ProtoFieldCodec<Object>) codec;
+            this.schema = schema;
+        }
+
+        @Override
+        void write(ProtoBuf buffer, Object instance) {
+            Object value;
+            try {
+                value = getter.invokeExact(instance);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+            if (value == null) {
+                return;
+            }
+            try {
+                codec.writeVarValue(buffer, key, value, schema);
+            } catch (ClassCastException e) {
+                // Schema可能拼错，输出对应拼错的Schema字段
+                throw new ClassCastException("Field['" + field + "'] Cast Error:" + e.getMessage());
+            }
+        }
+
+        @Override
+        void read(ProtoBuf buffer, Object instance, byte type) throws ProtoBufException {
+            Object value = codec.readVarValue(buffer, type, schema);
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable e) {
+                throw doReflectCall(e);
+            }
+        }
+    }
+}
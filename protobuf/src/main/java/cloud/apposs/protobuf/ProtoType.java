@@ -26,4 +26,10 @@ public final class ProtoType {
 	 * 表示集合的结束，即Java中的Map/List
 	 */
 	public static final byte GROUP_END = 4;
+	
+	/**
+	 * 扩展Key标记，表示Key值大于等于32，Key值以VarInt存储在类型字节之后，
+	 * 此时类型字节的前5位存储的是真正的值类型
+	 */
+	public static final byte EXTENDED_KEY = 7;
 }
@@ -0,0 +1,204 @@
+package cloud.apposs.protobuf;
+
+import cloud.apposs.protobuf.ProtoFieldFactory.ProtoFieldCodec;
+import cloud.apposs.util.SysUtil;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * 序列化数据的只读字段视图，服务于只需要读取对象/Map/Param中部分字段的场景，
+ * 1. 视图直接引用原始字节，不复制数据，也不反序列化整个对象
+ * 2. 第一次读取字段时扫描一遍字节数据，建立字段Key到字节偏移的索引，之后按索引直接解码单个字段
+ * 3. 字节数据的格式与{@link ProtoBuf#putObject(Object, ProtoSchema)}/{@link ProtoBuf#putMap(java.util.Map, ProtoSchema)}/
+ * {@link ProtoBuf#putParam(cloud.apposs.util.Param, ProtoSchema)}一致，字段通过{@link ProtoSchema}中的字段名称或者Map Key获取
+ * 使用方式如下：
+ * <pre>
+ * ProtoView view = ProtoView.wrap(bytes, ProtoSchema.getSchema(Product.class));
+ * String name = view.getString("name");
+ * </pre>
+ * 注意视图不是线程安全的，并且在视图使用期间原始字节数据不能被修改
+ */
+public final class ProtoView {
+    private final ProtoSchema schema;
+
+    /**
+     * 视图私有的读取缓冲，与原始缓冲共享字节数据
+     */
+    private final ProtoBuf reader;
+
+    /**
+     * 对象字节数据的起始位置
+     */
+    private final int start;
+
+    /**
+     * 字段值在字节数据中的偏移，下标为字段Key，偏移加1存储，为0表示字段不存在
+     */
+    private int[] offsets;
+
+    /**
+     * 字段值的传输类型，下标为字段Key
+     */
+    private byte[] types;
+
+    private ProtoView(ByteBuffer buffer, boolean zigzag, ProtoSchema schema) {
+        this.schema = schema;
+        this.reader = new ProtoBuf(buffer, zigzag);
+        this.start = buffer.position();
+    }
+
+    /**
+     * 从协议缓冲当前读取位置创建视图，不会改变协议缓冲的读取位置
+     */
+    public static ProtoView wrap(ProtoBuf buffer, ProtoSchema schema) {
+        SysUtil.checkNotNull(buffer, "buffer");
+        SysUtil.checkNotNull(schema, "schema");
+
+        ByteBuffer duplicate = buffer.buffer().duplicate();
+        duplicate.limit(buffer.writeIdx());
+        duplicate.position(buffer.readIdx());
+        return new ProtoView(duplicate, buffer.isZigzag(), schema);
+    }
+
+    public static ProtoView wrap(byte[] buffer, ProtoSchema schema) {
+        SysUtil.checkNotNull(buffer, "buffer");
+        SysUtil.checkNotNull(schema, "schema");
+
+        return new ProtoView(ByteBuffer.wrap(buffer).asReadOnlyBuffer(), true, schema);
+    }
+
+    public static ProtoView wrap(ByteBuffer buffer, ProtoSchema schema) {
+        SysUtil.checkNotNull(buffer, "buffer");
+        SysUtil.checkNotNull(schema, "schema");
+
+        return new ProtoView(buffer.duplicate(), true, schema);
+    }
+
+    public ProtoSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 判断字段是否存在，字段值为空时序列化会跳过该字段
+     *
+     * @param field 对象字段名称或者Map Key
+     */
+    public boolean has(Object field) {
+        ProtoField<?> protoField = schema.getField(field);
+        if (protoField == null) {
+            return false;
+        }
+        return has(protoField.getKey());
+    }
+
+    public boolean has(int fieldNumber) {
+        doBuildIndex();
+        return fieldNumber >= 0 && fieldNumber < offsets.length && offsets[fieldNumber] > 0;
+    }
+
+    /**
+     * 获取字段值
+     *
+     * @param  field 对象字段名称或者Map Key
+     * @return 字段值，字段不存在时返回null
+     */
+    public Object get(Object field) throws ProtoBufException {
+        ProtoField<?> protoField = schema.getField(field);
+        if (protoField == null) {
+            return null;
+        }
+        return get(protoField.getKey());
+    }
+
+    /**
+     * 获取字段值
+     *
+     * @param  fieldNumber 字段Key
+     * @return 字段值，字段不存在时返回null
+     */
+    public Object get(int fieldNumber) throws ProtoBufException {
+        if (!has(fieldNumber)) {
+            return null;
+        }
+        List<ProtoField<?>> fieldList = schema.getFieldList();
+        ProtoField<?> protoField = fieldList.get(fieldNumber);
+        ProtoFieldCodec<?> codec = protoField.getCodec();
+        reader.readIdx(offsets[fieldNumber] - 1);
+        return codec.readVarValue(reader, types[fieldNumber], protoField.getSchema());
+    }
+
+    public Integer getInt(Object field) throws ProtoBufException {
+        return (Integer) get(field);
+    }
+
+    public Long getLong(Object field) throws ProtoBufException {
+        return (Long) get(field);
+    }
+
+    public Short getShort(Object field) throws ProtoBufException {
+        return (Short) get(field);
+    }
+
+    public Float getFloat(Object field) throws ProtoBufException {
+        return (Float) get(field);
+    }
+
+    public Double getDouble(Object field) throws ProtoBufException {
+        return (Double) get(field);
+    }
+
+    public Boolean getBoolean(Object field) throws ProtoBufException {
+        return (Boolean) get(field);
+    }
+
+    public String getString(Object field) throws ProtoBufException {
+        return (String) get(field);
+    }
+
+    /**
+     * 获取字段数量，只统计字节数据中存在的字段
+     */
+    public int size() {
+        doBuildIndex();
+        int size = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] > 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 扫描一遍字节数据建立字段索引，只解码Key和跳过字段值，不解码字段值本身
+     */
+    private void doBuildIndex() throws ProtoBufException {
+        if (offsets != null) {
+            return;
+        }
+        int fieldCount = schema.getFieldList().size();
+        int[] offsets = new int[fieldCount];
+        byte[] types = new byte[fieldCount];
+        reader.readIdx(start);
+        if (reader.doDecodeKey().getType() != ProtoType.GROUP_BEG) {
+            throw ProtoBufException.malformedVarInt();
+        }
+        while (true) {
+            ProtoKey protoKey = reader.doDecodeKey();
+            byte protoType = protoKey.getType();
+            if (protoType == ProtoType.GROUP_END) {
+                break;
+            }
+            int fieldNumber = protoKey.getExtendedKey();
+            // 新版本对象可能会多出字段，旧版本Schema直接跳过不认识的字段
+            if (fieldNumber < fieldCount) {
+                offsets[fieldNumber] = reader.readIdx() + 1;
+                types[fieldNumber] = protoType;
+            }
+            reader.doSkipValue(protoType);
+        }
+        this.types = types;
+        this.offsets = offsets;
+    }
+}
@@ -575,6 +575,243 @@ public class TestProtoBuf {
         }
     }
 
+    /**
+     * 测试直接内存缓冲扩容后依然是直接内存，且数据不丢失
+     */
+    @Test
+    public void testExpandDirect() throws Exception {
+        ProtoBuf buffer = ProtoBuf.allocateDirect(8);
+        for (int i = 0; i < 100; i++) {
+            buffer.putInt(i);
+        }
+        assertTrue(buffer.buffer().isDirect());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(i == buffer.getInt());
+        }
+    }
+
+    /**
+     * 测试池化缓冲的借用、扩容和归还
+     */
+    @Test
+    public void testAllocatorRecycle() throws Exception {
+        ProtoBufAllocator allocator = new ProtoBufAllocator(true);
+        ProtoBuf buffer = allocator.allocate(64);
+        ByteBuffer raw = buffer.buffer();
+        buffer.putString("Hello My Product中文");
+        buffer.release();
+        assertTrue(!buffer.isPooled());
+        assertTrue(allocator.getCachedCount(64) == 1);
+        // 同一线程再次借用时复用归还的缓冲
+        buffer = allocator.allocate(50);
+        assertTrue(buffer.buffer() == raw);
+        assertTrue(!buffer.hasReadableBytes());
+        // 扩容后旧缓冲归还，新缓冲依然是直接内存
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            value.append("Product");
+        }
+        buffer.putString(value.toString());
+        assertTrue(buffer.buffer().isDirect());
+        assertTrue(buffer.buffer().capacity() == 1024);
+        assertTrue(allocator.getCachedCount(64) == 1);
+        assertTrue(value.toString().equals(buffer.getString()));
+        // 压缩后缓冲不再属于分配器
+        buffer.rewind();
+        buffer.compact();
+        assertTrue(!buffer.isPooled());
+        assertTrue(allocator.getCachedCount(1024) == 1);
+        assertTrue(value.toString().equals(buffer.getString()));
+    }
+
+    /**
+     * 测试在其他线程中归还的池化缓冲回到借出线程的缓存，而不是归还线程的缓存
+     */
+    @Test
+    public void testAllocatorCrossThreadRelease() throws Exception {
+        final ProtoBufAllocator allocator = new ProtoBufAllocator(false);
+        final ProtoBuf buffer = allocator.allocate(64);
+        ByteBuffer raw = buffer.buffer();
+        final int[] releaserCached = new int[1];
+        Thread releaser = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                buffer.release();
+                releaserCached[0] = allocator.getCachedCount(64);
+            }
+        });
+        releaser.start();
+        releaser.join();
+        assertTrue(!buffer.isPooled());
+        assertTrue(releaserCached[0] == 0);
+        // 借出线程再次借用时取回其他线程归还的缓冲
+        ProtoBuf reused = allocator.allocate(64);
+        assertTrue(reused.buffer() == raw);
+        reused.release();
+        assertTrue(allocator.getCachedCount(64) == 1);
+    }
+
+    /**
+     * 测试生成的对象编码解码器与反射方式序列化数据一致，
+     * Goods没有无参构造器无法生成编码解码器，会采用反射方式序列化
+     */
+    @Test
+    public void testPutObjectCodec() throws Exception {
+        ProtoSchema schema = ProtoSchema.getSchema(Item.class);
+        ProtoSchema reflectSchema = ProtoSchema.getSchema(Goods.class);
+        assertTrue(schema.getSchemaCodec() != null);
+        assertTrue(reflectSchema.getSchemaCodec() == null);
+        Rider rider = new Rider();
+        rider.setName("nibi");
+        rider.setPhone(-138888888);
+        Item i1 = new Item(-100876, Long.MIN_VALUE, 99.9D, true, 3.5F, "MyItem", rider);
+        Goods g1 = new Goods(-100876, Long.MIN_VALUE, 99.9D, true, 3.5F, "MyItem", rider);
+        byte[] bytes = ProtoBuf.wrap(i1, schema).array();
+        byte[] reflectBytes = ProtoBuf.wrap(g1, reflectSchema).array();
+        assertTrue(java.util.Arrays.equals(bytes, reflectBytes));
+        Item i2 = ProtoBuf.wrap(reflectBytes).getObject(Item.class, schema);
+        assertTrue(i1.toString().equals(i2.toString()));
+        // 字段变更后重新生成编码解码器
+        ProtoSchema partSchema = ProtoSchema.objectSchema(Item.class);
+        partSchema.addField("id");
+        assertTrue(ProtoBuf.wrap(i1, partSchema).getObject(Item.class, partSchema).getId() == -100876);
+        partSchema.addField("name");
+        Item i3 = ProtoBuf.wrap(i1, partSchema).getObject(Item.class, partSchema);
+        assertTrue(i3.getId() == -100876 && "MyItem".equals(i3.getName()));
+        // 旧版本Schema解码新版本数据时跳过不认识的字段
+        ProtoSchema oldSchema = ProtoSchema.objectSchema(Item.class);
+        oldSchema.addField("id");
+        assertTrue(oldSchema.getSchemaCodec() != null);
+        Item i4 = ProtoBuf.wrap(bytes).getObject(Item.class, oldSchema);
+        assertTrue(i4.getId() == -100876 && i4.getName() == null);
+        // 生成编码解码器时不会调用对象构造器
+        int created = Counted.created;
+        assertTrue(ProtoSchema.getSchema(Counted.class).getSchemaCodec() != null);
+        assertTrue(Counted.created == created);
+    }
+
+    public static class Counted {
+        static int created = 0;
+
+        private int id;
+
+        public Counted() {
+            created++;
+        }
+    }
+
+    /**
+     * 测试Key值超过32时的扩展Key编码，且Key值小于32时编码与旧版本一致
+     */
+    @Test
+    public void testPutExtendedKey() throws Exception {
+        // 旧版本putInt(1, 300)编码的数据
+        byte[] oldBytes = new byte[] {0x08, (byte) 0xAC, 0x02};
+        assertTrue(java.util.Arrays.equals(oldBytes, ProtoBuf.allocate(16, false).putInt(1, 300).array()));
+        assertTrue(new ProtoBuf(ByteBuffer.wrap(oldBytes), false).getInt() == 300);
+        ProtoKey oldKey = new ProtoBuf(ByteBuffer.wrap(oldBytes), false).doDecodeKey();
+        assertTrue(oldKey.getKey() == (byte) 1 && oldKey.getExtendedKey() == 1);
+        assertTrue(ProtoBuf.allocate().putInt(31, 300).array().length == 3);
+
+        int[] keys = {32, 127, 128, 65535, 65536, ProtoKey.MAX_KEY};
+        ProtoBuf buffer = ProtoBuf.allocate();
+        for (int i = 0; i < keys.length; i++) {
+            buffer.putString(keys[i], "value" + keys[i]);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            int readIdx = buffer.readIdx();
+            ProtoKey protoKey = buffer.doDecodeKey();
+            assertTrue(protoKey.getExtendedKey() == keys[i]);
+            assertTrue(protoKey.getType() == ProtoType.LEN_DELIMI);
+            buffer.readIdx(readIdx);
+            assertTrue(("value" + keys[i]).equals(buffer.getString()));
+        }
+    }
+
+    /**
+     * 测试字段数超过32的宽表数据序列化
+     */
+    @Test
+    public void testPutWideParam() throws Exception {
+        ProtoSchema schema = ProtoSchema.paramSchema();
+        Param data = new Param();
+        for (int i = 0; i < 70; i++) {
+            schema.addKey("column" + i, Integer.class);
+            data.put("column" + i, -i * 1000);
+        }
+        ProtoBuf buffer = ProtoBuf.allocate();
+        buffer.putParam(data, schema);
+        Param data2 = buffer.getParam(schema);
+        assertTrue(data2.size() == 70);
+        for (int i = 0; i < 70; i++) {
+            assertTrue(data2.getInt("column" + i) == -i * 1000);
+        }
+    }
+
+    /**
+     * 测试基础类型数组的压缩编码
+     */
+    @Test
+    public void testPutPackedArray() throws Exception {
+        int[] ints = {0, 1, -1, 300, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        long[] longs = {0L, -1L, 1L << 40, Long.MIN_VALUE, Long.MAX_VALUE};
+        float[] floats = {0F, -1.5F, 3.14F, Float.MAX_VALUE};
+        double[] doubles = {0D, -1.5D, 99.9D, Double.MIN_VALUE};
+        ProtoBuf buffer = ProtoBuf.allocate(8);
+        buffer.putInts(ints).putLongs(longs).putFloats(floats).putDoubles(doubles).putInts(40, null);
+        assertTrue(java.util.Arrays.equals(ints, buffer.getInts()));
+        assertTrue(java.util.Arrays.equals(longs, buffer.getLongs()));
+        assertTrue(java.util.Arrays.equals(floats, buffer.getFloats()));
+        assertTrue(java.util.Arrays.equals(doubles, buffer.getDoubles()));
+        assertTrue(buffer.getInts().length == 0);
+        assertTrue(!buffer.hasReadableBytes());
+        // 定长数组每个值只占用固定字节数，不再每个值存储一个Key
+        assertTrue(ProtoBuf.allocate().putDoubles(doubles).array().length == 2 + doubles.length * 8);
+
+        Matrix m1 = new Matrix();
+        m1.ids = ints;
+        m1.weights = doubles;
+        ProtoSchema schema = ProtoSchema.getSchema(Matrix.class);
+        Matrix m2 = ProtoBuf.wrap(m1, schema).getObject(Matrix.class, schema);
+        assertTrue(java.util.Arrays.equals(m1.ids, m2.ids));
+        assertTrue(java.util.Arrays.equals(m1.weights, m2.weights));
+    }
+
+    /**
+     * 测试字段视图按需读取单个字段，包括嵌套对象、数组和Param
+     */
+    @Test
+    public void testProtoView() throws Exception {
+        Rider rider = new Rider();
+        rider.setName("nibi");
+        rider.setPhone(138888888);
+        Item item = new Item(-100876, Long.MIN_VALUE, 99.9D, true, 3.5F, null, rider);
+        ProtoSchema schema = ProtoSchema.getSchema(Item.class);
+        ProtoBuf buffer = ProtoBuf.wrap(item, schema);
+        ProtoView view = ProtoView.wrap(buffer, schema);
+        assertTrue(view.getInt("id") == -100876);
+        assertTrue(view.getDouble("price") == 99.9D);
+        assertTrue(view.getBoolean("onSale"));
+        assertTrue(!view.has("name") && view.getString("name") == null);
+        assertTrue(view.get("rider").toString().equals(rider.toString()));
+        assertTrue(view.getLong("stock") == Long.MIN_VALUE);
+        assertTrue(view.size() == 6);
+        // 创建视图不改变原缓冲的读取位置
+        assertTrue(buffer.getObject(Item.class, schema).toString().equals(item.toString()));
+
+        ProtoSchema paramSchema = ProtoSchema.paramSchema();
+        Param data = new Param();
+        for (int i = 0; i < 40; i++) {
+            paramSchema.addKey("column" + i, String.class);
+            data.put("column" + i, "value" + i);
+        }
+        paramSchema.addKey("ids", int[].class);
+        data.put("ids", new int[] {1, 2, 3});
+        ProtoView paramView = ProtoView.wrap(ProtoBuf.allocate().putParam(data, paramSchema).array(), paramSchema);
+        assertTrue("value35".equals(paramView.getString("column35")));
+        assertTrue(((int[]) paramView.get("ids")).length == 3);
+    }
+
     public static class Rider {
         private int phone;
 
@@ -614,4 +851,80 @@ public class TestProtoBuf {
             return things.toString();
         }
     }
+
+    public static class Item {
+        private final int id;
+
+        private long stock;
+
+        private double price;
+
+        private boolean onSale;
+
+        private float weight;
+
+        private String name;
+
+        private Rider rider;
+
+        public Item() {
+            this.id = 0;
+        }
+
+        public Item(int id, long stock, double price, boolean onSale, float weight, String name, Rider rider) {
+            this.id = id;
+            this.stock = stock;
+            this.price = price;
+            this.onSale = onSale;
+            this.weight = weight;
+            this.name = name;
+            this.rider = rider;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "id:" + id + ";stock:" + stock + ";price:" + price + ";onSale:" + onSale
+                    + ";weight:" + weight + ";name:" + name + ";rider:" + rider;
+        }
+    }
+
+    public static class Goods {
+        private final int id;
+
+        private long stock;
+
+        private double price;
+
+        private boolean onSale;
+
+        private float weight;
+
+        private String name;
+
+        private Rider rider;
+
+        public Goods(int id, long stock, double price, boolean onSale, float weight, String name, Rider rider) {
+            this.id = id;
+            this.stock = stock;
+            this.price = price;
+            this.onSale = onSale;
+            this.weight = weight;
+            this.name = name;
+            this.rider = rider;
+        }
+    }
+
+    public static class Matrix {
+        private int[] ids;
+
+        private double[] weights;
+    }
 }
@@ -0,0 +1,16 @@
+package cloud.apposs.react;
+
+/**
+ * 数据生产者，负责按下游请求量发送数据（流量契约侧），
+ * 支持背压的数据源通过{@link IoSubscriber#setProducer(IoProducer)}注册生产者，
+ * 下游通过{@link IoSubscription#request(long)}请求数据时由生产者发送不超过请求量的数据，
+ * 不注册生产者的数据源仍按原方式直接推送所有数据
+ */
+public interface IoProducer {
+    /**
+     * 请求发送数据
+     *
+     * @param n 新增请求的数据量，为{@link Long#MAX_VALUE}时不再限制发送速率
+     */
+    void request(long n) throws Exception;
+}
@@ -2,9 +2,17 @@ package cloud.apposs.react;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 异步请求数据后的订阅消费者，负责将请求到的数据进行逻辑处理并发送，由业务方实现业务处理逻辑
+ * 异步请求数据后的订阅消费者，负责将请求到的数据进行逻辑处理并发送，由业务方实现业务处理逻辑，
+ * 背压流控：
+ * <pre>
+ * 1、订阅者可在{@link #onStart()}中调用{@link #request(long)}请求初始数据量，处理完数据后再继续请求，
+ *    从未调用过{@link #request(long)}的订阅者不限制请求量，与原有的推送方式一致
+ * 2、支持背压的数据源通过{@link #setProducer(IoProducer)}注册生产者，一对一转发数据的算子将生产者继续传递给下游，
+ *    使下游的请求量直接作用于数据源，其他算子默认向数据源请求所有数据
+ * </pre>
  */
 public abstract class IoSubscriber<T> implements IoObserver<T>, IoSubscription {
     // 是否已取消订阅，默认未取消订阅
@@ -19,6 +27,15 @@ public abstract class IoSubscriber<T> implements IoObserver<T>, IoSubscription {
     // 取消订阅时的回调列表
     private List<IoRunnable> unsubscribeListeners;
 
+    // 未请求过数据时的请求量标识
+    private static final long NOT_REQUESTED = Long.MIN_VALUE;
+
+    // 数据生产者，数据源不支持背压时为空
+    private IoProducer producer;
+
+    // 生产者注册之前累计的请求量
+    private long requested = NOT_REQUESTED;
+
     protected IoSubscriber() {
         this(null, true);
     }
@@ -36,6 +53,12 @@ public abstract class IoSubscriber<T> implements IoObserver<T>, IoSubscription {
         subscriptions.add(subscription);
     }
 
+    /**
+     * 数据源开始发送数据之前回调，订阅者可在此调用{@link #request(long)}请求初始数据量
+     */
+    public void onStart() throws Exception {
+    }
+
     @Override
     public void onNext(T value) throws Exception {
     }
@@ -48,6 +71,52 @@ public abstract class IoSubscriber<T> implements IoObserver<T>, IoSubscription {
     public void onError(Throwable cause) {
     }
 
+    @Override
+    public void request(long n) throws Exception {
+        if (n < 0) {
+            throw new IllegalArgumentException("n");
+        }
+        if (n == 0) {
+            return;
+        }
+        IoProducer producer;
+        synchronized (this) {
+            producer = this.producer;
+            if (producer == null) {
+                requested = addRequested(requested == NOT_REQUESTED ? 0 : requested, n);
+                return;
+            }
+        }
+        producer.request(n);
+    }
+
+    /**
+     * 注册数据生产者，由支持背压的数据源或者算子调用，
+     * 一对一转发数据的订阅者在未主动请求数据时将生产者传递给下游，否则按已累计的请求量向生产者请求数据
+     */
+    public void setProducer(IoProducer producer) throws Exception {
+        long toRequest;
+        boolean relay;
+        synchronized (this) {
+            toRequest = requested;
+            this.producer = producer;
+            relay = subscriber != null && toRequest == NOT_REQUESTED && isDemandRelay();
+        }
+        if (relay) {
+            subscriber.setProducer(producer);
+        } else {
+            producer.request(toRequest == NOT_REQUESTED ? Long.MAX_VALUE : toRequest);
+        }
+    }
+
+    /**
+     * 是否将上游生产者传递给下游，只有上游每个数据最多对应下游一个数据的算子才能传递，
+     * 否则下游请求量无法正确作用于数据源，默认不传递，由该订阅者向数据源请求所有数据
+     */
+    protected boolean isDemandRelay() {
+        return false;
+    }
+
     @Override
     public boolean isUnsubscribed() {
         return subscriptions.isUnsubscribed();
@@ -89,4 +158,28 @@ public abstract class IoSubscriber<T> implements IoObserver<T>, IoSubscription {
             }
         }
     }
+
+    /**
+     * 累加请求量，超出{@link Long#MAX_VALUE}时按不限制请求量处理
+     */
+    static long addRequested(long requested, long n) {
+        long result = requested + n;
+        return result < 0 ? Long.MAX_VALUE : result;
+    }
+
+    /**
+     * 原子累加请求量并返回累加前的请求量，请求量为{@link Long#MAX_VALUE}时不再变化，
+     * 供其他模块中支持背压的数据源在{@link IoProducer#request(long)}中使用
+     */
+    public static long getAndAddRequested(AtomicLong requested, long n) {
+        for (;;) {
+            long current = requested.get();
+            if (current == Long.MAX_VALUE) {
+                return Long.MAX_VALUE;
+            }
+            if (requested.compareAndSet(current, addRequested(current, n))) {
+                return current;
+            }
+        }
+    }
 }
@@ -16,6 +16,15 @@ public interface IoSubscription {
      */
     void unsubscribe() throws Exception;
 
+    /**
+     * 向上游请求n个数据，只有支持背压的数据源才会按请求量发送数据，
+     * 未调用过此方法的订阅者默认不限制请求量
+     *
+     * @param n 新增请求的数据量，为{@link Long#MAX_VALUE}时不再限制发送速率
+     */
+    default void request(long n) throws Exception {
+    }
+
     /**
      * 注册取消订阅监听器，当{@link #unsubscribe()}被调用时触发
      *
@@ -35,7 +35,18 @@ public final class OnSubscribeFilter<T> implements OnSubscribe<T> {
             boolean result = predicate.call(t);
             if (result) {
                 subscriber.onNext(t);
+            } else {
+                // 数据被过滤，补充一个请求量避免下游等待
+                request(1);
             }
         }
+
+        /**
+         * 每个数据最多对应下游一个数据，下游请求量直接作用于数据源
+         */
+        @Override
+        protected boolean isDemandRelay() {
+            return true;
+        }
     }
 }
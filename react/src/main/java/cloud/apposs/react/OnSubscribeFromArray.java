@@ -2,8 +2,10 @@ package cloud.apposs.react;
 
 import cloud.apposs.react.React.OnSubscribe;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * 基于数组的数据发送器
+ * 基于数组的数据发送器，支持背压，按下游请求量发送数组数据
  */
 public class OnSubscribeFromArray<T> implements OnSubscribe<T> {
 	private final T[] value;
@@ -14,14 +16,62 @@ public class OnSubscribeFromArray<T> implements OnSubscribe<T> {
 
 	@Override
 	public void call(IoSubscriber<? super T> subscriber) throws Exception {
-		for (int i = 0; i < value.length; i++) {
-			if (subscriber.isUnsubscribed()) {
-				return;
+		if (value.length == 0) {
+			if (!subscriber.isUnsubscribed()) {
+				subscriber.onCompleted();
 			}
-			subscriber.onNext(value[i]);
+			return;
 		}
-		if (!subscriber.isUnsubscribed()) {
-			subscriber.onCompleted();
+		subscriber.setProducer(new ArrayProducer<T>(subscriber, value));
+	}
+
+	/**
+	 * 数组数据生产者，实现同{@link OnSubscribeFromIterable}
+	 */
+	private static final class ArrayProducer<T> extends AtomicLong implements IoProducer {
+		private static final long serialVersionUID = 1L;
+
+		private final IoSubscriber<? super T> subscriber;
+
+		private final T[] value;
+
+		private int index;
+
+		private ArrayProducer(IoSubscriber<? super T> subscriber, T[] value) {
+			this.subscriber = subscriber;
+			this.value = value;
+		}
+
+		@Override
+		public void request(long n) throws Exception {
+			if (n <= 0 || IoSubscriber.getAndAddRequested(this, n) != 0) {
+				return;
+			}
+			try {
+				for (;;) {
+					long requested = get();
+					long emitted = 0;
+					while (emitted != requested) {
+						if (subscriber.isUnsubscribed()) {
+							return;
+						}
+						subscriber.onNext(value[index++]);
+						if (subscriber.isUnsubscribed()) {
+							return;
+						}
+						if (index == value.length) {
+							subscriber.onCompleted();
+							return;
+						}
+						emitted++;
+					}
+					if (addAndGet(-emitted) == 0) {
+						return;
+					}
+				}
+			} catch (Throwable t) {
+				subscriber.onError(t);
+			}
 		}
 	}
 }
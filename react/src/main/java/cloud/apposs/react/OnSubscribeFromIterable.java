@@ -3,9 +3,10 @@ package cloud.apposs.react;
 import cloud.apposs.react.React.OnSubscribe;
 
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 基于迭代器的数据发送器
+ * 基于迭代器的数据发送器，支持背压，按下游请求量从迭代器中取出数据发送
  */
 public class OnSubscribeFromIterable<T> implements OnSubscribe<T> {
     private final Iterable<? extends T> iterable;
@@ -17,15 +18,61 @@ public class OnSubscribeFromIterable<T> implements OnSubscribe<T> {
     @Override
     public void call(IoSubscriber<? super T> subscriber) throws Exception {
         Iterator<? extends T> iterator = iterable.iterator();
-        while (iterator.hasNext()) {
-            if (subscriber.isUnsubscribed()) {
-                return;
+        if (!iterator.hasNext()) {
+            if (!subscriber.isUnsubscribed()) {
+                subscriber.onCompleted();
             }
-            T value = iterator.next();
-            subscriber.onNext(value);
+            return;
         }
-        if (!subscriber.isUnsubscribed()) {
-            subscriber.onCompleted();
+        subscriber.setProducer(new IterableProducer<T>(subscriber, iterator));
+    }
+
+    /**
+     * 迭代器数据生产者，同一时刻只有一个线程在发送数据，
+     * 发送过程中新增的请求量由正在发送数据的线程继续处理，避免下游在onNext中请求数据时递归调用
+     */
+    private static final class IterableProducer<T> extends AtomicLong implements IoProducer {
+        private static final long serialVersionUID = 1L;
+
+        private final IoSubscriber<? super T> subscriber;
+
+        private final Iterator<? extends T> iterator;
+
+        private IterableProducer(IoSubscriber<? super T> subscriber, Iterator<? extends T> iterator) {
+            this.subscriber = subscriber;
+            this.iterator = iterator;
+        }
+
+        @Override
+        public void request(long n) throws Exception {
+            if (n <= 0 || IoSubscriber.getAndAddRequested(this, n) != 0) {
+                return;
+            }
+            try {
+                for (;;) {
+                    long requested = get();
+                    long emitted = 0;
+                    while (emitted != requested) {
+                        if (subscriber.isUnsubscribed()) {
+                            return;
+                        }
+                        subscriber.onNext(iterator.next());
+                        if (subscriber.isUnsubscribed()) {
+                            return;
+                        }
+                        if (!iterator.hasNext()) {
+                            subscriber.onCompleted();
+                            return;
+                        }
+                        emitted++;
+                    }
+                    if (addAndGet(-emitted) == 0) {
+                        return;
+                    }
+                }
+            } catch (Throwable t) {
+                subscriber.onError(t);
+            }
         }
     }
 }
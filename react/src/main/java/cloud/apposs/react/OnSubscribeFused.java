@@ -0,0 +1,121 @@
+package cloud.apposs.react;
+
+import cloud.apposs.react.OnSubscribeMatch.MatchException;
+import cloud.apposs.react.React.OnSubscribe;
+import cloud.apposs.util.Errno;
+
+/**
+ * 同步算子融合，将连续的map/filter/match算子合并为一个处理阶段，
+ * 数据在同一个订阅者中依次经过各个算子处理，避免每个算子都包装一层订阅者，
+ * 融合后的语义与逐个算子处理一致：
+ * <pre>
+ * 1、map转换数据后交给下一个算子
+ * 2、filter过滤掉的数据不再向下传递，并补充一个请求量
+ * 3、match不匹配的数据进入异常流程，不再向下传递
+ * </pre>
+ */
+public final class OnSubscribeFused<T, R> implements OnSubscribe<R> {
+    static final int STAGE_MAP = 0;
+    static final int STAGE_FILTER = 1;
+    static final int STAGE_MATCH = 2;
+
+    private final React<T> source;
+
+    private final Stage[] stages;
+
+    private OnSubscribeFused(React<T> source, Stage[] stages) {
+        this.source = source;
+        this.stages = stages;
+    }
+
+    /**
+     * 在数据流后追加一个同步算子，数据流本身是融合阶段时合并为一个新的融合阶段，原数据流不受影响
+     */
+    @SuppressWarnings("unchecked")
+    static <T, R> OnSubscribeFused<?, R> fuse(React<T> react, int type, IoFunction<?, ?> function) {
+        Stage stage = new Stage(type, (IoFunction<Object, Object>) function);
+        if (react.onSubscribe instanceof OnSubscribeFused) {
+            OnSubscribeFused<?, T> fused = (OnSubscribeFused<?, T>) react.onSubscribe;
+            Stage[] stages = new Stage[fused.stages.length + 1];
+            System.arraycopy(fused.stages, 0, stages, 0, fused.stages.length);
+            stages[fused.stages.length] = stage;
+            return new OnSubscribeFused<Object, R>((React<Object>) fused.source, stages);
+        }
+        return new OnSubscribeFused<T, R>(react, new Stage[] {stage});
+    }
+
+    /**
+     * 返回融合的算子数
+     */
+    public int getStageCount() {
+        return stages.length;
+    }
+
+    @Override
+    public void call(IoSubscriber<? super R> subscriber) throws Exception {
+        FusedSubscriber<T, R> parent = new FusedSubscriber<T, R>(subscriber, stages);
+        subscriber.add(parent);
+        source.subscribe(parent).start();
+    }
+
+    private static final class Stage {
+        private final int type;
+
+        private final IoFunction<Object, Object> function;
+
+        private Stage(int type, IoFunction<Object, Object> function) {
+            this.type = type;
+            this.function = function;
+        }
+    }
+
+    private static final class FusedSubscriber<T, R> extends SafeIoSubscriber<T> {
+        private final IoSubscriber<? super R> actual;
+
+        private final Stage[] stages;
+
+        @SuppressWarnings("unchecked")
+        public FusedSubscriber(IoSubscriber<? super R> subscriber, Stage[] stages) {
+            super((IoSubscriber<? super T>) subscriber);
+            this.actual = subscriber;
+            this.stages = stages;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void onNext(T t) throws Exception {
+            Object value = t;
+            for (int i = 0; i < stages.length; i++) {
+                Stage stage = stages[i];
+                switch (stage.type) {
+                    case STAGE_MAP:
+                        value = stage.function.call(value);
+                        break;
+                    case STAGE_FILTER:
+                        if (!((Boolean) stage.function.call(value))) {
+                            // 数据被过滤，补充一个请求量避免下游等待
+                            request(1);
+                            return;
+                        }
+                        break;
+                    default:
+                        Errno result = (Errno) stage.function.call(value);
+                        if (result != Errno.OK) {
+                            actual.onError(new MatchException(result));
+                            return;
+                        }
+                        break;
+                }
+            }
+            actual.onNext((R) value);
+        }
+
+        /**
+         * 每个数据最多对应下游一个数据，下游请求量直接作用于数据源
+         */
+        @Override
+        protected boolean isDemandRelay() {
+            return true;
+        }
+    }
+}
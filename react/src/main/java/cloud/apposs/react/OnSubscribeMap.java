@@ -36,6 +36,14 @@ public final class OnSubscribeMap<T, R> implements OnSubscribe<R> {
             subscriber.onNext(result);
         }
 
+        /**
+         * 每个数据一对一转换，下游请求量直接作用于数据源
+         */
+        @Override
+        protected boolean isDemandRelay() {
+            return true;
+        }
+
         @Override
         public void onError(Throwable e) {
             subscriber.onError(e);
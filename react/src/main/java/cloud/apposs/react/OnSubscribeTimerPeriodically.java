@@ -4,9 +4,11 @@ import cloud.apposs.react.React.OnSubscribe;
 
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * 响应式数据定时器，底层采用的是异步线程定时任务
+ * 响应式数据定时器，底层采用的是异步线程定时任务，
+ * 支持背压，下游没有请求量时丢弃本次定时发送的序列号，序列号仍按时间递增，避免慢消费者堆积定时数据
  */
 public class OnSubscribeTimerPeriodically implements OnSubscribe<Long> {
     final long initialDelay;
@@ -22,7 +24,14 @@ public class OnSubscribeTimerPeriodically implements OnSubscribe<Long> {
     }
 
     @Override
-    public void call(IoSubscriber<? super Long> subscriber) {
+    public void call(IoSubscriber<? super Long> subscriber) throws Exception {
+        final AtomicLong requested = new AtomicLong();
+        subscriber.setProducer(new IoProducer() {
+            @Override
+            public void request(long n) {
+                IoSubscriber.getAndAddRequested(requested, n);
+            }
+        });
         scheduler.scheduleAtFixedRate(new Runnable() {
             long counter;
             @Override
@@ -31,7 +40,15 @@ public class OnSubscribeTimerPeriodically implements OnSubscribe<Long> {
                     if (subscriber.isUnsubscribed()) {
                         return;
                     }
-                    subscriber.onNext(counter++);
+                    long value = counter++;
+                    long current = requested.get();
+                    if (current == 0) {
+                        return;
+                    }
+                    if (current != Long.MAX_VALUE) {
+                        requested.decrementAndGet();
+                    }
+                    subscriber.onNext(value);
                 } catch (Throwable t) {
                     subscriber.onError(t);
                 }
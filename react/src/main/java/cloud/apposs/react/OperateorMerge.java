@@ -4,11 +4,13 @@ import cloud.apposs.react.React.OnSubscribe;
 
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 合并多个请求结果，
  * 一般用于同时请求多个网络连接场景，
- * 无论成功或者失败当所有请求都结束后最后都会调用{@link IoSubscriber#onCompleted()}方法
+ * 无论成功或者失败当所有请求都结束后最后都会调用{@link IoSubscriber#onCompleted()}方法，
+ * 支持背压，每个请求对应一个请求量，按下游请求量逐个订阅请求，避免同时发起所有请求
  */
 public class OperateorMerge<T> implements OnSubscribe<T> {
 	private final React<? extends T>[] sequences;
@@ -33,13 +35,50 @@ public class OperateorMerge<T> implements OnSubscribe<T> {
 	public void call(IoSubscriber<? super T> subscriber) throws Exception {
 		MergeSubscriber<T> parent = new MergeSubscriber<T>(subscriber, sequences.length);
 		subscriber.add(parent);
-		for (int i = 0; i < sequences.length; i++) {
-			if (subscriber.isUnsubscribed()) {
+		subscriber.setProducer(new MergeProducer<T>(subscriber, parent, sequences));
+	}
+
+	/**
+	 * 合并请求生产者，同一时刻只有一个线程在订阅请求，订阅过程中新增的请求量由正在订阅的线程继续处理
+	 */
+	private static final class MergeProducer<T> extends AtomicLong implements IoProducer {
+		private static final long serialVersionUID = 1L;
+
+		private final IoSubscriber<? super T> subscriber;
+
+		private final MergeSubscriber<T> parent;
+
+		private final React<? extends T>[] sequences;
+
+		private int index;
+
+		private MergeProducer(IoSubscriber<? super T> subscriber, MergeSubscriber<T> parent, React<? extends T>[] sequences) {
+			this.subscriber = subscriber;
+			this.parent = parent;
+			this.sequences = sequences;
+		}
+
+		@Override
+		public void request(long n) throws Exception {
+			if (n <= 0 || IoSubscriber.getAndAddRequested(this, n) != 0) {
 				return;
 			}
-			React<? extends T> react = sequences[i];
-            react.subscribe(parent).start();
-        }
+			for (;;) {
+				long requested = get();
+				long emitted = 0;
+				while (emitted != requested && index < sequences.length) {
+					if (subscriber.isUnsubscribed()) {
+						return;
+					}
+					React<? extends T> react = sequences[index++];
+					react.subscribe(parent).start();
+					emitted++;
+				}
+				if (index >= sequences.length || addAndGet(-emitted) == 0) {
+					return;
+				}
+			}
+		}
 	}
 	
 	private static final class MergeSubscriber<T> extends SafeIoSubscriber<T> {
@@ -2,59 +2,204 @@ package cloud.apposs.react;
 
 import cloud.apposs.react.React.OnSubscribe;
 
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * 让下游在指定线程池中执行，支持背压，
+ * 1、上游数据先放入缓冲队列，再由线程池中的单个任务按顺序取出发送给下游，保证下游串行接收数据
+ * 2、向支持背压的上游最多请求bufferSize个数据，下游每消费3/4缓冲区的数据后再补充请求，缓冲队列不会超过bufferSize
+ * 3、上游不支持背压时缓冲队列不限制大小，与原有的推送方式一致
+ */
 public class OperatorExecutOn<T> implements OnSubscribe<T> {
+	public static final int DEFAULT_BUFFER_SIZE = 128;
+
 	private final OnSubscribe<T> parent;
-	
+
 	private final Executor executor;
-	
+
+	private final int bufferSize;
+
 	public OperatorExecutOn(OnSubscribe<T> parent, Executor executor) {
+		this(parent, executor, DEFAULT_BUFFER_SIZE);
+	}
+
+	public OperatorExecutOn(OnSubscribe<T> parent, Executor executor, int bufferSize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("bufferSize");
+		}
 		this.parent = parent;
 		this.executor = executor;
+		this.bufferSize = bufferSize;
 	}
-	
+
 	@Override
 	public void call(final IoSubscriber<? super T> subscriber) throws Exception {
-		IoSubscriber<? super T> is = new ExecutorOnSubscriber<T>(subscriber, executor);
+		ExecutorOnSubscriber<T> is = new ExecutorOnSubscriber<T>(subscriber, executor, bufferSize);
 		subscriber.add(is);
+		subscriber.setProducer(is.producer);
 		parent.call(new SafeIoSubscriber<T>(is));
 	}
-	
-	private static final class ExecutorOnSubscriber<T> extends SafeIoSubscriber<T> {
+
+	private static final class ExecutorOnSubscriber<T> extends SafeIoSubscriber<T> implements Runnable {
+		// 队列不支持null，null数据用此对象代替
+		private static final Object NULL = new Object();
+
 		private final Executor executor;
-		
-		public ExecutorOnSubscriber(IoSubscriber<? super T> subscriber, Executor executor) {
+
+		private final Queue<Object> queue = new ConcurrentLinkedQueue<Object>();
+
+		// 下游请求量
+		private final AtomicLong requested = new AtomicLong();
+
+		// 待处理的发送请求数，由0变为1时提交发送任务到线程池
+		private final AtomicInteger wip = new AtomicInteger();
+
+		// 下游消费多少数据后向上游补充请求
+		private final int limit;
+
+		private final IoProducer producer = n -> {
+			IoSubscriber.getAndAddRequested(requested, n);
+			schedule();
+		};
+
+		private volatile boolean done = false;
+
+		private Throwable error;
+
+		// 下游已经结束或者出错时不再接收上游数据
+		private volatile boolean terminated = false;
+
+		// 以下变量只在发送任务中访问
+		private long emitted;
+
+		private int consumed;
+
+		public ExecutorOnSubscriber(IoSubscriber<? super T> subscriber, Executor executor, int bufferSize) throws Exception {
 			super(subscriber);
 			this.executor = executor;
+			this.limit = bufferSize - (bufferSize >> 2);
+			// 上游注册生产者时按缓冲区大小请求数据
+			request(bufferSize);
 		}
-		
+
 		@Override
 		public void onNext(final T value) throws Exception {
-			executor.execute(new Runnable() {
-    			@Override
-    			public void run() {
-    				try {
-						subscriber.onNext(value);
-					} catch (Exception e) {
-						subscriber.onError(e);
-					}
-    			}
-    		});
+			if (terminated) {
+				return;
+			}
+			queue.offer(value == null ? NULL : value);
+			schedule();
 		}
 
 		@Override
 		public void onCompleted() {
-			executor.execute(() -> {
-				subscriber.onCompleted();
-			});
+			done = true;
+			schedule();
 		}
 
 		@Override
 		public void onError(final Throwable t) {
-			executor.execute(() -> {
-				subscriber.onError(t);
-			});
+			error = t;
+			done = true;
+			schedule();
+		}
+
+		private void schedule() {
+			if (wip.getAndIncrement() == 0) {
+				executor.execute(this);
+			}
+		}
+
+		/**
+		 * 在线程池中按下游请求量发送缓冲队列中的数据
+		 */
+		@Override
+		@SuppressWarnings("unchecked")
+		public void run() {
+			int missed = 1;
+			for (;;) {
+				if (terminated) {
+					return;
+				}
+				if (subscriber.isUnsubscribed()) {
+					queue.clear();
+					return;
+				}
+				long r = requested.get();
+				while (emitted != r) {
+					boolean d = done;
+					Object value = queue.poll();
+					if (value == null) {
+						if (d) {
+							doTerminate();
+							return;
+						}
+						break;
+					}
+					try {
+						subscriber.onNext(value == NULL ? null : (T) value);
+					} catch (Throwable t) {
+						doFail(t);
+						return;
+					}
+					emitted++;
+					if (++consumed == limit) {
+						consumed = 0;
+						if (!doRequest(limit)) {
+							return;
+						}
+					}
+				}
+				if (done && queue.isEmpty()) {
+					doTerminate();
+					return;
+				}
+				missed = wip.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		private void doTerminate() {
+			terminated = true;
+			if (error != null) {
+				subscriber.onError(error);
+			} else {
+				subscriber.onCompleted();
+			}
+		}
+
+		/**
+		 * 向上游补充请求，请求失败时终止发送
+		 *
+		 * @return 请求成功返回true
+		 */
+		private boolean doRequest(long n) {
+			try {
+				request(n);
+				return true;
+			} catch (Throwable t) {
+				doFail(t);
+				return false;
+			}
+		}
+
+		/**
+		 * 下游处理数据出错时取消上游订阅并丢弃缓冲的数据，只向下游发送一次错误，之后不再发送任何数据
+		 */
+		private void doFail(Throwable t) {
+			terminated = true;
+			queue.clear();
+			try {
+				unsubscribe();
+			} catch (Throwable e) {
+			}
+			subscriber.onError(t);
 		}
 	}
 }
@@ -4,6 +4,10 @@ import cloud.apposs.react.React.OnSubscribe;
 
 import java.util.concurrent.Executor;
 
+/**
+ * 让数据源在指定线程池中订阅并发送数据，支持背压，
+ * 下游在其他线程中请求数据时，请求同样提交到线程池中执行，保证数据源只在线程池中发送数据
+ */
 public class OperatorSubscribeOn<T> implements OnSubscribe<T> {
 	private final React<T> source;
 	
@@ -20,7 +24,37 @@ public class OperatorSubscribeOn<T> implements OnSubscribe<T> {
 			if (subscriber.isUnsubscribed()) {
 				return;
 			}
-			source.subscribe(subscriber).start();
+			source.subscribe(new SubscribeOnSubscriber<T>(subscriber, executor)).start();
 		});
 	}
+
+	private static final class SubscribeOnSubscriber<T> extends SafeIoSubscriber<T> {
+		private final Executor executor;
+
+		// 订阅数据源的线程，该线程中的请求直接交给数据源处理
+		private final Thread thread;
+
+		public SubscribeOnSubscriber(IoSubscriber<? super T> subscriber, Executor executor) {
+			super(subscriber);
+			this.executor = executor;
+			this.thread = Thread.currentThread();
+		}
+
+		@Override
+		public void setProducer(final IoProducer producer) throws Exception {
+			subscriber.setProducer(n -> {
+				if (Thread.currentThread() == thread) {
+					producer.request(n);
+					return;
+				}
+				executor.execute(() -> {
+					try {
+						producer.request(n);
+					} catch (Throwable t) {
+						subscriber.onError(t);
+					}
+				});
+			});
+		}
+	}
 }
@@ -18,6 +18,7 @@ import java.util.concurrent.TimeUnit;
  *     1. {@link React#create(OnSubscribe)} 负责产生数据流供各个 OnSucribeXXX 进行数据过滤处理
  *     2. {@link React#subscribe(IoSubscriber)} 中 {@link IoSubscriber} 由业务实现对数据流实现最终业务处理
  *     3. OnSucribeXXX 核心是负责对 {@link IoSubscriber} 进行重包装，即对数据流进行包装处理
+ *     4. 连续的 map/filter/match 同步算子由 {@link OnSubscribeFused} 融合为一层包装，减少调用链深度
  * </pre>
  */
 public class React<T> {
@@ -193,7 +194,7 @@ public class React<T> {
      * @param func 变换函数，输入参数为当前数据流的数据类型，输出参数为变换后的数据类型
      */
     public final <R> React<R> map(IoFunction<? super T, ? extends R> func) {
-        return create(new OnSubscribeMap<T, R>(this, func));
+        return create(OnSubscribeFused.<T, R>fuse(this, OnSubscribeFused.STAGE_MAP, func));
     }
 
     /**
@@ -211,7 +212,7 @@ public class React<T> {
      * @param predicate 过滤函数，过滤结果为true时数据流才进行正常流程处理
      */
     public final React<T> filter(IoFunction<? super T, Boolean> predicate) {
-        return create(new OnSubscribeFilter<T>(this, predicate));
+        return create(OnSubscribeFused.<T, T>fuse(this, OnSubscribeFused.STAGE_FILTER, predicate));
     }
 
     /**
@@ -220,7 +221,7 @@ public class React<T> {
      * @param predicate 匹配函数，匹配结果为true时数据流才进行正常流程处理，匹配结果为false时数据流进入异常流程处理
      */
     public final React<T> match(IoFunction<? super T, Errno> predicate) {
-        return create(new OnSubscribeMatch<T>(this, predicate));
+        return create(OnSubscribeFused.<T, T>fuse(this, OnSubscribeFused.STAGE_MATCH, predicate));
     }
 
     /**
@@ -270,6 +271,17 @@ public class React<T> {
         return create(new OperatorExecutOn<T>(onSubscribe, executor));
     }
 
+    /**
+     * 让业务逻辑在单独的线程池中异步执行，该方法只作用调用链其下的方法，
+     * 上游支持背压时最多缓冲bufferSize个数据，下游消费后再向上游请求
+     *
+     * @param executor   线程池
+     * @param bufferSize 缓冲队列大小，必须大于0
+     */
+    public final React<T> executOn(Executor executor, int bufferSize) {
+        return create(new OperatorExecutOn<T>(onSubscribe, executor, bufferSize));
+    }
+
     /**
      * 让业务逻辑在单独的定时任务里睡眠一段时间，该方法只作用调用链其下的方法
      * 注意该方法要放在调用{@link #subscribe(IoSubscriber)}之前
@@ -382,6 +394,7 @@ public class React<T> {
      */
     public IoSubscription start() {
         try {
+            subscriber.onStart();
             onSubscribe.call(subscriber);
         } catch (Throwable t) {
             subscriber.onError(t);
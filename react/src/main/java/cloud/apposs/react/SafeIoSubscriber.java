@@ -1,11 +1,15 @@
 package cloud.apposs.react;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * {@link IoSubscriber}包装类，保存当次响应会话内部状态，只有系统内部内调用避免暴露太多属性给业务方
  */
 public class SafeIoSubscriber<T> extends IoSubscriber<T> {
     protected final IoSubscriber<? super T> subscriber;
 
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
     public SafeIoSubscriber(IoSubscriber<? super T> subscriber) {
         super(subscriber);
         this.subscriber = subscriber;
@@ -26,6 +30,25 @@ public class SafeIoSubscriber<T> extends IoSubscriber<T> {
         subscriber.onNext(value);
     }
 
+    /**
+     * 只有直接包装的订阅者才回调被包装订阅者的{@link IoSubscriber#onStart()}，避免调用链中的每一层算子重复回调
+     */
+    @Override
+    public void onStart() throws Exception {
+        // 算子可能将下游订阅者再次订阅到其他数据源，只回调一次
+        if (isDemandRelay() && started.compareAndSet(false, true)) {
+            subscriber.onStart();
+        }
+    }
+
+    /**
+     * 直接包装的订阅者一对一转发数据，将上游生产者传递给被包装的订阅者，子类算子默认不传递
+     */
+    @Override
+    protected boolean isDemandRelay() {
+        return getClass() == SafeIoSubscriber.class;
+    }
+
     @Override
     public void unsubscribe() throws Exception {
         super.unsubscribe();
@@ -1,10 +1,15 @@
 package cloud.apposs.react.actor;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cloud.apposs.util.ExecutorMetrics;
 
 /**
  * 无锁化编程，将用到锁的地方均采用队列串行执行的方式来实际以实现无锁化编程，
@@ -19,6 +24,13 @@ import java.util.concurrent.*;
  * 1、因为同一把ActorLock锁底层是由{@link #locks}维护的，
  * 所以当非同一把ActorLock锁的请求越多时，Actor占用的内存越大，直到同一把ActorLock锁的所有请求结束
  * </pre>
+ * 分片模式：
+ * <pre>
+ * 1、ActorLock锁按哈希值固定分配到某个工作线程，每个工作线程一个多生产者单消费者的无锁邮箱
+ * 2、加锁和释放锁都作为消息投递到对应工作线程的邮箱，锁状态只由该工作线程维护，不需要全局锁和共享队列
+ * 3、同一把ActorLock锁的任务只在同一个工作线程中按投递顺序执行，不同锁的任务在多个工作线程中并行执行
+ * 4、任务执行时会占用所在分片的工作线程，任务中不要有长时间的同步阻塞，否则会影响同一分片的其他锁
+ * </pre>
  */
 public final class Actor {
     public static final String DEFAULT_ACTOR_THREAD_PREFIX = "Actor-Worker-";
@@ -35,6 +47,22 @@ public final class Actor {
 
     private final List<Worker> workerList;
 
+    /**
+     * 分片工作线程，非分片模式时为null
+     */
+    private final ShardWorker[] shards;
+
+    /**
+     * 正在执行任务的线程数
+     */
+    private final AtomicInteger numBusy = new AtomicInteger();
+
+    /**
+     * 运行指标，等待时间为任务从加锁到开始执行的时间，执行时间只统计{@link ActorTask#run()}的同步执行部分，
+     * 饱和度为正在执行任务的线程数占线程池大小的比例
+     */
+    private final ExecutorMetrics metrics;
+
     private static final TaskLock EXIT_SIGNAL = new TaskLock();
 
     private static final List<ActorListener> listenerList = new CopyOnWriteArrayList<ActorListener>();
@@ -67,6 +95,46 @@ public final class Actor {
      * @param threadNamePrefix 线程名称前缀，方便进行jstack调试
      */
     public Actor(int poolSize, boolean daemon, String threadNamePrefix) {
+        this(poolSize, daemon, threadNamePrefix, false);
+    }
+
+    /**
+     * 创建异步锁框架
+     * @param poolSize 执行异步任务的线程池，分片模式下即分片数
+     * @param daemon 是否为守护线程
+     * @param threadNamePrefix 线程名称前缀，方便进行jstack调试
+     * @param sharded 是否为分片模式，分片模式下ActorLock锁按哈希值分配到各个工作线程的邮箱，不同锁之间没有锁竞争
+     */
+    public Actor(int poolSize, boolean daemon, String threadNamePrefix, boolean sharded) {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize");
+        }
+        final int capacity = poolSize;
+        metrics = new ExecutorMetrics(new ExecutorMetrics.Saturation() {
+            @Override
+            public int getUsed() {
+                return numBusy.get();
+            }
+
+            @Override
+            public int getCapacity() {
+                return capacity;
+            }
+        });
+        if (sharded) {
+            workerList = new ArrayList<Worker>(0);
+            shards = new ShardWorker[poolSize];
+            for (int i = 0; i < poolSize; i++) {
+                ShardWorker shard = new ShardWorker();
+                Thread thread = new Thread(shard);
+                thread.setDaemon(daemon);
+                thread.setName(threadNamePrefix + i);
+                shards[i] = shard;
+                thread.start();
+            }
+            return;
+        }
+        shards = null;
         workerList = new ArrayList<Worker>(poolSize);
         for (int i = 0; i < poolSize; i++) {
             Worker worker = new Worker();
@@ -89,16 +157,109 @@ public final class Actor {
      *            注意该key如果是一个自定义对象，为了保定locks这个map能够找到类型相同的key，该key对象要实现hashCode和equals方法
      * @param task 异步锁拿到之后执行的回调方法
      */
-    public synchronized void lock(ActorLock key, ActorTask task) {
-        TaskLock lock = locks.get(key);
-        if (lock == null) {
-            lock = new TaskLock(key, this, task);
-            locks.put(key, lock);
-        } else {
-            lock.offer(task);
-        }
-        key.setLock(lock);
-        taskPool.offer(lock);
+    public void lock(ActorLock key, ActorTask task) {
+        if (shards != null) {
+            doShardLock(key, task);
+            return;
+        }
+        synchronized (this) {
+            if (shutdown) {
+                metrics.onTaskRejected();
+                return;
+            }
+            long submitTime = metrics.sample();
+            if (submitTime != 0) {
+                task = new SampledTask(task, submitTime);
+            }
+            TaskLock lock = locks.get(key);
+            if (lock == null) {
+                lock = new TaskLock(key, this, task);
+                locks.put(key, lock);
+            } else {
+                lock.offer(task);
+            }
+            key.setLock(lock);
+            taskPool.offer(lock);
+        }
+    }
+
+    /**
+     * 分片模式加锁，将加锁消息投递到ActorLock锁所在分片的邮箱，不加任何锁
+     */
+    private void doShardLock(ActorLock key, ActorTask task) {
+        if (shutdown) {
+            metrics.onTaskRejected();
+            return;
+        }
+        long submitTime = metrics.sample();
+        if (submitTime != 0) {
+            task = new SampledTask(task, submitTime);
+        }
+        ShardWorker shard = shards[shardOf(key)];
+        TaskLock lock = key.getLock();
+        if (lock == null || lock.shard != shard) {
+            key.setLock(new TaskLock(key, this, shard));
+        }
+        shard.mailbox.offer(new Mail(key, task));
+    }
+
+    private int shardOf(ActorLock key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & Integer.MAX_VALUE) % shards.length;
+    }
+
+    /**
+     * 是否为分片模式
+     */
+    public boolean isSharded() {
+        return shards != null;
+    }
+
+    /**
+     * 获取所有邮箱中等待处理的消息总数，非分片模式时为共享任务队列的长度
+     */
+    public int getMailboxDepth() {
+        if (shards == null) {
+            return taskPool.size();
+        }
+        int depth = 0;
+        for (ShardWorker shard : shards) {
+            depth += shard.mailbox.getDepth();
+        }
+        return depth;
+    }
+
+    /**
+     * 获取各个分片邮箱中等待处理的消息数，用于判断分片负载是否均衡
+     */
+    public int[] getMailboxDepths() {
+        if (shards == null) {
+            return new int[] {taskPool.size()};
+        }
+        int[] depths = new int[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            depths[i] = shards[i].mailbox.getDepth();
+        }
+        return depths;
+    }
+
+    /**
+     * 获取分片邮箱的历史最大深度，非分片模式时为0
+     */
+    public int getPeakMailboxDepth() {
+        if (shards == null) {
+            return 0;
+        }
+        int peak = 0;
+        for (ShardWorker shard : shards) {
+            peak = Math.max(peak, shard.mailbox.getPeakDepth());
+        }
+        return peak;
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
     }
 
     public void addListener(ActorListener listener) {
@@ -115,6 +276,33 @@ public final class Actor {
             worker.shutdown();
             taskPool.offer(EXIT_SIGNAL);
         }
+        if (shards != null) {
+            for (ShardWorker shard : shards) {
+                shard.mailbox.offer(Mail.EXIT);
+            }
+        }
+    }
+
+    private void doRunTask(ActorTask task) {
+        long startTime = 0;
+        if (task instanceof SampledTask) {
+            startTime = metrics.onTaskStart(((SampledTask) task).submitTime);
+            task = ((SampledTask) task).task;
+        }
+        numBusy.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            numBusy.decrementAndGet();
+            metrics.onTaskDone(startTime);
+        }
+    }
+
+    private static void fireStatusChange(ActorLock key, LockStatus status) {
+        for (int i = 0; i < listenerList.size(); i++) {
+            ActorListener listener = listenerList.get(i);
+            listener.onActorStatusChange(key, status);
+        }
     }
 
     private void removeLock(ActorLock lock) {
@@ -153,7 +341,7 @@ public final class Actor {
                     }
                     ActorTask task = lock.acquire();
                     if (task != null) {
-                        task.run();
+                        doRunTask(task);
                     }
                 } catch (Throwable cause) {
                     cause.printStackTrace();
@@ -167,6 +355,114 @@ public final class Actor {
         }
     }
 
+    /**
+     * 分片工作线程，独占本分片所有ActorLock锁的状态，加锁和释放锁消息均在此线程中串行处理
+     */
+    final class ShardWorker implements Runnable {
+        private final ActorMailbox<Mail> mailbox = new ActorMailbox<Mail>();
+
+        /**
+         * 本分片中已加锁的ActorLock锁及其等待执行的任务，只在本线程中访问
+         */
+        private final Map<ActorLock, ArrayDeque<ActorTask>> states = new HashMap<ActorLock, ArrayDeque<ActorTask>>();
+
+        @Override
+        public void run() {
+            for (;;) {
+                try {
+                    Mail mail = mailbox.take();
+                    if (mail == Mail.EXIT) {
+                        break;
+                    }
+                    if (mail.task != null) {
+                        doAcquire(mail.key, mail.task);
+                    } else {
+                        doRelease(mail.key);
+                    }
+                } catch (Throwable cause) {
+                    cause.printStackTrace();
+                }
+            }
+        }
+
+        private void doAcquire(ActorLock key, ActorTask task) {
+            ArrayDeque<ActorTask> pending = states.get(key);
+            if (pending == null) {
+                states.put(key, Mail.NO_PENDING);
+                fireStatusChange(key, LockStatus.RUNNING);
+                doRunTask(task);
+                return;
+            }
+            // 已经有一个任务在执行了，等待锁释放后再执行
+            if (pending == Mail.NO_PENDING) {
+                pending = new ArrayDeque<ActorTask>();
+                states.put(key, pending);
+            }
+            pending.offer(task);
+            fireStatusChange(key, LockStatus.PENDING);
+        }
+
+        private void doRelease(ActorLock key) {
+            ArrayDeque<ActorTask> pending = states.get(key);
+            if (pending == null) {
+                return;
+            }
+            fireStatusChange(key, LockStatus.RELEASED);
+            ActorTask task = pending.poll();
+            if (task == null) {
+                states.remove(key);
+                return;
+            }
+            fireStatusChange(key, LockStatus.RUNNING);
+            doRunTask(task);
+        }
+    }
+
+    /**
+     * 分片邮箱消息，任务为null时为释放锁消息
+     */
+    private static final class Mail {
+        private static final Mail EXIT = new Mail(null, null);
+
+        /**
+         * 已加锁但没有等待任务的标识，避免每次加锁都创建等待队列
+         */
+        private static final ArrayDeque<ActorTask> NO_PENDING = new ArrayDeque<ActorTask>(0);
+
+        private final ActorLock key;
+
+        private final ActorTask task;
+
+        private Mail(ActorLock key, ActorTask task) {
+            this.key = key;
+            this.task = task;
+        }
+    }
+
+    /**
+     * 被采样任务的包装，记录任务加锁时间，未被采样的任务不包装
+     */
+    private static final class SampledTask implements ActorTask {
+        private final ActorTask task;
+
+        private final long submitTime;
+
+        private SampledTask(ActorTask task, long submitTime) {
+            this.task = task;
+            this.submitTime = submitTime;
+        }
+
+        @Override
+        public ActorLock getLockKey() {
+            return task.getLockKey();
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
     /**
      * 任务锁，同一把ActorLock锁执行的TaskLosk任务只会有一个在执行，
      * 在TaskLock执行完成之后会再判断同一把ActorLock锁是否还会其他任务在等待，有则取出执行，否则从{@link #locks}移动该锁任务
@@ -180,9 +476,20 @@ public final class Actor {
 
         private volatile boolean isRunning = false;
 
+        /**
+         * 分片模式下ActorLock锁所在的分片，锁状态由分片工作线程维护，此时TaskLock只负责投递释放锁消息
+         */
+        private ShardWorker shard;
+
         private TaskLock() {
         }
 
+        private TaskLock(ActorLock key, Actor actor, ShardWorker shard) {
+            this.key = key;
+            this.actor = actor;
+            this.shard = shard;
+        }
+
         private TaskLock(ActorLock key, Actor actor, ActorTask task) {
             this.key = key;
             this.actor = actor;
@@ -223,6 +530,10 @@ public final class Actor {
          * 释放锁后会从任务等待队列获取先进来的任务再执行
          */
         public synchronized boolean release() {
+            if (shard != null) {
+                shard.mailbox.offer(new Mail(key, null));
+                return false;
+            }
             isRunning = false;
             boolean complete = false;
             for (int i = 0; i < listenerList.size(); i++) {
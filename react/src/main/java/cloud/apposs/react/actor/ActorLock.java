@@ -16,6 +16,10 @@ public final class ActorLock {
         this.lock = lock;
     }
 
+    Actor.TaskLock getLock() {
+        return lock;
+    }
+
     public void unlock() {
         lock.release();
     }
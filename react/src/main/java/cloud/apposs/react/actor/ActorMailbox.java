@@ -0,0 +1,124 @@
+package cloud.apposs.react.actor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 多生产者单消费者的无锁邮箱，每个分片工作线程一个邮箱，
+ * 1. 生产者只需一次原子交换将消息挂到队尾，不加锁不自旋，消费者独占队头，出队不需要原子操作
+ * 2. 邮箱为空时消费者线程挂起，生产者投递消息后发现消费者挂起时再唤醒，避免空闲线程空转
+ * 3. 记录当前邮箱深度和历史最大深度，用于监控分片负载是否均衡
+ */
+final class ActorMailbox<E> {
+    private final AtomicReference<Node<E>> tail;
+
+    /**
+     * 队头哨兵节点，只在消费者线程中访问
+     */
+    private Node<E> head;
+
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private volatile int peakDepth = 0;
+
+    /**
+     * 消费者线程，在消费者第一次取消息时设置
+     */
+    private volatile Thread consumer;
+
+    private volatile boolean waiting = false;
+
+    ActorMailbox() {
+        Node<E> stub = new Node<E>(null);
+        head = stub;
+        tail = new AtomicReference<Node<E>>(stub);
+    }
+
+    /**
+     * 投递消息，可在任意线程中调用
+     */
+    void offer(E value) {
+        Node<E> node = new Node<E>(value);
+        Node<E> prev = tail.getAndSet(node);
+        prev.lazySetNext(node);
+        int current = depth.incrementAndGet();
+        if (current > peakDepth) {
+            // 只用于监控，并发更新时允许少量偏差
+            peakDepth = current;
+        }
+        if (waiting) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * 阻塞取出消息，只能在消费者线程中调用
+     */
+    E take() {
+        if (consumer == null) {
+            consumer = Thread.currentThread();
+        }
+        for (;;) {
+            E value = poll();
+            if (value != null) {
+                return value;
+            }
+            waiting = true;
+            // 先标记挂起再检查队列，保证生产者要么看到挂起标记，要么消费者看到新消息
+            if (tail.get() == head) {
+                LockSupport.park(this);
+            }
+            waiting = false;
+        }
+    }
+
+    /**
+     * 取出消息，队列为空时返回null，只能在消费者线程中调用
+     */
+    E poll() {
+        Node<E> next = head.next;
+        if (next == null) {
+            if (tail.get() == head) {
+                return null;
+            }
+            // 生产者已挂到队尾但还未链接上一个节点，等待链接完成
+            while ((next = head.next) == null) {
+                Thread.yield();
+            }
+        }
+        E value = next.value;
+        next.value = null;
+        head = next;
+        depth.decrementAndGet();
+        return value;
+    }
+
+    int getDepth() {
+        return depth.get();
+    }
+
+    int getPeakDepth() {
+        return peakDepth;
+    }
+
+    private static final class Node<E> {
+        @SuppressWarnings("rawtypes")
+        private static final AtomicReferenceFieldUpdater<Node, Node> NEXT_UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+        private E value;
+
+        private volatile Node<E> next;
+
+        private Node(E value) {
+            this.value = value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void lazySetNext(Node<E> node) {
+            NEXT_UPDATER.lazySet(this, node);
+        }
+    }
+}
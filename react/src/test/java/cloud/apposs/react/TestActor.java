@@ -7,6 +7,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestActor {
     @Test
@@ -90,6 +95,64 @@ public class TestActor {
         latch.await();
     }
 
+    @Test
+    public void testActorSharded() throws Exception {
+        final int keyCount = 1000;
+        final int taskCount = 20;
+        final int producerCount = 4;
+        final CountDownLatch latch = new CountDownLatch(keyCount * taskCount);
+        final Actor actor = new Actor(4, true, "ActorShard-", true);
+        assertTrue(actor.isSharded());
+        final int[] expected = new int[keyCount];
+        final AtomicInteger[] running = new AtomicInteger[keyCount];
+        final AtomicInteger failed = new AtomicInteger();
+        for (int i = 0; i < keyCount; i++) {
+            running[i] = new AtomicInteger();
+        }
+        List<Thread> producerList = new ArrayList<Thread>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            producerList.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // 每个锁只由一个线程投递任务，同一把锁的任务必须按投递顺序且互斥执行
+                    for (int index = 0; index < taskCount; index++) {
+                        for (int key = producer; key < keyCount; key += producerCount) {
+                            final int k = key;
+                            final int sequence = index;
+                            final ActorLock lockKey = Actor.createLock(k);
+                            actor.lock(lockKey, new ActorTask() {
+                                @Override
+                                public ActorLock getLockKey() {
+                                    return lockKey;
+                                }
+
+                                @Override
+                                public void run() {
+                                    if (running[k].incrementAndGet() != 1 || expected[k] != sequence) {
+                                        failed.incrementAndGet();
+                                    }
+                                    expected[k] = sequence + 1;
+                                    running[k].decrementAndGet();
+                                    latch.countDown();
+                                    lockKey.unlock();
+                                }
+                            });
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread producer : producerList) {
+            producer.start();
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertEquals(0, failed.get());
+        assertEquals(4, actor.getMailboxDepths().length);
+        assertTrue(actor.getPeakMailboxDepth() > 0);
+        actor.shutdown();
+    }
+
     static class MyActorKey {
         private Integer key;
 
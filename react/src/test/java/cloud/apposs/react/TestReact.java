@@ -5,9 +5,11 @@ import cloud.apposs.react.actor.ActorLock;
 import cloud.apposs.util.Errno;
 import cloud.apposs.util.Pair;
 import cloud.apposs.util.StandardResult;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
@@ -636,6 +638,193 @@ public class TestReact {
     }
 
     // 用指定的名称新建一个线程
+    /**
+     * 测试订阅者按需请求数据，处理完一批数据后再请求下一批
+     */
+    @Test
+    public void testReactRequest() throws Exception {
+        List<Integer> source = new ArrayList<Integer>();
+        for (int i = 0; i < 100; i++) {
+            source.add(i);
+        }
+        final List<Integer> received = new ArrayList<Integer>();
+        final AtomicInteger completed = new AtomicInteger();
+        IoSubscriber<Integer> subscriber = new IoSubscriber<Integer>() {
+            @Override
+            public void onStart() throws Exception {
+                request(10);
+            }
+            @Override
+            public void onNext(Integer value) throws Exception {
+                received.add(value);
+            }
+            @Override
+            public void onCompleted() {
+                completed.incrementAndGet();
+            }
+        };
+        IoSubscription subscription = React.from(source).map(value -> value * 2)
+            .filter(value -> value % 4 == 0).subscribe(subscriber).start();
+        // 过滤掉的数据会补充请求量，下游收到的数据数等于请求量
+        Assert.assertEquals(10, received.size());
+        Assert.assertEquals(Integer.valueOf(36), received.get(9));
+        subscription.request(30);
+        Assert.assertEquals(40, received.size());
+        Assert.assertEquals(0, completed.get());
+        subscription.request(Long.MAX_VALUE);
+        Assert.assertEquals(50, received.size());
+        Assert.assertEquals(1, completed.get());
+    }
+
+    /**
+     * 测试线程池执行时上游数据不超过缓冲区大小
+     */
+    @Test
+    public void testReactExecutOnBackpressure() throws Exception {
+        final int count = 10000;
+        final int bufferSize = 16;
+        final AtomicInteger produced = new AtomicInteger();
+        final AtomicInteger consumed = new AtomicInteger();
+        final AtomicInteger maxPending = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Iterable<Integer> source = () -> new java.util.Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return produced.get() < count;
+            }
+            @Override
+            public Integer next() {
+                int pending = produced.incrementAndGet() - consumed.get();
+                if (pending > maxPending.get()) {
+                    maxPending.set(pending);
+                }
+                return produced.get();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        React.from(source).executOn(executor, bufferSize).subscribe(new IoSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) throws Exception {
+                consumed.incrementAndGet();
+            }
+            @Override
+            public void onCompleted() {
+                latch.countDown();
+            }
+        }).start();
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(count, consumed.get());
+        Assert.assertTrue(maxPending.get() <= bufferSize);
+        executor.shutdown();
+    }
+
+    /**
+     * 测试线程池执行时下游处理出错后取消上游订阅，只收到一次错误并且不再收到后续数据
+     */
+    @Test
+    public void testReactExecutOnError() throws Exception {
+        final int count = 10000;
+        final AtomicInteger produced = new AtomicInteger();
+        final AtomicInteger received = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final AtomicInteger completed = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Iterable<Integer> source = () -> new java.util.Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return produced.get() < count;
+            }
+            @Override
+            public Integer next() {
+                return produced.incrementAndGet();
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        React.from(source).executOn(executor, 16).subscribe(new IoSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) throws Exception {
+                if (received.incrementAndGet() == 5) {
+                    throw new IllegalStateException("onNext");
+                }
+            }
+            @Override
+            public void onCompleted() {
+                completed.incrementAndGet();
+            }
+            @Override
+            public void onError(Throwable cause) {
+                errors.incrementAndGet();
+                latch.countDown();
+            }
+        }).start();
+        Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.submit(() -> {}).get();
+        Assert.assertEquals(5, received.get());
+        Assert.assertEquals(1, errors.get());
+        Assert.assertEquals(0, completed.get());
+        Assert.assertTrue(produced.get() < count);
+        executor.shutdown();
+    }
+
+    /**
+     * 测试合并请求按请求量逐个订阅
+     */
+    @Test
+    public void testReactMergeRequest() throws Exception {
+        final AtomicInteger subscribed = new AtomicInteger();
+        React<Integer>[] sequences = new React[5];
+        for (int i = 0; i < sequences.length; i++) {
+            final int value = i;
+            sequences[i] = React.emitter(() -> {
+                subscribed.incrementAndGet();
+                return value;
+            });
+        }
+        final AtomicInteger received = new AtomicInteger();
+        IoSubscription subscription = React.merge(sequences).subscribe(new IoSubscriber<Integer>() {
+            @Override
+            public void onStart() throws Exception {
+                request(2);
+            }
+            @Override
+            public void onNext(Integer value) throws Exception {
+                received.incrementAndGet();
+            }
+        }).start();
+        Assert.assertEquals(2, subscribed.get());
+        Assert.assertEquals(2, received.get());
+        subscription.request(3);
+        Assert.assertEquals(5, subscribed.get());
+        Assert.assertEquals(5, received.get());
+    }
+
+    /**
+     * 测试连续同步算子融合为一个处理阶段，处理结果与逐个算子处理一致
+     */
+    @Test
+    public void testReactFusion() throws Exception {
+        React<Integer> react = React.from(1, 2, 3, 4, 5, 6).map(value -> value * 10)
+            .filter(value -> value != 30).map(value -> value + 1)
+            .match(value -> value == 51 ? Errno.ERROR : Errno.OK).map(value -> value * 2);
+        Assert.assertTrue(react.onSubscribe instanceof OnSubscribeFused);
+        Assert.assertEquals(5, ((OnSubscribeFused<?, ?>) react.onSubscribe).getStageCount());
+        final List<Integer> received = new ArrayList<Integer>();
+        final AtomicInteger errors = new AtomicInteger();
+        react.subscribe(new IoSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer value) throws Exception {
+                received.add(value);
+            }
+            @Override
+            public void onError(Throwable cause) {
+                Assert.assertTrue(cause instanceof OnSubscribeMatch.MatchException);
+                errors.incrementAndGet();
+            }
+        }).start();
+        Assert.assertEquals(Arrays.asList(22, 42, 82, 122), received);
+        Assert.assertEquals(1, errors.get());
+    }
+
     public static Executor getNamedExecutor(final String name) {
         return Executors.newCachedThreadPool(new ThreadFactory() {
             @Override
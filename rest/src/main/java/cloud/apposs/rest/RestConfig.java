@@ -1,11 +1,16 @@
 package cloud.apposs.rest;
 
+import cloud.apposs.threadx.WorkStealingThreadPool;
 import cloud.apposs.util.ReflectUtil;
 import cloud.apposs.util.StrUtil;
 
 public class RestConfig {
     public static final String DEFAULT_CHARSET = "utf-8";
 
+    public static final String WORKER_MODE_CACHED = "cached";
+    public static final String WORKER_MODE_WORK_STEALING = "workstealing";
+    public static final String WORKER_MODE_VIRTUAL = "virtual";
+
     private String charset = DEFAULT_CHARSET;
 
     /**
@@ -38,6 +43,19 @@ public class RestConfig {
      */
     private int workerCount = Runtime.getRuntime().availableProcessors();
 
+    /**
+     * 线程池模式，
+     * cached为获取空闲线程执行任务的线程池，没有空闲线程时扩展线程或者阻塞等待，
+     * workstealing为有界队列的工作窃取线程池，队列已满并且线程数到达上限时拒绝任务，
+     * virtual为虚拟线程池，适用于同步阻塞调用较多的Handler，JDK21以下回退为cached模式
+     */
+    private String workerMode = WORKER_MODE_CACHED;
+
+    /**
+     * 工作窃取线程池的队列容量，只在workstealing模式下生效
+     */
+    private int workerQueueCapacity = WorkStealingThreadPool.DEFAULT_QUEUE_CAPACITY;
+
     /**
      * 请求日志输出格式
      */
@@ -138,4 +156,22 @@ public class RestConfig {
     public void setWorkerCount(int workerCount) {
         this.workerCount = workerCount;
     }
+
+    public String getWorkerMode() {
+        return workerMode;
+    }
+
+    public void setWorkerMode(String workerMode) {
+        if (!StrUtil.isEmpty(workerMode)) {
+            this.workerMode = workerMode;
+        }
+    }
+
+    public int getWorkerQueueCapacity() {
+        return workerQueueCapacity;
+    }
+
+    public void setWorkerQueueCapacity(int workerQueueCapacity) {
+        this.workerQueueCapacity = workerQueueCapacity;
+    }
 }
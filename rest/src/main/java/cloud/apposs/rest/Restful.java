@@ -24,8 +24,10 @@ import cloud.apposs.rest.plugin.PluginSupport;
 import cloud.apposs.rest.view.NoViewResolverFoundException;
 import cloud.apposs.rest.view.ViewResolver;
 import cloud.apposs.rest.view.ViewResolverSupport;
-import cloud.apposs.threadx.ThreadPool;
 import cloud.apposs.threadx.ThreadPoolFactory;
+import cloud.apposs.threadx.ThreadService;
+import cloud.apposs.threadx.VirtualThreadService;
+import cloud.apposs.util.ExecutorMetrics;
 import cloud.apposs.util.StrUtil;
 
 import java.lang.reflect.InvocationTargetException;
@@ -39,6 +41,11 @@ import java.util.Objects;
  * MVC组件框架
  */
 public final class Restful<R, P> {
+    /**
+     * 业务线程池运行指标注册名称，可通过JMX和Prometheus查看
+     */
+    public static final String EXECUTOR_METRICS_NAME = "React-ThreadPool";
+
     /**
      * 框架全局配置
      */
@@ -98,7 +105,7 @@ public final class Restful<R, P> {
      * 线程池，主要用于Handler执行CPU密集操作需要，
      * 注意Handler要使用线程池需要通过{@link cloud.apposs.rest.annotation.Executor}注解开启
      */
-    private ThreadPool executor;
+    private ThreadService executor;
 
     public Restful(RestConfig config) {
         this(config, new BeanFactory());
@@ -204,7 +211,8 @@ public final class Restful<R, P> {
         webExceptionResolver = beanFactory.getBeanHierarchy(WebExceptionResolver.class);
 
         // 初始化线程池
-        executor = ThreadPoolFactory.createCachedThreadPool(config.getWorkerCount(), "React-ThreadPool-");
+        executor = createExecutor(config);
+        ExecutorMetrics.register(EXECUTOR_METRICS_NAME, executor.getMetrics());
 
         // 初始化Handler处理器，
         // 只要有配置basePackage和Action、RestAction注解均扫描进来
@@ -397,7 +405,7 @@ public final class Restful<R, P> {
             // 框架采用纯异步执行，注意对应拦截器和Handler如果是网络则用底层异步IO(OkHttp/IoWhois等)，
             // 如果是CPU密集的计算操作则需要添加React.subscribeOn方法，用线程池异步执行
             // 如果是网络请求的服务，则基于底层EPoll模型的OkHttp在发送网络请求时就是纯异步，可以应付大量并发请求连接
-            ThreadPool executor = this.executor;
+            ThreadService executor = this.executor;
 
             React<?> react = React.intercept(preInterceptorList, (IoEmitter<React<?>>) () -> {
                 // 采用全异步模式，任何业务注解实现都需要返回React，
@@ -474,6 +482,25 @@ public final class Restful<R, P> {
         }
     }
 
+    /**
+     * 根据配置的线程池模式创建线程池，所有模式均实现{@link ThreadService}，业务无需感知
+     */
+    private ThreadService createExecutor(RestConfig config) {
+        String workerMode = config.getWorkerMode();
+        if (RestConfig.WORKER_MODE_WORK_STEALING.equalsIgnoreCase(workerMode)) {
+            return ThreadPoolFactory.createWorkStealingThreadPool(config.getWorkerCount(),
+                    config.getWorkerQueueCapacity(), "React-ThreadPool-");
+        }
+        if (RestConfig.WORKER_MODE_VIRTUAL.equalsIgnoreCase(workerMode)) {
+            if (VirtualThreadService.isSupported()) {
+                return new VirtualThreadService("React-VirtualThread-");
+            }
+            Logger.warn("virtual thread unsupported in java %s, fallback to cached thread pool",
+                    System.getProperty("java.version"));
+        }
+        return ThreadPoolFactory.createCachedThreadPool(config.getWorkerCount(), "React-ThreadPool-");
+    }
+
     /**
      * 根据Order注解进行列表的排序
      */
@@ -526,6 +553,7 @@ public final class Restful<R, P> {
         beanFactory.destroy();
         // 销毁线程池
         if (Objects.nonNull(executor)) {
+            ExecutorMetrics.unregister(EXECUTOR_METRICS_NAME);
             executor.shutdownNow();
         }
     }
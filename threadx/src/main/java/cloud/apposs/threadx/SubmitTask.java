@@ -0,0 +1,56 @@
+package cloud.apposs.threadx;
+
+/**
+ * 任务提交入口，用于基于任务队列或者每任务一线程的线程池实现{@link ThreadService#getIdleTask()}，
+ * 添加的用户任务直接提交到线程池，任务被拒绝时交给拒绝策略，拒绝策略可通过{@link #run()}在调用线程中直接执行任务
+ */
+final class SubmitTask implements ThreadService.Task {
+    private final ThreadService pool;
+
+    private final ThreadContext context;
+
+    Processor processor;
+
+    Runnable runnable;
+
+    SubmitTask(ThreadService pool, ThreadContext context) {
+        this.pool = pool;
+        this.context = context;
+    }
+
+    @Override
+    public void run() {
+        if (processor != null) {
+            processor.process(context);
+        } else if (runnable != null) {
+            runnable.run();
+        }
+    }
+
+    @Override
+    public void addProcessor(Processor processor) {
+        pool.execute(processor);
+    }
+
+    @Override
+    public void addExecutor(Runnable runnable) {
+        pool.execute(runnable);
+    }
+
+    @Override
+    public boolean validate() {
+        return !pool.isShutdown();
+    }
+
+    @Override
+    public void active() {
+    }
+
+    @Override
+    public void passive() {
+    }
+
+    @Override
+    public void destroy(boolean interrupt) {
+    }
+}
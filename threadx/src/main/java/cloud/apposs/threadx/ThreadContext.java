@@ -9,11 +9,11 @@ import java.util.concurrent.ConcurrentHashMap;
  * 线程执行上下文
  */
 public class ThreadContext implements ThreadService.IThreadContext {
-    private final ThreadPool pool;
+    private final ThreadService pool;
 
     private final Map<Object, Object> attributes = new ConcurrentHashMap<Object, Object>(4);
 
-    public ThreadContext(ThreadPool pool) {
+    public ThreadContext(ThreadService pool) {
         this.pool = pool;
     }
 
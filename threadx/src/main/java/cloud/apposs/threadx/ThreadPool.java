@@ -17,6 +17,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
+import cloud.apposs.util.ExecutorMetrics;
+
 import javax.management.MBeanServer;
 import javax.management.ObjectName;
 
@@ -85,6 +87,21 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
      */
     private volatile int numBusy = 0;
 
+    /**
+     * 线程池运行指标，饱和度为忙碌线程数占最大线程数的比例
+     */
+    private final ExecutorMetrics metrics = new ExecutorMetrics(new ExecutorMetrics.Saturation() {
+        @Override
+        public int getUsed() {
+            return numBusy;
+        }
+
+        @Override
+        public int getCapacity() {
+            return maxPoolSize;
+        }
+    });
+
     /**
      * 线程池状态
      * RUNNING:  	正在运行
@@ -171,6 +188,7 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
         Task task = doGetTask(waitTime);
 
         if (runState != RUNNING) {
+            metrics.onTaskRejected();
             handler.rejectedExecution(task, this);
         }
 
@@ -193,28 +211,34 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
 
     @Override
     public void execute(Processor processor) {
+        long submitTime = metrics.sample();
         Task task = getIdleTask();
         if (task == null) {
             handler.rejectedExecution(task, this);
         }
+        task.submitTime = submitTime;
         task.addProcessor(processor);
     }
 
     @Override
     public void execute(Runnable runnable) {
+        long submitTime = metrics.sample();
         Task task = getIdleTask();
         if (task == null) {
             handler.rejectedExecution(task, this);
         }
+        task.submitTime = submitTime;
         task.addExecutor(runnable);
     }
 
     @Override
     public <V> FutureTask<V> submit(Callable<V> callable) {
+        long submitTime = metrics.sample();
         Task task = getIdleTask();
         if (task == null) {
             handler.rejectedExecution(task, this);
         }
+        task.submitTime = submitTime;
         FutureTask<V> fuctureTask = new FutureTask<V>(callable);
         task.addExecutor(fuctureTask);
         return fuctureTask;
@@ -222,10 +246,12 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
 
     @Override
     public <V> FutureTask<V> submit(Processable<V> processable) {
+        long submitTime = metrics.sample();
         Task task = getIdleTask();
         if (task == null) {
             handler.rejectedExecution(task, this);
         }
+        task.submitTime = submitTime;
         FutureTask<V> fuctureTask = new FutureTask<V>(processable);
         task.addProcessor(fuctureTask);
         return fuctureTask;
@@ -259,6 +285,39 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
         return maxPoolSize;
     }
 
+    /**
+     * 获取线程池运行指标，只统计通过execute/submit提交的任务
+     */
+    @Override
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return metrics.getCompletedCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return metrics.getRejectedCount();
+    }
+
+    @Override
+    public double getSaturation() {
+        return metrics.getSaturation();
+    }
+
+    @Override
+    public double getWaitTimeP99() {
+        return metrics.getWaitTimeP99();
+    }
+
+    @Override
+    public double getRunTimeP99() {
+        return metrics.getRunTimeP99();
+    }
+
     public Collection<Task> getTasks() {
         return Collections.unmodifiableCollection(tasks);
     }
@@ -566,6 +625,11 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
 
         private Thread thread;
 
+        /**
+         * 任务提交时间，未被采样时为0
+         */
+        private long submitTime;
+
         @Override
         public void run() {
             while (running) {
@@ -599,6 +663,7 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
 
         private void doProcess() {
             // 已经被取出并开始执行任务
+            long startTime = metrics.onTaskStart(submitTime);
             try {
                 listeners.fireBeforeThreadProcess(thread, processor);
                 // 开始执行任务
@@ -608,12 +673,14 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
                 listeners.fireAfterThreadExecute(thread, runnable, t);
             } finally {
                 // 任务执行结束
+                metrics.onTaskDone(startTime);
                 fireTaskDone(this);
             }
         }
 
         private void doExecute() {
             // 已经被取出并开始执行任务
+            long startTime = metrics.onTaskStart(submitTime);
             try {
                 // 开始执行任务
                 listeners.fireBeforeThreadExecute(thread, runnable);
@@ -623,6 +690,7 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
                 listeners.fireAfterThreadExecute(thread, runnable, t);
             } finally {
                 // 任务执行结束
+                metrics.onTaskDone(startTime);
                 fireTaskDone(this);
             }
         }
@@ -642,6 +710,7 @@ public class ThreadPool implements ThreadService, ThreadPoolMBean {
         public void passive() {
             processor = null;
             runnable = null;
+            submitTime = 0;
             // 空闲线程回收到线程池，忙碌线程数递减
             ThreadPool.this.numBusy--;
         }
@@ -97,4 +97,42 @@ public class ThreadPoolFactory {
     public static ThreadPool createThreadPool(int minThread, int maxThread, ThreadFactory threadFactory) {
         return new ThreadPool(minThread, maxThread, threadFactory);
     }
+
+    /**
+     * 创建工作窃取线程池，每个工作线程拥有自己的任务队列，队列已满时扩展线程，线程数到达最大线程数时拒绝任务
+     *
+     * @param threadNum 核心线程数
+     * @param queueCapacity 队列容量
+     * @param threadNamePrefix 线程名前缀
+     */
+    public static WorkStealingThreadPool createWorkStealingThreadPool(int threadNum, int queueCapacity, String threadNamePrefix) {
+        return new WorkStealingThreadPool(threadNum, Math.max(threadNum, MAX_THREAD_NUM),
+                queueCapacity, new DefaultThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * 创建工作窃取线程池
+     *
+     * @param minThread 核心线程数
+     * @param maxThread 最大线程数
+     * @param queueCapacity 队列容量
+     * @param threadFactory 自定义线程创建工厂
+     */
+    public static WorkStealingThreadPool createWorkStealingThreadPool(int minThread, int maxThread,
+            int queueCapacity, ThreadFactory threadFactory) {
+        return new WorkStealingThreadPool(minThread, maxThread, queueCapacity, threadFactory);
+    }
+
+    /**
+     * 创建基于虚拟线程的线程池，当前JDK不支持虚拟线程时回退为普通线程池
+     *
+     * @param threadNum 回退为普通线程池时的初始线程数量
+     * @param threadNamePrefix 线程名前缀
+     */
+    public static ThreadService createVirtualThreadPool(int threadNum, String threadNamePrefix) {
+        if (VirtualThreadService.isSupported()) {
+            return new VirtualThreadService(threadNamePrefix);
+        }
+        return createCachedThreadPool(threadNum, threadNamePrefix);
+    }
 }
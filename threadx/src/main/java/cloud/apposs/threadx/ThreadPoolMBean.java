@@ -52,4 +52,29 @@ public interface ThreadPoolMBean {
 	 * @return
 	 */
 	boolean isTerminated();
+
+	/**
+	 * 返回执行完成的任务总数
+	 */
+	long getCompletedCount();
+
+	/**
+	 * 返回被拒绝的任务总数
+	 */
+	long getRejectedCount();
+
+	/**
+	 * 返回饱和度，到达1时任务被拒绝或者阻塞等待
+	 */
+	double getSaturation();
+
+	/**
+	 * 返回采样任务排队等待时间的99线，以毫秒为单位
+	 */
+	double getWaitTimeP99();
+
+	/**
+	 * 返回采样任务执行时间的99线，以毫秒为单位
+	 */
+	double getRunTimeP99();
 }
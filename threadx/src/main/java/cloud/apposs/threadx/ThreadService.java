@@ -4,6 +4,8 @@ import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 
+import cloud.apposs.util.ExecutorMetrics;
+
 /**
  * 线程池接口，用于管理所有线程
  */
@@ -140,6 +142,13 @@ public interface ThreadService extends Executor {
      */
     void awaitTermination() throws InterruptedException;
     
+    /**
+     * 获取线程池运行指标，包括任务排队等待时间、执行时间、拒绝数和饱和度
+     * 
+     * @return 线程池运行指标
+     */
+    ExecutorMetrics getMetrics();
+    
     /**
 	 * 添加线程池监听器
 	 * 
@@ -56,4 +56,16 @@ public interface ThreadServiceListener {
 	 * @param task 要执行的任务
 	 */
 	void afterThreadExecute(Thread worker, Runnable task, Throwable cause);
+
+	/**
+	 * 虚拟线程执行任务时被固定在载体线程上的监听，
+	 * 虚拟线程在synchronized块或者本地方法中阻塞时无法卸载，会一直占用载体平台线程，
+	 * 只有基于虚拟线程的线程池{@link VirtualThreadService}才会触发，默认不处理，已有的监听实现无需修改
+	 * 
+	 * @param worker 被固定的虚拟线程名称
+	 * @param pinnedTime 被固定的时长，以毫秒为单位
+	 * @param stackTrace 被固定时的调用栈
+	 */
+	default void threadPinned(String worker, long pinnedTime, String stackTrace) {
+	}
 }
@@ -104,4 +104,13 @@ public class ThreadServiceListenerSupport {
             listener.afterThreadExecute(worker, task, t);
         }
     }
+
+    /**
+     * 触发所有{@link ThreadServiceListener#threadPinned(String, long, String)}事件
+     */
+    public void fireThreadPinned(String worker, long pinnedTime, String stackTrace) {
+        for (ThreadServiceListener listener : listeners) {
+            listener.threadPinned(worker, pinnedTime, stackTrace);
+        }
+    }
 }
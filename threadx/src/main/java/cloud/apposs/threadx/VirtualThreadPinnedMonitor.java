@@ -0,0 +1,82 @@
+package cloud.apposs.threadx;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * 虚拟线程固定事件监控，通过JFR事件流订阅jdk.VirtualThreadPinned事件，
+ * 只处理指定线程名前缀的虚拟线程事件并交给{@link ThreadServiceListenerSupport}触发监听，
+ * 为兼容JDK8编译，所有JFR接口均通过反射调用，只有在支持虚拟线程的JDK上才会创建
+ */
+final class VirtualThreadPinnedMonitor {
+    private static final String EVENT_VIRTUAL_THREAD_PINNED = "jdk.VirtualThreadPinned";
+
+    private final String threadNamePrefix;
+
+    private final ThreadServiceListenerSupport listeners;
+
+    private final Object stream;
+
+    private final Method eventThread;
+
+    private final Method eventDuration;
+
+    private final Method eventStackTrace;
+
+    private final Method threadName;
+
+    VirtualThreadPinnedMonitor(String threadNamePrefix, long pinnedThreshold,
+            ThreadServiceListenerSupport listeners) throws Exception {
+        this.threadNamePrefix = threadNamePrefix;
+        this.listeners = listeners;
+        Class<?> eventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+        this.eventThread = eventClass.getMethod("getThread");
+        this.eventDuration = eventClass.getMethod("getDuration");
+        this.eventStackTrace = eventClass.getMethod("getStackTrace");
+        this.threadName = Class.forName("jdk.jfr.consumer.RecordedThread").getMethod("getJavaName");
+
+        Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+        Object stream = streamClass.getConstructor().newInstance();
+        Object settings = streamClass.getMethod("enable", String.class).invoke(stream, EVENT_VIRTUAL_THREAD_PINNED);
+        Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+        settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, Duration.ofMillis(pinnedThreshold));
+        settingsClass.getMethod("withStackTrace").invoke(settings);
+        streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, EVENT_VIRTUAL_THREAD_PINNED,
+                new Consumer<Object>() {
+                    @Override
+                    public void accept(Object event) {
+                        handlePinnedEvent(event);
+                    }
+                });
+        streamClass.getMethod("startAsync").invoke(stream);
+        this.stream = stream;
+    }
+
+    /**
+     * 关闭JFR事件流
+     */
+    void close() {
+        try {
+            stream.getClass().getMethod("close").invoke(stream);
+        } catch (Exception e) {
+            // 关闭失败不影响线程池关闭
+        }
+    }
+
+    private void handlePinnedEvent(Object event) {
+        try {
+            Object thread = eventThread.invoke(event);
+            String worker = thread == null ? null : (String) threadName.invoke(thread);
+            if (worker == null || !worker.startsWith(threadNamePrefix)) {
+                return;
+            }
+            Duration duration = (Duration) eventDuration.invoke(event);
+            Object stackTrace = eventStackTrace.invoke(event);
+            listeners.fireThreadPinned(worker, duration.toMillis(),
+                    stackTrace == null ? null : stackTrace.toString());
+        } catch (Exception e) {
+            // 事件解析失败时忽略该事件
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package cloud.apposs.threadx;
+
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import cloud.apposs.util.ExecutorMetrics;
+
+/**
+ * 基于虚拟线程的线程池，每个任务在一个新的虚拟线程中执行，
+ * 适用于同步阻塞调用较多的任务(如数据库、Redis同步请求)，阻塞时虚拟线程卸载，不会占用平台线程，
+ * 1. 只有JDK21及以上才支持虚拟线程，通过{@link #isSupported()}判断，不支持时通过{@link ThreadPoolFactory#createVirtualThreadPool(int, String)}回退为普通线程池
+ * 2. 虚拟线程在synchronized块中阻塞时会被固定在载体线程上，添加监听器后通过JFR事件流监控并触发{@link ThreadServiceListener#threadPinned(String, long, String)}
+ * 3. 为兼容JDK8编译，虚拟线程接口均通过反射调用
+ */
+public class VirtualThreadService implements ThreadService {
+    /**
+     * 虚拟线程构建方法，当前JDK不支持虚拟线程时为null
+     */
+    private static final Method VIRTUAL_THREAD_BUILDER;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            // JDK19/20中虚拟线程为预览特性，未开启预览时调用会抛出异常
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            ofVirtual = null;
+        }
+        VIRTUAL_THREAD_BUILDER = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+    /**
+     * 默认虚拟线程固定时长阈值，超过此时长的固定事件才会触发监听，以毫秒为单位
+     */
+    public static final long DEFAULT_PINNED_THRESHOLD = 20;
+
+    public static final String DEFAULT_THREAD_NAME_PREFIX = "VirtualThread-";
+
+    private final ThreadContext context = new ThreadContext(this);
+
+    private final java.util.concurrent.ThreadFactory threadFactory;
+
+    private final String threadNamePrefix;
+
+    private final long pinnedThreshold;
+
+    /**
+     * 正在执行任务的虚拟线程，用于关闭时中断
+     */
+    private final Set<Thread> workers = ConcurrentHashMap.<Thread>newKeySet();
+
+    private final AtomicInteger numBusy = new AtomicInteger();
+
+    /**
+     * 线程池运行指标，虚拟线程按需创建，饱和度以Integer.MAX_VALUE为总容量
+     */
+    private final ExecutorMetrics metrics = new ExecutorMetrics(new ExecutorMetrics.Saturation() {
+        @Override
+        public int getUsed() {
+            return numBusy.get();
+        }
+
+        @Override
+        public int getCapacity() {
+            return Integer.MAX_VALUE;
+        }
+    });
+
+    private final ThreadServiceListenerSupport listeners = new ThreadServiceListenerSupport(this);
+
+    private volatile VirtualThreadPinnedMonitor pinnedMonitor;
+
+    private final ReentrantLock mainLock = new ReentrantLock();
+
+    private final Condition termination = mainLock.newCondition();
+
+    private final RejectedExecutionHandler handler;
+
+    /**
+     * 线程池状态，同{@link ThreadPool}
+     */
+    private volatile int runState = ThreadPool.RUNNING;
+
+    public VirtualThreadService() {
+        this(DEFAULT_THREAD_NAME_PREFIX);
+    }
+
+    public VirtualThreadService(String threadNamePrefix) {
+        this(threadNamePrefix, DEFAULT_PINNED_THRESHOLD, ThreadPool.DEFAULT_REJECTED_EXECUTION_HANDLER);
+    }
+
+    /**
+     * 构造虚拟线程池
+     *
+     * @param threadNamePrefix 虚拟线程名前缀，同时用于过滤本线程池的虚拟线程固定事件
+     * @param pinnedThreshold 虚拟线程固定时长阈值，以毫秒为单位，小于等于0时不监控固定事件
+     * @param handler 线程池关闭后提交任务的拒绝策略
+     */
+    public VirtualThreadService(String threadNamePrefix, long pinnedThreshold, RejectedExecutionHandler handler) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("virtual thread unsupported in java " + System.getProperty("java.version"));
+        }
+        if (threadNamePrefix == null || threadNamePrefix.trim().isEmpty()) {
+            throw new IllegalArgumentException("threadNamePrefix");
+        }
+        if (handler == null) {
+            throw new NullPointerException();
+        }
+        this.threadNamePrefix = threadNamePrefix;
+        this.pinnedThreshold = pinnedThreshold;
+        this.handler = handler;
+        try {
+            Object builder = BUILDER_NAME.invoke(VIRTUAL_THREAD_BUILDER.invoke(null), threadNamePrefix, 1L);
+            this.threadFactory = (java.util.concurrent.ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (Exception e) {
+            throw new UnsupportedOperationException("virtual thread unsupported", e);
+        }
+    }
+
+    /**
+     * 判断当前JDK是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return VIRTUAL_THREAD_BUILDER != null;
+    }
+
+    /**
+     * 获取任务提交入口，虚拟线程按需创建，任何时候都有可用的任务
+     */
+    @Override
+    public Task getIdleTask() {
+        return getIdleTaskNow();
+    }
+
+    @Override
+    public Task getIdleTask(long waitTime) {
+        return getIdleTaskNow();
+    }
+
+    @Override
+    public Task getIdleTaskNow() {
+        if (isShutdown()) {
+            metrics.onTaskRejected();
+            handler.rejectedExecution(null, this);
+            return null;
+        }
+        return new SubmitTask(this, context);
+    }
+
+    @Override
+    public void execute(final Processor processor) {
+        if (processor == null) {
+            throw new NullPointerException();
+        }
+        final long submitTime = metrics.sample();
+        boolean started = doStart(new Runnable() {
+            @Override
+            public void run() {
+                Thread worker = Thread.currentThread();
+                long startTime = metrics.onTaskStart(submitTime);
+                try {
+                    listeners.fireBeforeThreadProcess(worker, processor);
+                    processor.process(context);
+                    listeners.fireAfterThreadProcess(worker, processor, null);
+                } catch (Throwable t) {
+                    listeners.fireAfterThreadProcess(worker, processor, t);
+                } finally {
+                    metrics.onTaskDone(startTime);
+                }
+            }
+        });
+        if (!started) {
+            metrics.onTaskRejected();
+            SubmitTask task = new SubmitTask(this, context);
+            task.processor = processor;
+            handler.rejectedExecution(task, this);
+        }
+    }
+
+    @Override
+    public void execute(final Runnable runnable) {
+        if (runnable == null) {
+            throw new NullPointerException();
+        }
+        final long submitTime = metrics.sample();
+        boolean started = doStart(new Runnable() {
+            @Override
+            public void run() {
+                Thread worker = Thread.currentThread();
+                long startTime = metrics.onTaskStart(submitTime);
+                try {
+                    listeners.fireBeforeThreadExecute(worker, runnable);
+                    runnable.run();
+                    listeners.fireAfterThreadExecute(worker, runnable, null);
+                } catch (Throwable t) {
+                    listeners.fireAfterThreadExecute(worker, runnable, t);
+                } finally {
+                    metrics.onTaskDone(startTime);
+                }
+            }
+        });
+        if (!started) {
+            metrics.onTaskRejected();
+            SubmitTask task = new SubmitTask(this, context);
+            task.runnable = runnable;
+            handler.rejectedExecution(task, this);
+        }
+    }
+
+    @Override
+    public <V> FutureTask<V> submit(Callable<V> callable) {
+        FutureTask<V> futureTask = new FutureTask<V>(callable);
+        execute((Runnable) futureTask);
+        return futureTask;
+    }
+
+    @Override
+    public <V> FutureTask<V> submit(Processable<V> processable) {
+        FutureTask<V> futureTask = new FutureTask<V>(processable);
+        execute((Processor) futureTask);
+        return futureTask;
+    }
+
+    /**
+     * 虚拟线程按需创建，不存在资源耗竭
+     */
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    /**
+     * 虚拟线程执行完任务即退出，不存在空闲线程
+     */
+    @Override
+    public int getNumIdle() {
+        return 0;
+    }
+
+    @Override
+    public int getNumBusy() {
+        return numBusy.get();
+    }
+
+    @Override
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    public String getThreadNamePrefix() {
+        return threadNamePrefix;
+    }
+
+    public long getPinnedThreshold() {
+        return pinnedThreshold;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown(false);
+    }
+
+    @Override
+    public void shutdownNow() {
+        shutdown(true);
+    }
+
+    @Override
+    public void shutdown(boolean interrupt) {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (runState < ThreadPool.SHUTDOWN) {
+                runState = ThreadPool.SHUTDOWN;
+            }
+            listeners.fireServiceShutdown();
+            if (interrupt) {
+                for (Thread worker : workers) {
+                    worker.interrupt();
+                }
+            }
+            tryTerminate();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    @Override
+    public final boolean isShutdown() {
+        return runState != ThreadPool.RUNNING;
+    }
+
+    @Override
+    public final boolean isTerminated() {
+        return runState == ThreadPool.TERMINATED;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (runState != ThreadPool.TERMINATED) {
+                if (timeout > 0) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = termination.awaitNanos(nanos);
+                } else {
+                    termination.await();
+                }
+            }
+            return true;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        awaitTermination(-1);
+    }
+
+    /**
+     * 添加监听器，第一次添加监听器时开启虚拟线程固定事件监控
+     */
+    @Override
+    public void addListener(ThreadServiceListener listener) {
+        listeners.add(listener);
+        if (listener != null && pinnedThreshold > 0 && pinnedMonitor == null) {
+            doStartPinnedMonitor();
+        }
+    }
+
+    @Override
+    public void removeListener(ThreadServiceListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 在新的虚拟线程中执行任务
+     *
+     * @return 线程池已关闭时返回false
+     */
+    private boolean doStart(final Runnable job) {
+        // 注意！先递增忙碌数再判断状态，保证关闭线程池时要么看到该任务，要么该任务看到线程池已关闭
+        numBusy.incrementAndGet();
+        if (isShutdown()) {
+            if (numBusy.decrementAndGet() == 0) {
+                fireTaskDone();
+            }
+            return false;
+        }
+        Thread worker = threadFactory.newThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    job.run();
+                } finally {
+                    workers.remove(Thread.currentThread());
+                    if (numBusy.decrementAndGet() == 0 && isShutdown()) {
+                        fireTaskDone();
+                    }
+                }
+            }
+        });
+        workers.add(worker);
+        worker.start();
+        return true;
+    }
+
+    private void doStartPinnedMonitor() {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (pinnedMonitor == null && !isShutdown()) {
+                pinnedMonitor = new VirtualThreadPinnedMonitor(threadNamePrefix, pinnedThreshold, listeners);
+            }
+        } catch (Exception e) {
+            // JFR不可用时不监控虚拟线程固定事件
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void fireTaskDone() {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            tryTerminate();
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    /**
+     * 在线程池已关闭且所有任务都执行完成的情况下将线程池状态改为TERMINATED，必须在mainLock锁内调用
+     */
+    private void tryTerminate() {
+        if (runState == ThreadPool.SHUTDOWN && numBusy.get() == 0) {
+            runState = ThreadPool.TERMINATED;
+            if (pinnedMonitor != null) {
+                pinnedMonitor.close();
+                pinnedMonitor = null;
+            }
+            termination.signalAll();
+            listeners.fireServiceTerminated();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder info = new StringBuilder();
+        info.append("{");
+        info.append("threadNamePrefix:").append(threadNamePrefix).append(", ");
+        info.append("numBusy:").append(numBusy.get()).append(", ");
+        info.append("shutdown:").append(isShutdown()).append(", ");
+        info.append("terminated:").append(isTerminated());
+        info.append("}");
+        return info.toString();
+    }
+}
@@ -0,0 +1,870 @@
+package cloud.apposs.threadx;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import cloud.apposs.util.ExecutorMetrics;
+
+/**
+ * 基于任务队列的工作窃取线程池，与{@link ThreadPool}获取空闲线程再执行任务不同，
+ * 1. 每个工作线程拥有自己的任务队列，外部提交的任务轮询分配到各工作线程，工作线程内提交的任务放入自己的队列，
+ * 工作线程从自己队列头部取任务，自己队列为空时从其他工作线程队列尾部窃取任务，减少线程间的争用
+ * 2. 所有队列中等待的任务总数不超过队列容量，队列已满时才扩展工作线程，线程数也已到达最大线程数时任务交给拒绝策略处理，
+ * 任务提交不会阻塞调用线程
+ * 3. 超过核心线程数的工作线程空闲超过保活时间后自动回收，回收时将队列中剩余的任务转移到其他工作线程
+ */
+public class WorkStealingThreadPool implements ThreadService, ThreadPoolMBean {
+    private final ThreadContext context = new ThreadContext(this);
+
+    /**
+     * 所有工作线程快照，只在mainLock锁内更新
+     */
+    private volatile Worker[] workers = new Worker[0];
+
+    /**
+     * 当前工作线程，用于将工作线程内提交的任务放入自己的队列
+     */
+    private final ThreadLocal<Worker> currentWorker = new ThreadLocal<Worker>();
+
+    /**
+     * 所有工作线程队列中等待执行的任务总数
+     */
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    /**
+     * 外部提交任务时轮询分配工作线程的序号
+     */
+    private final AtomicInteger nextWorker = new AtomicInteger();
+
+    /**
+     * 所有线程池监听器
+     */
+    private final ThreadServiceListenerSupport listeners = new ThreadServiceListenerSupport(this);
+
+    /**
+     * 线程池同步锁
+     */
+    private final ReentrantLock mainLock = new ReentrantLock();
+
+    /**
+     * 线程终结的条件锁
+     */
+    private final Condition termination = mainLock.newCondition();
+
+    /**
+     * 工作线程没有任务时的阻塞锁
+     */
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition notEmpty = idleLock.newCondition();
+
+    /**
+     * 获取空闲任务时等待队列有空余的阻塞锁
+     */
+    private final ReentrantLock fullLock = new ReentrantLock();
+    private final Condition notFull = fullLock.newCondition();
+
+    /**
+     * 核心线程数，空闲的核心线程不会被回收
+     */
+    private final int corePoolSize;
+
+    /**
+     * 最大线程数，只有在队列已满时才会扩展到核心线程数以上
+     */
+    private final int maxPoolSize;
+
+    /**
+     * 队列容量，即所有工作线程队列中等待执行的任务总数上限
+     */
+    private final int queueCapacity;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * 超过核心线程数的工作线程空闲保活时间，以毫秒为单位
+     */
+    private final long keepAliveTime;
+    public static final long DEFAULT_KEEP_ALIVE_TIME = 60000L;
+
+    private final ThreadFactory threadFactory;
+
+    private final RejectedExecutionHandler handler;
+
+    /**
+     * 空闲等待任务的工作线程数，只在idleLock锁内更新
+     */
+    private volatile int numIdle = 0;
+
+    /**
+     * 忙碌线程数
+     */
+    private final AtomicInteger numBusy = new AtomicInteger();
+
+    /**
+     * 线程池运行指标，饱和度为忙碌线程数加排队任务数占最大线程数加队列容量的比例
+     */
+    private final ExecutorMetrics metrics = new ExecutorMetrics(new ExecutorMetrics.Saturation() {
+        @Override
+        public int getUsed() {
+            return numBusy.get() + queueSize.get();
+        }
+
+        @Override
+        public int getCapacity() {
+            return maxPoolSize + queueCapacity;
+        }
+    });
+
+    /**
+     * 等待队列有空余的线程数，只在fullLock锁内更新
+     */
+    private volatile int numFullWaiters = 0;
+
+    /**
+     * 线程池状态，同{@link ThreadPool}
+     */
+    private volatile int runState = ThreadPool.RUNNING;
+
+    private final boolean enableJMX;
+
+    /**
+     * JMX常量
+     */
+    public static final String MBEAN_WORK_STEALING_THREAD_POOL =
+            WorkStealingThreadPool.class.getPackage().getName() + ":type=WorkStealingThreadPoolMBean";
+
+    public WorkStealingThreadPool(int corePoolSize, int maxPoolSize) {
+        this(corePoolSize, maxPoolSize, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public WorkStealingThreadPool(int corePoolSize, int maxPoolSize, int queueCapacity) {
+        this(corePoolSize, maxPoolSize, queueCapacity, ThreadPool.DEFAULT_THREAD_FACTORY);
+    }
+
+    public WorkStealingThreadPool(int corePoolSize, int maxPoolSize, int queueCapacity, ThreadFactory threadFactory) {
+        this(corePoolSize, maxPoolSize, queueCapacity, DEFAULT_KEEP_ALIVE_TIME, ThreadPool.DEFAULT_ENABLE_JMX,
+                threadFactory, ThreadPool.DEFAULT_REJECTED_EXECUTION_HANDLER);
+    }
+
+    public WorkStealingThreadPool(int corePoolSize, int maxPoolSize, int queueCapacity, long keepAliveTime,
+                                  boolean enableJMX, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+        if (corePoolSize <= 0 || corePoolSize > maxPoolSize) {
+            throw new IllegalArgumentException();
+        }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity");
+        }
+        if (keepAliveTime <= 0) {
+            throw new IllegalArgumentException("keepAliveTime");
+        }
+        if (threadFactory == null || handler == null) {
+            throw new NullPointerException();
+        }
+        this.corePoolSize = corePoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.queueCapacity = queueCapacity;
+        this.keepAliveTime = keepAliveTime;
+        this.threadFactory = threadFactory;
+        this.enableJMX = enableJMX;
+        this.handler = handler;
+        // 预先启动核心线程
+        for (int i = 0; i < corePoolSize; i++) {
+            doAddWorker(null);
+        }
+        // 初始化JMX
+        if (enableJMX) {
+            doInitJMX();
+        }
+    }
+
+    /**
+     * 获取任务提交入口，此线程池的任务由工作线程从队列中获取，返回的任务只负责将用户任务放入队列
+     * 队列已满并且线程数已到达最大线程数时返回null
+     */
+    @Override
+    public Task getIdleTaskNow() {
+        if (isShutdown() || isExhausted()) {
+            return null;
+        }
+        return new SubmitTask(this, context);
+    }
+
+    @Override
+    public Task getIdleTask() {
+        return getIdleTask(-1);
+    }
+
+    @Override
+    public Task getIdleTask(long waitTime) {
+        if (isShutdown()) {
+            metrics.onTaskRejected();
+            handler.rejectedExecution(null, this);
+            return null;
+        }
+        if (isExhausted()) {
+            listeners.fireServiceExhausted();
+            if (!doAwaitNotFull(waitTime)) {
+                return null;
+            }
+        }
+        return new SubmitTask(this, context);
+    }
+
+    @Override
+    public void execute(Processor processor) {
+        if (processor == null) {
+            throw new NullPointerException();
+        }
+        doExecute(new ProcessorJob(processor));
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        if (runnable == null) {
+            throw new NullPointerException();
+        }
+        doExecute(runnable);
+    }
+
+    @Override
+    public <V> FutureTask<V> submit(Callable<V> callable) {
+        FutureTask<V> futureTask = new FutureTask<V>(callable);
+        doExecute(futureTask);
+        return futureTask;
+    }
+
+    @Override
+    public <V> FutureTask<V> submit(Processable<V> processable) {
+        FutureTask<V> futureTask = new FutureTask<V>(processable);
+        doExecute(new ProcessorJob(futureTask));
+        return futureTask;
+    }
+
+    @Override
+    public void addListener(ThreadServiceListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(ThreadServiceListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return metrics.getCompletedCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return metrics.getRejectedCount();
+    }
+
+    @Override
+    public double getSaturation() {
+        return metrics.getSaturation();
+    }
+
+    @Override
+    public double getWaitTimeP99() {
+        return metrics.getWaitTimeP99();
+    }
+
+    @Override
+    public double getRunTimeP99() {
+        return metrics.getRunTimeP99();
+    }
+
+    @Override
+    public int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    /**
+     * 返回当前工作线程数
+     */
+    public int getPoolSize() {
+        return workers.length;
+    }
+
+    /**
+     * 返回所有工作线程队列中等待执行的任务总数
+     */
+    public int getQueueSize() {
+        return queueSize.get();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getKeepAliveTime() {
+        return keepAliveTime;
+    }
+
+    @Override
+    public int getNumIdle() {
+        return numIdle;
+    }
+
+    @Override
+    public int getNumBusy() {
+        return numBusy.get();
+    }
+
+    @Override
+    public boolean isExhausted() {
+        // 只有当队列已满并且线程数已到达最大线程数时判断为资源耗竭
+        return queueSize.get() >= queueCapacity && workers.length >= maxPoolSize;
+    }
+
+    @Override
+    public final boolean isShutdown() {
+        return runState != ThreadPool.RUNNING;
+    }
+
+    @Override
+    public final boolean isTerminated() {
+        return runState == ThreadPool.TERMINATED;
+    }
+
+    public boolean isEnableJMX() {
+        return enableJMX;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout) throws InterruptedException {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (runState != ThreadPool.TERMINATED) {
+                if (timeout > 0) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = termination.awaitNanos(nanos);
+                } else {
+                    termination.await();
+                }
+            }
+            return true;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitTermination() throws InterruptedException {
+        awaitTermination(-1);
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown(false);
+    }
+
+    @Override
+    public void shutdownNow() {
+        shutdown(true);
+    }
+
+    /**
+     * 关闭线程池，不中断时队列中已提交的任务会继续执行完成，中断时丢弃队列中未执行的任务
+     */
+    @Override
+    public void shutdown(boolean interrupt) {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            if (runState < ThreadPool.SHUTDOWN) {
+                runState = ThreadPool.SHUTDOWN;
+            }
+
+            listeners.fireServiceShutdown();
+
+            if (interrupt) {
+                for (Worker worker : workers) {
+                    while (worker.deque.pollFirst() != null) {
+                        queueSize.decrementAndGet();
+                    }
+                    worker.thread.interrupt();
+                }
+            }
+            tryTerminate();
+        } finally {
+            mainLock.unlock();
+        }
+        // 唤醒所有空闲线程退出
+        signalNotEmpty(true);
+        signalNotFull();
+    }
+
+    /**
+     * 提交任务到队列，队列已满时尝试扩展工作线程，线程数已到达最大线程数时交给拒绝策略处理
+     */
+    private void doExecute(Runnable job) {
+        long submitTime = metrics.sample();
+        if (submitTime != 0) {
+            // 只有被采样的任务才包装，未被采样的普通任务仍直接放入队列
+            job = new SampledJob(job, submitTime);
+        }
+        if (runState != ThreadPool.RUNNING) {
+            doReject(job);
+            return;
+        }
+        if (queueSize.incrementAndGet() <= queueCapacity) {
+            if (!doEnqueue(job)) {
+                queueSize.decrementAndGet();
+                doReject(job);
+            }
+            return;
+        }
+        queueSize.decrementAndGet();
+        // 队列已满，新建的工作线程直接执行该任务
+        if (doAddWorker(job)) {
+            return;
+        }
+        listeners.fireServiceExhausted();
+        doReject(job);
+    }
+
+    /**
+     * 将任务放入工作线程队列，工作线程内提交的任务放入自己的队列，外部提交的任务轮询分配
+     *
+     * @return 没有存活的工作线程时返回false
+     */
+    private boolean doEnqueue(Runnable job) {
+        Worker worker = currentWorker.get();
+        for (;;) {
+            if (worker == null || worker.retired) {
+                Worker[] ws = workers;
+                if (ws.length == 0) {
+                    return false;
+                }
+                worker = ws[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % ws.length];
+            }
+            worker.deque.offerLast(job);
+            // 工作线程在放入任务的同时已被回收并转移了队列，如果任务没被转移则重新分配
+            if (!worker.retired || !worker.deque.removeLastOccurrence(job)) {
+                break;
+            }
+            worker = null;
+        }
+        signalNotEmpty(false);
+        return true;
+    }
+
+    /**
+     * 从自己队列头部获取任务，自己队列为空时从其他工作线程队列尾部窃取任务
+     */
+    private Runnable doPollJob(Worker worker) {
+        Runnable job = worker.deque.pollFirst();
+        if (job == null) {
+            Worker[] ws = workers;
+            int length = ws.length;
+            int start = length > 1 ? ThreadLocalRandom.current().nextInt(length) : 0;
+            for (int i = 0; i < length && job == null; i++) {
+                Worker victim = ws[(start + i) % length];
+                if (victim != worker) {
+                    job = victim.deque.pollLast();
+                }
+            }
+        }
+        if (job != null) {
+            queueSize.decrementAndGet();
+            if (numFullWaiters > 0) {
+                signalNotFull();
+            }
+        }
+        return job;
+    }
+
+    /**
+     * 工作线程获取任务，没有任务时空闲等待，空闲超过保活时间或者线程池关闭时返回null，工作线程退出
+     */
+    private Runnable doTakeJob(Worker worker) {
+        for (;;) {
+            Runnable job = doPollJob(worker);
+            if (job != null) {
+                return job;
+            }
+            if (runState != ThreadPool.RUNNING) {
+                if (queueSize.get() == 0 && doRetire(worker, true)) {
+                    return null;
+                }
+                // 还有任务正在放入队列，让出CPU等待任务放入后继续执行
+                Thread.yield();
+                continue;
+            }
+            boolean timeout = false;
+            final ReentrantLock idleLock = this.idleLock;
+            idleLock.lock();
+            try {
+                numIdle++;
+                try {
+                    // 注意！计数和检查必须在锁内，否则提交任务时有可能看不到空闲线程而漏掉唤醒
+                    if (queueSize.get() > 0 || runState != ThreadPool.RUNNING) {
+                        continue;
+                    }
+                    timeout = notEmpty.awaitNanos(TimeUnit.MILLISECONDS.toNanos(keepAliveTime)) <= 0;
+                } finally {
+                    numIdle--;
+                }
+            } catch (InterruptedException e) {
+                // 只有关闭线程池时才会中断工作线程，重新检查线程池状态
+            } finally {
+                idleLock.unlock();
+            }
+            // 注意！回收必须在idleLock锁外，避免与回收时唤醒空闲线程的加锁顺序相反导致死锁
+            if (timeout && queueSize.get() == 0 && doRetire(worker, false)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 回收工作线程，并将其队列中剩余的任务转移到其他工作线程
+     *
+     * @param worker 要回收的工作线程
+     * @param shutdown 是否因线程池关闭而回收，否则只回收超过核心线程数的空闲线程
+     * @return 回收成功返回true
+     */
+    private boolean doRetire(Worker worker, boolean shutdown) {
+        boolean transferred = false;
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            Worker[] ws = workers;
+            if (!shutdown && ws.length <= corePoolSize) {
+                return false;
+            }
+            // 最后一个工作线程必须执行完队列中的任务才能退出
+            if (ws.length == 1 && !worker.deque.isEmpty()) {
+                return false;
+            }
+            worker.retired = true;
+            Worker[] newWorkers = new Worker[ws.length - 1];
+            int index = 0;
+            for (Worker w : ws) {
+                if (w != worker) {
+                    newWorkers[index++] = w;
+                }
+            }
+            workers = newWorkers;
+            Runnable job;
+            while (newWorkers.length > 0 && (job = worker.deque.pollFirst()) != null) {
+                newWorkers[(nextWorker.getAndIncrement() & Integer.MAX_VALUE) % newWorkers.length].deque.offerLast(job);
+                transferred = true;
+            }
+            tryTerminate();
+        } finally {
+            mainLock.unlock();
+        }
+        if (transferred) {
+            signalNotEmpty(true);
+        }
+        return true;
+    }
+
+    /**
+     * 添加工作线程
+     *
+     * @param firstTask 新工作线程第一个执行的任务，可为null
+     * @return 线程池已关闭或者已到达最大线程数时返回false
+     */
+    private boolean doAddWorker(Runnable firstTask) {
+        final ReentrantLock mainLock = this.mainLock;
+        mainLock.lock();
+        try {
+            Worker[] ws = workers;
+            if (runState != ThreadPool.RUNNING || ws.length >= maxPoolSize) {
+                return false;
+            }
+            Worker worker = new Worker(firstTask);
+            worker.thread = threadFactory.createThread(worker);
+            Worker[] newWorkers = Arrays.copyOf(ws, ws.length + 1);
+            newWorkers[ws.length] = worker;
+            workers = newWorkers;
+            worker.thread.start();
+            return true;
+        } finally {
+            mainLock.unlock();
+        }
+    }
+
+    private void doReject(Runnable job) {
+        metrics.onTaskRejected();
+        if (job instanceof SampledJob) {
+            job = ((SampledJob) job).job;
+        }
+        SubmitTask task = new SubmitTask(this, context);
+        if (job instanceof ProcessorJob) {
+            task.processor = ((ProcessorJob) job).processor;
+        } else {
+            task.runnable = job;
+        }
+        handler.rejectedExecution(task, this);
+    }
+
+    /**
+     * 等待队列有空余
+     *
+     * @param waitTime 等待超时时间，以毫秒为单位，小于0时为阻塞等待
+     * @return 队列有空余时返回true
+     */
+    private boolean doAwaitNotFull(long waitTime) {
+        final ReentrantLock fullLock = this.fullLock;
+        long nanos = TimeUnit.MILLISECONDS.toNanos(waitTime);
+        try {
+            fullLock.lockInterruptibly();
+            try {
+                numFullWaiters++;
+                while (isExhausted() && !isShutdown()) {
+                    if (waitTime > 0) {
+                        if (nanos <= 0) {
+                            return false;
+                        }
+                        nanos = notFull.awaitNanos(nanos);
+                    } else {
+                        notFull.await();
+                    }
+                }
+                return !isShutdown();
+            } finally {
+                numFullWaiters--;
+                fullLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 初始化JMX监控
+     */
+    private void doInitJMX() {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName threadPoolname = new ObjectName(MBEAN_WORK_STEALING_THREAD_POOL);
+            if (!mbs.isRegistered(threadPoolname)) {
+                // 类名与MBean接口名不对应，需要通过StandardMBean指定接口注册
+                mbs.registerMBean(new StandardMBean(this, ThreadPoolMBean.class), threadPoolname);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 告知空闲线程此时队列中有任务
+     */
+    private void signalNotEmpty(boolean all) {
+        if (numIdle <= 0 && !all) {
+            return;
+        }
+        final ReentrantLock idleLock = this.idleLock;
+        idleLock.lock();
+        try {
+            if (all) {
+                notEmpty.signalAll();
+            } else {
+                notEmpty.signal();
+            }
+        } finally {
+            idleLock.unlock();
+        }
+    }
+
+    private void signalNotFull() {
+        final ReentrantLock fullLock = this.fullLock;
+        fullLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            fullLock.unlock();
+        }
+    }
+
+    /**
+     * 在线程池已关闭且所有工作线程都已退出的情况下将线程池状态改为TERMINATED，彻底终结线程池，必须在mainLock锁内调用
+     */
+    private void tryTerminate() {
+        if (runState == ThreadPool.SHUTDOWN && workers.length == 0) {
+            runState = ThreadPool.TERMINATED;
+            termination.signalAll();
+            listeners.fireServiceTerminated();
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder info = new StringBuilder();
+        info.append("{");
+        info.append("poolSize:").append(workers.length).append(", ");
+        info.append("queueSize:").append(queueSize.get()).append(", ");
+        info.append("numIdle:").append(numIdle).append(", ");
+        info.append("numBusy:").append(numBusy.get()).append(", ");
+        info.append("shutdown:").append(isShutdown()).append(", ");
+        info.append("terminated:").append(isTerminated());
+        info.append("}");
+        return info.toString();
+    }
+
+    /**
+     * 工作线程，循环从队列中获取任务执行
+     */
+    private final class Worker implements Runnable {
+        private final ConcurrentLinkedDeque<Runnable> deque = new ConcurrentLinkedDeque<Runnable>();
+
+        private Runnable firstTask;
+
+        private Thread thread;
+
+        /**
+         * 是否已经回收，回收后提交到该工作线程的任务需要重新分配
+         */
+        private volatile boolean retired = false;
+
+        private Worker(Runnable firstTask) {
+            this.firstTask = firstTask;
+        }
+
+        @Override
+        public void run() {
+            currentWorker.set(this);
+            Runnable job = firstTask;
+            firstTask = null;
+            try {
+                while (job != null || (job = doTakeJob(this)) != null) {
+                    doRunJob(job);
+                    job = null;
+                }
+            } finally {
+                currentWorker.remove();
+                if (!retired) {
+                    doRetire(this, true);
+                }
+            }
+        }
+
+        private void doRunJob(Runnable job) {
+            long startTime = 0;
+            if (job instanceof SampledJob) {
+                startTime = metrics.onTaskStart(((SampledJob) job).submitTime);
+                job = ((SampledJob) job).job;
+            }
+            numBusy.incrementAndGet();
+            try {
+                if (job instanceof ProcessorJob) {
+                    Processor processor = ((ProcessorJob) job).processor;
+                    try {
+                        listeners.fireBeforeThreadProcess(thread, processor);
+                        processor.process(context);
+                        listeners.fireAfterThreadProcess(thread, processor, null);
+                    } catch (Throwable t) {
+                        listeners.fireAfterThreadProcess(thread, processor, t);
+                    }
+                } else {
+                    try {
+                        listeners.fireBeforeThreadExecute(thread, job);
+                        job.run();
+                        listeners.fireAfterThreadExecute(thread, job, null);
+                    } catch (Throwable t) {
+                        listeners.fireAfterThreadExecute(thread, job, t);
+                    }
+                }
+            } finally {
+                numBusy.decrementAndGet();
+                metrics.onTaskDone(startTime);
+                // 清除任务中设置的中断状态，避免影响后续任务的执行
+                if (runState == ThreadPool.RUNNING) {
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "{name:" + thread.getName() + ", queueSize:" + deque.size() + "}";
+        }
+    }
+
+    /**
+     * 处理器任务包装，普通任务直接放入队列不需要包装，
+     * 工作线程会拆包执行并触发处理器监听，直接执行包装时以线程池上下文执行处理器
+     */
+    private final class ProcessorJob implements Runnable {
+        private final Processor processor;
+
+        private ProcessorJob(Processor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public void run() {
+            processor.process(context);
+        }
+    }
+
+    /**
+     * 被采样任务的包装，记录任务提交时间，
+     * 工作线程会拆包执行并记录耗时，直接执行包装时同样记录排队等待时间和执行时间
+     */
+    final class SampledJob implements Runnable {
+        private final Runnable job;
+
+        private final long submitTime;
+
+        SampledJob(Runnable job, long submitTime) {
+            this.job = job;
+            this.submitTime = submitTime;
+        }
+
+        @Override
+        public void run() {
+            long startTime = metrics.onTaskStart(submitTime);
+            try {
+                job.run();
+            } finally {
+                metrics.onTaskDone(startTime);
+            }
+        }
+    }
+
+    /**
+     * 拒绝时在提交任务的线程中直接执行任务，线程池已关闭时丢弃任务
+     */
+    public static class CallerRunsPolicy implements RejectedExecutionHandler {
+        public CallerRunsPolicy() {
+        }
+
+        @Override
+        public void rejectedExecution(ThreadService.Task task, ThreadService pool) {
+            if (task != null && !pool.isShutdown()) {
+                task.run();
+            }
+        }
+    }
+}
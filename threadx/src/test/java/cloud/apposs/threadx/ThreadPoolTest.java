@@ -1,6 +1,10 @@
 package cloud.apposs.threadx;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import cloud.apposs.threadx.sample.ProcessableSample;
 import cloud.apposs.threadx.sample.ProcessorSample;
@@ -115,6 +119,35 @@ public class ThreadPoolTest {
 		System.out.println("主线程执行结束");
 	}
 	
+	/**
+	 * 测试线程池运行指标，采样率为1时所有任务都被采样
+	 */
+	@Test
+	public void testThreadPoolMetrics() throws Exception {
+		ThreadPool pool = new ThreadPool(2);
+		pool.getMetrics().setSampleRate(1);
+		final CountDownLatch latch = new CountDownLatch(10);
+		for (int i = 0; i < 10; i++) {
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Thread.sleep(5);
+					} catch (InterruptedException e) {
+					}
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		pool.shutdown();
+		pool.awaitTermination(1000);
+		assertEquals(10, pool.getCompletedCount());
+		assertEquals(10, pool.getMetrics().getRunTime().getCount());
+		assertTrue(pool.getRunTimeP99() >= 5);
+		assertEquals(0, pool.getSaturation(), 0.001);
+	}
+	
 	@Test
 	public void testThreadPoolStatics() {
 		ThreadService pool = new ThreadPool();
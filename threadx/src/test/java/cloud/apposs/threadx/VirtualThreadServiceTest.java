@@ -0,0 +1,112 @@
+package cloud.apposs.threadx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cloud.apposs.threadx.sample.ThreadServiceListenerSample;
+import org.junit.Test;
+
+public class VirtualThreadServiceTest {
+	/**
+	 * 测试不支持虚拟线程的JDK回退为普通线程池
+	 */
+	@Test
+	public void testCreateVirtualThreadPool() throws Exception {
+		ThreadService pool = ThreadPoolFactory.createVirtualThreadPool(2, "Virtual-");
+		System.out.println("java " + System.getProperty("java.version") + " virtual thread supported: "
+				+ VirtualThreadService.isSupported() + ", pool: " + pool.getClass().getSimpleName());
+		assertEquals(VirtualThreadService.isSupported(), pool instanceof VirtualThreadService);
+		final CountDownLatch latch = new CountDownLatch(10);
+		for (int i = 0; i < 10; i++) {
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		pool.shutdown();
+	}
+
+	/**
+	 * 测试大量阻塞任务同时执行，每个任务一个虚拟线程
+	 */
+	@Test
+	public void testBlockingTask() throws Exception {
+		assumeTrue(VirtualThreadService.isSupported());
+		VirtualThreadService pool = new VirtualThreadService("Virtual-");
+		final int count = 10000;
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(count);
+		for (int i = 0; i < count; i++) {
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+					}
+					done.countDown();
+				}
+			});
+		}
+		assertEquals(count, pool.getNumBusy());
+		start.countDown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		Future<String> future = pool.submit(new Processable<String>() {
+			@Override
+			public String process(ThreadContext context) throws Exception {
+				return Thread.currentThread().getName();
+			}
+		});
+		assertTrue(future.await(1000));
+		assertTrue(future.getNow().startsWith("Virtual-"));
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1000));
+		assertEquals(0, pool.getNumBusy());
+	}
+
+	/**
+	 * 测试虚拟线程在synchronized块中阻塞时触发固定事件监听
+	 */
+	@Test
+	public void testThreadPinned() throws Exception {
+		assumeTrue(VirtualThreadService.isSupported());
+		VirtualThreadService pool = new VirtualThreadService("Pinned-", 10, ThreadPool.DEFAULT_REJECTED_EXECUTION_HANDLER);
+		final AtomicInteger pinned = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(1);
+		pool.addListener(new ThreadServiceListenerSample() {
+			@Override
+			public void threadPinned(String worker, long pinnedTime, String stackTrace) {
+				System.out.println("worker:" + worker + " pinned " + pinnedTime + "ms");
+				pinned.incrementAndGet();
+				latch.countDown();
+			}
+		});
+		final Object lock = new Object();
+		for (int i = 0; i < 10 && latch.getCount() > 0; i++) {
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					synchronized (lock) {
+						try {
+							Thread.sleep(50);
+						} catch (InterruptedException e) {
+						}
+					}
+				}
+			});
+			Thread.sleep(200);
+		}
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertTrue(pinned.get() > 0);
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1000));
+	}
+}
@@ -0,0 +1,237 @@
+package cloud.apposs.threadx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class WorkStealingThreadPoolTest {
+	@Test
+	public void testExecuteTask() throws Exception {
+		ThreadService pool = new WorkStealingThreadPool(4, 4, 100000);
+		final int count = 10000;
+		final AtomicInteger executed = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(count);
+		for (int i = 0; i < count; i++) {
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					executed.incrementAndGet();
+					latch.countDown();
+				}
+			});
+		}
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		Future<String> future = pool.submit(new Processable<String>() {
+			@Override
+			public String process(ThreadContext context) throws Exception {
+				return "processed";
+			}
+		});
+		assertTrue(future.await(1000));
+		assertEquals("processed", future.getNow());
+		assertEquals(count, executed.get());
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1000));
+	}
+
+	/**
+	 * 测试队列已满并且线程数到达最大线程数时拒绝任务
+	 */
+	@Test
+	public void testQueueCapacityReject() throws Exception {
+		WorkStealingThreadPool pool = new WorkStealingThreadPool(1, 1, 2);
+		final CountDownLatch block = new CountDownLatch(1);
+		Runnable task = new BlockTask(block);
+		pool.execute(task);
+		awaitBusy(pool, 1);
+		pool.execute(task);
+		pool.execute(task);
+		assertTrue(pool.getQueueSize() >= 2);
+		assertTrue(pool.isExhausted());
+		assertEquals(1.0, pool.getSaturation(), 0.001);
+		assertEquals(null, pool.getIdleTaskNow());
+		try {
+			pool.execute(task);
+			fail();
+		} catch (RejectedExecutionException e) {
+		}
+		assertEquals(1, pool.getRejectedCount());
+		block.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1000));
+		assertEquals(0, pool.getQueueSize());
+		assertEquals(3, pool.getCompletedCount());
+	}
+
+	/**
+	 * 测试拒绝策略在调用线程中直接执行任务
+	 */
+	@Test
+	public void testCallerRunsPolicy() throws Exception {
+		WorkStealingThreadPool pool = new WorkStealingThreadPool(1, 1, 1, WorkStealingThreadPool.DEFAULT_KEEP_ALIVE_TIME,
+				false, ThreadPool.DEFAULT_THREAD_FACTORY, new WorkStealingThreadPool.CallerRunsPolicy());
+		final CountDownLatch block = new CountDownLatch(1);
+		pool.execute(new BlockTask(block));
+		awaitBusy(pool, 1);
+		pool.execute(new BlockTask(block));
+		final Thread caller = Thread.currentThread();
+		final AtomicInteger callerRuns = new AtomicInteger();
+		pool.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (Thread.currentThread() == caller) {
+					callerRuns.incrementAndGet();
+				}
+			}
+		});
+		assertEquals(1, callerRuns.get());
+		block.countDown();
+		pool.shutdown();
+	}
+
+	/**
+	 * 测试工作线程阻塞时其队列中的任务被其他工作线程窃取执行
+	 */
+	@Test
+	public void testWorkStealing() throws Exception {
+		final ThreadService pool = new WorkStealingThreadPool(2, 2, 1000);
+		final int count = 100;
+		final CountDownLatch done = new CountDownLatch(count);
+		final AtomicInteger stolen = new AtomicInteger();
+		final CountDownLatch finish = new CountDownLatch(1);
+		pool.execute(new Runnable() {
+			@Override
+			public void run() {
+				final Thread owner = Thread.currentThread();
+				// 工作线程内提交的任务放入自己的队列，自己阻塞等待只能由其他工作线程窃取执行
+				for (int i = 0; i < count; i++) {
+					pool.execute(new Runnable() {
+						@Override
+						public void run() {
+							if (Thread.currentThread() != owner) {
+								stolen.incrementAndGet();
+							}
+							done.countDown();
+						}
+					});
+				}
+				try {
+					if (done.await(5, TimeUnit.SECONDS)) {
+						finish.countDown();
+					}
+				} catch (InterruptedException e) {
+				}
+			}
+		});
+		assertTrue(finish.await(6, TimeUnit.SECONDS));
+		assertEquals(count, stolen.get());
+		pool.shutdown();
+	}
+
+	/**
+	 * 测试队列已满时扩展线程，空闲超过保活时间后回收到核心线程数
+	 */
+	@Test
+	public void testKeepAliveShrink() throws Exception {
+		WorkStealingThreadPool pool = new WorkStealingThreadPool(1, 4, 1, 100, false,
+				ThreadPool.DEFAULT_THREAD_FACTORY, ThreadPool.DEFAULT_REJECTED_EXECUTION_HANDLER);
+		final CountDownLatch block = new CountDownLatch(1);
+		pool.execute(new BlockTask(block));
+		awaitBusy(pool, 1);
+		for (int i = 0; i < 4; i++) {
+			pool.execute(new BlockTask(block));
+		}
+		assertEquals(4, pool.getPoolSize());
+		block.countDown();
+		long start = System.currentTimeMillis();
+		while (pool.getPoolSize() > 1 && System.currentTimeMillis() - start < 3000) {
+			Thread.sleep(50);
+		}
+		System.out.println(pool);
+		assertEquals(1, pool.getPoolSize());
+		assertEquals(0, pool.getQueueSize());
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1000));
+	}
+
+	/**
+	 * 测试关闭线程池时队列中已提交的任务继续执行完成，关闭后提交的任务被拒绝
+	 */
+	@Test
+	public void testShutdownDrainQueue() throws Exception {
+		WorkStealingThreadPool pool = new WorkStealingThreadPool(2, 2, 1000);
+		final AtomicInteger executed = new AtomicInteger();
+		for (int i = 0; i < 500; i++) {
+			pool.execute(new Runnable() {
+				@Override
+				public void run() {
+					executed.incrementAndGet();
+				}
+			});
+		}
+		pool.shutdown();
+		try {
+			pool.execute(new BlockTask(new CountDownLatch(0)));
+			fail();
+		} catch (RejectedExecutionException e) {
+		}
+		assertTrue(pool.awaitTermination(3000));
+		assertTrue(pool.isTerminated());
+		assertFalse(pool.getPoolSize() > 0);
+		assertEquals(500, executed.get());
+	}
+
+	private static void awaitBusy(ThreadService pool, int numBusy) throws InterruptedException {
+		while (pool.getNumBusy() < numBusy) {
+			Thread.sleep(1);
+		}
+	}
+
+	private static class BlockTask implements Runnable {
+		private final CountDownLatch block;
+
+		private BlockTask(CountDownLatch block) {
+			this.block = block;
+		}
+
+		@Override
+		public void run() {
+			try {
+				block.await();
+			} catch (InterruptedException e) {
+			}
+		}
+	}
+
+	/**
+	 * 测试直接执行被采样任务的包装时执行原任务并记录耗时
+	 */
+	@Test
+	public void testSampledJobRun() throws Exception {
+		WorkStealingThreadPool pool = new WorkStealingThreadPool(1, 1);
+		final AtomicInteger executed = new AtomicInteger();
+		long completed = pool.getMetrics().getCompletedCount();
+		long sampled = pool.getMetrics().getRunTime().getCount();
+		WorkStealingThreadPool.SampledJob job = pool.new SampledJob(new Runnable() {
+			@Override
+			public void run() {
+				executed.incrementAndGet();
+			}
+		}, System.nanoTime());
+		job.run();
+		assertEquals(1, executed.get());
+		assertEquals(completed + 1, pool.getMetrics().getCompletedCount());
+		assertEquals(sampled + 1, pool.getMetrics().getRunTime().getCount());
+		assertEquals(sampled + 1, pool.getMetrics().getWaitTime().getCount());
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(1000));
+	}
+}
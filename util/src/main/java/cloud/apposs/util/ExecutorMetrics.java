@@ -0,0 +1,279 @@
+package cloud.apposs.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 线程池运行指标，统计任务排队等待时间、执行时间、拒绝数和饱和度，
+ * 1. 任务提交时通过{@link #sample()}按采样率决定是否采样，只有被采样的任务才调用System.nanoTime()并记录耗时直方图，
+ * 未被采样的任务只需一次随机数判断和一次计数，保证每个任务的统计开销在几十纳秒以内
+ * 2. 饱和度由线程池通过{@link Saturation}提供，在读取指标时才计算
+ * 3. 需要对外暴露的指标通过{@link #register(String, ExecutorMetrics)}注册，注册后可通过JMX和Prometheus查看
+ * <pre>
+ * long submitTime = metrics.sample();
+ * // 任务排队...
+ * long startTime = metrics.onTaskStart(submitTime);
+ * // 任务执行...
+ * metrics.onTaskDone(startTime);
+ * </pre>
+ */
+public final class ExecutorMetrics implements ExecutorMetricsMBean {
+    public static final int DEFAULT_SAMPLE_RATE = 16;
+
+    public static final String MBEAN_EXECUTOR_METRICS =
+            ExecutorMetrics.class.getPackage().getName() + ":type=ExecutorMetrics,name=";
+
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * 所有注册的线程池运行指标
+     */
+    private static final Map<String, ExecutorMetrics> registry = new ConcurrentHashMap<String, ExecutorMetrics>();
+
+    private final Histogram waitTime = new Histogram();
+
+    private final Histogram runTime = new Histogram();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final Saturation saturation;
+
+    /**
+     * 采样掩码，随机数与掩码相与为0时采样，采样率为2的幂次
+     */
+    private volatile int sampleMask;
+
+    public ExecutorMetrics(Saturation saturation) {
+        this(saturation, DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * 构造线程池运行指标
+     *
+     * @param saturation 饱和度数据来源
+     * @param sampleRate 采样率，即每多少个任务采样一个，向上取整为2的幂次，为1时采样所有任务
+     */
+    public ExecutorMetrics(Saturation saturation, int sampleRate) {
+        if (saturation == null) {
+            throw new IllegalArgumentException("saturation");
+        }
+        this.saturation = saturation;
+        setSampleRate(sampleRate);
+    }
+
+    /**
+     * 注册线程池运行指标，同时注册到JMX，同名的指标会被替换
+     *
+     * @param name 指标名称，一般为线程名前缀
+     * @param metrics 线程池运行指标
+     */
+    public static void register(String name, ExecutorMetrics metrics) {
+        if (StrUtil.isEmpty(name)) {
+            throw new IllegalArgumentException("name");
+        }
+        if (metrics == null) {
+            throw new IllegalArgumentException("metrics");
+        }
+        registry.put(name, metrics);
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(MBEAN_EXECUTOR_METRICS + ObjectName.quote(name));
+            if (mbs.isRegistered(objectName)) {
+                mbs.unregisterMBean(objectName);
+            }
+            mbs.registerMBean(metrics, objectName);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 注销线程池运行指标
+     */
+    public static void unregister(String name) {
+        if (name == null || registry.remove(name) == null) {
+            return;
+        }
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(MBEAN_EXECUTOR_METRICS + ObjectName.quote(name));
+            if (mbs.isRegistered(objectName)) {
+                mbs.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            // 注销失败不影响线程池关闭
+        }
+    }
+
+    /**
+     * 获取所有注册的线程池运行指标
+     */
+    public static Map<String, ExecutorMetrics> getRegistry() {
+        return Collections.unmodifiableMap(registry);
+    }
+
+    /**
+     * 任务提交时判断是否采样
+     *
+     * @return 被采样时返回当前纳秒时间，否则返回0
+     */
+    public long sample() {
+        if ((ThreadLocalRandom.current().nextInt() & sampleMask) != 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        // 避免与未采样的0值混淆
+        return now == 0 ? 1 : now;
+    }
+
+    /**
+     * 任务开始执行，被采样的任务记录排队等待时间
+     *
+     * @param submitTime {@link #sample()}的返回值
+     * @return 被采样时返回开始执行的纳秒时间，否则返回0
+     */
+    public long onTaskStart(long submitTime) {
+        if (submitTime == 0) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        waitTime.record(now - submitTime);
+        return now == 0 ? 1 : now;
+    }
+
+    /**
+     * 任务执行完成，被采样的任务记录执行时间
+     *
+     * @param startTime {@link #onTaskStart(long)}的返回值
+     */
+    public void onTaskDone(long startTime) {
+        completed.increment();
+        if (startTime != 0) {
+            runTime.record(System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * 任务被拒绝
+     */
+    public void onTaskRejected() {
+        rejected.increment();
+    }
+
+    /**
+     * 获取排队等待时间直方图，以纳秒为单位
+     */
+    public Histogram getWaitTime() {
+        return waitTime;
+    }
+
+    /**
+     * 获取执行时间直方图，以纳秒为单位
+     */
+    public Histogram getRunTime() {
+        return runTime;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleMask + 1;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        if (sampleRate <= 0) {
+            throw new IllegalArgumentException("sampleRate");
+        }
+        int rate = 1;
+        while (rate < sampleRate && rate < (1 << 30)) {
+            rate <<= 1;
+        }
+        this.sampleMask = rate - 1;
+    }
+
+    @Override
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public double getSaturation() {
+        int capacity = saturation.getCapacity();
+        if (capacity <= 0) {
+            return 0;
+        }
+        return Math.min(1.0, (double) saturation.getUsed() / capacity);
+    }
+
+    @Override
+    public double getWaitTimeMean() {
+        return waitTime.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getWaitTimeP99() {
+        return waitTime.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getWaitTimeMax() {
+        return waitTime.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getRunTimeMean() {
+        return runTime.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getRunTimeP99() {
+        return runTime.getPercentile(99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getRunTimeMax() {
+        return runTime.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder info = new StringBuilder();
+        info.append("{");
+        info.append("completed:").append(getCompletedCount()).append(", ");
+        info.append("rejected:").append(getRejectedCount()).append(", ");
+        info.append("saturation:").append(getSaturation()).append(", ");
+        info.append("waitTime:").append(waitTime).append(", ");
+        info.append("runTime:").append(runTime);
+        info.append("}");
+        return info.toString();
+    }
+
+    /**
+     * 线程池饱和度数据来源
+     */
+    public interface Saturation {
+        /**
+         * 已占用的容量，如忙碌线程数加排队任务数
+         */
+        int getUsed();
+
+        /**
+         * 总容量，如最大线程数加队列容量
+         */
+        int getCapacity();
+    }
+}
@@ -0,0 +1,38 @@
+package cloud.apposs.util;
+
+/**
+ * ExecutorMetrics JMX，耗时均以毫秒为单位
+ */
+public interface ExecutorMetricsMBean {
+    /**
+     * 采样率，每多少个任务采样一个任务的耗时
+     */
+    int getSampleRate();
+
+    /**
+     * 执行完成的任务总数
+     */
+    long getCompletedCount();
+
+    /**
+     * 被拒绝的任务总数
+     */
+    long getRejectedCount();
+
+    /**
+     * 饱和度，即已占用容量占总容量的比例，到达1时任务被拒绝或者阻塞等待
+     */
+    double getSaturation();
+
+    double getWaitTimeMean();
+
+    double getWaitTimeP99();
+
+    double getWaitTimeMax();
+
+    double getRunTimeMean();
+
+    double getRunTimeP99();
+
+    double getRunTimeMax();
+}
@@ -0,0 +1,89 @@
+package cloud.apposs.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestExecutorMetrics {
+    @Test
+    public void testHistogramPercentile() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(1000, histogram.getMax());
+        Assert.assertEquals(500.5, histogram.getMean(), 0.001);
+        long p50 = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        // 分桶误差不超过25%
+        Assert.assertTrue(p50 >= 500 && p50 <= 625);
+        Assert.assertTrue(p99 >= 990 && p99 <= 1000);
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void testHistogramBucket() {
+        long[] values = {0, 1, 3, 4, 7, 8, 100, 1023, 1024, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = Histogram.indexOf(value);
+            Assert.assertTrue(Histogram.upperBoundOf(index) >= value);
+            if (index > 0) {
+                Assert.assertTrue(Histogram.upperBoundOf(index - 1) < value);
+            }
+        }
+    }
+
+    @Test
+    public void testSample() {
+        ExecutorMetrics metrics = new ExecutorMetrics(new FixedSaturation(3, 4), 10);
+        Assert.assertEquals(16, metrics.getSampleRate());
+        int sampled = 0;
+        for (int i = 0; i < 160000; i++) {
+            long startTime = metrics.onTaskStart(metrics.sample());
+            if (startTime != 0) {
+                sampled++;
+            }
+            metrics.onTaskDone(startTime);
+        }
+        metrics.onTaskRejected();
+        Assert.assertEquals(160000, metrics.getCompletedCount());
+        Assert.assertEquals(1, metrics.getRejectedCount());
+        Assert.assertEquals(sampled, metrics.getWaitTime().getCount());
+        Assert.assertEquals(sampled, metrics.getRunTime().getCount());
+        Assert.assertTrue(sampled > 8000 && sampled < 12000);
+        Assert.assertEquals(0.75, metrics.getSaturation(), 0.001);
+    }
+
+    @Test
+    public void testRegister() {
+        ExecutorMetrics metrics = new ExecutorMetrics(new FixedSaturation(0, 0));
+        ExecutorMetrics.register("Test-ThreadPool", metrics);
+        Assert.assertSame(metrics, ExecutorMetrics.getRegistry().get("Test-ThreadPool"));
+        ExecutorMetrics.unregister("Test-ThreadPool");
+        Assert.assertNull(ExecutorMetrics.getRegistry().get("Test-ThreadPool"));
+        Assert.assertEquals(0, metrics.getSaturation(), 0.001);
+    }
+
+    private static class FixedSaturation implements ExecutorMetrics.Saturation {
+        private final int used;
+
+        private final int capacity;
+
+        private FixedSaturation(int used, int capacity) {
+            this.used = used;
+            this.capacity = capacity;
+        }
+
+        @Override
+        public int getUsed() {
+            return used;
+        }
+
+        @Override
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+}